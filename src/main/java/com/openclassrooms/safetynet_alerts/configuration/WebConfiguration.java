@@ -0,0 +1,34 @@
+package com.openclassrooms.safetynet_alerts.configuration;
+
+import com.openclassrooms.safetynet_alerts.controller.DatasetEtagInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration Spring MVC : enregistre les requêtes conditionnelles sur tous les endpoints en lecture.
+ *
+ * <p>
+ * Seul GET /import en est exclu : l'avancement d'un import change sans que la version du jeu de données ne change.
+ * </p>
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final DatasetEtagInterceptor datasetEtagInterceptor;
+
+    /**
+     * @param datasetEtagInterceptor intercepteur répondant 304 lorsque le jeu de données n'a pas changé
+     */
+    public WebConfiguration(DatasetEtagInterceptor datasetEtagInterceptor) {
+        this.datasetEtagInterceptor = datasetEtagInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(datasetEtagInterceptor)
+                .addPathPatterns("/firestation", "/phoneAlert", "/fire", "/fire/batch", "/flood/stations",
+                        "/childAlert", "/personInfo*", "/communityEmail",
+                        "/person", "/medicalRecord", "/export");
+    }
+}
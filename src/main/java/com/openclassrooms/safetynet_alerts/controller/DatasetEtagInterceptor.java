@@ -0,0 +1,71 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Requêtes conditionnelles sur les endpoints en lecture, consultés en boucle par les tableaux de bord
+ * et les tâches de synchronisation.
+ *
+ * <p>
+ * Chaque réponse GET porte un ETag formé de l'identifiant du chargement des données, du numéro
+ * de la dernière modification du jeu de données et de la date du jour, puisque les âges affichés changent
+ * aussi à minuit. D'un démarrage à l'autre, un même numéro de modification peut désigner un autre contenu
+ * (identifiants des enregistrements réattribués, numéros repris après compaction du journal) : l'identifiant
+ * du chargement empêche qu'un ETag obtenu avant un redémarrage donne un 304 à tort. Une requête dont l'en-tête
+ * {@code If-None-Match} correspond à l'ETag courant reçoit un 304 avant l'appel du contrôleur :
+ * ni le service ni la sérialisation JSON ne sont exécutés.
+ * </p>
+ *
+ * <p>
+ * L'ETag est calculé avant la réponse : si une modification a lieu entre les deux, le client reçoit
+ * un ETag plus ancien que le contenu et recevra simplement une réponse complète à sa prochaine requête.
+ * </p>
+ */
+@Component
+public class DatasetEtagInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetEtagInterceptor.class);
+
+    private final DataStore dataStore;
+    private final Clock clock;
+
+    /**
+     * @param dataStore jeu de données dont le chargement et la version déterminent l'ETag
+     * @param clock     horloge donnant la date du jour
+     */
+    public DatasetEtagInterceptor(DataStore dataStore, Clock clock) {
+        this.dataStore = dataStore;
+        this.clock = clock;
+    }
+
+    /**
+     * @return ETag courant, formé de l'identifiant du chargement, de la version du jeu de données et de la date du jour
+     */
+    public String etag() {
+        return "\"" + dataStore.getLoadId() + "-" + dataStore.getSequence() + "-" + LocalDate.now(clock).toEpochDay() + "\"";
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+
+        String etag = etag();
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            logger.debug("{} {} not modified, etag={}", request.getMethod(), request.getRequestURI(), etag);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private final ExportService exportService;
+
+    /**
+     * Contrôleur REST exposant l'endpoint /export.
+     * Permet de récupérer une copie cohérente de toutes les personnes, casernes et dossiers médicaux,
+     * par exemple pour une sauvegarde.
+     *
+     * @param exportService service contenant la logique métier associée
+     */
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Écrit l'état courant du jeu de données dans la réponse, au format {@code data.json},
+     * ou en NDJSON si le client préfère {@code application/x-ndjson}, qualités de l'en-tête {@code Accept} comprises
+     * (voir {@link RecordStreamWriter#prefersNdjson(String)}).
+     *
+     * @param accept   en-tête {@code Accept} de la requête
+     * @param response réponse HTTP dans laquelle les données sont écrites
+     * @throws IOException en cas d'erreur lors de l'accès aux données ou de l'écriture de la réponse
+     */
+    @GetMapping("/export")
+    public void export(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+
+        boolean lines = RecordStreamWriter.prefersNdjson(accept);
+
+        logger.info("GET /export called, ndjson={}", lines);
+
+        response.setContentType(lines ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(lines ? "data.ndjson" : "data.json").build().toString());
+
+        if (lines) {
+            exportService.exportNdjson(response.getOutputStream());
+        } else {
+            exportService.exportDataset(response.getOutputStream());
+        }
+
+        logger.info("GET /export success");
+    }
+}
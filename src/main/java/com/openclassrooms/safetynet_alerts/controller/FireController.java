@@ -1,15 +1,19 @@
 package com.openclassrooms.safetynet_alerts.controller;
 
 
+import com.openclassrooms.safetynet_alerts.dto.FireAddressDTO;
 import com.openclassrooms.safetynet_alerts.dto.FireDTO;
 import com.openclassrooms.safetynet_alerts.service.FireService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 public class FireController {
@@ -54,6 +58,37 @@ public class FireController {
         logger.info("GET /fire success for address={}", address);
 
 
+        return result;
+    }
+
+    /**
+     * Récupère, pour plusieurs adresses en une seule requête, la liste des habitants
+     * et le numéro de la caserne de chacune.
+     * Chaque adresse est transmise dans son propre paramètre ({@code address=a&address=b}) et lue telle quelle :
+     * une virgule fait partie de l'adresse et ne la découpe pas.
+     *
+     * @param params paramètres de la requête, dont les valeurs répétées de {@code address}
+     * @return un {@link FireAddressDTO} par adresse, dans l'ordre de la demande,
+     * avec un message d'erreur pour les adresses vides ou inconnues
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     * @throws MissingServletRequestParameterException si aucune adresse n'est transmise
+     */
+    @GetMapping("/fire/batch")
+    public List<FireAddressDTO> getFireByAddresses(@RequestParam MultiValueMap<String, String> params)
+            throws IOException, MissingServletRequestParameterException {
+
+        //valeurs brutes : la conversion d'un paramètre unique en liste le découperait sur les virgules
+        List<String> addresses = params.get("address");
+        if (addresses == null) {
+            throw new MissingServletRequestParameterException("address", "String[]");
+        }
+
+        logger.info("GET /fire/batch called with {} addresses", addresses.size());
+
+        List<FireAddressDTO> result = fireService.getFireByAddresses(addresses);
+
+        logger.info("GET /fire/batch success, {} results returned", result.size());
+
         return result;
     }
 }
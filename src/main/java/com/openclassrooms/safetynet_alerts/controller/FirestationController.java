@@ -2,9 +2,13 @@ package com.openclassrooms.safetynet_alerts.controller;
 
 
 import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.service.FirestationService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -18,36 +22,62 @@ public class FirestationController {
 
 
     private final FirestationService firestationService;
+    private final RecordStreamWriter recordStreamWriter;
 
     /**
      * Contrôleur REST exposant l'endpoint /firestation permettant de gérer les associations entre adresses et numéros de caserne
      * Il permet de : récupérer les associations, en ajouter, mettre à jour des associations existantes et en supprimer
      *
      * @param firestationService service où se trouve la logique métier de l'endpoint CRUD
+     * @param recordStreamWriter écrivain en flux de la liste des associations
      */
-    public FirestationController(FirestationService firestationService) {
+    public FirestationController(FirestationService firestationService, RecordStreamWriter recordStreamWriter) {
         this.firestationService = firestationService;
+        this.recordStreamWriter = recordStreamWriter;
     }
 
     /**
      * Récupère la liste des associations adresses/casernes
+     * La liste est écrite association par association dans la réponse : en tableau JSON,
+     * ou une association par ligne si le client accepte {@code application/x-ndjson}
      *
+     * <p>
+     * Avec {@code cursor} ou {@code limit}, seule une page est écrite, et le curseur de la page suivante
+     * est renvoyé dans l'en-tête {@value RecordStreamWriter#NEXT_CURSOR_HEADER}. Avec {@code fields},
+     * seuls les champs demandés de chaque association sont écrits.
+     * </p>
+     *
+     * @param cursor      curseur renvoyé avec la page précédente, ou absent pour la première page
+     * @param limit       taille de la page, ou absent pour écrire toute la liste si aucun curseur n'est donné
+     * @param fields      champs à écrire, séparés par des virgules, ou absent pour tous
      * @param firestation caserne à analyser
-     * @return associations existantes entre la station et les adresses
+     * @param accept      en-tête {@code Accept} de la requête
+     * @param response    réponse dans laquelle la liste des associations est écrite
      * @throws IOException en cas d'erreur lors de l'accès aux données
      */
 
     //GET
     @GetMapping
-    public List<FirestationModel> getAllFirestation(FirestationModel firestation) throws IOException {
-
-        logger.info("GET /firestation called");
-
-        List<FirestationModel> result = firestationService.getAllFirestation(firestation);
-
-        logger.info("GET /firestation success, {} firestations returned", result.size());
-
-        return result;
+    public void getAllFirestation(@RequestParam(required = false) Long cursor,
+                                  @RequestParam(required = false) Integer limit,
+                                  @RequestParam(required = false) List<String> fields,
+                                  FirestationModel firestation,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                  HttpServletResponse response) throws IOException {
+
+        logger.info("GET /firestation called cursor={} limit={}", cursor, limit);
+
+        if (cursor == null && limit == null) {
+            List<FirestationModel> result = firestationService.getAllFirestation(firestation);
+            recordStreamWriter.write(result, fields, accept, response);
+            logger.info("GET /firestation success, {} firestations returned", result.size());
+            return;
+        }
+
+        Page<FirestationModel> page = firestationService.getFirestationsPage(cursor, limit);
+        recordStreamWriter.write(page, fields, accept, response);
+
+        logger.info("GET /firestation success, {} firestations returned, next cursor={}", page.records().size(), page.after());
     }
 
     /**
@@ -114,4 +144,43 @@ public class FirestationController {
 
         return removed;
     }
+
+    /**
+     * Met à jour ou ajoute une liste d'associations adresse/caserne en une seule modification.
+     *
+     * @param firestations associations adresse/caserne à enregistrer
+     * @return nombre d'éléments ajoutés, mis à jour et rejetés
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    //BATCH UPSERT
+    @PutMapping("/batch")
+    public BatchResult upsertFirestations(@RequestBody List<FirestationModel> firestations) throws IOException {
+        logger.info("PUT /firestation/batch size={}", firestations.size());
+
+        BatchResult result = firestationService.upsertFirestations(firestations);
+
+        logger.info("PUT /firestation/batch success created={} updated={} rejected={}",
+                result.created(), result.updated(), result.rejected());
+
+        return result;
+    }
+
+    /**
+     * Supprime une liste d'associations adresse/caserne en une seule modification.
+     *
+     * @param criteria associations adresse/caserne à supprimer
+     * @return nombre d'éléments supprimés et rejetés
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    //BATCH DELETE
+    @DeleteMapping("/batch")
+    public BatchResult deleteFirestations(@RequestBody List<FirestationModel> criteria) throws IOException {
+        logger.info("DELETE /firestation/batch size={}", criteria.size());
+
+        BatchResult result = firestationService.deleteFirestations(criteria);
+
+        logger.info("DELETE /firestation/batch success deleted={} rejected={}", result.deleted(), result.rejected());
+
+        return result;
+    }
 }
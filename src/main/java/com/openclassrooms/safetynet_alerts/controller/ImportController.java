@@ -0,0 +1,79 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.dto.ImportReportDTO;
+import com.openclassrooms.safetynet_alerts.service.ImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportController.class);
+
+    private final ImportService importService;
+
+    /**
+     * Contrôleur REST exposant l'endpoint /import permettant d'importer en masse personnes, casernes et dossiers médicaux.
+     * Le corps de la requête est lu en flux : il n'est jamais chargé entièrement en mémoire.
+     *
+     * @param importService service où se trouve la logique de lecture, de validation et d'enregistrement par paquets
+     */
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Importe un contenu NDJSON, un enregistrement par ligne.
+     *
+     * @param body corps de la requête
+     * @return bilan de l'import ; statut 400 si le contenu n'a pas pu être lu jusqu'au bout
+     * @throws IOException en cas d'erreur lors de l'enregistrement des données
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportReportDTO> importNdjson(InputStream body) throws IOException {
+        logger.info("POST /import called with NDJSON content");
+
+        return toResponse(importService.importNdjson(body));
+    }
+
+    /**
+     * Importe un contenu disposé comme le fichier {@code data.json}.
+     *
+     * @param body corps de la requête
+     * @return bilan de l'import ; statut 400 si le contenu n'a pas pu être lu jusqu'au bout
+     * @throws IOException en cas d'erreur lors de l'enregistrement des données
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReportDTO> importDataset(InputStream body) throws IOException {
+        logger.info("POST /import called with data.json content");
+
+        return toResponse(importService.importDataset(body));
+    }
+
+    /**
+     * Récupère l'avancement de l'import en cours, ou le bilan du dernier import.
+     *
+     * @return avancement de l'import ; statut 204 si aucun import n'a eu lieu
+     */
+    @GetMapping
+    public ResponseEntity<ImportReportDTO> getProgress() {
+        ImportReportDTO progress = importService.getProgress();
+        return progress == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(progress);
+    }
+
+    private static ResponseEntity<ImportReportDTO> toResponse(ImportReportDTO report) {
+        logger.info("POST /import finished, {} records read, {} rejected", report.getRead(), report.getRejected());
+
+        return report.getError() == null ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report);
+    }
+}
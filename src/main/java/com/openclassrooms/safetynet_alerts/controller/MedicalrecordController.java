@@ -1,9 +1,13 @@
 package com.openclassrooms.safetynet_alerts.controller;
 
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.service.MedicalrecordService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -16,35 +20,59 @@ public class MedicalrecordController {
     private static final Logger logger = LoggerFactory.getLogger(MedicalrecordController.class);
 
     private final MedicalrecordService medicalrecordService;
+    private final RecordStreamWriter recordStreamWriter;
 
     /**
      * Contrôleur REST exposant l'endpoint /medicalRecord permettant l'association entre personnes et leurs données médicales
      * Il permet de récupérer les associations, d'en ajouter, d'en supprimer et modifier les données médicales des personnes existantes
      *
      * @param medicalrecordService service où se trouve la logique métier de l'endpoint CRUD
+     * @param recordStreamWriter   écrivain en flux de la liste des dossiers médicaux
      */
-    public MedicalrecordController(MedicalrecordService medicalrecordService) {
+    public MedicalrecordController(MedicalrecordService medicalrecordService, RecordStreamWriter recordStreamWriter) {
         this.medicalrecordService = medicalrecordService;
+        this.recordStreamWriter = recordStreamWriter;
     }
 
     /**
      * Récupère la liste des associations entre personnes et données médicales
+     * La liste est écrite dossier par dossier dans la réponse : en tableau JSON,
+     * ou un dossier par ligne si le client accepte {@code application/x-ndjson}
+     * <p>
+     * Avec {@code cursor} ou {@code limit}, seule une page est écrite, et le curseur de la page suivante
+     * est renvoyé dans l'en-tête {@value RecordStreamWriter#NEXT_CURSOR_HEADER}. Avec {@code fields},
+     * seuls les champs demandés de chaque dossier sont écrits.
+     * </p>
      *
-     * @return la liste des associations
+     * @param cursor   curseur renvoyé avec la page précédente, ou absent pour la première page
+     * @param limit    taille de la page, ou absent pour écrire toute la liste si aucun curseur n'est donné
+     * @param fields   champs à écrire, séparés par des virgules, ou absent pour tous
+     * @param accept   en-tête {@code Accept} de la requête
+     * @param response réponse dans laquelle la liste des associations est écrite
      * @throws IOException en cas d'erreur lors de l'accès aux données
      */
 
     //GET
     @GetMapping
-    public List<MedicalrecordModel> getAllMedicalrecord() throws IOException {
+    public void getAllMedicalrecord(@RequestParam(required = false) Long cursor,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) List<String> fields,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                    HttpServletResponse response) throws IOException {
 
-        logger.info("GET /medicalRecord called");
+        logger.info("GET /medicalRecord called cursor={} limit={}", cursor, limit);
 
-        List<MedicalrecordModel> result = medicalrecordService.getAllMedicalrecord();
+        if (cursor == null && limit == null) {
+            List<MedicalrecordModel> result = medicalrecordService.getAllMedicalrecord();
+            recordStreamWriter.write(result, fields, accept, response);
+            logger.info("GET /medicalRecord success, {} medicalrecords returned", result.size());
+            return;
+        }
 
-        logger.info("GET /medicalRecord success, {} medicalrecords returned", result.size());
+        Page<MedicalrecordModel> page = medicalrecordService.getMedicalrecordsPage(cursor, limit);
+        recordStreamWriter.write(page, fields, accept, response);
 
-        return result;
+        logger.info("GET /medicalRecord success, {} medicalrecords returned, next cursor={}", page.records().size(), page.after());
     }
 
     /**
@@ -108,4 +136,42 @@ public class MedicalrecordController {
         return removed;
     }
 
+    /**
+     * Met à jour ou ajoute une liste de dossiers médicaux en une seule modification.
+     *
+     * @param medicalrecords dossiers médicaux à enregistrer
+     * @return nombre d'éléments ajoutés, mis à jour et rejetés
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    //BATCH UPSERT
+    @PutMapping("/batch")
+    public BatchResult upsertMedicalrecords(@RequestBody List<MedicalrecordModel> medicalrecords) throws IOException {
+        logger.info("PUT /medicalRecord/batch size={}", medicalrecords.size());
+
+        BatchResult result = medicalrecordService.upsertMedicalrecords(medicalrecords);
+
+        logger.info("PUT /medicalRecord/batch success created={} updated={} rejected={}",
+                result.created(), result.updated(), result.rejected());
+
+        return result;
+    }
+
+    /**
+     * Supprime une liste de dossiers médicaux en une seule modification.
+     *
+     * @param criteria dossiers médicaux à supprimer
+     * @return nombre d'éléments supprimés et rejetés
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    //BATCH DELETE
+    @DeleteMapping("/batch")
+    public BatchResult deleteMedicalrecords(@RequestBody List<MedicalrecordModel> criteria) throws IOException {
+        logger.info("DELETE /medicalRecord/batch size={}", criteria.size());
+
+        BatchResult result = medicalrecordService.deleteMedicalrecords(criteria);
+
+        logger.info("DELETE /medicalRecord/batch success deleted={} rejected={}", result.deleted(), result.rejected());
+
+        return result;
+    }
 }
@@ -2,9 +2,13 @@ package com.openclassrooms.safetynet_alerts.controller;
 
 
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.service.PersonService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -17,35 +21,59 @@ public class PersonController {
     private static final Logger logger = LoggerFactory.getLogger(PersonController.class);
 
     private final PersonService service;
+    private final RecordStreamWriter recordStreamWriter;
 
     /**
      * Contrôleur REST exposant l'endpoint /person permettant l'association entre personnes et leurs données personnelles.
      * Il permet de récupérer les associations, en ajouter, en supprimer et modifier les données personnelles des personnes existantes.
      *
-     * @param service service où se retrouve la logique métier de l'endpoint CRUD
+     * @param service            service où se retrouve la logique métier de l'endpoint CRUD
+     * @param recordStreamWriter écrivain en flux de la liste des personnes
      */
-    public PersonController(PersonService service) {
+    public PersonController(PersonService service, RecordStreamWriter recordStreamWriter) {
         this.service = service;
+        this.recordStreamWriter = recordStreamWriter;
 
     }
 
     /**
      * Récupère la liste des associations entre personnes et données personnelles.
+     * La liste est écrite personne par personne dans la réponse : en tableau JSON,
+     * ou une personne par ligne si le client accepte {@code application/x-ndjson}.
+     * <p>
+     * Avec {@code cursor} ou {@code limit}, seule une page est écrite, et le curseur de la page suivante
+     * est renvoyé dans l'en-tête {@value RecordStreamWriter#NEXT_CURSOR_HEADER}. Avec {@code fields},
+     * seuls les champs demandés de chaque personne sont écrits.
+     * </p>
      *
-     * @return la liste des personnes
+     * @param cursor   curseur renvoyé avec la page précédente, ou absent pour la première page
+     * @param limit    taille de la page, ou absent pour écrire toute la liste si aucun curseur n'est donné
+     * @param fields   champs à écrire, séparés par des virgules, ou absent pour tous
+     * @param accept   en-tête {@code Accept} de la requête
+     * @param response réponse dans laquelle la liste des personnes est écrite
      * @throws IOException en cas d'erreur lors de l'accès aux données
      */
     //GET
     @GetMapping
-    public List<PersonModel> getAllPersons() throws IOException {
+    public void getAllPersons(@RequestParam(required = false) Long cursor,
+                              @RequestParam(required = false) Integer limit,
+                              @RequestParam(required = false) List<String> fields,
+                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                              HttpServletResponse response) throws IOException {
 
-        logger.info("GET /person called");
+        logger.info("GET /person called cursor={} limit={}", cursor, limit);
 
-        List<PersonModel> result = service.getAllPersons();
+        if (cursor == null && limit == null) {
+            List<PersonModel> result = service.getAllPersons();
+            recordStreamWriter.write(result, fields, accept, response);
+            logger.info("GET /person success, {} persons returned", result.size());
+            return;
+        }
 
-        logger.info("GET /person success, {} persons returned", result.size());
+        Page<PersonModel> page = service.getPersonsPage(cursor, limit);
+        recordStreamWriter.write(page, fields, accept, response);
 
-        return result;
+        logger.info("GET /person success, {} persons returned, next cursor={}", page.records().size(), page.after());
     }
 
     /**
@@ -115,5 +143,43 @@ public class PersonController {
 
         return removed;
     }
-}
 
+    /**
+     * Met à jour ou ajoute une liste de personnes en une seule modification.
+     *
+     * @param persons personnes à enregistrer
+     * @return nombre d'éléments ajoutés, mis à jour et rejetés
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    //BATCH UPSERT
+    @PutMapping("/batch")
+    public BatchResult upsertPersons(@RequestBody List<PersonModel> persons) throws IOException {
+        logger.info("PUT /person/batch size={}", persons.size());
+
+        BatchResult result = service.upsertPersons(persons);
+
+        logger.info("PUT /person/batch success created={} updated={} rejected={}",
+                result.created(), result.updated(), result.rejected());
+
+        return result;
+    }
+
+    /**
+     * Supprime une liste de personnes en une seule modification.
+     *
+     * @param criteria personnes à supprimer
+     * @return nombre d'éléments supprimés et rejetés
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    //BATCH DELETE
+    @DeleteMapping("/batch")
+    public BatchResult deletePersons(@RequestBody List<PersonModel> criteria) throws IOException {
+        logger.info("DELETE /person/batch size={}", criteria.size());
+
+        BatchResult result = service.deletePersons(criteria);
+
+        logger.info("DELETE /person/batch success deleted={} rejected={}", result.deleted(), result.rejected());
+
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.repository.Page;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Écriture en flux d'une liste d'enregistrements dans la réponse HTTP.
+ *
+ * <p>
+ * Les enregistrements sont écrits un par un avec un {@link JsonGenerator} directement dans le flux de la réponse,
+ * sans construire le document JSON complet en mémoire : la mémoire utilisée ne dépend pas du nombre d'enregistrements.
+ * Par défaut, la réponse est un tableau JSON ; si le client préfère {@code application/x-ndjson},
+ * chaque enregistrement est écrit sur sa propre ligne.
+ * </p>
+ *
+ * <p>
+ * Si le client demande une liste de champs ({@code ?fields=}), seuls ces champs de chaque enregistrement
+ * sont écrits. Une page est écrite de la même façon, le curseur de la page suivante étant renvoyé
+ * dans l'en-tête {@value #NEXT_CURSOR_HEADER}.
+ * </p>
+ */
+@Component
+public class RecordStreamWriter {
+
+    /**
+     * En-tête portant le curseur de la page suivante, absent sur la dernière page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+
+    /**
+     * Construit l'écrivain avec un {@link ObjectMapper} injecté par Spring.
+     *
+     * @param objectMapper mapper Jackson utilisé pour sérialiser chaque enregistrement
+     */
+    public RecordStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+    }
+
+    /**
+     * Écrit une page d'enregistrements dans la réponse, avec le curseur de la page suivante en en-tête.
+     *
+     * @param page     page à écrire
+     * @param fields   champs à écrire pour chaque enregistrement, ou {@code null} pour tous
+     * @param accept   en-tête {@code Accept} de la requête, ou {@code null}
+     * @param response réponse HTTP de destination
+     * @throws IOException si la réponse ne peut pas être écrite
+     */
+    public void write(Page<?> page, List<String> fields, String accept, HttpServletResponse response) throws IOException {
+        if (page.after() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.after().toString());
+        }
+        write(page.records(), fields, accept, response);
+    }
+
+    /**
+     * Écrit les enregistrements dans la réponse, en tableau JSON ou en NDJSON selon l'en-tête {@code Accept}.
+     *
+     * @param records  enregistrements à écrire
+     * @param fields   champs à écrire pour chaque enregistrement, ou {@code null} pour tous
+     * @param accept   en-tête {@code Accept} de la requête, ou {@code null}
+     * @param response réponse HTTP de destination
+     * @throws IOException si la réponse ne peut pas être écrite
+     */
+    public void write(List<?> records, List<String> fields, String accept, HttpServletResponse response) throws IOException {
+
+        boolean lines = prefersNdjson(accept);
+        response.setContentType(lines ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+
+        try (JsonGenerator generator = objectWriter.createGenerator(response.getOutputStream())) {
+            if (lines) {
+                for (Object record : records) {
+                    writeRecord(generator, record, fields);
+                }
+                if (!records.isEmpty()) {
+                    generator.writeRaw('\n');
+                }
+            } else {
+                generator.writeStartArray();
+                for (Object record : records) {
+                    writeRecord(generator, record, fields);
+                }
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    /**
+     * Indique si l'en-tête {@code Accept} préfère le NDJSON au JSON.
+     *
+     * <p>
+     * Chaque format prend la qualité de la plage la plus précise qui le couvre ({@code application/x-ndjson},
+     * puis {@code application/*}, puis {@code *}{@code /*}). Le NDJSON n'est retenu que s'il est accepté
+     * (qualité non nulle) et qu'il l'emporte sur le JSON par sa qualité, puis par la précision de sa plage,
+     * puis par sa position dans l'en-tête. Un en-tête absent ou illisible donne du JSON.
+     * </p>
+     *
+     * @param accept en-tête {@code Accept} de la requête, ou {@code null}
+     * @return {@code true} si la réponse doit être écrite en NDJSON
+     */
+    static boolean prefersNdjson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        Preference ndjson = Preference.of(ranges, MediaType.APPLICATION_NDJSON);
+        Preference json = Preference.of(ranges, MediaType.APPLICATION_JSON);
+        return ndjson != null && ndjson.quality() > 0 && (json == null || ndjson.compareTo(json) > 0);
+    }
+
+    /**
+     * Plage de l'en-tête {@code Accept} retenue pour un format : la plus précise qui le couvre.
+     *
+     * @param quality     qualité de la plage
+     * @param specificity 2 pour un type exact, 1 pour {@code type/*}, 0 pour {@code *}{@code /*}
+     * @param position    position de la plage dans l'en-tête
+     */
+    private record Preference(double quality, int specificity, int position) implements Comparable<Preference> {
+
+        static Preference of(List<MediaType> ranges, MediaType type) {
+            Preference best = null;
+            for (int i = 0; i < ranges.size(); i++) {
+                MediaType range = ranges.get(i);
+                if (!range.includes(type)) {
+                    continue;
+                }
+                int specificity = range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+                if (best == null || specificity > best.specificity()) {
+                    best = new Preference(range.getQualityValue(), specificity, i);
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public int compareTo(Preference other) {
+            if (quality != other.quality) {
+                return Double.compare(quality, other.quality);
+            }
+            if (specificity != other.specificity) {
+                return Integer.compare(specificity, other.specificity);
+            }
+            return Integer.compare(other.position, position);
+        }
+    }
+
+    /**
+     * Un enregistrement projeté passe par un arbre réduit aux champs demandés : le coût reste
+     * proportionnel à la page, et les champs inconnus sont ignorés.
+     */
+    private void writeRecord(JsonGenerator generator, Object record, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            generator.writePOJO(record);
+            return;
+        }
+        ObjectNode node = objectMapper.valueToTree(record);
+        node.retain(fields);
+        generator.writeTree(node);
+    }
+}
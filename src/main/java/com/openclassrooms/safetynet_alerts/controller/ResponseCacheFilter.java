@@ -0,0 +1,246 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.repository.IndexKeys;
+import com.openclassrooms.safetynet_alerts.service.ResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sert les réponses de /fire, /flood/stations et /firestation (paramètre stationNumber) depuis le
+ * {@link ResponseCache}, sans appeler le contrôleur ni sérialiser de JSON.
+ *
+ * <p>
+ * Les paramètres sont normalisés comme le font les services : l'adresse sans tenir compte de la casse
+ * ni des espaces, et les numéros de caserne sans les espaces autour des virgules. En cas d'absence,
+ * la réponse du contrôleur est capturée puis conservée si elle est un succès. Une réponse conservée
+ * reste soumise aux requêtes conditionnelles du {@link DatasetEtagInterceptor}.
+ * </p>
+ *
+ * <p>
+ * La variante gzip d'une réponse conservée n'est servie que si l'en-tête {@code Accept-Encoding} l'accepte
+ * (voir {@link #acceptsGzip(String)}). Toutes les réponses de ces endpoints portent {@code Vary: Accept-Encoding}.
+ * </p>
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    /**
+     * Clé d'une requête dans le cache, avec les adresses et casernes dont dépend sa réponse.
+     */
+    private record CacheKey(String key, List<String> tags) {
+    }
+
+    private final ResponseCache responseCache;
+    private final DatasetEtagInterceptor datasetEtagInterceptor;
+
+    /**
+     * @param responseCache          cache des réponses sérialisées
+     * @param datasetEtagInterceptor intercepteur donnant l'ETag courant des réponses servies depuis le cache
+     */
+    public ResponseCacheFilter(ResponseCache responseCache, DatasetEtagInterceptor datasetEtagInterceptor) {
+        this.responseCache = responseCache;
+        this.datasetEtagInterceptor = datasetEtagInterceptor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        CacheKey cacheKey = keyOf(request);
+        if (cacheKey == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        ResponseCache.CachedResponse cached = responseCache.get(cacheKey.key());
+        if (cached != null) {
+            if (!new ServletWebRequest(request, response).checkNotModified(datasetEtagInterceptor.etag())) {
+                write(request, response, cached);
+            }
+            logger.debug("GET {} served from cache", cacheKey.key());
+            return;
+        }
+
+        ResponseCache.Stamp stamp = responseCache.stamp();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value()) {
+                responseCache.put(cacheKey.key(), cacheKey.tags(), stamp, wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * @return clé de la requête, ou {@code null} si l'endpoint n'est pas mis en cache ou si le paramètre manque
+     */
+    private static CacheKey keyOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        switch (path) {
+            case "/fire" -> {
+                String address = request.getParameter("address");
+                if (address != null) {
+                    return new CacheKey("/fire?address=" + IndexKeys.address(address), List.of(ResponseCache.addressTag(address)));
+                }
+            }
+            case "/firestation" -> {
+                String station = request.getParameter("stationNumber");
+                if (station != null) {
+                    return new CacheKey("/firestation?stationNumber=" + station, List.of(ResponseCache.stationTag(station)));
+                }
+            }
+            case "/flood/stations" -> {
+                String stations = request.getParameter("stations");
+                if (stations != null) {
+                    List<String> stationNumbers = new ArrayList<>();
+                    List<String> tags = new ArrayList<>();
+                    for (String station : stations.split(",")) {
+                        stationNumbers.add(station.trim());
+                        tags.add(ResponseCache.stationTag(station.trim()));
+                    }
+                    return new CacheKey("/flood/stations?stations=" + String.join(",", stationNumbers), tags);
+                }
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, ResponseCache.CachedResponse cached)
+            throws IOException {
+        byte[] body = cached.body();
+        if (cached.gzipBody() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.gzipBody();
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Indique si l'en-tête {@code Accept-Encoding} permet de servir la variante gzip.
+     *
+     * <p>
+     * Chaque codage prend la qualité de l'élément le plus précis qui le nomme ({@code gzip} ou {@code identity},
+     * sinon {@code *}). La variante gzip n'est retenue que si elle est acceptée (qualité non nulle) et qu'elle ne
+     * le cède pas au codage {@code identity} par sa qualité, puis par la précision de son élément, puis par sa position
+     * dans l'en-tête. Un en-tête absent donne le corps non compressé ; un élément illisible est ignoré.
+     * </p>
+     *
+     * @param acceptEncoding en-tête {@code Accept-Encoding} de la requête, ou {@code null}
+     * @return {@code true} si la réponse peut être servie compressée en gzip
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        List<Coding> codings = new ArrayList<>();
+        for (String element : acceptEncoding.split(",")) {
+            Coding coding = Coding.parse(element);
+            if (coding != null) {
+                codings.add(coding);
+            }
+        }
+        Preference gzip = Preference.of(codings, "gzip");
+        Preference identity = Preference.of(codings, "identity");
+        return gzip != null && gzip.quality() > 0 && (identity == null || gzip.compareTo(identity) >= 0);
+    }
+
+    /**
+     * Élément de l'en-tête {@code Accept-Encoding}.
+     *
+     * @param name    codage en minuscules, ou {@code *}
+     * @param quality qualité de l'élément, 1 par défaut
+     */
+    private record Coding(String name, double quality) {
+
+        /**
+         * @return élément lu, ou {@code null} s'il est vide ou si sa qualité est illisible
+         */
+        static Coding parse(String element) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) {
+                return null;
+            }
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 1 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                        && parameter.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    if (quality < 0 || quality > 1) {
+                        return null;
+                    }
+                }
+            }
+            return new Coding(name, quality);
+        }
+    }
+
+    /**
+     * Élément de l'en-tête {@code Accept-Encoding} retenu pour un codage : le plus précis qui le nomme.
+     *
+     * @param quality     qualité de l'élément
+     * @param specificity 1 pour le codage nommé, 0 pour {@code *}
+     * @param position    position de l'élément dans l'en-tête
+     */
+    private record Preference(double quality, int specificity, int position) implements Comparable<Preference> {
+
+        static Preference of(List<Coding> codings, String name) {
+            Preference best = null;
+            for (int i = 0; i < codings.size(); i++) {
+                Coding coding = codings.get(i);
+                int specificity = coding.name().equals(name) ? 1 : coding.name().equals("*") ? 0 : -1;
+                if (specificity >= 0 && (best == null || specificity > best.specificity())) {
+                    best = new Preference(coding.quality(), specificity, i);
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public int compareTo(Preference other) {
+            if (quality != other.quality) {
+                return Double.compare(quality, other.quality);
+            }
+            if (specificity != other.specificity) {
+                return Integer.compare(specificity, other.specificity);
+            }
+            return Integer.compare(other.position, position);
+        }
+    }
+}
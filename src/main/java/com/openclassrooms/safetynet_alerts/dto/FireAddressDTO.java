@@ -0,0 +1,66 @@
+package com.openclassrooms.safetynet_alerts.dto;
+
+/**
+ * DTO représentant le résultat de l'endpoint /fire/batch pour l'une des adresses demandées.
+ *
+ * <p>
+ * Ce DTO contient :
+ * <ul>
+ *     <li>L'adresse telle qu'elle a été demandée</li>
+ *     <li>Les résidents et le numéro de caserne de cette adresse, ou null en cas d'erreur</li>
+ *     <li>Le motif de l'erreur, ou null si l'adresse a été trouvée</li>
+ * </ul>
+ */
+
+public class FireAddressDTO {
+
+    private String address;
+
+    private FireDTO fire;
+
+    private String error;
+
+    /**
+     * Constructeur vide requis par Jackson pour la
+     * désérialisation JSON.
+     */
+    public FireAddressDTO() {
+    }
+
+    /**
+     * Constructeur permettant d'instancier un FireAddressDTO
+     *
+     * @param address adresse demandée
+     * @param fire    résidents et numéro de caserne de l'adresse, ou null en cas d'erreur
+     * @param error   motif de l'erreur, ou null si l'adresse a été trouvée
+     */
+    public FireAddressDTO(String address, FireDTO fire, String error) {
+        this.address = address;
+        this.fire = fire;
+        this.error = error;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public FireDTO getFire() {
+        return fire;
+    }
+
+    public void setFire(FireDTO fire) {
+        this.fire = fire;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
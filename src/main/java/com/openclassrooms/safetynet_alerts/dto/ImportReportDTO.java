@@ -0,0 +1,142 @@
+package com.openclassrooms.safetynet_alerts.dto;
+
+import java.util.List;
+
+/**
+ * DTO représentant l'avancement ou le bilan d'un import en masse.
+ * Il est utilisé dans le cadre de l'endpoint /import
+ *
+ * <p>
+ * Ce DTO contient :
+ * <ul>
+ *     <li>Le nombre d'enregistrements lus, ajoutés, mis à jour et rejetés</li>
+ *     <li>La durée écoulée et le débit en enregistrements par seconde</li>
+ *     <li>Les motifs des premiers rejets</li>
+ *     <li>L'état de l'import : en cours, terminé, ou interrompu avec le motif de l'erreur</li>
+ * </ul>
+ */
+public class ImportReportDTO {
+
+    private long read;
+
+    private long created;
+
+    private long updated;
+
+    private long rejected;
+
+    private long elapsedMillis;
+
+    private long recordsPerSecond;
+
+    private List<String> rejections;
+
+    private boolean finished;
+
+    private String error;
+
+    /**
+     * Constructeur vide requis par Jackson pour la
+     * désérialisation JSON.
+     */
+    public ImportReportDTO() {
+    }
+
+    /**
+     * Constructeur permettant d'instancier un ImportReportDTO
+     *
+     * @param read             nombre d'enregistrements lus
+     * @param created          nombre d'enregistrements ajoutés
+     * @param updated          nombre d'enregistrements existants mis à jour
+     * @param rejected         nombre d'enregistrements rejetés
+     * @param elapsedMillis    durée écoulée depuis le début de l'import, en millisecondes
+     * @param recordsPerSecond débit moyen, en enregistrements lus par seconde
+     * @param rejections       motifs des premiers rejets
+     * @param finished         {@code true} si l'import est terminé
+     * @param error            motif de l'interruption de l'import, ou null
+     */
+    public ImportReportDTO(long read, long created, long updated, long rejected, long elapsedMillis,
+                           long recordsPerSecond, List<String> rejections, boolean finished, String error) {
+        this.read = read;
+        this.created = created;
+        this.updated = updated;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.recordsPerSecond = recordsPerSecond;
+        this.rejections = rejections;
+        this.finished = finished;
+        this.error = error;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public void setRecordsPerSecond(long recordsPerSecond) {
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(List<String> rejections) {
+        this.rejections = rejections;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -1,17 +1,40 @@
 package com.openclassrooms.safetynet_alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
  * Modèle représentant l'association entre une personne et ses données médicales.
+ *
+ * <p>
+ * La date de naissance, au format {@code MM/dd/yyyy}, est convertie une seule fois en nombre de jours
+ * depuis le 01/01/1970 et en entier {@code aaaammjj} lorsqu'elle est renseignée (chargement du fichier
+ * ou modification) : le calcul de l'âge n'a plus à l'analyser ni à la convertir à chaque appel.
+ * </p>
  */
 public class MedicalrecordModel {
+
+    /**
+     * Valeur de {@link #getBirthEpochDay()} lorsque la date de naissance est absente ou invalide.
+     */
+    public static final long UNKNOWN_BIRTHDATE = Long.MIN_VALUE;
+
+    private static final DateTimeFormatter BIRTHDATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
     private String firstName;
 
     private String lastName;
 
     private String birthdate;
 
+    private long birthEpochDay = UNKNOWN_BIRTHDATE;
+
+    private int birthYearMonthDay;
+
     private List<String> medications;
 
     private List<String> allergies;
@@ -37,7 +60,7 @@ public class MedicalrecordModel {
     public MedicalrecordModel(String firstName, String lastName, String birthdate, List<String> medications, List<String> allergies) {
         this.firstName = firstName;
         this.lastName = lastName;
-        this.birthdate = birthdate;
+        setBirthdate(birthdate);
         this.medications = medications;
         this.allergies = allergies;
     }
@@ -64,6 +87,38 @@ public class MedicalrecordModel {
 
     public void setBirthdate(String birthdate) {
         this.birthdate = birthdate;
+        LocalDate date = parse(birthdate);
+        this.birthEpochDay = date == null ? UNKNOWN_BIRTHDATE : date.toEpochDay();
+        this.birthYearMonthDay = date == null ? 0 : date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * @return date de naissance en nombre de jours depuis le 01/01/1970,
+     * ou {@link #UNKNOWN_BIRTHDATE} si elle est absente ou invalide
+     */
+    @JsonIgnore
+    public long getBirthEpochDay() {
+        return birthEpochDay;
+    }
+
+    /**
+     * @return date de naissance sous la forme d'un entier {@code aaaammjj},
+     * ou {@code 0} si elle est absente ou invalide
+     */
+    @JsonIgnore
+    public int getBirthYearMonthDay() {
+        return birthYearMonthDay;
+    }
+
+    private static LocalDate parse(String birthdate) {
+        if (birthdate == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(birthdate, BIRTHDATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
     public List<String> getMedications() {
@@ -0,0 +1,29 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+/**
+ * Bilan d'un ajout ou d'une modification par lot appliqué au {@link DataStore}.
+ *
+ * @param created  nombre d'enregistrements ajoutés
+ * @param updated  nombre d'enregistrements existants mis à jour
+ * @param deleted  nombre d'enregistrements supprimés
+ * @param rejected nombre d'éléments ignorés car incomplets, ou ajouts rejetés car l'élément existe déjà
+ */
+public record BatchResult(int created, int updated, int deleted, int rejected) {
+
+    /**
+     * @param rejected nombre d'éléments écartés avant l'application du lot
+     * @return ce bilan, complété du nombre d'éléments écartés
+     */
+    public BatchResult withRejected(int rejected) {
+        return new BatchResult(created, updated, deleted, rejected);
+    }
+
+    /**
+     * @param other bilan d'une autre partie du même lot
+     * @return somme des deux bilans
+     */
+    public BatchResult plus(BatchResult other) {
+        return new BatchResult(created + other.created, updated + other.updated,
+                deleted + other.deleted, rejected + other.rejected);
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Foyers, casernes et noms touchés par une modification publiée, chacun noté une seule fois
+ * quel que soit le nombre d'éléments du lot qui le concernent.
+ *
+ * <p>
+ * Les adresses et les noms sont dédoublonnés par leur clé {@link IndexKeys} : la première écriture
+ * rencontrée est conservée. Rempli par le {@link DataSnapshotBuilder}, puis transmis en lecture seule
+ * aux {@link DataStoreListener}.
+ * </p>
+ */
+public final class DataChanges {
+
+    private final Map<String, String> personAddresses = new LinkedHashMap<>();
+    private final Map<String, String> firestationAddresses = new LinkedHashMap<>();
+    private final Set<String> stations = new LinkedHashSet<>();
+    private final Map<String, MedicalrecordModel> medicalrecords = new LinkedHashMap<>();
+
+    DataChanges() {
+    }
+
+    void person(PersonModel person) {
+        personAddresses.putIfAbsent(IndexKeys.address(person.getAddress()), person.getAddress());
+    }
+
+    void firestation(FirestationModel firestation) {
+        firestationAddresses.putIfAbsent(IndexKeys.address(firestation.getAddress()), firestation.getAddress());
+        if (firestation.getStation() != null) {
+            stations.add(firestation.getStation());
+        }
+    }
+
+    void medicalrecord(MedicalrecordModel medicalrecord) {
+        medicalrecords.putIfAbsent(IndexKeys.name(medicalrecord.getFirstName(), medicalrecord.getLastName()), medicalrecord);
+    }
+
+    /**
+     * @return {@code true} si aucun élément n'a été ajouté, remplacé ou supprimé
+     */
+    public boolean isEmpty() {
+        return personAddresses.isEmpty() && firestationAddresses.isEmpty() && medicalrecords.isEmpty();
+    }
+
+    /**
+     * @return adresses distinctes des personnes ajoutées, supprimées ou remplacées (avant et après la modification)
+     */
+    public Collection<String> getPersonAddresses() {
+        return Collections.unmodifiableCollection(personAddresses.values());
+    }
+
+    /**
+     * @return adresses distinctes des associations adresse/caserne ajoutées, supprimées ou remplacées
+     */
+    public Collection<String> getFirestationAddresses() {
+        return Collections.unmodifiableCollection(firestationAddresses.values());
+    }
+
+    /**
+     * @return casernes distinctes des associations ajoutées, supprimées ou remplacées (avant et après la modification)
+     */
+    public Set<String> getStations() {
+        return Collections.unmodifiableSet(stations);
+    }
+
+    /**
+     * @return un dossier médical ajouté, supprimé ou remplacé par prénom + nom touché
+     */
+    public Collection<MedicalrecordModel> getMedicalrecords() {
+        return Collections.unmodifiableCollection(medicalrecords.values());
+    }
+}
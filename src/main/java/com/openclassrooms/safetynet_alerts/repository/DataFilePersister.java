@@ -0,0 +1,92 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture du fichier externe {@code safetynet.data.file} à partir d'une copie du {@link DataStore}.
+ *
+ * <p>
+ * Appelée par le compacteur du {@link MutationJournal}. Le jeu de données est écrit dans un fichier
+ * temporaire synchronisé sur disque, puis renommé atomiquement : le fichier de données n'est jamais
+ * lu à moitié écrit.
+ * </p>
+ */
+@Component
+public class DataFilePersister {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataFilePersister.class);
+
+    private final DataStore dataStore;
+    private final DatasetWriter datasetWriter;
+
+    private int writeCount;
+
+    /**
+     * Construit l'écrivain du fichier de données.
+     *
+     * @param dataStore     jeu de données dont le fichier externe est réécrit
+     * @param datasetWriter écrivain du format {@code data.json}
+     */
+    public DataFilePersister(DataStore dataStore, DatasetWriter datasetWriter) {
+        this.dataStore = dataStore;
+        this.datasetWriter = datasetWriter;
+    }
+
+    /**
+     * Remplace le fichier externe par le jeu de données fourni.
+     *
+     * @param dataset copie cohérente du jeu de données, obtenue par {@link DataStore#toDataset()}
+     * @throws IOException si le fichier ne peut pas être écrit ; l'ancien fichier reste alors intact
+     */
+    public synchronized void write(Dataset dataset) throws IOException {
+
+        long start = System.nanoTime();
+        Path target = dataStore.getDataFile().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream outputStream = Channels.newOutputStream(channel);
+                datasetWriter.write(dataset, outputStream);
+                outputStream.flush();
+                channel.force(true);
+            }
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        writeCount++;
+        logger.debug("Wrote {} in {} ms: sequence {}, {} persons, {} firestations, {} medicalrecords", target,
+                (System.nanoTime() - start) / 1_000_000, dataset.getSequence(), dataset.getPersons().size(),
+                dataset.getFirestations().size(), dataset.getMedicalrecords().size());
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return nombre de réécritures du fichier effectuées depuis le démarrage
+     */
+    public synchronized int getWriteCount() {
+        return writeCount;
+    }
+}
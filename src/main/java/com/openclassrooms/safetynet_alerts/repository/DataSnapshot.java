@@ -0,0 +1,316 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * État immuable du {@link DataStore} après une modification : les trois listes et leurs index,
+ * avec le numéro de séquence de la dernière modification appliquée.
+ *
+ * <p>
+ * Le {@link DataStore} publie un nouvel état après chaque modification. Une requête lit l'état courant
+ * une seule fois avec {@link DataStore#snapshot()} et fait toutes ses recherches dans cet état :
+ * elle ne prend aucun verrou et voit des personnes, casernes et dossiers médicaux cohérents entre eux,
+ * même si une écriture a lieu pendant son traitement.
+ * </p>
+ *
+ * <p>
+ * Un état n'est jamais modifié : le {@link DataStore} construit le suivant avec un {@link DataSnapshotBuilder}.
+ * Listes et index sont des arbres persistants ({@link RecordList}, {@link PersistentTreeMap}) : le nouvel état
+ * ne recopie que les chemins menant aux éléments touchés, en O(log n) chacun, et partage tout le reste avec cet état.
+ * Les listes retournées sont partagées entre les lectures et ne peuvent pas être modifiées.
+ * </p>
+ *
+ * <p>
+ * Chaque enregistrement porte un identifiant attribué à son ajout, croissant dans l'ordre des listes
+ * et conservé lors d'une mise à jour : une page reprend après l'identifiant du dernier enregistrement
+ * de la page précédente, sans décalage si des enregistrements sont ajoutés ou supprimés entre deux pages.
+ * Les identifiants sont attribués à nouveau au chargement du fichier.
+ * </p>
+ */
+public class DataSnapshot {
+
+    /**
+     * État sans aucune donnée, dont part la construction de l'état initial.
+     */
+    static final DataSnapshot EMPTY = new DataSnapshot(0, 1, RecordList.empty(), RecordList.empty(), RecordList.empty(),
+            PersistentTreeMap.empty(), PersistentTreeMap.empty(), PersistentTreeMap.empty(), PersistentTreeMap.empty(),
+            PersistentTreeMap.empty(), PersistentTreeMap.empty(), PersistentTreeMap.empty());
+
+    private final long version;
+    private final long nextRecordId;
+    private final RecordList<PersonModel> persons;
+    private final RecordList<FirestationModel> firestations;
+    private final RecordList<MedicalrecordModel> medicalrecords;
+    private final PersistentTreeMap<String, RecordList<MedicalrecordModel>> medicalrecordsByName;
+    private final PersistentTreeMap<String, RecordList<PersonModel>> personsByAddress;
+    private final PersistentTreeMap<String, RecordList<PersonModel>> personsByLastName;
+    private final PersistentTreeMap<String, DistinctValues> emailsByCity;
+    private final PersistentTreeMap<String, DistinctValues> phonesByStation;
+    private final PersistentTreeMap<String, RecordList<FirestationModel>> firestationsByAddress;
+    private final PersistentTreeMap<String, RecordList<FirestationModel>> firestationsByStation;
+
+    /**
+     * Reprend sans copie les listes et index construits par le {@link DataSnapshotBuilder}.
+     */
+    DataSnapshot(long version,
+                 long nextRecordId,
+                 RecordList<PersonModel> persons,
+                 RecordList<FirestationModel> firestations,
+                 RecordList<MedicalrecordModel> medicalrecords,
+                 PersistentTreeMap<String, RecordList<MedicalrecordModel>> medicalrecordsByName,
+                 PersistentTreeMap<String, RecordList<PersonModel>> personsByAddress,
+                 PersistentTreeMap<String, RecordList<PersonModel>> personsByLastName,
+                 PersistentTreeMap<String, DistinctValues> emailsByCity,
+                 PersistentTreeMap<String, DistinctValues> phonesByStation,
+                 PersistentTreeMap<String, RecordList<FirestationModel>> firestationsByAddress,
+                 PersistentTreeMap<String, RecordList<FirestationModel>> firestationsByStation) {
+        this.version = version;
+        this.nextRecordId = nextRecordId;
+        this.persons = persons;
+        this.firestations = firestations;
+        this.medicalrecords = medicalrecords;
+        this.medicalrecordsByName = medicalrecordsByName;
+        this.personsByAddress = personsByAddress;
+        this.personsByLastName = personsByLastName;
+        this.emailsByCity = emailsByCity;
+        this.phonesByStation = phonesByStation;
+        this.firestationsByAddress = firestationsByAddress;
+        this.firestationsByStation = firestationsByStation;
+    }
+
+    /**
+     * @return numéro de séquence de la dernière modification incluse dans cet état
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return personnes de cet état
+     */
+    public List<PersonModel> getPersons() {
+        return persons;
+    }
+
+    /**
+     * @return associations adresse/caserne de cet état
+     */
+    public List<FirestationModel> getFirestations() {
+        return firestations;
+    }
+
+    /**
+     * @return dossiers médicaux de cet état
+     */
+    public List<MedicalrecordModel> getMedicalrecords() {
+        return medicalrecords;
+    }
+
+    /**
+     * Retourne une page de personnes, dans l'ordre de la liste.
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal de personnes de la page, au moins 1
+     * @return personnes de la page, avec l'identifiant à reprendre pour la page suivante
+     */
+    public Page<PersonModel> pagePersons(long after, int limit) {
+        return persons.page(after, limit);
+    }
+
+    /**
+     * Retourne une page d'associations adresse/caserne, dans l'ordre de la liste.
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal d'associations de la page, au moins 1
+     * @return associations de la page, avec l'identifiant à reprendre pour la page suivante
+     */
+    public Page<FirestationModel> pageFirestations(long after, int limit) {
+        return firestations.page(after, limit);
+    }
+
+    /**
+     * Retourne une page de dossiers médicaux, dans l'ordre de la liste.
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal de dossiers de la page, au moins 1
+     * @return dossiers de la page, avec l'identifiant à reprendre pour la page suivante
+     */
+    public Page<MedicalrecordModel> pageMedicalrecords(long after, int limit) {
+        return medicalrecords.page(after, limit);
+    }
+
+    /**
+     * Recherche les résidents d'une adresse, sans tenir compte de la casse ni des espaces superflus.
+     *
+     * @param address adresse du foyer
+     * @return résidents dans leur ordre d'ajout ; vide si aucun résident n'y habite
+     */
+    public List<PersonModel> findPersonsByAddress(String address) {
+        return personsByAddress.getOrDefault(IndexKeys.address(address), RecordList.empty());
+    }
+
+    /**
+     * Recherche les personnes portant un nom de famille, avec pour chacune son dossier médical.
+     * Le nom est comparé sans tenir compte de la casse ni des espaces en début et fin.
+     *
+     * @param lastName nom de famille recherché
+     * @return membres de la famille dans leur ordre d'ajout, avec leur dossier médical ou {@code null} ; vide si aucun
+     */
+    public List<FamilyMember> findFamily(String lastName) {
+        List<FamilyMember> family = new ArrayList<>();
+        for (PersonModel person : personsByLastName.getOrDefault(IndexKeys.lastName(lastName), RecordList.empty())) {
+            family.add(new FamilyMember(person, findMedicalrecord(person.getFirstName(), person.getLastName())));
+        }
+        return family;
+    }
+
+    /**
+     * Retourne les adresses e-mail distinctes des habitants d'une ville, dans l'ordre de leur premier ajout.
+     * La ville est comparée sans tenir compte de la casse ni des espaces en début et fin.
+     *
+     * @param city ville recherchée
+     * @return adresses e-mail distinctes ; vide si personne n'habite la ville
+     */
+    public List<String> findEmailsByCity(String city) {
+        DistinctValues emails = emailsByCity.get(IndexKeys.city(city));
+        return emails == null ? List.of() : emails.values();
+    }
+
+    /**
+     * Retourne les numéros de téléphone distincts des résidents couverts par une caserne,
+     * dans l'ordre de leur premier ajout.
+     *
+     * @param station numéro de la caserne
+     * @return numéros distincts ; vide si la caserne ne couvre aucun résident
+     */
+    public List<String> findPhonesByStation(String station) {
+        DistinctValues phones = phonesByStation.get(station);
+        return phones == null ? List.of() : phones.values();
+    }
+
+    /**
+     * Recherche les personnes portant un prénom et un nom, sans tenir compte de la casse.
+     *
+     * @param firstName prénom recherché
+     * @param lastName  nom recherché
+     * @return personnes correspondantes, dans leur ordre d'ajout ; vide si aucune
+     */
+    public List<PersonModel> findPersonsByName(String firstName, String lastName) {
+        String name = IndexKeys.name(firstName, lastName);
+        List<PersonModel> found = new ArrayList<>();
+        for (PersonModel person : personsByLastName.getOrDefault(IndexKeys.lastName(lastName), RecordList.empty())) {
+            if (IndexKeys.name(person.getFirstName(), person.getLastName()).equals(name)) {
+                found.add(person);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Recherche les adresses couvertes par une caserne.
+     *
+     * @param station numéro de la caserne
+     * @return adresses distinctes couvertes, dans l'ordre des associations ; vide si la caserne n'existe pas
+     */
+    public List<String> findAddressesByStation(String station) {
+        Map<String, String> addresses = new LinkedHashMap<>();
+        for (FirestationModel firestation : firestationsByStation.getOrDefault(station, RecordList.empty())) {
+            if (firestation.getAddress() != null) {
+                addresses.putIfAbsent(IndexKeys.address(firestation.getAddress()), firestation.getAddress());
+            }
+        }
+        return new ArrayList<>(addresses.values());
+    }
+
+    /**
+     * Recherche toutes les casernes associées à une adresse.
+     *
+     * @param address adresse recherchée, comparée sans tenir compte de la casse ni des espaces
+     * @return numéros de caserne distincts, dans l'ordre des associations ; vide si l'adresse n'est pas couverte
+     */
+    public List<String> findStationsByAddress(String address) {
+        List<String> stations = new ArrayList<>();
+        for (FirestationModel firestation : firestationsByAddress.getOrDefault(IndexKeys.address(address), RecordList.empty())) {
+            if (!stations.contains(firestation.getStation())) {
+                stations.add(firestation.getStation());
+            }
+        }
+        return stations;
+    }
+
+    /**
+     * Recherche la caserne couvrant une adresse, sans tenir compte de la casse ni des espaces.
+     * Si l'adresse apparaît dans plusieurs associations, la dernière est retenue.
+     *
+     * @param address adresse recherchée
+     * @return numéro de la caserne, ou {@code null} si l'adresse n'est pas couverte
+     */
+    public String findStationByAddress(String address) {
+        RecordList<FirestationModel> mappings = firestationsByAddress.get(IndexKeys.address(address));
+        return mappings == null ? null : mappings.get(mappings.size() - 1).getStation();
+    }
+
+    /**
+     * Recherche le dossier médical d'une personne en O(log n), sans tenir compte de la casse.
+     * Si plusieurs dossiers portent ce nom, le premier de la liste est retenu.
+     *
+     * @param firstName prénom de la personne
+     * @param lastName  nom de la personne
+     * @return le dossier médical correspondant, ou {@code null} si aucun n'est trouvé
+     */
+    public MedicalrecordModel findMedicalrecord(String firstName, String lastName) {
+        RecordList<MedicalrecordModel> found = medicalrecordsByName.get(IndexKeys.name(firstName, lastName));
+        return found == null ? null : found.get(0);
+    }
+
+    long nextRecordId() {
+        return nextRecordId;
+    }
+
+    PersistentTreeMap<String, RecordList<MedicalrecordModel>> medicalrecordsByName() {
+        return medicalrecordsByName;
+    }
+
+    PersistentTreeMap<String, RecordList<PersonModel>> personsByAddress() {
+        return personsByAddress;
+    }
+
+    PersistentTreeMap<String, RecordList<PersonModel>> personsByLastName() {
+        return personsByLastName;
+    }
+
+    PersistentTreeMap<String, DistinctValues> emailsByCity() {
+        return emailsByCity;
+    }
+
+    PersistentTreeMap<String, DistinctValues> phonesByStation() {
+        return phonesByStation;
+    }
+
+    PersistentTreeMap<String, RecordList<FirestationModel>> firestationsByAddress() {
+        return firestationsByAddress;
+    }
+
+    PersistentTreeMap<String, RecordList<FirestationModel>> firestationsByStation() {
+        return firestationsByStation;
+    }
+
+    RecordList<PersonModel> persons() {
+        return persons;
+    }
+
+    RecordList<FirestationModel> firestations() {
+        return firestations;
+    }
+
+    RecordList<MedicalrecordModel> medicalrecords() {
+        return medicalrecords;
+    }
+}
@@ -0,0 +1,680 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Construit l'état suivant du {@link DataStore} à partir de l'état publié, sans jamais le modifier.
+ *
+ * <p>
+ * Listes et index sont des arbres persistants : chaque ajout, remplacement ou suppression ne recopie que
+ * le chemin menant à l'élément touché, en O(log n), et partage tout le reste avec l'état précédent.
+ * Le coût d'une écriture dépend donc du nombre d'éléments qu'elle touche et non de la taille du jeu de données.
+ * Les lecteurs de l'état précédent ne voient jamais une écriture en cours.
+ * </p>
+ *
+ * <p>
+ * Chaque élément ajouté reçoit l'identifiant suivant, qu'il garde s'il est remplacé : les identifiants
+ * restent croissants dans l'ordre des listes, ce qui permet la pagination de {@link DataSnapshot}.
+ * Les éléments visés par une mise à jour ou une suppression sont retrouvés par les index des noms,
+ * des adresses et des casernes, puis par leur identifiant, sans parcourir les listes.
+ * Chaque élément ajouté, remplacé ou supprimé est noté pour être signalé aux {@link DataStoreListener}
+ * avec le nouvel état, et son foyer, sa caserne ou son nom sont notés une seule fois dans les {@link DataChanges}
+ * de la modification. Utilisé par un seul thread, sous le verrou du {@link DataStore}.
+ * </p>
+ */
+final class DataSnapshotBuilder {
+
+    private long nextRecordId;
+    private RecordList<PersonModel> persons;
+    private RecordList<FirestationModel> firestations;
+    private RecordList<MedicalrecordModel> medicalrecords;
+    private final Index<RecordList<MedicalrecordModel>> medicalrecordsByName;
+    private final Index<RecordList<PersonModel>> personsByAddress;
+    private final Index<RecordList<PersonModel>> personsByLastName;
+    private final Index<DistinctValues> emailsByCity;
+    private final Index<DistinctValues> phonesByStation;
+    private final Index<RecordList<FirestationModel>> firestationsByAddress;
+    private final Index<RecordList<FirestationModel>> firestationsByStation;
+
+    private final List<BiConsumer<DataStoreListener, DataSnapshot>> events = new ArrayList<>();
+    private final DataChanges changes = new DataChanges();
+
+    /**
+     * @param previous état publié dont part la modification
+     */
+    DataSnapshotBuilder(DataSnapshot previous) {
+        this.nextRecordId = previous.nextRecordId();
+        this.persons = previous.persons();
+        this.firestations = previous.firestations();
+        this.medicalrecords = previous.medicalrecords();
+        this.medicalrecordsByName = Index.ofRecords(previous.medicalrecordsByName());
+        this.personsByAddress = Index.ofRecords(previous.personsByAddress());
+        this.personsByLastName = Index.ofRecords(previous.personsByLastName());
+        this.emailsByCity = Index.ofDistinctValues(previous.emailsByCity());
+        this.phonesByStation = Index.ofDistinctValues(previous.phonesByStation());
+        this.firestationsByAddress = Index.ofRecords(previous.firestationsByAddress());
+        this.firestationsByStation = Index.ofRecords(previous.firestationsByStation());
+    }
+
+    /**
+     * Construit l'état initial à partir d'un jeu de données lu depuis un fichier.
+     * Les listes sont construites d'un bloc, en O(n), puis chaque élément est indexé.
+     *
+     * @param dataset personnes, casernes et dossiers médicaux chargés, avec leur numéro de séquence
+     * @return état immuable indexé
+     */
+    static DataSnapshot of(Dataset dataset) {
+        DataSnapshotBuilder builder = new DataSnapshotBuilder(DataSnapshot.EMPTY);
+        builder.persons = RecordList.of(dataset.getPersons(), builder.nextRecordId);
+        builder.nextRecordId += dataset.getPersons().size();
+        builder.firestations = RecordList.of(dataset.getFirestations(), builder.nextRecordId);
+        builder.nextRecordId += dataset.getFirestations().size();
+        builder.medicalrecords = RecordList.of(dataset.getMedicalrecords(), builder.nextRecordId);
+        builder.nextRecordId += dataset.getMedicalrecords().size();
+        //les personnes sont indexées avant les associations, qui comptent les téléphones des résidents couverts
+        builder.persons.forEachWithId(builder::indexPerson);
+        builder.firestations.forEachWithId(builder::indexFirestation);
+        builder.medicalrecords.forEachWithId(builder::indexMedicalrecord);
+        return builder.build(dataset.getSequence());
+    }
+
+    /**
+     * Applique une modification à l'état en construction.
+     *
+     * @param mutation modification à appliquer
+     * @return {@code true} si les données ont été modifiées, {@code false} si aucun élément ne correspondait
+     */
+    boolean apply(Mutation mutation) {
+        return switch (mutation.getType()) {
+            case ADD_PERSON -> record(mutation, addNewPerson(mutation.getPerson()));
+            case UPDATE_PERSON -> updatePerson(mutation.getPerson());
+            case DELETE_PERSON -> deletePersons(mutation.getPerson());
+            case ADD_FIRESTATION -> record(mutation, addNewFirestation(mutation.getFirestation()));
+            case UPDATE_FIRESTATION -> updateFirestation(mutation.getFirestation());
+            case DELETE_FIRESTATION -> deleteFirestations(mutation.getFirestation());
+            case ADD_MEDICALRECORD -> record(mutation, addNewMedicalrecord(mutation.getMedicalrecord()));
+            case UPDATE_MEDICALRECORD -> updateMedicalrecord(mutation.getMedicalrecord());
+            case DELETE_MEDICALRECORD -> deleteMedicalrecords(mutation.getMedicalrecord());
+            case UPSERT_PERSONS -> record(mutation, upsertPersons(mutation.getPersons()));
+            case DELETE_PERSONS -> record(mutation, deletePersons(mutation.getPersons()));
+            case UPSERT_FIRESTATIONS -> record(mutation, upsertFirestations(mutation.getFirestations()));
+            case DELETE_FIRESTATIONS -> record(mutation, deleteFirestations(mutation.getFirestations()));
+            case UPSERT_MEDICALRECORDS -> record(mutation, upsertMedicalrecords(mutation.getMedicalrecords()));
+            case DELETE_MEDICALRECORDS -> record(mutation, deleteMedicalrecords(mutation.getMedicalrecords()));
+            case UPSERT_RECORDS -> record(mutation, upsertRecords(mutation));
+        };
+    }
+
+    /**
+     * Applique les personnes, puis les associations, puis les dossiers médicaux d'un même paquet.
+     * Un type absent du paquet ne parcourt pas sa liste.
+     */
+    private BatchResult upsertRecords(Mutation mutation) {
+        BatchResult result = new BatchResult(0, 0, 0, 0);
+        if (mutation.getPersons() != null && !mutation.getPersons().isEmpty()) {
+            result = result.plus(upsertPersons(mutation.getPersons()));
+        }
+        if (mutation.getFirestations() != null && !mutation.getFirestations().isEmpty()) {
+            result = result.plus(upsertFirestations(mutation.getFirestations()));
+        }
+        if (mutation.getMedicalrecords() != null && !mutation.getMedicalrecords().isEmpty()) {
+            result = result.plus(upsertMedicalrecords(mutation.getMedicalrecords()));
+        }
+        return result;
+    }
+
+    /**
+     * Note le bilan d'un ajout ou d'une modification par lot sur la modification elle-même, pour l'appelant.
+     */
+    private static boolean record(Mutation mutation, BatchResult result) {
+        mutation.setResult(result);
+        return result.created() + result.updated() + result.deleted() > 0;
+    }
+
+    /**
+     * Fige l'état en construction. Le builder ne doit plus être utilisé ensuite.
+     *
+     * @param version numéro de séquence de la dernière modification incluse
+     * @return nouvel état immuable
+     */
+    DataSnapshot build(long version) {
+        return new DataSnapshot(version, nextRecordId, persons, firestations, medicalrecords,
+                medicalrecordsByName.build(), personsByAddress.build(), personsByLastName.build(),
+                emailsByCity.build(), phonesByStation.build(), firestationsByAddress.build(), firestationsByStation.build());
+    }
+
+    /**
+     * @return éléments modifiés, à signaler aux observateurs avec le nouvel état, dans l'ordre des modifications
+     */
+    List<BiConsumer<DataStoreListener, DataSnapshot>> events() {
+        return events;
+    }
+
+    /**
+     * @return foyers, casernes et noms touchés, à signaler une seule fois aux observateurs avec le nouvel état
+     */
+    DataChanges changes() {
+        return changes;
+    }
+
+    private void indexPerson(long id, PersonModel person) {
+        personsByAddress.update(IndexKeys.address(person.getAddress()), residents -> residents.with(id, person));
+        if (person.getLastName() != null) {
+            personsByLastName.update(IndexKeys.lastName(person.getLastName()), family -> family.with(id, person));
+        }
+        if (person.getCity() != null && person.getEmail() != null) {
+            emailsByCity.update(IndexKeys.city(person.getCity()), emails -> emails.count(person.getEmail(), 1));
+        }
+        countPhone(person, 1);
+    }
+
+    private void unindexPerson(long id, PersonModel person) {
+        personsByAddress.update(IndexKeys.address(person.getAddress()), residents -> residents.without(id));
+        if (person.getLastName() != null) {
+            personsByLastName.update(IndexKeys.lastName(person.getLastName()), family -> family.without(id));
+        }
+        if (person.getCity() != null && person.getEmail() != null) {
+            //l'adresse e-mail ne disparaît de la ville qu'avec le dernier résident qui la partage
+            emailsByCity.update(IndexKeys.city(person.getCity()), emails -> emails.count(person.getEmail(), -1));
+        }
+        countPhone(person, -1);
+    }
+
+    /**
+     * Les associations sont indexées par identifiant, donc dans l'ordre de la liste : la dernière d'une adresse
+     * donne la caserne de cette adresse, comme le faisait le parcours complet de la liste.
+     */
+    private void indexFirestation(long id, FirestationModel firestation) {
+        boolean covered = covers(firestation.getStation(), firestation.getAddress());
+        firestationsByAddress.update(IndexKeys.address(firestation.getAddress()), mappings -> mappings.with(id, firestation));
+        firestationsByStation.update(firestation.getStation(), mappings -> mappings.with(id, firestation));
+        if (!covered) {
+            countPhones(firestation.getStation(), firestation.getAddress(), 1);
+        }
+    }
+
+    private void unindexFirestation(long id, FirestationModel firestation) {
+        firestationsByAddress.update(IndexKeys.address(firestation.getAddress()), mappings -> mappings.without(id));
+        firestationsByStation.update(firestation.getStation(), mappings -> mappings.without(id));
+        if (!covers(firestation.getStation(), firestation.getAddress())) {
+            countPhones(firestation.getStation(), firestation.getAddress(), -1);
+        }
+    }
+
+    /**
+     * Les dossiers d'un même nom sont rangés dans l'ordre de la liste : le premier est celui retenu
+     * par {@link DataSnapshot#findMedicalrecord(String, String)}, même après la suppression d'un autre.
+     */
+    private void indexMedicalrecord(long id, MedicalrecordModel medicalrecord) {
+        medicalrecordsByName.update(IndexKeys.name(medicalrecord.getFirstName(), medicalrecord.getLastName()),
+                namesakes -> namesakes.with(id, medicalrecord));
+    }
+
+    private void unindexMedicalrecord(long id, MedicalrecordModel medicalrecord) {
+        medicalrecordsByName.update(IndexKeys.name(medicalrecord.getFirstName(), medicalrecord.getLastName()),
+                namesakes -> namesakes.without(id));
+    }
+
+    /**
+     * Indique si une caserne couvre une adresse par au moins une association.
+     * Une association sans adresse ne couvre aucun résident, comme dans {@link DataSnapshot#findAddressesByStation(String)}.
+     */
+    private boolean covers(String station, String address) {
+        if (address == null) {
+            return false;
+        }
+        for (FirestationModel firestation : firestationsByAddress.get(IndexKeys.address(address))) {
+            if (firestation.getAddress() != null && Objects.equals(firestation.getStation(), station)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compte ou décompte le numéro de téléphone d'un résident pour chaque caserne couvrant son adresse.
+     */
+    private void countPhone(PersonModel person, int delta) {
+        if (person.getAddress() == null) {
+            return;
+        }
+        List<String> stations = new ArrayList<>();
+        for (FirestationModel firestation : firestationsByAddress.get(IndexKeys.address(person.getAddress()))) {
+            if (firestation.getAddress() != null && !stations.contains(firestation.getStation())) {
+                stations.add(firestation.getStation());
+                countPhone(firestation.getStation(), person.getPhone(), delta);
+            }
+        }
+    }
+
+    /**
+     * Compte ou décompte les numéros de téléphone de tous les résidents d'une adresse pour une caserne.
+     */
+    private void countPhones(String station, String address, int delta) {
+        if (address == null) {
+            return;
+        }
+        for (PersonModel person : personsByAddress.get(IndexKeys.address(address))) {
+            countPhone(station, person.getPhone(), delta);
+        }
+    }
+
+    /**
+     * Un numéro reste dans la liste d'une caserne tant qu'au moins un résident couvert le partage.
+     */
+    private void countPhone(String station, String phone, int delta) {
+        if (station == null || phone == null) {
+            return;
+        }
+        phonesByStation.update(station, phones -> phones.count(phone, delta));
+    }
+
+    /**
+     * Identifiants, dans l'ordre de la liste, des personnes portant exactement ce prénom et ce nom,
+     * retrouvées parmi les membres de leur famille.
+     */
+    private List<Long> findPersons(PersonModel criteria) {
+        List<Long> ids = new ArrayList<>();
+        personsByLastName.get(IndexKeys.lastName(criteria.getLastName())).forEachWithId((id, p) -> {
+            if (samePerson(p, criteria)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Identifiants, dans l'ordre de la liste, des associations de cette adresse exacte.
+     */
+    private List<Long> findFirestationsByAddress(String address) {
+        List<Long> ids = new ArrayList<>();
+        if (address != null) {
+            firestationsByAddress.get(IndexKeys.address(address)).forEachWithId((id, f) -> {
+                if (address.equals(f.getAddress())) {
+                    ids.add(id);
+                }
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * Identifiants, dans l'ordre de la liste, des dossiers médicaux portant exactement ce prénom et ce nom.
+     */
+    private List<Long> findMedicalrecords(MedicalrecordModel criteria) {
+        List<Long> ids = new ArrayList<>();
+        medicalrecordsByName.get(IndexKeys.name(criteria.getFirstName(), criteria.getLastName())).forEachWithId((id, m) -> {
+            if (sameMedicalrecord(m, criteria)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Les éléments modifiés sont remplacés par une nouvelle instance : les objets de l'état précédent,
+     * encore lus par les requêtes en cours ou écrits par le compacteur, ne changent jamais.
+     */
+    private boolean updatePerson(PersonModel person) {
+        List<Long> ids = findPersons(person);
+        if (ids.isEmpty()) {
+            return false;
+        }
+        replacePerson(ids.get(0), person);
+        return true;
+    }
+
+    private void replacePerson(long id, PersonModel person) {
+        PersonModel p = persons.find(id);
+        PersonModel updated = new PersonModel(p.getFirstName(), p.getLastName(), person.getAddress(),
+                person.getCity(), person.getZip(), person.getPhone(), person.getEmail());
+        persons = persons.with(id, updated);
+        unindexPerson(id, p);
+        indexPerson(id, updated);
+        events.add((listener, next) -> listener.personChanged(next, p, updated));
+        changes.person(p);
+        changes.person(updated);
+    }
+
+    /**
+     * Met à jour ou ajoute chaque personne du lot, retrouvée par l'index des familles ;
+     * une personne présente deux fois dans le lot est ajoutée puis mise à jour.
+     */
+    private BatchResult upsertPersons(List<PersonModel> batch) {
+        int created = 0;
+        int updated = 0;
+        for (PersonModel person : batch) {
+            List<Long> ids = findPersons(person);
+            if (ids.isEmpty()) {
+                addPerson(person);
+                created++;
+            } else {
+                replacePerson(ids.get(0), person);
+                updated++;
+            }
+        }
+        return new BatchResult(created, updated, 0, 0);
+    }
+
+    /**
+     * Ajoute une personne, sauf si une personne porte déjà exactement ce prénom et ce nom. La vérification
+     * passe par l'index des familles, sous le verrou du {@link DataStore} : de deux ajouts simultanés
+     * de la même personne, seul le premier est appliqué et journalisé.
+     *
+     * @return bilan d'un ajout, ou d'un rejet si la personne existe déjà
+     */
+    private BatchResult addNewPerson(PersonModel person) {
+        if (!findPersons(person).isEmpty()) {
+            return new BatchResult(0, 0, 0, 1);
+        }
+        addPerson(person);
+        return new BatchResult(1, 0, 0, 0);
+    }
+
+    private void addPerson(PersonModel person) {
+        long id = nextRecordId++;
+        persons = persons.with(id, person);
+        indexPerson(id, person);
+        events.add((listener, next) -> listener.personChanged(next, null, person));
+        changes.person(person);
+    }
+
+    private boolean deletePersons(PersonModel criteria) {
+        return removePersons(findPersons(criteria)) > 0;
+    }
+
+    private BatchResult deletePersons(List<PersonModel> criteria) {
+        Set<Long> ids = new TreeSet<>();
+        for (PersonModel person : criteria) {
+            ids.addAll(findPersons(person));
+        }
+        return new BatchResult(0, 0, removePersons(ids), 0);
+    }
+
+    /**
+     * Retire les personnes désignées, dans l'ordre de la liste.
+     *
+     * @return nombre de personnes supprimées
+     */
+    private int removePersons(Collection<Long> ids) {
+        for (long id : ids) {
+            PersonModel p = persons.find(id);
+            persons = persons.without(id);
+            unindexPerson(id, p);
+            events.add((listener, next) -> listener.personChanged(next, p, null));
+            changes.person(p);
+        }
+        return ids.size();
+    }
+
+    private boolean updateFirestation(FirestationModel firestation) {
+        List<Long> ids = findFirestationsByAddress(firestation.getAddress());
+        if (ids.isEmpty()) {
+            return false;
+        }
+        replaceFirestation(ids.get(0), firestation.getStation());
+        return true;
+    }
+
+    private void replaceFirestation(long id, String station) {
+        FirestationModel f = firestations.find(id);
+        FirestationModel updated = new FirestationModel(f.getAddress(), station);
+        boolean covered = covers(updated.getStation(), updated.getAddress());
+        firestations = firestations.with(id, updated);
+        //l'association garde son identifiant, donc sa place dans l'index des adresses, qui détermine la caserne retenue
+        firestationsByAddress.update(IndexKeys.address(f.getAddress()), mappings -> mappings.with(id, updated));
+        firestationsByStation.update(f.getStation(), mappings -> mappings.without(id));
+        firestationsByStation.update(updated.getStation(), mappings -> mappings.with(id, updated));
+        if (!covers(f.getStation(), f.getAddress())) {
+            countPhones(f.getStation(), f.getAddress(), -1);
+        }
+        if (!covered) {
+            countPhones(updated.getStation(), updated.getAddress(), 1);
+        }
+        events.add((listener, next) -> listener.firestationChanged(next, f, updated));
+        changes.firestation(f);
+        changes.firestation(updated);
+    }
+
+    /**
+     * Met à jour ou ajoute l'association de chaque adresse du lot, retrouvée par l'index des adresses.
+     */
+    private BatchResult upsertFirestations(List<FirestationModel> batch) {
+        int created = 0;
+        int updated = 0;
+        for (FirestationModel firestation : batch) {
+            List<Long> ids = findFirestationsByAddress(firestation.getAddress());
+            if (ids.isEmpty()) {
+                addFirestation(firestation);
+                created++;
+            } else {
+                replaceFirestation(ids.get(0), firestation.getStation());
+                updated++;
+            }
+        }
+        return new BatchResult(created, updated, 0, 0);
+    }
+
+    /**
+     * Ajoute une association, sauf si cette adresse exacte est déjà associée à une caserne,
+     * vérifié par l'index des adresses sous le verrou du {@link DataStore}.
+     *
+     * @return bilan d'un ajout, ou d'un rejet si l'adresse est déjà couverte
+     */
+    private BatchResult addNewFirestation(FirestationModel firestation) {
+        if (!findFirestationsByAddress(firestation.getAddress()).isEmpty()) {
+            return new BatchResult(0, 0, 0, 1);
+        }
+        addFirestation(firestation);
+        return new BatchResult(1, 0, 0, 0);
+    }
+
+    private void addFirestation(FirestationModel firestation) {
+        long id = nextRecordId++;
+        firestations = firestations.with(id, firestation);
+        indexFirestation(id, firestation);
+        events.add((listener, next) -> listener.firestationChanged(next, null, firestation));
+        changes.firestation(firestation);
+    }
+
+    private boolean deleteFirestations(FirestationModel criteria) {
+        return removeFirestations(findFirestations(List.of(criteria))) > 0;
+    }
+
+    private BatchResult deleteFirestations(List<FirestationModel> criteria) {
+        return new BatchResult(0, 0, removeFirestations(findFirestations(criteria)), 0);
+    }
+
+    /**
+     * Identifiants, dans l'ordre de la liste, des associations d'une des adresses ou d'une des casernes des critères,
+     * retrouvées par les index des adresses et des casernes.
+     */
+    private Set<Long> findFirestations(List<FirestationModel> criteria) {
+        Set<Long> ids = new TreeSet<>();
+        for (FirestationModel firestation : criteria) {
+            ids.addAll(findFirestationsByAddress(firestation.getAddress()));
+            if (firestation.getStation() != null) {
+                firestationsByStation.get(firestation.getStation()).forEachWithId((id, f) -> ids.add(id));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Retire les associations désignées, dans l'ordre de la liste.
+     *
+     * @return nombre d'associations supprimées
+     */
+    private int removeFirestations(Collection<Long> ids) {
+        for (long id : ids) {
+            FirestationModel f = firestations.find(id);
+            firestations = firestations.without(id);
+            unindexFirestation(id, f);
+            events.add((listener, next) -> listener.firestationChanged(next, f, null));
+            changes.firestation(f);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Ajoute un dossier médical, sauf si un dossier porte déjà exactement ce prénom et ce nom,
+     * vérifié par l'index des noms sous le verrou du {@link DataStore}.
+     *
+     * @return bilan d'un ajout, ou d'un rejet si le dossier existe déjà
+     */
+    private BatchResult addNewMedicalrecord(MedicalrecordModel medicalrecord) {
+        if (!findMedicalrecords(medicalrecord).isEmpty()) {
+            return new BatchResult(0, 0, 0, 1);
+        }
+        addMedicalrecord(medicalrecord);
+        return new BatchResult(1, 0, 0, 0);
+    }
+
+    private void addMedicalrecord(MedicalrecordModel medicalrecord) {
+        long id = nextRecordId++;
+        medicalrecords = medicalrecords.with(id, medicalrecord);
+        indexMedicalrecord(id, medicalrecord);
+        events.add((listener, next) -> listener.medicalrecordChanged(next, null, medicalrecord));
+        changes.medicalrecord(medicalrecord);
+    }
+
+    private boolean updateMedicalrecord(MedicalrecordModel medicalrecord) {
+        List<Long> ids = findMedicalrecords(medicalrecord);
+        if (ids.isEmpty()) {
+            return false;
+        }
+        replaceMedicalrecord(ids.get(0), medicalrecord);
+        return true;
+    }
+
+    private void replaceMedicalrecord(long id, MedicalrecordModel medicalrecord) {
+        MedicalrecordModel m = medicalrecords.find(id);
+        MedicalrecordModel updated = new MedicalrecordModel(m.getFirstName(), m.getLastName(),
+                medicalrecord.getBirthdate(), medicalrecord.getMedications(), medicalrecord.getAllergies());
+        medicalrecords = medicalrecords.with(id, updated);
+        indexMedicalrecord(id, updated);
+        events.add((listener, next) -> listener.medicalrecordChanged(next, m, updated));
+        changes.medicalrecord(updated);
+    }
+
+    /**
+     * Met à jour ou ajoute chaque dossier médical du lot, retrouvé par l'index des noms.
+     */
+    private BatchResult upsertMedicalrecords(List<MedicalrecordModel> batch) {
+        int created = 0;
+        int updated = 0;
+        for (MedicalrecordModel medicalrecord : batch) {
+            List<Long> ids = findMedicalrecords(medicalrecord);
+            if (ids.isEmpty()) {
+                addMedicalrecord(medicalrecord);
+                created++;
+            } else {
+                replaceMedicalrecord(ids.get(0), medicalrecord);
+                updated++;
+            }
+        }
+        return new BatchResult(created, updated, 0, 0);
+    }
+
+    private boolean deleteMedicalrecords(MedicalrecordModel criteria) {
+        return removeMedicalrecords(findMedicalrecords(criteria)) > 0;
+    }
+
+    private BatchResult deleteMedicalrecords(List<MedicalrecordModel> criteria) {
+        Set<Long> ids = new TreeSet<>();
+        for (MedicalrecordModel medicalrecord : criteria) {
+            ids.addAll(findMedicalrecords(medicalrecord));
+        }
+        return new BatchResult(0, 0, removeMedicalrecords(ids), 0);
+    }
+
+    /**
+     * Retire les dossiers désignés, dans l'ordre de la liste. L'index des noms n'est modifié que pour
+     * les noms supprimés : un homonyme restant devient le dossier retenu pour ce nom.
+     *
+     * @return nombre de dossiers supprimés
+     */
+    private int removeMedicalrecords(Collection<Long> ids) {
+        for (long id : ids) {
+            MedicalrecordModel m = medicalrecords.find(id);
+            medicalrecords = medicalrecords.without(id);
+            unindexMedicalrecord(id, m);
+            events.add((listener, next) -> listener.medicalrecordChanged(next, m, null));
+            changes.medicalrecord(m);
+        }
+        return ids.size();
+    }
+
+    private static boolean samePerson(PersonModel p, PersonModel other) {
+        return other.getFirstName() != null && other.getFirstName().equals(p.getFirstName())
+                && other.getLastName() != null && other.getLastName().equals(p.getLastName());
+    }
+
+    private static boolean sameMedicalrecord(MedicalrecordModel m, MedicalrecordModel other) {
+        return other.getFirstName() != null && other.getFirstName().equals(m.getFirstName())
+                && other.getLastName() != null && other.getLastName().equals(m.getLastName());
+    }
+
+    /**
+     * Index persistant : les groupes modifiés sont tenus à part pendant la construction, puis chaque clé touchée
+     * est reportée une seule fois dans la table publiée par {@link #build()}, en ne recopiant que le chemin vers
+     * cette clé (ou d'un bloc si la plupart des clés sont touchées, comme au chargement). Dans un groupe, seul
+     * le chemin vers l'élément touché est recopié. Les groupes devenus vides sont retirés.
+     */
+    private static final class Index<V> {
+
+        private final PersistentTreeMap<String, V> published;
+        private final V empty;
+        private final Predicate<V> isEmpty;
+        private final Map<String, V> edited = new HashMap<>();
+
+        private Index(PersistentTreeMap<String, V> published, V empty, Predicate<V> isEmpty) {
+            this.published = published;
+            this.empty = empty;
+            this.isEmpty = isEmpty;
+        }
+
+        static <T> Index<RecordList<T>> ofRecords(PersistentTreeMap<String, RecordList<T>> published) {
+            return new Index<>(published, RecordList.empty(), RecordList::isEmpty);
+        }
+
+        static Index<DistinctValues> ofDistinctValues(PersistentTreeMap<String, DistinctValues> published) {
+            return new Index<>(published, DistinctValues.EMPTY, DistinctValues::isEmpty);
+        }
+
+        /**
+         * @return groupe de la clé, vide si la clé est absente
+         */
+        V get(String key) {
+            //un groupe modifié n'est jamais null avant build(), les groupes vidés y restent comme groupes vides
+            V value = edited.get(key);
+            if (value == null) {
+                value = published.get(key);
+            }
+            return value == null ? empty : value;
+        }
+
+        void update(String key, UnaryOperator<V> change) {
+            edited.put(key, change.apply(get(key)));
+        }
+
+        PersistentTreeMap<String, V> build() {
+            edited.replaceAll((key, value) -> isEmpty.test(value) ? null : value);
+            return published.withAll(edited);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Jeu de données partagé par les repositories, chargé une seule fois au démarrage.
+ *
+ * <p>
+ * Les données sont lues depuis le fichier externe configuré par {@code safetynet.data.file}
+ * lorsqu'il existe (il est écrit par le compacteur du {@link MutationJournal}), sinon depuis
+ * {@code data/data.json} dans le classpath. Le {@link MutationJournal} rejoue ensuite les
+ * modifications enregistrées depuis l'écriture de ce fichier.
+ * </p>
+ *
+ * <p>
+ * Les personnes, casernes et dossiers médicaux sont conservés en mémoire : les repositories
+ * lisent ces listes au lieu de relire le fichier à chaque appel de {@code findAll()}, et les modifient
+ * par le {@link MutationJournal}, qui n'en publie l'effet qu'une fois la modification écrite sur disque.
+ * Le temps de chargement et le nombre d'enregistrements sont exposés afin de pouvoir vérifier
+ * que le fichier n'est lu qu'une seule fois par processus.
+ * </p>
+ *
+ * <p>
+ * Chaque élément ajouté, remplacé ou supprimé est signalé aux {@link DataStoreListener} enregistrés,
+ * qui maintiennent ainsi leurs vues sans reparcourir les données.
+ * </p>
+ *
+ * <p>
+ * Les données sont un {@link DataSnapshot} immuable derrière une seule référence {@code volatile}.
+ * Une écriture construit l'état suivant à partir de l'état courant, en ne recopiant que ce qu'elle touche,
+ * puis remplace la référence : les lectures ne prennent jamais de verrou, et une requête qui conserve
+ * le même état pour toutes ses lectures voit des données cohérentes même pendant une écriture.
+ * Une modification est d'abord préparée par {@link #stage(Mutation)} : l'état suivant est construit à la suite
+ * des modifications déjà préparées, mais il n'est publié par {@link #publish(Staged)} qu'une fois la modification
+ * journalisée. Les observateurs reçoivent le nouvel état avant sa publication.
+ * </p>
+ */
+@Component
+public class DataStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataStore.class);
+
+    private static final String DATA_FILE = "data/data.json";
+
+    private final DatasetParser datasetParser;
+    private final Path dataFile;
+
+    private final List<DataStoreListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile DataSnapshot snapshot = DataSnapshot.EMPTY;
+    private DataSnapshot head = DataSnapshot.EMPTY;
+
+    private volatile String loadId;
+    private long loadTimeMillis;
+    private int loadCount;
+
+    /**
+     * Construit le jeu de données et charge immédiatement le fichier de données.
+     *
+     * @param datasetParser lecteur en flux du fichier JSON
+     * @param dataFile      chemin du fichier externe persistant les données
+     * @throws IOException si le fichier ne peut pas être lu ou si le contenu JSON est invalide
+     */
+    public DataStore(DatasetParser datasetParser, @Value("${safetynet.data.file}") String dataFile) throws IOException {
+        this.datasetParser = datasetParser;
+        this.dataFile = Path.of(dataFile);
+        load();
+    }
+
+    /**
+     * Lit le fichier externe s'il existe, sinon {@code data/data.json} depuis le classpath,
+     * et remplace les trois listes en mémoire.
+     *
+     * @throws IOException si le fichier ne peut pas être lu ou si le contenu JSON est invalide
+     */
+    private synchronized void load() throws IOException {
+
+        long start = System.nanoTime();
+        boolean external = Files.exists(dataFile);
+        String source = external ? dataFile.toString() : "classpath:" + DATA_FILE;
+
+        try (InputStream inputStream = external ? Files.newInputStream(dataFile) : new ClassPathResource(DATA_FILE).getInputStream()) {
+
+            snapshot = DataSnapshotBuilder.of(datasetParser.parse(inputStream));
+            head = snapshot;
+        }
+        loadId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+
+        loadTimeMillis = (System.nanoTime() - start) / 1_000_000;
+        loadCount++;
+
+        logger.info("Loaded {} in {} ms: {} persons, {} firestations, {} medicalrecords",
+                source, loadTimeMillis, getPersonCount(), getFirestationCount(), getMedicalrecordCount());
+    }
+
+    /**
+     * Enregistre un observateur des modifications.
+     * Pour construire sa vue initiale sans manquer de modification, l'observateur peut lire les données
+     * et s'enregistrer dans un même bloc {@code synchronized (dataStore)}.
+     *
+     * @param listener observateur notifié de chaque élément ajouté, remplacé ou supprimé
+     */
+    public synchronized void addListener(DataStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Retourne l'état publié après la dernière modification, sans prendre de verrou.
+     * Une requête lit cet état une seule fois et y fait toutes ses recherches.
+     *
+     * @return état immuable courant des données
+     */
+    public DataSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return liste non modifiable des personnes de l'état courant
+     */
+    public List<PersonModel> getPersons() {
+        return snapshot.getPersons();
+    }
+
+    /**
+     * @return liste non modifiable des associations adresse/caserne de l'état courant
+     */
+    public List<FirestationModel> getFirestations() {
+        return snapshot.getFirestations();
+    }
+
+    /**
+     * @return liste non modifiable des dossiers médicaux de l'état courant
+     */
+    public List<MedicalrecordModel> getMedicalrecords() {
+        return snapshot.getMedicalrecords();
+    }
+
+    /**
+     * Recherche les résidents d'une adresse via l'index des foyers, en O(taille du foyer).
+     * L'adresse est comparée sans tenir compte de la casse ni des espaces superflus.
+     *
+     * @param address adresse du foyer
+     * @return liste non modifiable des résidents, dans leur ordre d'ajout ; vide si aucun résident n'y habite
+     */
+    public List<PersonModel> findPersonsByAddress(String address) {
+        return snapshot.findPersonsByAddress(address);
+    }
+
+    /**
+     * Recherche les personnes portant un nom de famille via l'index des noms, en O(taille de la famille),
+     * avec pour chacune son dossier médical retrouvé par prénom + nom.
+     * Le nom est comparé sans tenir compte de la casse ni des espaces en début et fin.
+     *
+     * @param lastName nom de famille recherché
+     * @return membres de la famille dans leur ordre d'ajout, avec leur dossier médical ou {@code null} ; vide si aucun
+     */
+    public List<FamilyMember> findFamily(String lastName) {
+        return snapshot.findFamily(lastName);
+    }
+
+    /**
+     * Retourne les adresses e-mail distinctes des habitants d'une ville, sans parcourir les personnes.
+     *
+     * <p>
+     * Chaque ville garde ses adresses dans l'ordre de leur premier ajout, avec le nombre de résidents qui les
+     * partagent : chaque modification ne recopie que le chemin vers l'adresse touchée, sans jamais reconstruire l'index.
+     * La ville est comparée sans tenir compte de la casse ni des espaces en début et fin.
+     * </p>
+     *
+     * @param city ville recherchée
+     * @return liste non modifiable des adresses e-mail distinctes ; vide si personne n'habite la ville
+     */
+    public List<String> findEmailsByCity(String city) {
+        return snapshot.findEmailsByCity(city);
+    }
+
+    /**
+     * Retourne les numéros de téléphone distincts des résidents couverts par une caserne, sans parcourir les personnes.
+     *
+     * <p>
+     * Chaque caserne garde ses numéros dans l'ordre de leur premier ajout, avec le nombre de résidents couverts
+     * qui les partagent : l'index suit les modifications des personnes et des associations adresse/caserne.
+     * </p>
+     *
+     * @param station numéro de la caserne
+     * @return liste non modifiable des numéros distincts ; vide si la caserne ne couvre aucun résident
+     */
+    public List<String> findPhonesByStation(String station) {
+        return snapshot.findPhonesByStation(station);
+    }
+
+    /**
+     * Recherche les personnes portant un prénom et un nom, sans tenir compte de la casse, via l'index des noms.
+     *
+     * @param firstName prénom recherché
+     * @param lastName  nom recherché
+     * @return personnes correspondantes, dans leur ordre d'ajout ; vide si aucune
+     */
+    public List<PersonModel> findPersonsByName(String firstName, String lastName) {
+        return snapshot.findPersonsByName(firstName, lastName);
+    }
+
+    /**
+     * Recherche les adresses couvertes par une caserne via l'index des stations.
+     *
+     * @param station numéro de la caserne
+     * @return adresses distinctes couvertes, dans l'ordre des associations ; vide si la caserne n'existe pas
+     */
+    public List<String> findAddressesByStation(String station) {
+        return snapshot.findAddressesByStation(station);
+    }
+
+    /**
+     * Recherche toutes les casernes associées à une adresse via l'index des adresses.
+     *
+     * @param address adresse recherchée, comparée sans tenir compte de la casse ni des espaces
+     * @return numéros de caserne distincts, dans l'ordre des associations ; vide si l'adresse n'est pas couverte
+     */
+    public List<String> findStationsByAddress(String address) {
+        return snapshot.findStationsByAddress(address);
+    }
+
+    /**
+     * Recherche la caserne couvrant une adresse via l'index des adresses, sans tenir compte de la casse ni des espaces.
+     * Si l'adresse apparaît dans plusieurs associations, la dernière est retenue.
+     *
+     * @param address adresse recherchée
+     * @return numéro de la caserne, ou {@code null} si l'adresse n'est pas couverte
+     */
+    public String findStationByAddress(String address) {
+        return snapshot.findStationByAddress(address);
+    }
+
+    /**
+     * Recherche le dossier médical d'une personne en O(log n), sans tenir compte de la casse.
+     *
+     * @param firstName prénom de la personne
+     * @param lastName  nom de la personne
+     * @return le dossier médical correspondant, ou {@code null} si aucun n'est trouvé
+     */
+    public MedicalrecordModel findMedicalrecord(String firstName, String lastName) {
+        return snapshot.findMedicalrecord(firstName, lastName);
+    }
+
+    /**
+     * Copie des trois listes de l'état courant, lue sans verrou : l'état publié est toujours cohérent.
+     *
+     * @return un {@link Dataset} contenant une copie des personnes, casernes et dossiers médicaux
+     * et le numéro de la dernière modification appliquée
+     */
+    public Dataset toDataset() {
+        DataSnapshot current = snapshot;
+        Dataset dataset = new Dataset();
+        dataset.setSequence(current.getVersion());
+        dataset.getPersons().addAll(current.getPersons());
+        dataset.getFirestations().addAll(current.getFirestations());
+        dataset.getMedicalrecords().addAll(current.getMedicalrecords());
+        return dataset;
+    }
+
+    /**
+     * @return chemin du fichier externe persistant les données
+     */
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * @return numéro de la dernière modification appliquée, {@code 0} si aucune ne l'a été depuis le fichier d'origine
+     */
+    public long getSequence() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Les identifiants des enregistrements sont réattribués à chaque chargement : cet identifiant distingue
+     * deux chargements qui atteignent le même numéro de modification.
+     *
+     * @return identifiant tiré au hasard au chargement du fichier de données
+     */
+    public String getLoadId() {
+        return loadId;
+    }
+
+    /**
+     * Prépare une modification et lui attribue le numéro de séquence suivant si elle change les données.
+     * L'état suivant est construit à partir du dernier état préparé, qui inclut les modifications
+     * pas encore publiées ; l'état publié reste inchangé et lisible sans verrou.
+     *
+     * @param mutation modification à appliquer
+     * @return modification préparée, à publier avec {@link #publish(Staged)} une fois journalisée,
+     * ou {@code null} si aucun élément ne correspondait
+     */
+    synchronized Staged stage(Mutation mutation) {
+        DataSnapshotBuilder builder = new DataSnapshotBuilder(head);
+        if (!builder.apply(mutation)) {
+            return null;
+        }
+        mutation.setSequence(head.getVersion() + 1);
+        head = builder.build(mutation.getSequence());
+        return new Staged(head, builder.events(), builder.changes());
+    }
+
+    /**
+     * Publie une modification préparée. Les modifications sont publiées dans l'ordre où elles ont été préparées.
+     *
+     * @param staged modification préparée et journalisée
+     */
+    synchronized void publish(Staged staged) {
+        publish(staged.next(), staged.events(), staged.changes());
+    }
+
+    /**
+     * Abandonne les modifications préparées et pas encore publiées, par exemple après l'échec de leur écriture
+     * dans le journal : la prochaine modification repart de l'état publié.
+     */
+    synchronized void discardStaged() {
+        head = snapshot;
+    }
+
+    /**
+     * Rejoue une modification lue dans le journal. Les modifications déjà incluses dans les données
+     * chargées (séquence inférieure ou égale à la séquence courante) sont ignorées.
+     *
+     * @param mutation modification relue, avec son numéro de séquence
+     */
+    synchronized void replay(Mutation mutation) {
+        if (mutation.getSequence() <= snapshot.getVersion()) {
+            return;
+        }
+        DataSnapshotBuilder builder = new DataSnapshotBuilder(snapshot);
+        builder.apply(mutation);
+        publish(builder.build(mutation.getSequence()), builder.events(), builder.changes());
+        head = snapshot;
+    }
+
+    /**
+     * Transmet le nouvel état aux observateurs avec chaque élément modifié, puis une seule fois avec
+     * l'ensemble des foyers, casernes et noms touchés, et le publie en remplaçant la référence courante.
+     * Les lecteurs ne voient le nouvel état qu'une fois les vues des observateurs mises à jour.
+     */
+    private void publish(DataSnapshot next, List<BiConsumer<DataStoreListener, DataSnapshot>> events, DataChanges changes) {
+        try {
+            for (BiConsumer<DataStoreListener, DataSnapshot> event : events) {
+                listeners.forEach(listener -> event.accept(listener, next));
+            }
+            if (!changes.isEmpty()) {
+                listeners.forEach(listener -> listener.dataChanged(next, changes));
+            }
+        } finally {
+            snapshot = next;
+        }
+    }
+
+    /**
+     * Modification préparée par {@link #stage(Mutation)} : état qui la suit, éléments et groupes touchés
+     * à signaler aux observateurs.
+     */
+    record Staged(DataSnapshot next, List<BiConsumer<DataStoreListener, DataSnapshot>> events, DataChanges changes) {
+    }
+
+    /**
+     * @return durée du dernier chargement du fichier, en millisecondes
+     */
+    public synchronized long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    /**
+     * @return nombre de fois où le fichier a été lu depuis le démarrage du processus
+     */
+    public synchronized int getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @return nombre de personnes actuellement en mémoire
+     */
+    public int getPersonCount() {
+        return snapshot.getPersons().size();
+    }
+
+    /**
+     * @return nombre d'associations adresse/caserne actuellement en mémoire
+     */
+    public int getFirestationCount() {
+        return snapshot.getFirestations().size();
+    }
+
+    /**
+     * @return nombre de dossiers médicaux actuellement en mémoire
+     */
+    public int getMedicalrecordCount() {
+        return snapshot.getMedicalrecords().size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+/**
+ * Observateur des modifications du {@link DataStore}, utilisé pour tenir à jour des vues précalculées.
+ *
+ * <p>
+ * Chaque méthode est appelée sous le verrou du {@link DataStore}, avec le {@link DataSnapshot} résultant
+ * de la modification, avant que cet état ne soit publié aux lecteurs : l'observateur le lit pour mettre à jour
+ * sa vue, qui est ainsi à jour dès que l'état est visible.
+ * Un ajout est signalé avec {@code before == null}, une suppression avec {@code after == null}.
+ * </p>
+ *
+ * <p>
+ * Après les éléments, {@link #dataChanged(DataSnapshot, DataChanges)} est appelée une seule fois par état publié
+ * avec les foyers, casernes et noms touchés : une vue qui recalcule un groupe entier le fait là,
+ * une fois par groupe, plutôt qu'une fois par élément d'un lot.
+ * </p>
+ */
+public interface DataStoreListener {
+
+    /**
+     * @param snapshot état résultant de la modification
+     * @param before   personne avant la modification, ou {@code null} pour un ajout
+     * @param after    personne après la modification, ou {@code null} pour une suppression
+     */
+    default void personChanged(DataSnapshot snapshot, PersonModel before, PersonModel after) {
+    }
+
+    /**
+     * @param snapshot état résultant de la modification
+     * @param before   association adresse/caserne avant la modification, ou {@code null} pour un ajout
+     * @param after    association adresse/caserne après la modification, ou {@code null} pour une suppression
+     */
+    default void firestationChanged(DataSnapshot snapshot, FirestationModel before, FirestationModel after) {
+    }
+
+    /**
+     * @param snapshot état résultant de la modification
+     * @param before   dossier médical avant la modification, ou {@code null} pour un ajout
+     * @param after    dossier médical après la modification, ou {@code null} pour une suppression
+     */
+    default void medicalrecordChanged(DataSnapshot snapshot, MedicalrecordModel before, MedicalrecordModel after) {
+    }
+
+    /**
+     * @param snapshot état résultant de la modification
+     * @param changes  foyers, casernes et noms touchés par l'ensemble de la modification
+     */
+    default void dataChanged(DataSnapshot snapshot, DataChanges changes) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contenu d'un fichier au format {@code data.json} : personnes, casernes et dossiers médicaux.
+ *
+ * <p>
+ * La séquence est le numéro de la dernière modification du journal incluse dans ces données ;
+ * elle vaut {@code 0} pour le fichier fourni avec l'application.
+ * </p>
+ */
+public class Dataset {
+
+    private long sequence;
+
+    private final List<PersonModel> persons = new ArrayList<>();
+
+    private final List<FirestationModel> firestations = new ArrayList<>();
+
+    private final List<MedicalrecordModel> medicalrecords = new ArrayList<>();
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public List<PersonModel> getPersons() {
+        return persons;
+    }
+
+    public List<FirestationModel> getFirestations() {
+        return firestations;
+    }
+
+    public List<MedicalrecordModel> getMedicalrecords() {
+        return medicalrecords;
+    }
+}
@@ -0,0 +1,123 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Lecteur en flux du fichier {@code data.json}.
+ *
+ * <p>
+ * Le fichier est parcouru une seule fois avec le {@link JsonParser} de Jackson : chaque élément
+ * des tableaux {@code persons}, {@code firestations} et {@code medicalrecords} est directement
+ * converti en objet du modèle, sans construire d'arbre {@code JsonNode} intermédiaire.
+ * Le numéro de séquence {@code sequence} écrit par le compacteur du journal est lu s'il est présent ;
+ * les sections inconnues sont ignorées.
+ * </p>
+ */
+@Component
+public class DatasetParser {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader personReader;
+    private final ObjectReader firestationReader;
+    private final ObjectReader medicalrecordReader;
+
+    /**
+     * Construit le lecteur avec un {@link ObjectMapper} injecté par Spring.
+     *
+     * @param objectMapper mapper Jackson utilisé pour créer le parser et convertir chaque élément en objet Java
+     */
+    public DatasetParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.personReader = elementReader(objectMapper, PersonModel.class);
+        this.firestationReader = elementReader(objectMapper, FirestationModel.class);
+        this.medicalrecordReader = elementReader(objectMapper, MedicalrecordModel.class);
+    }
+
+    /**
+     * Chaque élément est lu au milieu d'un tableau : les jetons qui le suivent ne sont pas une erreur.
+     */
+    private static ObjectReader elementReader(ObjectMapper objectMapper, Class<?> type) {
+        return objectMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    }
+
+    /**
+     * Lit un contenu au format {@code data.json}.
+     *
+     * @param inputStream flux à lire, qui n'est pas fermé par cette méthode
+     * @return le {@link Dataset} lu ; une section absente donne une liste vide
+     * @throws IOException si le contenu n'est pas un objet JSON ou si une section n'est pas un tableau
+     */
+    public Dataset parse(InputStream inputStream) throws IOException {
+
+        Dataset dataset = new Dataset();
+
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("data.json must start with a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+
+                switch (section) {
+                    case "sequence" -> dataset.setSequence(parser.getValueAsLong());
+                    case "persons" -> readArray(parser, section, personReader, dataset.getPersons());
+                    case "firestations" -> readArray(parser, section, firestationReader, dataset.getFirestations());
+                    case "medicalrecords" -> readArray(parser, section, medicalrecordReader, dataset.getMedicalrecords());
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return dataset;
+    }
+
+    /**
+     * Lit le numéro de séquence placé en tête d'un contenu au format {@code data.json}, sans lire les sections.
+     *
+     * @param inputStream début du contenu à lire
+     * @return le numéro de séquence, ou {@code -1} s'il n'est pas la première propriété du contenu ou ne peut pas être lu
+     */
+    public long readSequence(InputStream inputStream) {
+
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                    || parser.nextToken() != JsonToken.PROPERTY_NAME
+                    || !"sequence".equals(parser.currentName())
+                    || parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+                return -1;
+            }
+            return parser.getLongValue();
+        } catch (JacksonException e) {
+            return -1;
+        }
+    }
+
+    private static <T> void readArray(JsonParser parser, String section, ObjectReader reader, List<T> target) throws IOException {
+
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Section \"" + section + "\" must be a JSON array");
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            target.add(reader.readValue(parser));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Repository permettant d'enregistrer ensemble des personnes, des associations adresse/caserne
+ * et des dossiers médicaux, utilisé par l'import.
+ * Les modifications sont enregistrées par le {@link MutationJournal}, qui les applique au {@link DataStore} partagé.
+ */
+
+@Repository
+public class DatasetRepository {
+
+    private final MutationJournal mutationJournal;
+
+    /**
+     * Construit ce repository avec le {@link MutationJournal} injecté par Spring.
+     *
+     * @param mutationJournal journal dans lequel chaque modification est enregistrée
+     */
+    public DatasetRepository(MutationJournal mutationJournal) {
+        this.mutationJournal = mutationJournal;
+    }
+
+    /**
+     * Met à jour ou ajoute en une seule modification des personnes, des associations et des dossiers médicaux.
+     *
+     * <p>
+     * Le paquet est appliqué en une seule fois : un seul nouvel état est publié, chaque foyer ou caserne touché
+     * n'est recalculé qu'une fois par les vues, et le paquet est écrit sur une seule ligne du journal.
+     * Les personnes sont appliquées en premier, puis les associations, puis les dossiers médicaux.
+     * </p>
+     *
+     * @param persons        personnes à enregistrer, retrouvées par prénom et nom
+     * @param firestations   associations à enregistrer, retrouvées par adresse
+     * @param medicalrecords dossiers médicaux à enregistrer, retrouvés par prénom et nom
+     * @return nombre d'éléments ajoutés et mis à jour
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public BatchResult upsertAll(List<PersonModel> persons, List<FirestationModel> firestations,
+                                 List<MedicalrecordModel> medicalrecords) throws IOException {
+        Mutation mutation = Mutation.upsertRecords(persons, firestations, medicalrecords);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
+    }
+}
@@ -0,0 +1,103 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Écriture en flux d'un {@link Dataset} au format {@code data.json}.
+ *
+ * <p>
+ * Le numéro de séquence puis les trois sections sont écrits élément par élément avec un {@link JsonGenerator},
+ * sans construire la représentation JSON complète en mémoire.
+ * Un {@link DataSnapshot} peut aussi être écrit directement, sans copier ses listes, au format {@code data.json}
+ * ou en NDJSON, une ligne {@code {"person": {...}}}, {@code {"firestation": {...}}} ou
+ * {@code {"medicalrecord": {...}}} par élément : le format lu par l'import.
+ * </p>
+ */
+@Component
+public class DatasetWriter {
+
+    private final ObjectWriter objectWriter;
+    private final ObjectWriter lineWriter;
+
+    /**
+     * Construit l'écrivain avec un {@link ObjectMapper} injecté par Spring.
+     *
+     * @param objectMapper mapper Jackson utilisé pour sérialiser chaque élément
+     */
+    public DatasetWriter(ObjectMapper objectMapper) {
+        this.objectWriter = objectMapper.writer().without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+        this.lineWriter = objectWriter.withRootValueSeparator("\n");
+    }
+
+    /**
+     * Écrit le jeu de données au format {@code data.json}.
+     *
+     * @param dataset      jeu de données à écrire
+     * @param outputStream flux de destination, qui n'est pas fermé par cette méthode
+     */
+    public void write(Dataset dataset, OutputStream outputStream) {
+        write(dataset.getSequence(), dataset.getPersons(), dataset.getFirestations(), dataset.getMedicalrecords(), outputStream);
+    }
+
+    /**
+     * Écrit un état du jeu de données au format {@code data.json}, son numéro de version servant de séquence.
+     *
+     * @param snapshot     état à écrire
+     * @param outputStream flux de destination, qui n'est pas fermé par cette méthode
+     */
+    public void write(DataSnapshot snapshot, OutputStream outputStream) {
+        write(snapshot.getVersion(), snapshot.getPersons(), snapshot.getFirestations(), snapshot.getMedicalrecords(), outputStream);
+    }
+
+    /**
+     * Écrit un état du jeu de données en NDJSON, un élément par ligne.
+     *
+     * @param snapshot     état à écrire
+     * @param outputStream flux de destination, qui n'est pas fermé par cette méthode
+     */
+    public void writeLines(DataSnapshot snapshot, OutputStream outputStream) {
+
+        try (JsonGenerator generator = lineWriter.createGenerator(outputStream)) {
+            writeLines(generator, "person", snapshot.getPersons());
+            writeLines(generator, "firestation", snapshot.getFirestations());
+            writeLines(generator, "medicalrecord", snapshot.getMedicalrecords());
+            generator.writeRaw('\n');
+        }
+    }
+
+    private void write(long sequence, List<?> persons, List<?> firestations, List<?> medicalrecords, OutputStream outputStream) {
+
+        try (JsonGenerator generator = objectWriter.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberProperty("sequence", sequence);
+            writeArray(generator, "persons", persons);
+            writeArray(generator, "firestations", firestations);
+            writeArray(generator, "medicalrecords", medicalrecords);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeLines(JsonGenerator generator, String type, List<?> elements) {
+        for (Object element : elements) {
+            generator.writeStartObject();
+            generator.writePOJOProperty(type, element);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeArray(JsonGenerator generator, String section, List<?> elements) {
+        generator.writeName(section);
+        generator.writeStartArray();
+        for (Object element : elements) {
+            generator.writePOJO(element);
+        }
+        generator.writeEndArray();
+    }
+}
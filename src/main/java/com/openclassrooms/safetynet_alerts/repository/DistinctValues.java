@@ -0,0 +1,67 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import java.util.List;
+
+/**
+ * Valeurs distinctes d'un groupe (adresses e-mail d'une ville, numéros d'une caserne), dans l'ordre de leur
+ * premier ajout, avec le nombre de personnes qui partagent chacune : une valeur ne disparaît qu'avec la dernière.
+ *
+ * <p>
+ * Une instance n'est jamais modifiée : {@link #count(String, int)} retourne un nouveau groupe qui partage
+ * avec celui-ci tout ce qui ne change pas, en O(log n) quel que soit le nombre de valeurs du groupe.
+ * </p>
+ */
+final class DistinctValues {
+
+    /**
+     * Groupe sans aucune valeur, dont part chaque nouvelle clé d'un index.
+     */
+    static final DistinctValues EMPTY = new DistinctValues(PersistentTreeMap.empty(), RecordList.empty(), 1);
+
+    private final PersistentTreeMap<String, Count> counts;
+    private final RecordList<String> values;
+    private final long nextOrder;
+
+    private DistinctValues(PersistentTreeMap<String, Count> counts, RecordList<String> values, long nextOrder) {
+        this.counts = counts;
+        this.values = values;
+        this.nextOrder = nextOrder;
+    }
+
+    /**
+     * Compte ou décompte une valeur.
+     *
+     * @param value valeur partagée par une personne de plus ou de moins
+     * @param delta {@code 1} ou {@code -1}
+     * @return groupe mis à jour
+     */
+    DistinctValues count(String value, int delta) {
+        Count current = counts.get(value);
+        if (current == null) {
+            return delta <= 0 ? this : new DistinctValues(counts.with(value, new Count(delta, nextOrder)),
+                    values.with(nextOrder, value), nextOrder + 1);
+        }
+        int count = current.count() + delta;
+        if (count <= 0) {
+            return new DistinctValues(counts.without(value), values.without(current.order()), nextOrder);
+        }
+        return new DistinctValues(counts.with(value, new Count(count, current.order())), values, nextOrder);
+    }
+
+    boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * @return valeurs distinctes, dans l'ordre de leur premier ajout
+     */
+    List<String> values() {
+        return values;
+    }
+
+    /**
+     * Nombre de personnes partageant une valeur, et rang de son premier ajout dans le groupe.
+     */
+    private record Count(int count, long order) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+/**
+ * Personne retournée par {@link DataStore#findFamily(String)}, avec son dossier médical déjà retrouvé.
+ *
+ * @param person        personne portant le nom recherché
+ * @param medicalrecord dossier médical de la personne, ou {@code null} si elle n'en a pas
+ */
+public record FamilyMember(PersonModel person, MedicalrecordModel medicalrecord) {
+}
@@ -2,71 +2,159 @@ package com.openclassrooms.safetynet_alerts.repository;
 
 
 import com.openclassrooms.safetynet_alerts.model.FirestationModel;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Repository;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.JsonNode;
-import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 /**
- * Repository permettant l'accès aux données provenant du fichier {@code data.json}.
- * Les données sont lues depuis ce fichier et converties en liste de {@link FirestationModel}.
+ * Repository permettant l'accès aux associations adresse/caserne provenant du fichier {@code data.json}.
+ * Les données sont lues depuis le {@link DataStore} partagé, chargé une seule fois au démarrage.
  */
 
 @Repository
 public class FirestationRepository {
 
-    private final ObjectMapper objectMapper;
+    private final DataStore dataStore;
+    private final MutationJournal mutationJournal;
 
     /**
-     * Construit ce repository avec un {@link ObjectMapper} injecté par Spring.
+     * Construit ce repository avec le {@link DataStore} et le {@link MutationJournal} injectés par Spring.
      *
-     * @param objectMapper mapper Jackson utilisé pour lire le JSON et convertir les nœuds en objets Java
+     * @param dataStore         jeu de données partagé contenant les casernes chargées en mémoire
+     * @param mutationJournal   journal dans lequel chaque modification est enregistrée
      */
-    public FirestationRepository(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public FirestationRepository(DataStore dataStore, MutationJournal mutationJournal) {
+        this.dataStore = dataStore;
+        this.mutationJournal = mutationJournal;
     }
 
     /**
-     * Récupère toutes les associations adresse/caserne depuis le fichier JSON
+     * Récupère toutes les associations adresse/caserne.
      *
      * <p>
-     * Le fichier {@code data/data.json} est lu depuis le classpath, puis le nœud
-     * {@code "firestations"} est extrait et converti en {@link List} de {@link FirestationModel}.
+     * La liste retournée n'est pas modifiable : elle est partagée avec l'état courant des données,
+     * sans copie. Toute tentative de la modifier lève une {@link UnsupportedOperationException} ;
+     * les données ne sont modifiées que par les méthodes d'écriture de ce repository.
      * </p>
      *
-     * @return liste complète des {@link FirestationModel} présents dans {@code data/data.json}
-     * @throws IOException si le fichier ne peut pas être lu ou si le contenu JSON est invalide
+     * @return liste complète des {@link FirestationModel} chargés depuis {@code data/data.json}
+     * @throws IOException en cas d'erreur lors de l'accès aux données
      */
 
     public List<FirestationModel> findAll() throws IOException {
+        return dataStore.getFirestations();
+    }
 
-        ClassPathResource resource = new ClassPathResource("data/data.json");
+    /**
+     * Récupère une page d'associations adresse/caserne, dans l'ordre de la liste.
+     *
+     * <p>
+     * La page est lue dans l'état courant du {@link DataStore} : son coût dépend de la taille de la page
+     * et non du nombre total d'enregistrements.
+     * </p>
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal d'enregistrements de la page
+     * @return page de {@link FirestationModel}, avec l'identifiant à reprendre pour la page suivante
+     */
+    public Page<FirestationModel> findPage(long after, int limit) {
+        return dataStore.snapshot().pageFirestations(after, limit);
+    }
 
-        try (InputStream inputStream = resource.getInputStream()) {
+    /**
+     * Récupère les adresses couvertes par une caserne via l'index des stations du {@link DataStore}.
+     *
+     * @param station numéro de la caserne
+     * @return adresses distinctes couvertes par la caserne, vide si aucune
+     */
+    public List<String> findAddressesByStation(String station) {
+        return dataStore.findAddressesByStation(station);
+    }
 
-            JsonNode rootNode = objectMapper.readTree(inputStream);
+    /**
+     * Récupère le numéro de la caserne couvrant une adresse via l'index des adresses du {@link DataStore}.
+     * Si l'adresse est associée à plusieurs casernes, la dernière association est retenue.
+     *
+     * @param address adresse recherchée, comparée sans tenir compte de la casse ni des espaces
+     * @return numéro de la caserne, ou {@code null} si l'adresse n'est couverte par aucune caserne
+     */
+    public String findStationByAddress(String address) {
+        return dataStore.findStationByAddress(address);
+    }
+
+    /**
+     * Ajoute une association adresse/caserne.
+     *
+     * <p>
+     * La modification est appliquée aux données partagées puis enregistrée dans le journal :
+     * la méthode rend la main une fois la ligne du journal écrite sur disque.
+     * L'existence est vérifiée au moment d'appliquer la modification, sous le verrou du {@link DataStore} :
+     * un ajout rejeté n'est ni appliqué ni journalisé.
+     * </p>
+     *
+     * @param firestation {@link FirestationModel} à ajouter
+     * @return {@code true} si l'élément a été ajouté, {@code false} si cette adresse est déjà associée à une caserne
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean add(FirestationModel firestation) throws IOException {
+        Mutation mutation = Mutation.addFirestation(firestation);
+        mutationJournal.record(mutation);
+        return mutation.getResult().created() > 0;
+    }
 
-            JsonNode firestationNode = rootNode.get("firestations");
+    /**
+     * Met à jour le numéro de station de la première association correspondant à cette adresse.
+     *
+     * @param firestation {@link FirestationModel} contenant les nouvelles valeurs
+     * @return {@code true} si un élément a été mis à jour, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean update(FirestationModel firestation) throws IOException {
+        return mutationJournal.record(Mutation.updateFirestation(firestation));
+    }
 
-            return objectMapper.convertValue(
-                    firestationNode,
-                    new TypeReference<List<FirestationModel>>() {
-                    }
-            );
+    /**
+     * Supprime les associations correspondant à l'adresse ou au numéro de station.
+     *
+     * @param address adresse à supprimer, ou {@code null}
+     * @param station numéro de station à supprimer, ou {@code null}
+     * @return {@code true} si au moins un élément a été supprimé, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean delete(String address, String station) throws IOException {
+        return mutationJournal.record(Mutation.deleteFirestation(address, station));
+    }
 
-        }
+    /**
+     * Met à jour ou ajoute, selon leur adresse, toute une liste d'associations adresse/caserne.
+     *
+     * <p>
+     * Le lot est appliqué en une seule fois : un seul nouvel état est publié, chaque clé touchée d'un index
+     * n'y est reportée qu'une fois, chaque foyer ou caserne touché n'est recalculé qu'une fois par les vues,
+     * et le lot est écrit sur une seule ligne du journal.
+     * </p>
+     *
+     * @param firestations associations adresse/caserne à enregistrer
+     * @return nombre d'éléments ajoutés et mis à jour
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public BatchResult upsertAll(List<FirestationModel> firestations) throws IOException {
+        Mutation mutation = Mutation.upsertFirestations(firestations);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
     }
 
     /**
-     * Sauvegarde la liste des firesations.
+     * Supprime en une seule fois toute une liste d'associations adresse/caserne, retrouvées par adresse et/ou numéro de station.
      *
-     * @param firestation liste des {@link FirestationModel} à sauvegarder
+     * @param criteria associations adresse/caserne à supprimer
+     * @return nombre d'éléments supprimés
+     * @throws IOException si le journal ne peut pas être écrit
      */
-    public void saveAll(List<FirestationModel> firestation) {
+    public BatchResult deleteAll(List<FirestationModel> criteria) throws IOException {
+        Mutation mutation = Mutation.deleteFirestations(criteria);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
     }
 }
@@ -0,0 +1,66 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Construction des clés normalisées utilisées par les index en mémoire du {@link DataStore}.
+ *
+ * <p>
+ * Les valeurs sont comparées sans tenir compte de la casse ni des espaces en début et fin,
+ * comme le faisaient les recherches par {@code equalsIgnoreCase}.
+ * </p>
+ */
+public final class IndexKeys {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private IndexKeys() {
+    }
+
+    /**
+     * Construit la clé d'une personne à partir de son prénom et de son nom.
+     *
+     * @param firstName prénom de la personne
+     * @param lastName  nom de la personne
+     * @return clé normalisée prénom + nom
+     */
+    public static String name(String firstName, String lastName) {
+        return normalize(firstName) + "|" + normalize(lastName);
+    }
+
+    /**
+     * Construit la clé d'un nom de famille.
+     *
+     * @param lastName nom de la personne
+     * @return clé normalisée du nom
+     */
+    public static String lastName(String lastName) {
+        return normalize(lastName);
+    }
+
+    /**
+     * Construit la clé d'une ville.
+     *
+     * @param city ville
+     * @return clé normalisée de la ville
+     */
+    public static String city(String city) {
+        return normalize(city);
+    }
+
+    /**
+     * Construit la clé d'une adresse. Les suites d'espaces internes sont en plus réduites à un seul espace,
+     * de sorte que {@code "1509  Culver St"} et {@code "1509 culver st "} désignent le même foyer.
+     *
+     * @param address adresse du foyer
+     * @return clé normalisée de l'adresse
+     */
+    public static String address(String address) {
+        return address == null ? "" : WHITESPACE.matcher(normalize(address)).replaceAll(" ");
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
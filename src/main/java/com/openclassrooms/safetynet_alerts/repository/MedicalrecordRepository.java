@@ -1,71 +1,154 @@
 package com.openclassrooms.safetynet_alerts.repository;
 
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Repository;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.JsonNode;
-import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 /**
- * Repository permettant l'accès aux données provenant du fichier {@code data.json}.
- * Les données sont lues depuis ce fichier et converties en liste de {@link MedicalrecordModel}.
+ * Repository permettant l'accès aux dossiers médicaux provenant du fichier {@code data.json}.
+ * Les données sont lues depuis le {@link DataStore} partagé, chargé une seule fois au démarrage.
  */
 
 @Repository
 public class MedicalrecordRepository {
 
-    private final ObjectMapper objectMapper;
+    private final DataStore dataStore;
+    private final MutationJournal mutationJournal;
 
     /**
-     * Construit ce repository avec un {@link ObjectMapper} injecté par Spring.
+     * Construit ce repository avec le {@link DataStore} et le {@link MutationJournal} injectés par Spring.
      *
-     * @param objectMapper mapper Jackson utilisé pour lire le JSON et convertir les nœuds en objets Java
+     * @param dataStore         jeu de données partagé contenant les dossiers médicaux chargés en mémoire
+     * @param mutationJournal   journal dans lequel chaque modification est enregistrée
      */
 
-    public MedicalrecordRepository(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public MedicalrecordRepository(DataStore dataStore, MutationJournal mutationJournal) {
+        this.dataStore = dataStore;
+        this.mutationJournal = mutationJournal;
     }
 
     /**
-     * Récupère toutes les associations personne/données médicales depuis le fichier JSON
+     * Récupère toutes les associations personne/données médicales.
      *
      * <p>
-     * Le fichier {@code data/data.json} est lu depuis le classpath, puis le nœud
-     * {@code "medicalrecords"} est extrait et converti en {@link List} de {@link MedicalrecordModel}.
+     * La liste retournée n'est pas modifiable : elle est partagée avec l'état courant des données,
+     * sans copie. Toute tentative de la modifier lève une {@link UnsupportedOperationException} ;
+     * les données ne sont modifiées que par les méthodes d'écriture de ce repository.
      * </p>
      *
-     * @return liste complète des {@link MedicalrecordModel} présents dans {@code  data/data.json}
-     * @throws IOException si le fichier ne peut pas être lu ou si le contenu JSON est invalide
+     * @return liste complète des {@link MedicalrecordModel} chargés depuis {@code data/data.json}
+     * @throws IOException en cas d'erreur lors de l'accès aux données
      */
 
     public List<MedicalrecordModel> findAll() throws IOException {
+        return dataStore.getMedicalrecords();
+    }
 
-        ClassPathResource resource = new ClassPathResource("data/data.json");
+    /**
+     * Récupère une page de dossiers médicaux, dans l'ordre de la liste.
+     *
+     * <p>
+     * La page est lue dans l'état courant du {@link DataStore} : son coût dépend de la taille de la page
+     * et non du nombre total d'enregistrements.
+     * </p>
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal d'enregistrements de la page
+     * @return page de {@link MedicalrecordModel}, avec l'identifiant à reprendre pour la page suivante
+     */
+    public Page<MedicalrecordModel> findPage(long after, int limit) {
+        return dataStore.snapshot().pageMedicalrecords(after, limit);
+    }
 
-        try (InputStream inputStream = resource.getInputStream()) {
+    /**
+     * Récupère le dossier médical d'une personne à partir de son prénom et de son nom.
+     *
+     * <p>
+     * La recherche est insensible à la casse et s'effectue en O(log n) via l'index du {@link DataStore}.
+     * </p>
+     *
+     * @param firstName prénom de la personne
+     * @param lastName  nom de la personne
+     * @return le {@link MedicalrecordModel} correspondant, ou {@code null} si aucun dossier n'est trouvé
+     */
+    public MedicalrecordModel findByName(String firstName, String lastName) {
+        return dataStore.findMedicalrecord(firstName, lastName);
+    }
 
-            JsonNode rootNode = objectMapper.readTree(inputStream);
+    /**
+     * Ajoute un dossier médical.
+     *
+     * <p>
+     * La modification est appliquée aux données partagées puis enregistrée dans le journal :
+     * la méthode rend la main une fois la ligne du journal écrite sur disque.
+     * L'existence est vérifiée au moment d'appliquer la modification, sous le verrou du {@link DataStore} :
+     * un ajout rejeté n'est ni appliqué ni journalisé.
+     * </p>
+     *
+     * @param medicalrecord {@link MedicalrecordModel} à ajouter
+     * @return {@code true} si l'élément a été ajouté, {@code false} si un dossier porte déjà exactement ce prénom et ce nom
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean add(MedicalrecordModel medicalrecord) throws IOException {
+        Mutation mutation = Mutation.addMedicalrecord(medicalrecord);
+        mutationJournal.record(mutation);
+        return mutation.getResult().created() > 0;
+    }
 
-            JsonNode medicalRecordNode = rootNode.get("medicalrecords");
+    /**
+     * Met à jour le dossier médical existant, retrouvé par prénom et nom.
+     *
+     * @param medicalrecord {@link MedicalrecordModel} contenant les nouvelles valeurs
+     * @return {@code true} si un élément a été mis à jour, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean update(MedicalrecordModel medicalrecord) throws IOException {
+        return mutationJournal.record(Mutation.updateMedicalrecord(medicalrecord));
+    }
 
-            return objectMapper.convertValue(
-                    medicalRecordNode, new TypeReference<List<MedicalrecordModel>>() {
-                    }
-            );
-        }
+    /**
+     * Supprime les dossiers médicaux portant exactement ce prénom et ce nom.
+     *
+     * @param firstName prénom de la personne
+     * @param lastName  nom de la personne
+     * @return {@code true} si au moins un élément a été supprimé, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean delete(String firstName, String lastName) throws IOException {
+        return mutationJournal.record(Mutation.deleteMedicalrecord(firstName, lastName));
     }
 
     /**
-     * Sauvegarde la liste des medicalrecords.
+     * Met à jour ou ajoute, selon leur prénom et nom, toute une liste de dossiers médicaux.
+     *
+     * <p>
+     * Le lot est appliqué en une seule fois : un seul nouvel état est publié, chaque clé touchée d'un index
+     * n'y est reportée qu'une fois, chaque foyer ou caserne touché n'est recalculé qu'une fois par les vues,
+     * et le lot est écrit sur une seule ligne du journal.
+     * </p>
      *
-     * @param medicalrecords liste des {@link MedicalrecordModel} à sauvegarder
+     * @param medicalrecords dossiers médicaux à enregistrer
+     * @return nombre d'éléments ajoutés et mis à jour
+     * @throws IOException si le journal ne peut pas être écrit
      */
-    public void saveAll(List<MedicalrecordModel> medicalrecords) {
+    public BatchResult upsertAll(List<MedicalrecordModel> medicalrecords) throws IOException {
+        Mutation mutation = Mutation.upsertMedicalrecords(medicalrecords);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
+    }
 
+    /**
+     * Supprime en une seule fois toute une liste de dossiers médicaux, retrouvés par prénom et nom.
+     *
+     * @param criteria dossiers médicaux à supprimer
+     * @return nombre d'éléments supprimés
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public BatchResult deleteAll(List<MedicalrecordModel> criteria) throws IOException {
+        Mutation mutation = Mutation.deleteMedicalrecords(criteria);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
     }
 }
@@ -0,0 +1,255 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+import java.util.List;
+
+/**
+ * Modification unitaire du {@link DataStore}, enregistrée sur une ligne du journal {@link MutationJournal}.
+ *
+ * <p>
+ * Une suppression ne porte que les champs servant de critère : prénom et nom pour une personne
+ * ou un dossier médical, adresse et/ou numéro de station pour une caserne.
+ * </p>
+ *
+ * <p>
+ * Une modification par lot ({@code UPSERT_*}, {@code DELETE_*S}) porte toute une liste d'éléments :
+ * elle est appliquée en une seule fois, sous un seul numéro de séquence et sur une seule ligne du journal,
+ * si bien qu'un lot n'est jamais appliqué ou relu à moitié. Son bilan n'est pas journalisé.
+ * {@code UPSERT_RECORDS} porte à la fois des personnes, des associations et des dossiers médicaux, appliqués
+ * dans cet ordre : un paquet d'import n'occupe ainsi qu'une ligne du journal et ne publie qu'un seul état.
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Mutation {
+
+    /**
+     * Nature de la modification.
+     */
+    public enum Type {
+        ADD_PERSON, UPDATE_PERSON, DELETE_PERSON,
+        ADD_FIRESTATION, UPDATE_FIRESTATION, DELETE_FIRESTATION,
+        ADD_MEDICALRECORD, UPDATE_MEDICALRECORD, DELETE_MEDICALRECORD,
+        UPSERT_PERSONS, DELETE_PERSONS,
+        UPSERT_FIRESTATIONS, DELETE_FIRESTATIONS,
+        UPSERT_MEDICALRECORDS, DELETE_MEDICALRECORDS,
+        UPSERT_RECORDS
+    }
+
+    private long sequence;
+
+    private Type type;
+
+    private PersonModel person;
+
+    private FirestationModel firestation;
+
+    private MedicalrecordModel medicalrecord;
+
+    private List<PersonModel> persons;
+
+    private List<FirestationModel> firestations;
+
+    private List<MedicalrecordModel> medicalrecords;
+
+    private BatchResult result;
+
+    /**
+     * Constructeur vide requis par Jackson pour la
+     * désérialisation JSON.
+     */
+    public Mutation() {
+    }
+
+    private Mutation(Type type, PersonModel person, FirestationModel firestation, MedicalrecordModel medicalrecord) {
+        this.type = type;
+        this.person = person;
+        this.firestation = firestation;
+        this.medicalrecord = medicalrecord;
+    }
+
+    public static Mutation addPerson(PersonModel person) {
+        return new Mutation(Type.ADD_PERSON, person, null, null);
+    }
+
+    public static Mutation updatePerson(PersonModel person) {
+        return new Mutation(Type.UPDATE_PERSON, person, null, null);
+    }
+
+    public static Mutation deletePerson(String firstName, String lastName) {
+        PersonModel person = new PersonModel();
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        return new Mutation(Type.DELETE_PERSON, person, null, null);
+    }
+
+    public static Mutation addFirestation(FirestationModel firestation) {
+        return new Mutation(Type.ADD_FIRESTATION, null, firestation, null);
+    }
+
+    public static Mutation updateFirestation(FirestationModel firestation) {
+        return new Mutation(Type.UPDATE_FIRESTATION, null, firestation, null);
+    }
+
+    public static Mutation deleteFirestation(String address, String station) {
+        return new Mutation(Type.DELETE_FIRESTATION, null, new FirestationModel(address, station), null);
+    }
+
+    public static Mutation addMedicalrecord(MedicalrecordModel medicalrecord) {
+        return new Mutation(Type.ADD_MEDICALRECORD, null, null, medicalrecord);
+    }
+
+    public static Mutation updateMedicalrecord(MedicalrecordModel medicalrecord) {
+        return new Mutation(Type.UPDATE_MEDICALRECORD, null, null, medicalrecord);
+    }
+
+    public static Mutation deleteMedicalrecord(String firstName, String lastName) {
+        MedicalrecordModel medicalrecord = new MedicalrecordModel();
+        medicalrecord.setFirstName(firstName);
+        medicalrecord.setLastName(lastName);
+        return new Mutation(Type.DELETE_MEDICALRECORD, null, null, medicalrecord);
+    }
+
+    public static Mutation upsertPersons(List<PersonModel> persons) {
+        Mutation mutation = new Mutation(Type.UPSERT_PERSONS, null, null, null);
+        mutation.persons = persons;
+        return mutation;
+    }
+
+    /**
+     * @param criteria personnes à supprimer, dont seuls le prénom et le nom sont lus
+     * @return suppression par lot
+     */
+    public static Mutation deletePersons(List<PersonModel> criteria) {
+        Mutation mutation = new Mutation(Type.DELETE_PERSONS, null, null, null);
+        mutation.persons = criteria;
+        return mutation;
+    }
+
+    public static Mutation upsertFirestations(List<FirestationModel> firestations) {
+        Mutation mutation = new Mutation(Type.UPSERT_FIRESTATIONS, null, null, null);
+        mutation.firestations = firestations;
+        return mutation;
+    }
+
+    /**
+     * @param criteria associations à supprimer, par adresse et/ou par numéro de station
+     * @return suppression par lot
+     */
+    public static Mutation deleteFirestations(List<FirestationModel> criteria) {
+        Mutation mutation = new Mutation(Type.DELETE_FIRESTATIONS, null, null, null);
+        mutation.firestations = criteria;
+        return mutation;
+    }
+
+    public static Mutation upsertMedicalrecords(List<MedicalrecordModel> medicalrecords) {
+        Mutation mutation = new Mutation(Type.UPSERT_MEDICALRECORDS, null, null, null);
+        mutation.medicalrecords = medicalrecords;
+        return mutation;
+    }
+
+    /**
+     * @param persons        personnes à mettre à jour ou ajouter
+     * @param firestations   associations adresse/caserne à mettre à jour ou ajouter
+     * @param medicalrecords dossiers médicaux à mettre à jour ou ajouter
+     * @return mise à jour par lot des trois types d'enregistrement
+     */
+    public static Mutation upsertRecords(List<PersonModel> persons, List<FirestationModel> firestations,
+                                         List<MedicalrecordModel> medicalrecords) {
+        Mutation mutation = new Mutation(Type.UPSERT_RECORDS, null, null, null);
+        mutation.persons = persons;
+        mutation.firestations = firestations;
+        mutation.medicalrecords = medicalrecords;
+        return mutation;
+    }
+
+    /**
+     * @param criteria dossiers médicaux à supprimer, dont seuls le prénom et le nom sont lus
+     * @return suppression par lot
+     */
+    public static Mutation deleteMedicalrecords(List<MedicalrecordModel> criteria) {
+        Mutation mutation = new Mutation(Type.DELETE_MEDICALRECORDS, null, null, null);
+        mutation.medicalrecords = criteria;
+        return mutation;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public PersonModel getPerson() {
+        return person;
+    }
+
+    public void setPerson(PersonModel person) {
+        this.person = person;
+    }
+
+    public FirestationModel getFirestation() {
+        return firestation;
+    }
+
+    public void setFirestation(FirestationModel firestation) {
+        this.firestation = firestation;
+    }
+
+    public MedicalrecordModel getMedicalrecord() {
+        return medicalrecord;
+    }
+
+    public void setMedicalrecord(MedicalrecordModel medicalrecord) {
+        this.medicalrecord = medicalrecord;
+    }
+
+    public List<PersonModel> getPersons() {
+        return persons;
+    }
+
+    public void setPersons(List<PersonModel> persons) {
+        this.persons = persons;
+    }
+
+    public List<FirestationModel> getFirestations() {
+        return firestations;
+    }
+
+    public void setFirestations(List<FirestationModel> firestations) {
+        this.firestations = firestations;
+    }
+
+    public List<MedicalrecordModel> getMedicalrecords() {
+        return medicalrecords;
+    }
+
+    public void setMedicalrecords(List<MedicalrecordModel> medicalrecords) {
+        this.medicalrecords = medicalrecords;
+    }
+
+    /**
+     * @return bilan d'un ajout ou d'une modification par lot, renseigné par le {@link DataStore} lors de son application
+     */
+    @JsonIgnore
+    public BatchResult getResult() {
+        return result;
+    }
+
+    void setResult(BatchResult result) {
+        this.result = result;
+    }
+}
@@ -0,0 +1,447 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Journal en ajout seul des modifications du {@link DataStore}.
+ *
+ * <p>
+ * Chaque modification appliquée par un repository est écrite sur une ligne JSON du fichier
+ * {@code safetynet.data.journal.file}. Les écritures concurrentes sont regroupées : le premier appelant
+ * qui obtient le verrou d'écriture écrit toutes les lignes en attente puis synchronise le fichier
+ * une seule fois pour tout le groupe. Un appel ne rend la main qu'une fois sa ligne sur disque.
+ * </p>
+ *
+ * <p>
+ * Une modification n'est publiée dans le {@link DataStore} qu'après la synchronisation de sa ligne :
+ * les lecteurs ne voient jamais une modification qui n'est pas encore durable. Si l'écriture échoue,
+ * les modifications du groupe, et celles préparées à leur suite, sont abandonnées et leurs appelants
+ * reçoivent l'erreur ; le journal est ramené à sa taille d'avant l'écriture.
+ * </p>
+ *
+ * <p>
+ * Lorsque le journal atteint {@code safetynet.data.journal.compaction-threshold} lignes, il est mis de côté
+ * sous le nom {@code <journal>.<séquence>} et un nouveau journal est ouvert ; un thread de fond réécrit
+ * alors le fichier de données avec le {@link DataFilePersister}, puis supprime les journaux mis de côté.
+ * Au démarrage, les journaux mis de côté puis le journal courant sont rejoués sur le fichier de données :
+ * seules les modifications de séquence supérieure à celle du fichier sont appliquées.
+ * </p>
+ */
+@Component
+public class MutationJournal implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MutationJournal.class);
+
+    private final DataStore dataStore;
+    private final DataFilePersister dataFilePersister;
+    private final ObjectMapper objectMapper;
+    private final Path journalFile;
+    private final int compactionThreshold;
+
+    private final Queue<PendingEntry> pendingEntries = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mutation-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private int entryCount;
+    private long commitCount;
+    private IOException broken;
+
+    private volatile long compactedSequence;
+    private volatile int compactionCount;
+
+    /**
+     * Construit le journal, rejoue les modifications qu'il contient puis l'ouvre en écriture.
+     *
+     * @param dataStore           jeu de données chargé depuis le fichier de données
+     * @param dataFilePersister   écrivain du fichier de données utilisé par le compacteur
+     * @param objectMapper        mapper Jackson utilisé pour écrire et relire les lignes du journal
+     * @param journalFile         chemin du journal
+     * @param compactionThreshold nombre de lignes au-delà duquel le journal est replié dans le fichier de données
+     * @throws IOException si le journal ne peut pas être relu ou ouvert
+     */
+    public MutationJournal(DataStore dataStore, DataFilePersister dataFilePersister, ObjectMapper objectMapper,
+                           @Value("${safetynet.data.journal.file}") String journalFile,
+                           @Value("${safetynet.data.journal.compaction-threshold}") int compactionThreshold) throws IOException {
+        this.dataStore = dataStore;
+        this.dataFilePersister = dataFilePersister;
+        this.objectMapper = objectMapper;
+        this.journalFile = Path.of(journalFile).toAbsolutePath();
+        this.compactionThreshold = compactionThreshold;
+        this.compactedSequence = dataStore.getSequence();
+
+        replay();
+        channel = openJournal();
+    }
+
+    /**
+     * Prépare une modification dans le {@link DataStore}, attend qu'elle soit écrite sur disque puis la publie.
+     * Une modification qui ne change aucune donnée n'est pas journalisée.
+     *
+     * @param mutation modification à appliquer
+     * @return {@code true} si les données ont été modifiées, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit ; la modification n'est alors pas appliquée
+     */
+    public boolean record(Mutation mutation) throws IOException {
+
+        PendingEntry entry;
+        synchronized (dataStore) {
+            DataStore.Staged staged = dataStore.stage(mutation);
+            if (staged == null) {
+                return false;
+            }
+            entry = new PendingEntry(objectMapper.writeValueAsBytes(mutation), staged);
+            pendingEntries.add(entry);
+        }
+
+        synchronized (writeLock) {
+            if (!entry.committed) {
+                commit();
+            }
+            if (entry.failure != null) {
+                throw new IOException("Failed to write journal " + journalFile, entry.failure);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Écrit et synchronise sur disque toutes les lignes en attente, en une seule écriture, puis publie
+     * leurs modifications dans l'ordre des séquences. Appelé sous {@code writeLock}.
+     */
+    private void commit() {
+
+        List<PendingEntry> group = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (PendingEntry entry; (entry = pendingEntries.poll()) != null; ) {
+            group.add(entry);
+            buffer.writeBytes(entry.line);
+            buffer.write('\n');
+        }
+        if (group.isEmpty()) {
+            return;
+        }
+
+        IOException failure = broken;
+        long size = -1;
+        if (failure == null) {
+            try {
+                size = channel.size();
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+                entryCount += group.size();
+                commitCount++;
+            } catch (IOException e) {
+                failure = e;
+                logger.error("Failed to write {} entries to {}", group.size(), journalFile, e);
+                truncate(size, e);
+            }
+        }
+
+        synchronized (dataStore) {
+            if (failure == null) {
+                for (PendingEntry entry : group) {
+                    dataStore.publish(entry.staged);
+                }
+            } else {
+                // les modifications préparées depuis ont été construites sur l'état abandonné
+                for (PendingEntry entry; (entry = pendingEntries.poll()) != null; ) {
+                    group.add(entry);
+                }
+                dataStore.discardStaged();
+            }
+        }
+
+        for (PendingEntry entry : group) {
+            entry.committed = true;
+            entry.failure = failure;
+        }
+
+        if (failure == null && entryCount >= compactionThreshold) {
+            try {
+                Dataset snapshot = rotate();
+                compactor.execute(() -> compactQuietly(snapshot));
+            } catch (IOException e) {
+                logger.error("Failed to rotate {}", journalFile, e);
+            }
+        }
+    }
+
+    /**
+     * Retire du journal les octets d'une écriture échouée. Si c'est impossible, le journal peut contenir
+     * des lignes jamais publiées, qu'un redémarrage rejouerait : il refuse alors toute nouvelle écriture.
+     */
+    private void truncate(long size, IOException cause) {
+        try {
+            if (size < 0) {
+                throw new IOException("Unknown size of " + journalFile + " before the failed write");
+            }
+            channel.truncate(size);
+        } catch (IOException e) {
+            logger.error("Failed to truncate {} to {} bytes, journal closed to writes", journalFile, size, e);
+            broken = new IOException("Journal " + journalFile + " closed to writes after a failed truncate", cause);
+        }
+    }
+
+    /**
+     * Met le journal courant de côté et en ouvre un nouveau. Appelé sous {@code writeLock}, après un commit :
+     * toutes les lignes du journal mis de côté sont incluses dans la copie retournée.
+     *
+     * @return copie du jeu de données à écrire dans le fichier de données
+     */
+    private Dataset rotate() throws IOException {
+
+        Dataset snapshot = dataStore.toDataset();
+        channel.close();
+        try {
+            Files.move(journalFile, segmentFile(snapshot.getSequence()), StandardCopyOption.ATOMIC_MOVE);
+            entryCount = 0;
+        } finally {
+            channel = openJournal();
+        }
+        return snapshot;
+    }
+
+    private void compactQuietly(Dataset snapshot) {
+        try {
+            compact(snapshot);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to compact {} at sequence {}, journal kept", journalFile, snapshot.getSequence(), e);
+        }
+    }
+
+    /**
+     * Écrit le fichier de données puis supprime les journaux mis de côté qu'il contient.
+     * Exécuté uniquement par le thread du compacteur, les copies sont donc écrites dans l'ordre des séquences.
+     */
+    private void compact(Dataset snapshot) throws IOException {
+
+        dataFilePersister.write(snapshot);
+        compactedSequence = snapshot.getSequence();
+
+        for (Path segment : segments()) {
+            if (segmentSequence(segment) <= snapshot.getSequence()) {
+                Files.deleteIfExists(segment);
+            }
+        }
+        compactionCount++;
+        logger.debug("Compacted {} into {} at sequence {}", journalFile, dataStore.getDataFile(), snapshot.getSequence());
+    }
+
+    /**
+     * Replie immédiatement le journal dans le fichier de données et attend la fin de l'écriture.
+     *
+     * @throws IOException si le journal ou le fichier de données ne peut pas être écrit
+     */
+    public void compact() throws IOException {
+
+        Dataset snapshot;
+        synchronized (writeLock) {
+            commit();
+            if (dataStore.getSequence() == compactedSequence) {
+                return;
+            }
+            snapshot = rotate();
+        }
+
+        Future<?> compaction = compactor.submit(() -> {
+            compact(snapshot);
+            return null;
+        });
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compacting " + journalFile, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to compact " + journalFile, e.getCause());
+        }
+    }
+
+    /**
+     * Rejoue les journaux mis de côté, dans l'ordre des séquences, puis le journal courant.
+     */
+    private void replay() throws IOException {
+
+        long start = System.nanoTime();
+        int replayed = 0;
+
+        for (Path segment : segments()) {
+            replayed += replay(segment);
+        }
+        if (Files.exists(journalFile)) {
+            entryCount = replay(journalFile);
+            replayed += entryCount;
+        }
+
+        logger.info("Replayed {} journal entries in {} ms, sequence {}",
+                replayed, (System.nanoTime() - start) / 1_000_000, dataStore.getSequence());
+    }
+
+    /**
+     * Rejoue chaque ligne complète du fichier. Une dernière ligne incomplète, laissée par un arrêt brutal
+     * pendant une écriture, n'a jamais été confirmée : elle est ignorée et retirée du fichier.
+     *
+     * @return nombre de lignes lues
+     */
+    private int replay(Path file) throws IOException {
+
+        byte[] content = Files.readAllBytes(file);
+        int lineStart = 0;
+        int count = 0;
+
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') {
+                continue;
+            }
+            if (i > lineStart) {
+                try {
+                    dataStore.replay(objectMapper.readValue(content, lineStart, i - lineStart, Mutation.class));
+                } catch (JacksonException e) {
+                    throw new IOException("Invalid journal entry in " + file + " at byte " + lineStart, e);
+                }
+                count++;
+            }
+            lineStart = i + 1;
+        }
+
+        if (lineStart < content.length) {
+            logger.warn("Ignoring incomplete last entry of {} ({} bytes)", file, content.length - lineStart);
+            try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                fileChannel.truncate(lineStart);
+                fileChannel.force(true);
+            }
+        }
+        return count;
+    }
+
+    private FileChannel openJournal() throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        return FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentFile(long sequence) {
+        return journalFile.resolveSibling(journalFile.getFileName() + "." + sequence);
+    }
+
+    /**
+     * @return journaux mis de côté et pas encore supprimés par le compacteur, triés par séquence
+     */
+    private List<Path> segments() throws IOException {
+
+        if (!Files.isDirectory(journalFile.getParent())) {
+            return List.of();
+        }
+        String prefix = journalFile.getFileName() + ".";
+        try (Stream<Path> files = Files.list(journalFile.getParent())) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> segmentSequence(file) >= 0)
+                    .sorted(Comparator.comparingLong(this::segmentSequence))
+                    .toList();
+        }
+    }
+
+    private long segmentSequence(Path segment) {
+        String suffix = segment.getFileName().toString().substring(journalFile.getFileName().toString().length() + 1);
+        try {
+            return Long.parseLong(suffix);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return nombre de synchronisations du journal sur disque depuis le démarrage
+     */
+    public long getCommitCount() {
+        synchronized (writeLock) {
+            return commitCount;
+        }
+    }
+
+    /**
+     * @return nombre de lignes du journal courant
+     */
+    public int getEntryCount() {
+        synchronized (writeLock) {
+            return entryCount;
+        }
+    }
+
+    /**
+     * @return nombre de réécritures du fichier de données effectuées par le compacteur depuis le démarrage
+     */
+    public int getCompactionCount() {
+        return compactionCount;
+    }
+
+    /**
+     * Replie le journal dans le fichier de données lors de l'arrêt normal de l'application.
+     *
+     * @throws IOException si le journal ou le fichier de données ne peut pas être écrit
+     */
+    @Override
+    public void destroy() throws IOException {
+        try {
+            compact();
+        } finally {
+            compactor.shutdown();
+            synchronized (writeLock) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Ligne du journal en attente d'écriture, avec la modification préparée à publier une fois la ligne sur disque.
+     * Les champs modifiables sont lus et écrits sous {@code writeLock}.
+     */
+    private static final class PendingEntry {
+
+        private final byte[] line;
+        private final DataStore.Staged staged;
+        private boolean committed;
+        private IOException failure;
+
+        private PendingEntry(byte[] line, DataStore.Staged staged) {
+            this.line = line;
+            this.staged = staged;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import java.util.List;
+
+/**
+ * Page d'enregistrements lue dans un {@link DataSnapshot}.
+ *
+ * @param records enregistrements de la page, dans l'ordre de la liste
+ * @param after   identifiant à reprendre pour obtenir la page suivante, ou {@code null} s'il s'agit de la dernière
+ * @param <T>     type des enregistrements
+ */
+public record Page<T>(List<T> records, Long after) {
+}
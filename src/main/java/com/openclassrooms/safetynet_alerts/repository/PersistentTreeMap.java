@@ -0,0 +1,404 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Table triée immuable, partagée entre les états successifs du {@link DataStore}.
+ *
+ * <p>
+ * Arbre binaire équilibré par le poids de ses sous-arbres : un ajout, un remplacement ou une suppression
+ * ne recopie que les nœuds du chemin vers la clé, soit O(log n) nœuds, et partage tous les autres
+ * avec la table d'origine, qui reste inchangée. Chaque nœud connaît la taille de son sous-arbre,
+ * ce qui donne aussi l'accès par position et le rang d'une clé en O(log n).
+ * </p>
+ *
+ * <p>
+ * Les clés {@code null} sont acceptées et classées en premier. Les valeurs {@code null} ne sont pas stockées.
+ * </p>
+ *
+ * @param <K> type des clés
+ * @param <V> type des valeurs
+ */
+final class PersistentTreeMap<K extends Comparable<? super K>, V> {
+
+    /**
+     * Équilibre d'Adams : un sous-arbre ne pèse jamais plus de {@code DELTA} fois son frère,
+     * et {@code RATIO} choisit entre rotation simple et double.
+     */
+    private static final int DELTA = 3;
+    private static final int RATIO = 2;
+
+    /**
+     * Au-delà d'une clé modifiée sur {@code BULK_FACTOR}, {@link #withAll(Map)} reconstruit la table d'un bloc.
+     */
+    private static final int BULK_FACTOR = 16;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Comparable> KEY_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null);
+
+    private final Node<K, V> root;
+
+    private PersistentTreeMap(Node<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+        return (PersistentTreeMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Construit une table équilibrée en O(n) à partir de clés déjà triées et distinctes.
+     *
+     * @param keys   clés croissantes
+     * @param values valeurs, à la même position que leur clé
+     * @return nouvelle table
+     */
+    static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> ofSorted(List<K> keys, List<V> values) {
+        return new PersistentTreeMap<>(build(keys, values, 0, keys.size()));
+    }
+
+    private static <K, V> Node<K, V> build(List<K> keys, List<V> values, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(keys.get(middle), values.get(middle),
+                build(keys, values, from, middle), build(keys, values, middle + 1, to));
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @return table où la clé est associée à la valeur ; celle-ci si la valeur y est déjà associée
+     */
+    PersistentTreeMap<K, V> with(K key, V value) {
+        Node<K, V> updated = insert(root, key, value);
+        return updated == root ? this : new PersistentTreeMap<>(updated);
+    }
+
+    /**
+     * @return table sans la clé ; celle-ci si la clé est absente
+     */
+    PersistentTreeMap<K, V> without(K key) {
+        Node<K, V> updated = delete(root, key);
+        return updated == root ? this : new PersistentTreeMap<>(updated);
+    }
+
+    /**
+     * Applique plusieurs modifications. Peu nombreuses, elles recopient chacune le chemin vers leur clé ;
+     * nombreuses (chargement du fichier, gros lot), elles sont fusionnées avec la table en un seul parcours
+     * suivi d'une construction équilibrée, en O(n + m log m) au lieu de O(m log n) recopies de chemins.
+     *
+     * @param changes nouvelle valeur de chaque clé modifiée, {@code null} pour retirer la clé
+     * @return table modifiée
+     */
+    PersistentTreeMap<K, V> withAll(Map<K, V> changes) {
+        if ((long) changes.size() * BULK_FACTOR < size()) {
+            PersistentTreeMap<K, V> updated = this;
+            for (Map.Entry<K, V> change : changes.entrySet()) {
+                updated = change.getValue() == null ? updated.without(change.getKey()) : updated.with(change.getKey(), change.getValue());
+            }
+            return updated;
+        }
+        List<K> changedKeys = new ArrayList<>(changes.keySet());
+        changedKeys.sort(PersistentTreeMap::compare);
+        List<K> keys = new ArrayList<>(size() + changedKeys.size());
+        List<V> values = new ArrayList<>(size() + changedKeys.size());
+        Iterator<Node<K, V>> nodes = nodes(0);
+        Node<K, V> node = nodes.hasNext() ? nodes.next() : null;
+        for (K key : changedKeys) {
+            while (node != null && compare(node.key, key) < 0) {
+                keys.add(node.key);
+                values.add(node.value);
+                node = nodes.hasNext() ? nodes.next() : null;
+            }
+            if (node != null && compare(node.key, key) == 0) {
+                node = nodes.hasNext() ? nodes.next() : null;
+            }
+            V value = changes.get(key);
+            if (value != null) {
+                keys.add(key);
+                values.add(value);
+            }
+        }
+        while (node != null) {
+            keys.add(node.key);
+            values.add(node.value);
+            node = nodes.hasNext() ? nodes.next() : null;
+        }
+        return ofSorted(keys, values);
+    }
+
+    /**
+     * @param index position dans l'ordre des clés, de 0 à {@link #size()} exclus
+     * @return clé à cette position
+     */
+    K keyAt(int index) {
+        return nodeAt(index).key;
+    }
+
+    /**
+     * @param index position dans l'ordre des clés, de 0 à {@link #size()} exclus
+     * @return valeur à cette position
+     */
+    V valueAt(int index) {
+        return nodeAt(index).value;
+    }
+
+    /**
+     * @return nombre de clés inférieures ou égales à la clé donnée, soit la position de la suivante
+     */
+    int rank(K key) {
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                if (cmp == 0) {
+                    return rank;
+                }
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Parcourt les associations dans l'ordre des clés.
+     */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        Iterator<Node<K, V>> nodes = nodes(0);
+        while (nodes.hasNext()) {
+            Node<K, V> node = nodes.next();
+            action.accept(node.key, node.value);
+        }
+    }
+
+    /**
+     * @param from position de la première valeur parcourue
+     * @return valeurs dans l'ordre des clés, à partir de la position donnée
+     */
+    Iterator<V> values(int from) {
+        Iterator<Node<K, V>> nodes = nodes(from);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public V next() {
+                return nodes.next().value;
+            }
+        };
+    }
+
+    /**
+     * Parcours infixe avec une pile de la hauteur de l'arbre, qui descend directement à la position de départ.
+     */
+    private Iterator<Node<K, V>> nodes(int from) {
+        Deque<Node<K, V>> stack = new ArrayDeque<>();
+        Node<K, V> node = root;
+        int skip = from;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (skip < leftSize) {
+                stack.push(node);
+                node = node.left;
+            } else if (skip == leftSize) {
+                stack.push(node);
+                break;
+            } else {
+                skip -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Node<K, V> next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<K, V> next = stack.pop();
+                for (Node<K, V> n = next.right; n != null; n = n.left) {
+                    stack.push(n);
+                }
+                return next;
+            }
+        };
+    }
+
+    private Node<K, V> nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        Node<K, V> node = root;
+        int remaining = index;
+        while (true) {
+            int leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize) {
+                return node;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> int compare(K key, K other) {
+        return KEY_ORDER.compare((Comparable<?>) key, (Comparable<?>) other);
+    }
+
+    private static <K, V> Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int cmp = compare(key, node.key);
+        if (cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (cmp > 0) {
+            Node<K, V> right = insert(node.right, key, value);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        return value == node.value ? node : new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <K, V> Node<K, V> delete(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(key, node.key);
+        if (cmp < 0) {
+            Node<K, V> left = delete(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (cmp > 0) {
+            Node<K, V> right = delete(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        return glue(node.left, node.right);
+    }
+
+    /**
+     * Réunit les deux sous-arbres d'un nœud supprimé, en remontant l'extrémité du plus lourd.
+     */
+    private static <K, V> Node<K, V> glue(Node<K, V> left, Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.size > right.size) {
+            Node<K, V> max = left;
+            while (max.right != null) {
+                max = max.right;
+            }
+            return balance(max.key, max.value, deleteMax(left), right);
+        }
+        Node<K, V> min = right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.key, min.value, left, deleteMin(right));
+    }
+
+    private static <K, V> Node<K, V> deleteMin(Node<K, V> node) {
+        return node.left == null ? node.right : balance(node.key, node.value, deleteMin(node.left), node.right);
+    }
+
+    private static <K, V> Node<K, V> deleteMax(Node<K, V> node) {
+        return node.right == null ? node.left : balance(node.key, node.value, node.left, deleteMax(node.right));
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int leftSize = size(left);
+        int rightSize = size(right);
+        if (leftSize + rightSize <= 1) {
+            return new Node<>(key, value, left, right);
+        }
+        if (rightSize > DELTA * leftSize) {
+            return size(right.left) < RATIO * size(right.right)
+                    ? new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right)
+                    : new Node<>(right.left.key, right.left.value,
+                    new Node<>(key, value, left, right.left.left),
+                    new Node<>(right.key, right.value, right.left.right, right.right));
+        }
+        if (leftSize > DELTA * rightSize) {
+            return size(left.right) < RATIO * size(left.left)
+                    ? new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right))
+                    : new Node<>(left.right.key, left.right.value,
+                    new Node<>(left.key, left.value, left.left, left.right.left),
+                    new Node<>(key, value, left.right.right, right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -2,74 +2,197 @@ package com.openclassrooms.safetynet_alerts.repository;
 
 
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Repository;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.JsonNode;
-import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 /**
- * Repository permettant l'accès aux données provenant du fichier {@code data.json}.
- * Les données sont lues depuis ce fichier et converties en liste de {@link PersonModel}.
+ * Repository permettant l'accès aux personnes provenant du fichier {@code data.json}.
+ * Les données sont lues depuis le {@link DataStore} partagé, chargé une seule fois au démarrage.
  */
 
 @Repository
 public class PersonRepository {
 
-    private final ObjectMapper objectMapper;
+    private final DataStore dataStore;
+    private final MutationJournal mutationJournal;
 
     /**
-     * Construit ce repository avec un {@link ObjectMapper} injecté par Spring.
+     * Construit ce repository avec le {@link DataStore} et le {@link MutationJournal} injectés par Spring.
      *
-     * @param objectMapper mapper Jackson utilisé pour lire le JSON et convertir les nœuds en objets Java
+     * @param dataStore         jeu de données partagé contenant les personnes chargées en mémoire
+     * @param mutationJournal   journal dans lequel chaque modification est enregistrée
      */
-    public PersonRepository(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public PersonRepository(DataStore dataStore, MutationJournal mutationJournal) {
+        this.dataStore = dataStore;
+        this.mutationJournal = mutationJournal;
     }
 
     /**
-     * Récupère toutes les associations personne/données personnelles depuis le fichier JSON
+     * Récupère toutes les associations personne/données personnelles.
      *
      * <p>
-     * Le fichier {@code data/data.json} est lu depuis le classpath, puis le nœud
-     * {@code "persons"} est extrait et converti en {@link List} de {@link PersonModel}.
+     * La liste retournée n'est pas modifiable : elle est partagée avec l'état courant des données,
+     * sans copie. Toute tentative de la modifier lève une {@link UnsupportedOperationException} ;
+     * les données ne sont modifiées que par les méthodes d'écriture de ce repository.
      * </p>
      *
-     * @return liste complète des {@link PersonModel} présents dans {@code data/data.json}
-     * @throws IOException si le fichier ne peut pas être lu ou si le contenu JSON est invalide
+     * @return liste complète des {@link PersonModel} chargés depuis {@code data/data.json}
+     * @throws IOException en cas d'erreur lors de l'accès aux données
      */
     public List<PersonModel> findAll() throws IOException {
+        return dataStore.getPersons();
+    }
 
-        ClassPathResource resource = new ClassPathResource("data/data.json");
+    /**
+     * Récupère une page de personnes, dans l'ordre de la liste.
+     *
+     * <p>
+     * La page est lue dans l'état courant du {@link DataStore} : son coût dépend de la taille de la page
+     * et non du nombre total d'enregistrements.
+     * </p>
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal d'enregistrements de la page
+     * @return page de {@link PersonModel}, avec l'identifiant à reprendre pour la page suivante
+     */
+    public Page<PersonModel> findPage(long after, int limit) {
+        return dataStore.snapshot().pagePersons(after, limit);
+    }
 
-        try (InputStream inputStream = resource.getInputStream()) {
+    /**
+     * Récupère les résidents d'une adresse.
+     *
+     * <p>
+     * La recherche passe par l'index des foyers du {@link DataStore} : son coût dépend de la taille du foyer
+     * et non du nombre total de personnes. L'adresse est comparée sans tenir compte de la casse ni des espaces.
+     * </p>
+     *
+     * @param address adresse du foyer
+     * @return liste des {@link PersonModel} résidant à cette adresse, vide si aucun
+     */
+    public List<PersonModel> findByAddress(String address) {
+        return dataStore.findPersonsByAddress(address);
+    }
 
-            //On lit tout le fichier JSON, JsonNode = représentation Java de l'arbre Json
-            JsonNode rootNode = objectMapper.readTree(inputStream);
+    /**
+     * Récupère les personnes portant un nom de famille, avec leur dossier médical.
+     *
+     * <p>
+     * La recherche passe par l'index des noms du {@link DataStore} : son coût dépend de la taille de la famille
+     * et non du nombre total de personnes ou de dossiers médicaux. Le nom est comparé sans tenir compte de la casse.
+     * </p>
+     *
+     * @param lastName nom de famille recherché
+     * @return liste des {@link FamilyMember} portant ce nom, vide si aucun
+     */
+    public List<FamilyMember> findFamily(String lastName) {
+        return dataStore.findFamily(lastName);
+    }
 
-            //on récupére uniquement la clé "persons"
-            JsonNode personsNode = rootNode.get("persons");
+    /**
+     * Récupère les adresses e-mail distinctes des habitants d'une ville.
+     *
+     * <p>
+     * La liste est copiée depuis l'index des villes du {@link DataStore}, tenu à jour à chaque modification :
+     * son coût dépend du nombre d'adresses de la ville et non du nombre total de personnes.
+     * </p>
+     *
+     * @param city ville recherchée, comparée sans tenir compte de la casse
+     * @return adresses e-mail sans doublons, dans l'ordre de leur premier ajout ; vide si personne n'habite la ville
+     */
+    public List<String> findEmailsByCity(String city) {
+        return dataStore.findEmailsByCity(city);
+    }
 
-            //on convertit "persons" en List<PersonModel>
-            return objectMapper.convertValue(
-                    personsNode,
-                    new TypeReference<List<PersonModel>>() {
-                    }
-            );
-        }
+    /**
+     * Récupère les numéros de téléphone distincts des résidents couverts par une caserne.
+     *
+     * <p>
+     * La liste est copiée depuis l'index des casernes du {@link DataStore}, tenu à jour à chaque modification
+     * des personnes et des associations adresse/caserne : aucun résident n'est parcouru.
+     * </p>
+     *
+     * @param station numéro de la caserne
+     * @return numéros sans doublons, dans l'ordre de leur premier ajout ; vide si la caserne ne couvre personne
+     */
+    public List<String> findPhonesByStation(String station) {
+        return dataStore.findPhonesByStation(station);
+    }
 
+    /**
+     * Ajoute une personne.
+     *
+     * <p>
+     * La modification est appliquée aux données partagées puis enregistrée dans le journal :
+     * la méthode rend la main une fois la ligne du journal écrite sur disque.
+     * L'existence est vérifiée au moment d'appliquer la modification, sous le verrou du {@link DataStore} :
+     * un ajout rejeté n'est ni appliqué ni journalisé.
+     * </p>
+     *
+     * @param person {@link PersonModel} à ajouter
+     * @return {@code true} si l'élément a été ajouté, {@code false} si une personne porte déjà exactement ce prénom et ce nom
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean add(PersonModel person) throws IOException {
+        Mutation mutation = Mutation.addPerson(person);
+        mutationJournal.record(mutation);
+        return mutation.getResult().created() > 0;
+    }
 
+    /**
+     * Met à jour la personne existante, retrouvée par prénom et nom.
+     *
+     * @param person {@link PersonModel} contenant les nouvelles valeurs
+     * @return {@code true} si un élément a été mis à jour, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean update(PersonModel person) throws IOException {
+        return mutationJournal.record(Mutation.updatePerson(person));
+    }
+
+    /**
+     * Supprime les personnes portant exactement ce prénom et ce nom.
+     *
+     * @param firstName prénom de la personne
+     * @param lastName  nom de la personne
+     * @return {@code true} si au moins un élément a été supprimé, sinon {@code false}
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public boolean delete(String firstName, String lastName) throws IOException {
+        return mutationJournal.record(Mutation.deletePerson(firstName, lastName));
+    }
+
+    /**
+     * Met à jour ou ajoute, selon leur prénom et nom, toute une liste de personnes.
+     *
+     * <p>
+     * Le lot est appliqué en une seule fois : un seul nouvel état est publié, chaque clé touchée d'un index
+     * n'y est reportée qu'une fois, chaque foyer ou caserne touché n'est recalculé qu'une fois par les vues,
+     * et le lot est écrit sur une seule ligne du journal.
+     * </p>
+     *
+     * @param persons personnes à enregistrer
+     * @return nombre d'éléments ajoutés et mis à jour
+     * @throws IOException si le journal ne peut pas être écrit
+     */
+    public BatchResult upsertAll(List<PersonModel> persons) throws IOException {
+        Mutation mutation = Mutation.upsertPersons(persons);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
     }
 
     /**
-     * Sauvegarde la liste des persons.
+     * Supprime en une seule fois toute une liste de personnes, retrouvées par prénom et nom.
      *
-     * @param persons liste des {@link PersonModel} à sauvegarder
+     * @param criteria personnes à supprimer
+     * @return nombre d'éléments supprimés
+     * @throws IOException si le journal ne peut pas être écrit
      */
-    public void saveAll(List<PersonModel> persons) {
+    public BatchResult deleteAll(List<PersonModel> criteria) throws IOException {
+        Mutation mutation = Mutation.deletePersons(criteria);
+        mutationJournal.record(mutation);
+        return mutation.getResult();
     }
 }
@@ -0,0 +1,128 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Liste immuable d'enregistrements rangés par identifiant croissant, partagée entre les états
+ * successifs du {@link DataStore}.
+ *
+ * <p>
+ * Repose sur une {@link PersistentTreeMap} des identifiants : ajouter, remplacer ou retirer un enregistrement
+ * ne recopie que O(log n) nœuds, quel que soit le nombre d'enregistrements. L'accès par position coûte O(log n),
+ * le parcours O(1) par élément. Les méthodes de modification de {@link java.util.List} lèvent
+ * une {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @param <T> type des enregistrements
+ */
+final class RecordList<T> extends AbstractList<T> {
+
+    private static final RecordList<?> EMPTY = new RecordList<>(PersistentTreeMap.empty());
+
+    private final PersistentTreeMap<Long, T> records;
+
+    private RecordList(PersistentTreeMap<Long, T> records) {
+        this.records = records;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> RecordList<T> empty() {
+        return (RecordList<T>) EMPTY;
+    }
+
+    /**
+     * Construit en O(n) une liste dont les enregistrements reçoivent des identifiants consécutifs.
+     *
+     * @param elements enregistrements, dans l'ordre de la liste
+     * @param firstId  identifiant du premier enregistrement
+     * @return nouvelle liste
+     */
+    static <T> RecordList<T> of(List<T> elements, long firstId) {
+        List<Long> ids = new ArrayList<>(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            ids.add(firstId + i);
+        }
+        return new RecordList<>(PersistentTreeMap.ofSorted(ids, elements));
+    }
+
+    @Override
+    public T get(int index) {
+        return records.valueAt(index);
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return records.values(0);
+    }
+
+    /**
+     * @return identifiant de l'enregistrement à cette position
+     */
+    long idAt(int index) {
+        return records.keyAt(index);
+    }
+
+    /**
+     * @return enregistrement portant cet identifiant, ou {@code null}
+     */
+    T find(long id) {
+        return records.get(id);
+    }
+
+    /**
+     * @return liste où l'identifiant désigne l'enregistrement donné, ajouté à sa place ou remplaçant l'ancien
+     */
+    RecordList<T> with(long id, T element) {
+        PersistentTreeMap<Long, T> updated = records.with(id, element);
+        return updated == records ? this : new RecordList<>(updated);
+    }
+
+    /**
+     * @return liste sans l'enregistrement de cet identifiant
+     */
+    RecordList<T> without(long id) {
+        PersistentTreeMap<Long, T> updated = records.without(id);
+        return updated == records ? this : new RecordList<>(updated);
+    }
+
+    /**
+     * Parcourt les enregistrements avec leur identifiant, dans l'ordre de la liste.
+     */
+    void forEachWithId(BiConsumer<Long, ? super T> action) {
+        records.forEach(action);
+    }
+
+    /**
+     * Le début de la page est trouvé par le rang de l'identifiant dans l'arbre :
+     * le coût dépend de la taille de la page et non du nombre d'enregistrements.
+     *
+     * @param after identifiant du dernier enregistrement de la page précédente, ou 0 pour la première page
+     * @param limit nombre maximal d'enregistrements de la page, au moins 1
+     * @return enregistrements de la page, avec l'identifiant à reprendre pour la page suivante
+     */
+    Page<T> page(long after, int limit) {
+        int from = records.rank(after);
+        int to = (int) Math.min((long) from + limit, size());
+        List<T> page = new ArrayList<>(to - from);
+        Iterator<T> iterator = records.values(from);
+        while (page.size() < to - from) {
+            page.add(iterator.next());
+        }
+        return new Page<>(Collections.unmodifiableList(page), to < size() ? idAt(to - 1) : null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+
+/**
+ * Observateur des anniversaires signalés par l'{@link AgeRolloverScheduler}.
+ */
+public interface AgeRolloverListener {
+
+    /**
+     * Appelée sous le verrou du {@link com.openclassrooms.safetynet_alerts.repository.DataStore},
+     * au premier passage de la journée où la personne change d'âge.
+     *
+     * @param medicalrecord dossier médical de la personne dont c'est l'anniversaire
+     * @param age           nouvel âge de la personne
+     */
+    void ageChanged(MedicalrecordModel medicalrecord, int age);
+}
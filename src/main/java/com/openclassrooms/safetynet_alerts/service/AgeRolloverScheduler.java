@@ -0,0 +1,217 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DataStoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planificateur des changements d'âge qui modifient les vues précalculées.
+ *
+ * <p>
+ * Seuls les anniversaires des mineurs changent un résultat : l'âge affiché par /childAlert,
+ * et le passage à 19 ans qui fait passer la personne du décompte des enfants à celui des adultes.
+ * Le planificateur garde ces anniversaires dans une file de priorité triée par date ; à chaque changement
+ * de jour, il retire les anniversaires échus et signale aux {@link AgeRolloverListener} les seules
+ * personnes concernées, au lieu de recalculer toutes les vues.
+ * </p>
+ *
+ * <p>
+ * Le changement de jour est détecté à minuit selon le {@link Clock} injecté, ainsi qu'à chaque lecture
+ * des vues par {@link #advance()}. Un dossier médical remplacé ou supprimé perd son entrée planifiée :
+ * l'entrée restée dans la file est ignorée à son échéance, et la file est reconstruite avec les seules
+ * entrées planifiées dès qu'elle compte plus d'entrées périmées que d'entrées valides. Sa taille reste
+ * ainsi bornée par le double du nombre de mineurs, quel que soit le nombre de modifications.
+ * </p>
+ */
+@Service
+public class AgeRolloverScheduler implements DataStoreListener, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgeRolloverScheduler.class);
+
+    /**
+     * Anniversaire à venir : à la date {@code epochDay}, la personne atteint l'âge {@code age}.
+     */
+    private record Birthday(long epochDay, int age, MedicalrecordModel medicalrecord) {
+    }
+
+    private final DataStore dataStore;
+    private final Clock clock;
+
+    private final PriorityQueue<Birthday> birthdays = new PriorityQueue<>(Comparator.comparingLong(Birthday::epochDay));
+    private final Map<MedicalrecordModel, Birthday> scheduled = new IdentityHashMap<>();
+    private final List<AgeRolloverListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long processedEpochDay;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "age-rollover-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Construit la file des anniversaires à venir et programme le premier passage à minuit.
+     *
+     * @param dataStore jeu de données dont les dossiers médicaux sont suivis
+     * @param clock     horloge donnant la date du jour
+     */
+    public AgeRolloverScheduler(DataStore dataStore, Clock clock) {
+        this.dataStore = dataStore;
+        this.clock = clock;
+
+        synchronized (dataStore) {
+            processedEpochDay = LocalDate.now(clock).toEpochDay();
+            dataStore.getMedicalrecords().forEach(this::scheduleNextBirthday);
+            dataStore.addListener(this);
+        }
+        logger.debug("{} birthdays scheduled", scheduled.size());
+        scheduleAtMidnight();
+    }
+
+    /**
+     * Enregistre un observateur des changements d'âge.
+     *
+     * @param listener observateur notifié de chaque anniversaire échu
+     */
+    public void addListener(AgeRolloverListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Traite les anniversaires échus si la date du jour a changé depuis le dernier passage.
+     * Sans changement de jour, seule l'horloge est lue.
+     */
+    public void advance() {
+        long today = LocalDate.now(clock).toEpochDay();
+        if (today <= processedEpochDay) {
+            return;
+        }
+        synchronized (dataStore) {
+            if (today <= processedEpochDay) {
+                return;
+            }
+
+            //une personne n'est signalée qu'une fois, avec son dernier âge, même après plusieurs jours sans passage
+            Map<MedicalrecordModel, Integer> changed = new LinkedHashMap<>();
+            while (!birthdays.isEmpty() && birthdays.peek().epochDay() <= today) {
+                Birthday birthday = birthdays.poll();
+                MedicalrecordModel medicalrecord = birthday.medicalrecord();
+                if (scheduled.get(medicalrecord) != birthday) {
+                    continue;
+                }
+                scheduled.remove(medicalrecord);
+                if (dataStore.findMedicalrecord(medicalrecord.getFirstName(), medicalrecord.getLastName()) != medicalrecord) {
+                    continue;
+                }
+                changed.put(medicalrecord, birthday.age());
+                if (AgeService.isChildAge(birthday.age())) {
+                    schedule(medicalrecord, birthday.age() + 1);
+                }
+            }
+            processedEpochDay = today;
+
+            logger.debug("Day rollover to {}: {} birthdays, {} still scheduled", LocalDate.ofEpochDay(today),
+                    changed.size(), scheduled.size());
+            changed.forEach((medicalrecord, age) ->
+                    listeners.forEach(listener -> listener.ageChanged(medicalrecord, age)));
+        }
+    }
+
+    @Override
+    public void medicalrecordChanged(DataSnapshot snapshot, MedicalrecordModel before, MedicalrecordModel after) {
+        if (before != null && scheduled.remove(before) != null) {
+            purgeIfMostlyStale();
+        }
+        if (after != null) {
+            scheduleNextBirthday(after);
+        }
+    }
+
+    /**
+     * Reconstruit la file avec les seules entrées planifiées lorsque les entrées périmées y sont majoritaires :
+     * le coût de la reconstruction est réparti sur les modifications qui ont rendu ces entrées périmées.
+     */
+    private void purgeIfMostlyStale() {
+        if (birthdays.size() - scheduled.size() > Math.max(scheduled.size(), 16)) {
+            birthdays.clear();
+            birthdays.addAll(scheduled.values());
+        }
+    }
+
+    /**
+     * @return nombre d'anniversaires planifiés, sans les entrées périmées
+     */
+    public int getScheduledCount() {
+        synchronized (dataStore) {
+            return scheduled.size();
+        }
+    }
+
+    /**
+     * @return nombre d'entrées de la file, entrées périmées comprises
+     */
+    int getQueueSize() {
+        synchronized (dataStore) {
+            return birthdays.size();
+        }
+    }
+
+    private void scheduleNextBirthday(MedicalrecordModel medicalrecord) {
+        if (medicalrecord.getBirthEpochDay() == MedicalrecordModel.UNKNOWN_BIRTHDATE) {
+            return;
+        }
+        int age = AgeService.ageAt(medicalrecord.getBirthYearMonthDay(), AgeService.toYearMonthDay(LocalDate.ofEpochDay(processedEpochDay)));
+        if (AgeService.isChildAge(age)) {
+            schedule(medicalrecord, Math.max(age, 0) + 1);
+        }
+    }
+
+    private void schedule(MedicalrecordModel medicalrecord, int age) {
+        Birthday birthday = new Birthday(AgeService.birthdayEpochDay(medicalrecord.getBirthEpochDay(), age), age, medicalrecord);
+        scheduled.put(medicalrecord, birthday);
+        birthdays.add(birthday);
+    }
+
+    private void scheduleAtMidnight() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(clock.getZone());
+        long delay = Math.max(Duration.between(now, midnight).toMillis(), 0);
+
+        timer.schedule(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                logger.error("Day rollover failed", e);
+            } finally {
+                scheduleAtMidnight();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Arrête le passage programmé à minuit à l'arrêt de l'application.
+     */
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
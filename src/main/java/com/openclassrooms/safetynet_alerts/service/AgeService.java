@@ -2,6 +2,7 @@ package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
 import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,9 +11,11 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.time.Clock;
 import java.time.LocalDate;
-import java.time.Period;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Service responsable du calcul de l'âge d'une personne à partir de sa date de naissance enregistrée dans les données médicales
@@ -43,8 +46,9 @@ public class AgeService {
      * Calcule l'âge d'une personne à partir de sa date de naissance enregistrée dans les données médicales
      *
      * <p>
-     * La date de naissance est convertie en {@link LocalDate} puis comparée
-     * à la date actuelle obtenue via le {@link Clock} injecté.
+     * Le dossier médical est retrouvé par l'index prénom + nom, sans relire les données.
+     * La date de naissance, déjà convertie en entier {@code aaaammjj} au chargement du dossier,
+     * est comparée par arithmétique entière à la date actuelle obtenue via le {@link Clock} injecté.
      * </p>
      *
      * @param person personne dont l'âge doit être calculé
@@ -55,23 +59,140 @@ public class AgeService {
 
         logger.debug("Calculating age for {} {}", person.getFirstName(), person.getLastName());
 
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
+        int age = calculateAge(person, toYearMonthDay(LocalDate.now(clock)));
 
-        for (MedicalrecordModel medicalrecord : medicalrecords) {
-            if (medicalrecord.getFirstName().equalsIgnoreCase(person.getFirstName()) && medicalrecord.getLastName().equalsIgnoreCase(person.getLastName())) {
+        logger.debug("Age calculated for {} {} = {}", person.getFirstName(), person.getLastName(), age);
 
-                LocalDate birthdate = LocalDate.parse(medicalrecord.getBirthdate(), DATE_TIME_FORMATTER);
-                LocalDate today = LocalDate.now(clock);
+        return age;
+    }
+
+    /**
+     * Calcule en une seule passe l'âge de plusieurs personnes (un foyer, les habitants couverts par une caserne...).
+     *
+     * <p>
+     * La date du jour n'est lue qu'une fois pour tout le lot et chaque dossier médical
+     * est retrouvé par l'index prénom + nom.
+     * </p>
+     *
+     * @param persons personnes dont l'âge doit être calculé
+     * @return âge de chaque personne (-1 si aucun dossier médical n'est retrouvé), dans l'ordre de la collection donnée
+     * @throws IOException en cas d'erreur lors de l'accès aux données médicales
+     */
+    public Map<PersonModel, Integer> calculateAges(Collection<PersonModel> persons) throws IOException {
+
+        logger.debug("Calculating ages for {} persons", persons.size());
+
+        LocalDate today = LocalDate.now(clock);
+        int todayDate = toYearMonthDay(today);
+        Map<PersonModel, Integer> ages = new LinkedHashMap<>();
+
+        for (PersonModel person : persons) {
+            ages.put(person, calculateAge(person, todayDate));
+        }
+        return ages;
+    }
 
-                int age = Period.between(birthdate, today).getYears();
-                logger.debug("Age calculated for {} {} = {}", person.getFirstName(), person.getLastName(), age);
+    /**
+     * Calcule l'âge de plusieurs personnes en retrouvant leur dossier médical dans un état donné des données,
+     * celui lu par la requête en cours, plutôt que dans l'état courant.
+     *
+     * @param snapshot état des données dans lequel les dossiers médicaux sont recherchés
+     * @param persons  personnes dont l'âge doit être calculé
+     * @return âge de chaque personne (-1 si aucun dossier médical n'est retrouvé), dans l'ordre de la collection donnée
+     */
+    public Map<PersonModel, Integer> calculateAges(DataSnapshot snapshot, Collection<PersonModel> persons) {
+
+        logger.debug("Calculating ages for {} persons at version {}", persons.size(), snapshot.getVersion());
+
+        int todayDate = toYearMonthDay(LocalDate.now(clock));
+        Map<PersonModel, Integer> ages = new LinkedHashMap<>();
+
+        for (PersonModel person : persons) {
+            ages.put(person, calculateAge(person, snapshot.findMedicalrecord(person.getFirstName(), person.getLastName()), todayDate));
+        }
+        return ages;
+    }
+
+    private int calculateAge(PersonModel person, int todayDate) {
+        return calculateAge(person, medicalrecordRepository.findByName(person.getFirstName(), person.getLastName()), todayDate);
+    }
+
+    private int calculateAge(PersonModel person, MedicalrecordModel medicalrecord, int todayDate) {
 
-                return age;
-            }
+        if (medicalrecord == null) {
+            logger.debug("No medical record found for {} {}", person.getFirstName(), person.getLastName());
+            return -1;
         }
-        logger.debug("No medical record found for {} {}", person.getFirstName(), person.getLastName());
-        return -1;
 
+        int birthDate = medicalrecord.getBirthYearMonthDay();
+        if (medicalrecord.getBirthEpochDay() == MedicalrecordModel.UNKNOWN_BIRTHDATE) {
+            //date absente ou invalide : l'analyse lève la même erreur qu'auparavant
+            birthDate = toYearMonthDay(LocalDate.parse(medicalrecord.getBirthdate(), DATE_TIME_FORMATTER));
+        }
+
+        return ageAt(birthDate, todayDate);
+    }
+
+    /**
+     * Calcule un âge en années révolues par arithmétique entière.
+     *
+     * <p>
+     * Les deux dates sont comparées sous la forme {@code aaaammjj} : la différence divisée par 10 000
+     * donne le nombre d'anniversaires passés, comme {@code Period.between(naissance, aujourdhui).getYears()}.
+     * </p>
+     *
+     * @param birthDate date de naissance sous la forme {@code aaaammjj}, précalculée par
+     *                  {@link MedicalrecordModel#getBirthYearMonthDay()}
+     * @param todayDate date du jour sous la forme {@code aaaammjj}, obtenue par {@link #toYearMonthDay(LocalDate)}
+     * @return âge en années
+     */
+    public static int ageAt(int birthDate, int todayDate) {
+        return (todayDate - birthDate) / 10_000;
+    }
+
+    /**
+     * Calcule la date à laquelle une personne atteint un âge donné, selon la même règle que {@link #ageAt(int, int)} :
+     * une personne née un 29 février change d'âge le 1er mars des années non bissextiles.
+     *
+     * @param birthEpochDay date de naissance en nombre de jours depuis le 01/01/1970
+     * @param age           âge atteint
+     * @return date de l'anniversaire, en nombre de jours depuis le 01/01/1970
+     */
+    public static long birthdayEpochDay(long birthEpochDay, int age) {
+        LocalDate birthdate = LocalDate.ofEpochDay(birthEpochDay);
+        int year = birthdate.getYear() + age;
+        if (birthdate.getMonthValue() == 2 && birthdate.getDayOfMonth() == 29 && !Year.isLeap(year)) {
+            return LocalDate.of(year, 3, 1).toEpochDay();
+        }
+        return birthdate.withYear(year).toEpochDay();
+    }
+
+    /**
+     * @param date date à convertir
+     * @return la date sous la forme d'un entier {@code aaaammjj}
+     */
+    public static int toYearMonthDay(LocalDate date) {
+        return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Indique si un âge déjà calculé correspond à un adulte (strictement plus de 18 ans)
+     *
+     * @param age âge calculé par {@link #calculateAge(PersonModel)} ou {@link #calculateAges(Collection)}
+     * @return {@code true} si l'âge correspond à un adulte, sinon {@code false}
+     */
+    public static boolean isAdultAge(int age) {
+        return age > ADULT_AGE_THRESHOLD;
+    }
+
+    /**
+     * Indique si un âge déjà calculé correspond à un mineur (18 ans ou moins, ou âge inconnu)
+     *
+     * @param age âge calculé par {@link #calculateAge(PersonModel)} ou {@link #calculateAges(Collection)}
+     * @return {@code true} si l'âge correspond à un mineur, sinon {@code false}
+     */
+    public static boolean isChildAge(int age) {
+        return age <= ADULT_AGE_THRESHOLD;
     }
 
     /**
@@ -82,7 +203,7 @@ public class AgeService {
      * @throws IOException en cas d'erreur lors du calcul de l'âge
      */
     public boolean isAdult(PersonModel person) throws IOException {
-        boolean isAdult = this.calculateAge(person) > ADULT_AGE_THRESHOLD;
+        boolean isAdult = isAdultAge(this.calculateAge(person));
         logger.debug("{} {} isAdult={}", person.getFirstName(), person.getLastName(), isAdult);
         return isAdult;
     }
@@ -95,7 +216,7 @@ public class AgeService {
      * @throws IOException en cas d'erreur lors du calcul de l'âge
      */
     public boolean isChild(PersonModel person) throws IOException {
-        boolean isChild = this.calculateAge(person) <= ADULT_AGE_THRESHOLD;
+        boolean isChild = isChildAge(this.calculateAge(person));
         logger.debug("{} {} isChild={}", person.getFirstName(), person.getLastName(), isChild);
         return isChild;
     }
@@ -2,15 +2,11 @@ package com.openclassrooms.safetynet_alerts.service;
 
 
 import com.openclassrooms.safetynet_alerts.dto.ChildAlertDTO;
-import com.openclassrooms.safetynet_alerts.dto.HouseholdMemberDTO;
-import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +14,8 @@ import java.util.List;
  * <p>
  * Ce service permet d'identifier les enfants (≤ 18 ans) vivant à une adresse donnée,
  * ainsi que les autres membres du foyer.
+ * Le résultat est lu dans la vue précalculée {@link ChildAlertView}, tenue à jour à chaque modification des données
+ * et à chaque anniversaire d'un enfant.
  */
 
 @Service
@@ -25,19 +23,16 @@ public class ChildAlertService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChildAlertService.class);
 
-    private final PersonRepository personRepository;
-    private final AgeService ageService;
+    private final ChildAlertView childAlertView;
 
     /**
      * Construit le service ChildAlert
      *
-     * @param personRepository repository permettant d'accéder aux données personnelles des personnes
-     * @param ageService       service permettant de calculer l'âge et déterminer si une personne est mineure ou non
+     * @param childAlertView vue précalculée des enfants de chaque foyer
      */
 
-    public ChildAlertService(PersonRepository personRepository, AgeService ageService) {
-        this.personRepository = personRepository;
-        this.ageService = ageService;
+    public ChildAlertService(ChildAlertView childAlertView) {
+        this.childAlertView = childAlertView;
     }
 
     /**
@@ -64,38 +59,8 @@ public class ChildAlertService {
 
         logger.debug("Starting childAlert search for address={}", address);
 
-        List<PersonModel> persons = personRepository.findAll();
-        logger.debug("Loaded {} persons from repository", persons.size());
-
-        List<PersonModel> household = new ArrayList<>();
-        for (PersonModel person : persons) {
-            if (person.getAddress() != null && person.getAddress().equalsIgnoreCase(address)) {
-                household.add(person);
-            }
-        }
-        logger.debug("Household size for address={} is {}", address, household.size());
-
-        List<ChildAlertDTO> result = new ArrayList<>();
-
-        for (PersonModel person : household) {
-            if (ageService.isChild(person)) {
-                int age = ageService.calculateAge(person);
-                List<HouseholdMemberDTO> otherMembers = new ArrayList<>();
-
-                for (PersonModel member : household) {
-                    boolean samePerson = member.getFirstName().equalsIgnoreCase(person.getFirstName()) && member.getLastName().equalsIgnoreCase(person.getLastName());
-                    if (!samePerson) {
-                        otherMembers.add(new HouseholdMemberDTO(member.getFirstName(), member.getLastName()));
-                    }
-                }
-
-                ChildAlertDTO dto = new ChildAlertDTO(
-                        person.getFirstName(), person.getLastName(), age, otherMembers
-                );
-
-                result.add(dto);
-            }
-        }
+        List<ChildAlertDTO> result = childAlertView.getChildren(address);
+
         logger.debug("ChildAlert search completed for address={}, childrenFound={}", address, result.size());
 
 
@@ -0,0 +1,107 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.dto.ChildAlertDTO;
+import com.openclassrooms.safetynet_alerts.dto.HouseholdMemberDTO;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.IndexKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vue précalculée de l'endpoint /childAlert : pour chaque foyer, les enfants avec leur âge
+ * et les autres membres du foyer.
+ *
+ * <p>
+ * La vue est construite à partir des {@link Household} de la {@link HouseholdView} et recalcule un foyer
+ * chaque fois que celle-ci le signale : modification d'un résident ou de son dossier médical,
+ * ou anniversaire d'un enfant signalé par l'{@link AgeRolloverScheduler} au changement de jour.
+ * </p>
+ *
+ * <p>
+ * Les listes retournées sont partagées entre les lectures et ne peuvent pas être modifiées.
+ * </p>
+ */
+@Service
+public class ChildAlertView implements HouseholdListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChildAlertView.class);
+
+    private final HouseholdView householdView;
+    private final AgeRolloverScheduler ageRolloverScheduler;
+
+    private final Map<String, List<ChildAlertDTO>> childrenByAddress = new ConcurrentHashMap<>();
+
+    /**
+     * Construit la vue à partir des foyers actuels et l'enregistre auprès de la {@link HouseholdView}.
+     *
+     * @param householdView        vue des foyers observée
+     * @param ageRolloverScheduler planificateur signalant les anniversaires des enfants
+     */
+    public ChildAlertView(HouseholdView householdView, AgeRolloverScheduler ageRolloverScheduler) {
+        this.householdView = householdView;
+        this.ageRolloverScheduler = ageRolloverScheduler;
+
+        householdView.addListener(this);
+        logger.debug("Child alert view built for {} households", childrenByAddress.size());
+    }
+
+    /**
+     * Retourne les enfants vivant à une adresse, avec les autres membres de leur foyer.
+     *
+     * @param address adresse du foyer, comparée sans tenir compte de la casse ni des espaces
+     * @return liste précalculée des {@link ChildAlertDTO} ; vide si aucun enfant n'y habite
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public List<ChildAlertDTO> getChildren(String address) throws IOException {
+
+        ageRolloverScheduler.advance();
+
+        List<ChildAlertDTO> children = childrenByAddress.get(IndexKeys.address(address));
+        if (children != null) {
+            return children;
+        }
+
+        //adresse inconnue, ou dont le foyer n'a pas pu être calculé : calcul direct, qui remonte l'erreur éventuelle
+        return compute(householdView.getHousehold(address));
+    }
+
+    @Override
+    public void householdChanged(Household household) {
+        String key = IndexKeys.address(household.address());
+        if (household.residents().isEmpty()) {
+            childrenByAddress.remove(key);
+        } else {
+            childrenByAddress.put(key, compute(household));
+        }
+    }
+
+    private List<ChildAlertDTO> compute(Household household) {
+
+        List<ChildAlertDTO> result = new ArrayList<>();
+
+        for (Household.Resident resident : household.residents()) {
+            PersonModel person = resident.person();
+            if (AgeService.isChildAge(resident.age())) {
+                List<HouseholdMemberDTO> otherMembers = new ArrayList<>();
+
+                for (Household.Resident other : household.residents()) {
+                    PersonModel member = other.person();
+                    boolean samePerson = member.getFirstName().equalsIgnoreCase(person.getFirstName()) && member.getLastName().equalsIgnoreCase(person.getLastName());
+                    if (!samePerson) {
+                        otherMembers.add(new HouseholdMemberDTO(member.getFirstName(), member.getLastName()));
+                    }
+                }
+
+                result.add(new ChildAlertDTO(person.getFirstName(), person.getLastName(), resident.age(), List.copyOf(otherMembers)));
+            }
+        }
+        return List.copyOf(result);
+    }
+}
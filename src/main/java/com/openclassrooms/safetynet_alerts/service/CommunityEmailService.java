@@ -1,13 +1,11 @@
 package com.openclassrooms.safetynet_alerts.service;
 
-import com.openclassrooms.safetynet_alerts.model.PersonModel;
 import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -35,6 +33,7 @@ public class CommunityEmailService {
     /**
      * Récupère la liste des adresses e-mail des personnes vivant dans une ville donnée.
      * Si aucune personne n'est trouvée dans la ville indiquée, une liste vide est retournée.
+     * La liste est une copie de l'ensemble précalculé par ville, sans parcours des personnes.
      *
      * @param city ville à analyser
      * @return liste des adresses e-mail des personnes (sans doublons)
@@ -45,18 +44,8 @@ public class CommunityEmailService {
 
         logger.debug("Starting email search for city={}", city);
 
-        List<PersonModel> persons = personRepository.findAll();
-        logger.debug("Loaded {} persons from repository", persons.size());
+        List<String> emails = personRepository.findEmailsByCity(city);
 
-        List<String> emails = new ArrayList<>();
-
-        for (PersonModel person : persons) {
-            if (person.getCity() != null && person.getCity().equalsIgnoreCase(city)) {
-                if (person.getEmail() != null && !emails.contains(person.getEmail())) {
-                    emails.add(person.getEmail());
-                }
-            }
-        }
         logger.debug("Found {} unique emails for city={}", emails.size(), city);
 
         return emails;
@@ -0,0 +1,129 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Service responsable de la logique métier de l'endpoint /export.
+ *
+ * <p>
+ * Ce service écrit une copie cohérente des personnes, casernes et dossiers médicaux, telle qu'elle était
+ * au début de l'export : un seul état du jeu de données est lu, puis écrit élément par élément,
+ * sans copie des listes ni représentation JSON complète en mémoire.
+ * </p>
+ *
+ * <p>
+ * Au format {@code data.json}, si le fichier de données écrit par le compacteur du journal porte
+ * la séquence de cet état, il est transmis tel quel avec {@link FileChannel#transferTo}, sans être sérialisé
+ * de nouveau. Le fichier ouvert reste lisible même s'il est remplacé pendant la transmission.
+ * </p>
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    /**
+     * Nombre d'octets lus en tête du fichier de données pour y trouver son numéro de séquence.
+     */
+    private static final int SEQUENCE_PREFIX_BYTES = 64;
+
+    private final DataStore dataStore;
+    private final DatasetWriter datasetWriter;
+    private final DatasetParser datasetParser;
+
+    /**
+     * Construit le service d'export
+     *
+     * @param dataStore     jeu de données dont l'état courant est lu une seule fois par export
+     * @param datasetWriter écrivain des formats {@code data.json} et NDJSON
+     * @param datasetParser lecteur du numéro de séquence du fichier de données
+     */
+    public ExportService(DataStore dataStore, DatasetWriter datasetWriter, DatasetParser datasetParser) {
+        this.dataStore = dataStore;
+        this.datasetWriter = datasetWriter;
+        this.datasetParser = datasetParser;
+    }
+
+    /**
+     * Écrit l'état courant du jeu de données au format {@code data.json}.
+     *
+     * @param outputStream flux de destination, qui n'est pas fermé par cette méthode
+     * @throws IOException si le fichier de données ne peut pas être lu ou si le flux ne peut pas être écrit
+     */
+    public void exportDataset(OutputStream outputStream) throws IOException {
+
+        DataSnapshot snapshot = dataStore.snapshot();
+
+        if (transferDataFile(snapshot.getVersion(), outputStream)) {
+            logger.debug("Export at sequence {} served from {}", snapshot.getVersion(), dataStore.getDataFile());
+            return;
+        }
+
+        datasetWriter.write(snapshot, outputStream);
+
+        logger.debug("Export at sequence {} serialized: {} persons, {} firestations, {} medicalrecords", snapshot.getVersion(),
+                snapshot.getPersons().size(), snapshot.getFirestations().size(), snapshot.getMedicalrecords().size());
+    }
+
+    /**
+     * Écrit l'état courant du jeu de données en NDJSON, un élément par ligne, dans le format lu par l'import.
+     *
+     * @param outputStream flux de destination, qui n'est pas fermé par cette méthode
+     */
+    public void exportNdjson(OutputStream outputStream) {
+
+        DataSnapshot snapshot = dataStore.snapshot();
+
+        datasetWriter.writeLines(snapshot, outputStream);
+
+        logger.debug("NDJSON export at sequence {} serialized: {} persons, {} firestations, {} medicalrecords", snapshot.getVersion(),
+                snapshot.getPersons().size(), snapshot.getFirestations().size(), snapshot.getMedicalrecords().size());
+    }
+
+    /**
+     * Le numéro de séquence est lu dans le fichier ouvert, et non d'après le compacteur :
+     * le contenu transmis est ainsi toujours celui dont la séquence a été vérifiée.
+     *
+     * @return {@code true} si le fichier a été transmis, {@code false} s'il est absent ou ne correspond pas à la séquence
+     */
+    private boolean transferDataFile(long sequence, OutputStream outputStream) throws IOException {
+
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dataStore.getDataFile(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        try (channel) {
+            ByteBuffer prefix = ByteBuffer.allocate(SEQUENCE_PREFIX_BYTES);
+            channel.read(prefix, 0);
+            if (datasetParser.readSequence(new ByteArrayInputStream(prefix.array(), 0, prefix.position())) != sequence) {
+                return false;
+            }
+
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long size = channel.size();
+            for (long position = 0; position < size; ) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return true;
+        }
+    }
+}
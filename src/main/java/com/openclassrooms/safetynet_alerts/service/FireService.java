@@ -1,21 +1,22 @@
 package com.openclassrooms.safetynet_alerts.service;
 
 
+import com.openclassrooms.safetynet_alerts.dto.FireAddressDTO;
 import com.openclassrooms.safetynet_alerts.dto.FireDTO;
 import com.openclassrooms.safetynet_alerts.dto.ResidentInfoDTO;
-import com.openclassrooms.safetynet_alerts.model.FirestationModel;
-import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
-import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.IndexKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service responsable de la logique métier de l'endpoint /fire.
@@ -29,24 +30,18 @@ public class FireService {
     private static final Logger logger = LoggerFactory.getLogger(FireService.class);
 
 
-    private final PersonRepository personRepository;
-    private final FirestationRepository firestationRepository;
-    private final MedicalrecordRepository medicalrecordRepository;
-    private final AgeService ageService;
+    private final DataStore dataStore;
+    private final HouseholdView householdView;
 
     /**
      * Construit le service FireService
      *
-     * @param personRepository        repository permettant l'accès aux données des personnes
-     * @param firestationRepository   repository permettant l'accès aux données des casernes
-     * @param medicalrecordRepository repository permettant l'accès aux données médicales des personnes
-     * @param ageService              service permettant le calcul de l'âge et de déterminer qui est majeur/mineur
+     * @param dataStore     jeu de données dont l'état courant est lu une seule fois par requête
+     * @param householdView vue des foyers, dont les résidents sont déjà associés à leur âge et à leur dossier médical
      */
-    public FireService(PersonRepository personRepository, FirestationRepository firestationRepository, MedicalrecordRepository medicalrecordRepository, AgeService ageService) {
-        this.personRepository = personRepository;
-        this.firestationRepository = firestationRepository;
-        this.medicalrecordRepository = medicalrecordRepository;
-        this.ageService = ageService;
+    public FireService(DataStore dataStore, HouseholdView householdView) {
+        this.dataStore = dataStore;
+        this.householdView = householdView;
     }
 
     /**
@@ -60,64 +55,79 @@ public class FireService {
 
         logger.debug("Starting fire search for address={}", address);
 
+        //caserne et foyer lus dans le même état des données
+        FireDTO result = getFire(dataStore.snapshot(), address);
 
-        List<FirestationModel> firestations = firestationRepository.findAll();
-
-        String stationNumber = null;
+        logger.debug("Fire search completed for address={}, residentsReturned={}, stationNumber={}",
+                address, result.getResidents().size(), result.getStationNumber());
 
-        for (FirestationModel firestation : firestations) {
-            if (firestation.getAddress().equals(address)) {
-                stationNumber = firestation.getStation();
-            }
-        }
+        return result;
+    }
 
-        logger.debug("Station found for address={} is stationNumber={}", address, stationNumber);
+    /**
+     * Récupère, pour plusieurs adresses, la liste des résidents et le numéro de caserne de chacune.
+     *
+     * <p>
+     * Toutes les adresses sont lues dans le même état des données, par l'index des foyers.
+     * Une adresse demandée plusieurs fois, même écrite autrement (casse, espaces), n'est calculée qu'une fois.
+     * Une adresse vide, ou qui n'a ni résident ni caserne, est signalée par un message d'erreur
+     * sans empêcher le traitement des autres.
+     * </p>
+     *
+     * @param addresses adresses à analyser
+     * @return un {@link FireAddressDTO} par adresse, dans l'ordre de la demande
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public List<FireAddressDTO> getFireByAddresses(List<String> addresses) throws IOException {
 
+        logger.debug("Starting fire search for {} addresses", addresses.size());
 
-        List<PersonModel> persons = personRepository.findAll();
-        List<PersonModel> household = new ArrayList<>();
+        DataSnapshot snapshot = dataStore.snapshot();
+        Map<String, FireDTO> fires = new HashMap<>();
+        List<FireAddressDTO> results = new ArrayList<>();
 
-        for (PersonModel person : persons) {
-            if (person.getAddress().equalsIgnoreCase(address)) {
-                household.add(person);
+        for (String address : addresses) {
+            if (address == null || address.isBlank()) {
+                results.add(new FireAddressDTO(address, null, "Address is blank"));
+                continue;
+            }
+            String key = IndexKeys.address(address);
+            FireDTO fire = fires.get(key);
+            if (fire == null) {
+                fire = getFire(snapshot, address);
+                fires.put(key, fire);
+            }
+            if (fire.getResidents().isEmpty() && fire.getStationNumber() == null) {
+                results.add(new FireAddressDTO(address, null, "Address not found"));
+            } else {
+                results.add(new FireAddressDTO(address, fire, null));
             }
         }
 
-        logger.debug("Household size for address={} is {}", address, household.size());
+        logger.debug("Fire search completed for {} addresses, {} distinct", addresses.size(), fires.size());
 
+        return results;
+    }
 
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
-        logger.debug("Loaded {} medicalrecords", medicalrecords.size());
+    private FireDTO getFire(DataSnapshot snapshot, String address) throws IOException {
 
+        String stationNumber = snapshot.findStationByAddress(address);
 
-        List<ResidentInfoDTO> residents = new ArrayList<>();
+        logger.debug("Station found for address={} is stationNumber={}", address, stationNumber);
 
-        for (PersonModel person : household) {
-            int age = ageService.calculateAge(person);
 
-            MedicalrecordModel foundMedical = null;
-            for (MedicalrecordModel mr : medicalrecords) {
-                boolean samePerson = mr.getFirstName().equalsIgnoreCase(person.getFirstName()) && mr.getLastName().equalsIgnoreCase(person.getLastName());
+        Household household = householdView.getHousehold(snapshot, address);
 
-                if (samePerson) {
-                    foundMedical = mr;
-                }
-            }
+        logger.debug("Household size for address={} is {}", address, household.residents().size());
 
-            List<String> medications = new ArrayList<>();
-            List<String> allergies = new ArrayList<>();
 
-            if (foundMedical != null) {
-                if (foundMedical.getMedications() != null) medications = foundMedical.getMedications();
-                if (foundMedical.getAllergies() != null) allergies = foundMedical.getAllergies();
-            }
+        List<ResidentInfoDTO> residents = new ArrayList<>();
 
-            ResidentInfoDTO residentDTO = new ResidentInfoDTO(person.getLastName(), person.getPhone(), age, medications, allergies);
+        for (Household.Resident resident : household.residents()) {
+            PersonModel person = resident.person();
+            ResidentInfoDTO residentDTO = new ResidentInfoDTO(person.getLastName(), person.getPhone(), resident.age(), resident.medications(), resident.allergies());
             residents.add(residentDTO);
         }
-        logger.debug("Fire search completed for address={}, residentsReturned={}, stationNumber={}",
-                address, residents.size(), stationNumber);
-
 
         return new FireDTO(residents, stationNumber);
     }
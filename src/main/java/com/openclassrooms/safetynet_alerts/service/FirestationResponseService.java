@@ -1,24 +1,18 @@
 package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.dto.FirestationResponseDTO;
-import com.openclassrooms.safetynet_alerts.dto.PersonFirestationDTO;
-import com.openclassrooms.safetynet_alerts.model.FirestationModel;
-import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Service responsable de la logique métier de l'endpoint /firestation (paramètre stationNumber).
  * <p>
  * Ce service permet d'identifier les personnes couvertes par une caserne
  * et de compter le nombre d'adultes et d'enfants.
+ * Le résultat est lu dans la vue précalculée {@link StationCoverageView}, tenue à jour à chaque modification des données.
  */
 
 @Service
@@ -27,21 +21,15 @@ public class FirestationResponseService {
     private static final Logger logger = LoggerFactory.getLogger(FirestationResponseService.class);
 
 
-    private final FirestationRepository firestationRepository;
-    private final PersonRepository personRepository;
-    private final AgeService ageService;
+    private final StationCoverageView stationCoverageView;
 
     /**
      * Construit le service FirestationResponse
      *
-     * @param firestationRepository repository permettant d'accéder aux données des casernes
-     * @param personRepository      repository permettant d'accéder aux données des personnes
-     * @param ageService            service permettant de calculer l'âge des personnes et déterminer si elles sont majeures ou non
+     * @param stationCoverageView vue précalculée des personnes couvertes par chaque caserne
      */
-    public FirestationResponseService(FirestationRepository firestationRepository, PersonRepository personRepository, AgeService ageService) {
-        this.firestationRepository = firestationRepository;
-        this.personRepository = personRepository;
-        this.ageService = ageService;
+    public FirestationResponseService(StationCoverageView stationCoverageView) {
+        this.stationCoverageView = stationCoverageView;
     }
 
     /**
@@ -58,39 +46,11 @@ public class FirestationResponseService {
         logger.debug("Starting firestation response search for stationNumber={}", stationNumber);
 
 
-        List<FirestationModel> firestations = firestationRepository.findAll();
-        List<String> addresses = new ArrayList<>();
-        for (FirestationModel f : firestations) {
-            if (f.getStation().equals(stationNumber)) {
-                addresses.add(f.getAddress());
-            }
-        }
+        FirestationResponseDTO result = stationCoverageView.getCoverage(stationNumber);
 
-        logger.debug("Found {} addresses covered by station {}", addresses.size(), stationNumber);
-
-
-        List<PersonModel> persons = personRepository.findAll();
-        List<PersonFirestationDTO> personFirestationDTOS = new ArrayList<>();
-        int adultCount = 0;
-        int childCount = 0;
-
-        for (PersonModel person : persons) {
-            if (addresses.contains(person.getAddress())) {
-                personFirestationDTOS.add(new PersonFirestationDTO(person.getFirstName(), person.getLastName(), person.getAddress(), person.getPhone()));
-
-
-                if (ageService.isAdult(person)) {
-                    adultCount++;
-                } else {
-                    childCount++;
-                }
-            }
-        }
         logger.debug("Firestation response completed for station {}, adults={}, children={}",
-                stationNumber, adultCount, childCount);
-
-
-        return new FirestationResponseDTO(personFirestationDTOS, adultCount, childCount);
+                stationNumber, result.getAdultCount(), result.getChildCount());
 
+        return result;
     }
 }
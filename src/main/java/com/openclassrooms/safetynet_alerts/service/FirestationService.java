@@ -3,6 +3,8 @@ package com.openclassrooms.safetynet_alerts.service;
 
 
 import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
 import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.slf4j.Logger;
@@ -10,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -60,6 +63,24 @@ public class FirestationService {
         return firestations;
     }
 
+    /**
+     * Récupère une page d'associations adresse/caserne.
+     *
+     * @param cursor curseur renvoyé avec la page précédente, ou {@code null} pour la première page
+     * @param limit  taille de page demandée, ramenée entre 1 et {@link Pagination#MAX_LIMIT} ;
+     *               {@link Pagination#DEFAULT_LIMIT} si {@code null}
+     * @return page demandée, avec le curseur de la page suivante
+     */
+    public Page<FirestationModel> getFirestationsPage(Long cursor, Integer limit) {
+        logger.debug("Fetching firestations page after {}", cursor);
+
+        Page<FirestationModel> page = firestationRepository.findPage(Pagination.after(cursor), Pagination.limit(limit));
+
+        logger.debug("Found {} firestations, next cursor {}", page.records().size(), page.after());
+
+        return page;
+    }
+
     /**
      * Ajoute une nouvelle association adresse/caserne
      *
@@ -73,18 +94,15 @@ public class FirestationService {
         logger.debug("Adding firestation for address={} station={}",
                 firestation.getAddress(), firestation.getStation());
 
-        List<FirestationModel> firestations = firestationRepository.findAll();
-        boolean exists = firestations.stream().anyMatch(f->f.getAddress().equals(firestation.getAddress()));
-        if (exists){
+        if (!firestationRepository.add(firestation)){
             logger.debug("Firestation already exists for address={}", firestation.getAddress());
             throw new IllegalArgumentException("address already covered by a station");
         }
-        firestations.add(firestation);
-        firestationRepository.saveAll(firestations);
 
-        logger.debug("Firestation added successfully, total firestations={}", firestations.size());
+        List<FirestationModel> updated = firestationRepository.findAll();
+        logger.debug("Firestation added successfully, total firestations={}", updated.size());
 
-        return firestations;
+        return updated;
     }
 
     /**
@@ -101,16 +119,10 @@ public class FirestationService {
                 firestation.getAddress(), firestation.getStation());
 
 
-        List<FirestationModel> firestations = firestationRepository.findAll();
-
-        for (FirestationModel f: firestations){
-            if (f.getAddress().equals(firestation.getAddress())){
-                f.setStation(firestation.getStation());
-                firestationRepository.saveAll(firestations);
+        if (firestationRepository.update(firestation)){
 
-                logger.debug("Firestation updated for address={}", firestation.getAddress());
-                return firestations;
-            }
+            logger.debug("Firestation updated for address={}", firestation.getAddress());
+            return firestationRepository.findAll();
         }
         logger.debug("No firestation found for address={}", firestation.getAddress());
         return null;
@@ -130,20 +142,70 @@ public class FirestationService {
 
         logger.debug("Deleting firestation with address={} or station={}", address, station);
 
-        List<FirestationModel> firestations = firestationRepository.findAll();
-
-        boolean removed = firestations.removeIf(f ->
-                (address != null && f.getAddress().equals(address)) ||
-                        (station != null && f.getStation().equals(station)) //attention
-        );
+        //suppression par adresse OU par numéro de station
+        boolean removed = firestationRepository.delete(address, station);
 
         if (removed){
             logger.debug("Firestation deleted successfully");
-            firestationRepository.saveAll(firestations);
         }else {
             logger.debug("No firestation matched deletion criteria");
         }
         return removed;
     }
 
+    /**
+     * Met à jour ou ajoute une liste d'associations adresse/caserne en une seule modification.
+     *
+     * <p>
+     * Chaque élément est retrouvé par son adresse dans une table construite une seule fois pour tout le lot :
+     * s'il existe, il est mis à jour, sinon il est ajouté. Les éléments sans adresse ou sans numéro de station sont ignorés
+     * et comptés comme rejetés.
+     * </p>
+     *
+     * @param firestations associations adresse/caserne à enregistrer
+     * @return bilan du lot
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public BatchResult upsertFirestations(List<FirestationModel> firestations) throws IOException {
+
+        logger.debug("Upserting {} firestations", firestations.size());
+
+        List<FirestationModel> accepted = new ArrayList<>();
+        for (FirestationModel f : firestations) {
+            if (f.getAddress() != null && f.getStation() != null) {
+                accepted.add(f);
+            }
+        }
+        BatchResult result = firestationRepository.upsertAll(accepted).withRejected(firestations.size() - accepted.size());
+
+        logger.debug("Firestations upserted, created={} updated={} rejected={}",
+                result.created(), result.updated(), result.rejected());
+
+        return result;
+    }
+
+    /**
+     * Supprime une liste d'associations adresse/caserne en une seule modification.
+     * Les éléments sans adresse ni numéro de station sont ignorés et comptés comme rejetés.
+     *
+     * @param criteria associations adresse/caserne à supprimer
+     * @return bilan du lot
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public BatchResult deleteFirestations(List<FirestationModel> criteria) throws IOException {
+
+        logger.debug("Deleting {} firestations", criteria.size());
+
+        List<FirestationModel> accepted = new ArrayList<>();
+        for (FirestationModel f : criteria) {
+            if (f.getAddress() != null || f.getStation() != null) {
+                accepted.add(f);
+            }
+        }
+        BatchResult result = firestationRepository.deleteAll(accepted).withRejected(criteria.size() - accepted.size());
+
+        logger.debug("Firestations deleted={} rejected={}", result.deleted(), result.rejected());
+
+        return result;
+    }
 }
@@ -3,27 +3,32 @@ package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.dto.FloodDTO;
 import com.openclassrooms.safetynet_alerts.dto.ResidentInfoDTO;
-import com.openclassrooms.safetynet_alerts.model.FirestationModel;
-import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
-import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Service responsable de la logique métier de l'endpoint /flood/stations.
  * <p>
  * Ce service identifie les foyers desservis par plusieurs casernes et regroupe
  * les résidents (avec leurs informations) par adresse.
+ * <p>
+ * Les adresses des casernes demandées sont dédoublonnées dans l'ordre des casernes. Au-delà du seuil
+ * {@code safetynet.flood.parallel-threshold}, la construction des foyers est répartie sur le pool fork-join
+ * commun ; les résultats sont fusionnés dans l'ordre des adresses, identique à celui du calcul séquentiel.
  */
 
 @Service
@@ -31,25 +36,23 @@ public class FloodService {
 
     private static final Logger logger = LoggerFactory.getLogger(FloodService.class);
 
-    private final PersonRepository personRepository;
-    private final FirestationRepository firestationRepository;
-    private final MedicalrecordRepository medicalrecordRepository;
-    private final AgeService ageService;
+    private final DataStore dataStore;
+    private final HouseholdView householdView;
+    private final int parallelThreshold;
 
     /**
      * Construit le service Flood
      *
-     * @param personRepository        repository permettant d'accéder aux données des personnes
-     * @param firestationRepository   repository permettant d'accéder aux données des casernes
-     * @param medicalrecordRepository repository permettant d'accéder aux données médicales des personnes
-     * @param ageService              service permettant de calculer l'âge des personnes et de déterminer si une personne est majeure ou non
+     * @param dataStore         jeu de données dont l'état courant est lu une seule fois par requête
+     * @param householdView     vue des foyers, dont les résidents sont déjà associés à leur âge et à leur dossier médical
+     * @param parallelThreshold nombre d'adresses au-delà duquel les foyers sont construits en parallèle
      */
 
-    public FloodService(PersonRepository personRepository, FirestationRepository firestationRepository, MedicalrecordRepository medicalrecordRepository, AgeService ageService) {
-        this.personRepository = personRepository;
-        this.firestationRepository = firestationRepository;
-        this.medicalrecordRepository = medicalrecordRepository;
-        this.ageService = ageService;
+    public FloodService(DataStore dataStore, HouseholdView householdView,
+                        @Value("${safetynet.flood.parallel-threshold}") int parallelThreshold) {
+        this.dataStore = dataStore;
+        this.householdView = householdView;
+        this.parallelThreshold = Math.max(parallelThreshold, 1);
     }
 
     /**
@@ -67,87 +70,96 @@ public class FloodService {
         //Trouver address des stations
         logger.debug("Starting flood search for stations={}", stations);
 
-        List<FirestationModel> firestations = firestationRepository.findAll();
-        List<String> addresses = new ArrayList<>();
-
-        for (FirestationModel fs : firestations) {
-            for (String station : stationNumbers) {
-                String trimmed = station.trim();
-                if (fs.getStation() != null && fs.getStation().equals(trimmed)) {
-                    String address = fs.getAddress();
-                    if (address != null && !addresses.contains(address)) {
-                        addresses.add(address);
-                    }
-                }
-            }
+        //adresses et foyers lus dans le même état des données
+        DataSnapshot snapshot = dataStore.snapshot();
+        Set<String> addresses = new LinkedHashSet<>();
+
+        for (String station : stationNumbers) {
+            addresses.addAll(snapshot.findAddressesByStation(station.trim()));
         }
         logger.debug("Found {} addresses for stations={}", addresses.size(), stations);
 
-        //Préparer un groupement par adresse (clé = address, valeur = list de persons)
-        Map<String, List<ResidentInfoDTO>> residentByAddress = new HashMap<>();
-        for (String address : addresses) {
-            residentByAddress.put(address, new ArrayList<>());
+        List<String> orderedAddresses = List.copyOf(addresses);
+        List<FloodDTO> result;
+
+        if (orderedAddresses.size() <= parallelThreshold) {
+            result = collectHouseholds(snapshot, orderedAddresses);
+        } else {
+            try {
+                result = ForkJoinPool.commonPool().invoke(new HouseholdsTask(snapshot, orderedAddresses));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
         }
 
-        //Récuperer persons et medicalrecords
-        List<PersonModel> persons = personRepository.findAll();
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
+        logger.debug("Flood search completed for stations={}, householdsReturned={}", stations, result.size());
 
-        logger.debug("Loaded {} persons and {} medicalrecords", persons.size(), medicalrecords.size());
 
-        //récuperer persons par address pour construire DTO
-        for (PersonModel person : persons) {
-            String personAddress = person.getAddress();
-            if (personAddress == null) {
-                continue;
-            }
-            //adress de la personne dans la liste
-            if (!addresses.contains(personAddress)) {
-                continue;
-            }
+        return result;
+    }
 
-            //age de la person
-            int age = ageService.calculateAge(person);
+    /**
+     * Construit les foyers d'une tranche d'adresses, dans l'ordre des adresses.
+     *
+     * @param snapshot  état des données lu par la requête
+     * @param addresses adresses à traiter
+     * @return un {@link FloodDTO} par adresse habitée
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    private List<FloodDTO> collectHouseholds(DataSnapshot snapshot, List<String> addresses) throws IOException {
 
-            //récupérer medicalrecord de la person
-            MedicalrecordModel foundMedical = null;
-            for (MedicalrecordModel medicalrecord : medicalrecords) {
-                boolean samePerson = medicalrecord.getFirstName().equalsIgnoreCase(person.getFirstName()) && medicalrecord.getLastName().equalsIgnoreCase(person.getLastName());
-                if (samePerson) {
-                    foundMedical = medicalrecord;
-                }
-            }
+        List<FloodDTO> result = new ArrayList<>();
 
-            //récupérer medications et allergies
-            List<String> medications = new ArrayList<>();
-            List<String> allergies = new ArrayList<>();
+        for (String address : addresses) {
+            //foyer déjà associé aux âges et aux dossiers médicaux
+            Household household = householdView.getHousehold(snapshot, address);
 
-            if (foundMedical != null) {
-                if (foundMedical.getMedications() != null) medications = foundMedical.getMedications();
-                if (foundMedical.getAllergies() != null) allergies = foundMedical.getAllergies();
+            List<ResidentInfoDTO> residents = new ArrayList<>();
+            for (Household.Resident resident : household.residents()) {
+                PersonModel person = resident.person();
+                residents.add(new ResidentInfoDTO(person.getLastName(), person.getPhone(), resident.age(), resident.medications(), resident.allergies()));
             }
 
-            //création DTO resident
+            if (!residents.isEmpty()) {
+                result.add(new FloodDTO(address, residents));
+            }
+        }
+        return result;
+    }
 
-            ResidentInfoDTO resident = new ResidentInfoDTO(person.getLastName(), person.getPhone(), age, medications, allergies);
+    /**
+     * Tâche fork-join découpant la liste des adresses en deux moitiés jusqu'au seuil de parallélisation.
+     * Les résultats sont concaténés dans l'ordre des moitiés, ce qui conserve l'ordre des adresses.
+     */
+    private class HouseholdsTask extends RecursiveTask<List<FloodDTO>> {
 
-            residentByAddress.get(personAddress).add(resident);
+        private final DataSnapshot snapshot;
+        private final List<String> addresses;
 
+        private HouseholdsTask(DataSnapshot snapshot, List<String> addresses) {
+            this.snapshot = snapshot;
+            this.addresses = addresses;
         }
 
-        //Transformer map en list
-        List<FloodDTO> result = new ArrayList<>();
-
-        for (String address : addresses) {
-            List<ResidentInfoDTO> residents = residentByAddress.get(address);
-            if (residents != null && !residents.isEmpty()) {
-                result.add(new FloodDTO(address, residents));
+        @Override
+        protected List<FloodDTO> compute() {
+            if (addresses.size() <= parallelThreshold) {
+                try {
+                    return collectHouseholds(snapshot, addresses);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
             }
-        }
-
-        logger.debug("Flood search completed for stations={}, householdsReturned={}", stations, result.size());
 
+            int middle = addresses.size() / 2;
+            HouseholdsTask first = new HouseholdsTask(snapshot, addresses.subList(0, middle));
+            HouseholdsTask second = new HouseholdsTask(snapshot, addresses.subList(middle, addresses.size()));
+            first.fork();
+            List<FloodDTO> secondResult = second.compute();
 
-        return result;
+            List<FloodDTO> result = new ArrayList<>(first.join());
+            result.addAll(secondResult);
+            return result;
+        }
     }
 }
@@ -0,0 +1,36 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+
+import java.util.List;
+
+/**
+ * Foyer tenu à jour par la {@link HouseholdView} : les résidents d'une adresse, chacun déjà associé
+ * à son dossier médical et à son âge.
+ *
+ * <p>
+ * Les endpoints /fire, /flood/stations et /childAlert construisent leurs DTO à partir de ce foyer,
+ * sans rechercher à nouveau les dossiers médicaux ni recalculer les âges.
+ * </p>
+ *
+ * @param address            adresse du foyer, telle qu'enregistrée pour ses résidents
+ * @param residents          résidents du foyer, dans l'ordre des données ; liste non modifiable
+ * @param version            version du {@link com.openclassrooms.safetynet_alerts.repository.DataSnapshot} à partir duquel le foyer a été calculé
+ * @param validUntilEpochDay premier jour, en nombre de jours depuis le 01/01/1970, où l'âge d'un résident change
+ */
+public record Household(String address, List<Resident> residents, long version, long validUntilEpochDay) {
+
+    /**
+     * Résident d'un {@link Household}.
+     *
+     * @param person        personne habitant le foyer
+     * @param medicalrecord dossier médical de la personne, ou {@code null} si elle n'en a pas
+     * @param age           âge de la personne, ou -1 si elle n'a pas de dossier médical
+     * @param medications   traitements de la personne ; liste vide et non modifiable si aucun n'est connu
+     * @param allergies     allergies de la personne ; liste vide et non modifiable si aucune n'est connue
+     */
+    public record Resident(PersonModel person, MedicalrecordModel medicalrecord, int age,
+                           List<String> medications, List<String> allergies) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+/**
+ * Observateur des foyers recalculés par la {@link HouseholdView}.
+ */
+public interface HouseholdListener {
+
+    /**
+     * Appelée sous le verrou du {@link com.openclassrooms.safetynet_alerts.repository.DataStore}
+     * chaque fois qu'un foyer est recalculé.
+     *
+     * @param household foyer recalculé ; sans résident si l'adresse n'est plus habitée
+     *                  ou si le foyer n'a pas pu être calculé
+     */
+    void householdChanged(Household household);
+}
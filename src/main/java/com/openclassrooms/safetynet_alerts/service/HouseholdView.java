@@ -0,0 +1,248 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataChanges;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DataStoreListener;
+import com.openclassrooms.safetynet_alerts.repository.IndexKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Vue des foyers partagée par les endpoints /fire, /flood/stations et /childAlert : pour chaque adresse,
+ * un {@link Household} dont les résidents sont déjà associés à leur dossier médical et à leur âge.
+ *
+ * <p>
+ * La vue est construite au démarrage puis tenue à jour par le {@link DataStore} : une modification
+ * de personne ou de dossier médical ne recalcule que les foyers concernés, chacun une seule fois par modification. Les anniversaires des mineurs
+ * sont signalés par l'{@link AgeRolloverScheduler} ; les autres changements d'âge sont pris en compte
+ * à la première lecture du foyer après la date {@link Household#validUntilEpochDay()}.
+ * </p>
+ *
+ * <p>
+ * Chaque foyer garde la version du {@link DataSnapshot} dont il est issu. Une requête qui lit un foyer
+ * pour un état donné obtient le foyer précalculé s'il n'a pas été modifié depuis cet état,
+ * sinon un foyer calculé dans cet état : elle ne voit jamais une modification postérieure à son état.
+ * </p>
+ *
+ * <p>
+ * Les {@link Household} retournés sont partagés entre les lectures et ne peuvent pas être modifiés.
+ * </p>
+ */
+@Service
+public class HouseholdView implements DataStoreListener, AgeRolloverListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(HouseholdView.class);
+
+    private final DataStore dataStore;
+    private final AgeService ageService;
+    private final AgeRolloverScheduler ageRolloverScheduler;
+    private final Clock clock;
+
+    private final Map<String, Household> householdsByAddress = new ConcurrentHashMap<>();
+    private final List<HouseholdListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Construit la vue à partir des données actuelles et l'enregistre auprès du {@link DataStore}
+     * et du planificateur des changements d'âge.
+     *
+     * @param dataStore            jeu de données observé
+     * @param ageService           service permettant de calculer l'âge des résidents
+     * @param ageRolloverScheduler planificateur signalant les anniversaires des mineurs
+     * @param clock                horloge donnant la date du jour
+     */
+    public HouseholdView(DataStore dataStore, AgeService ageService, AgeRolloverScheduler ageRolloverScheduler, Clock clock) {
+        this.dataStore = dataStore;
+        this.ageService = ageService;
+        this.ageRolloverScheduler = ageRolloverScheduler;
+        this.clock = clock;
+
+        synchronized (dataStore) {
+            DataSnapshot snapshot = dataStore.snapshot();
+            Set<String> addresses = new LinkedHashSet<>();
+            for (PersonModel person : snapshot.getPersons()) {
+                addresses.add(person.getAddress());
+            }
+            addresses.forEach(address -> refresh(snapshot, address));
+            dataStore.addListener(this);
+            ageRolloverScheduler.addListener(this);
+        }
+        logger.debug("Household view built for {} households", householdsByAddress.size());
+    }
+
+    /**
+     * Enregistre un observateur des foyers. L'observateur reçoit d'abord chaque foyer existant,
+     * puis chaque foyer recalculé.
+     *
+     * @param listener observateur à enregistrer
+     */
+    public void addListener(HouseholdListener listener) {
+        synchronized (dataStore) {
+            householdsByAddress.values().forEach(listener::householdChanged);
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Retourne le foyer d'une adresse dans l'état courant des données.
+     *
+     * @param address adresse du foyer, comparée sans tenir compte de la casse ni des espaces
+     * @return le {@link Household} de l'adresse ; sans résident si personne n'y habite
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public Household getHousehold(String address) throws IOException {
+        return getHousehold(dataStore.snapshot(), address);
+    }
+
+    /**
+     * Retourne le foyer d'une adresse tel qu'il est dans un état donné des données.
+     *
+     * @param snapshot état des données lu par la requête en cours
+     * @param address  adresse du foyer, comparée sans tenir compte de la casse ni des espaces
+     * @return le {@link Household} de l'adresse ; sans résident si personne n'y habite
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public Household getHousehold(DataSnapshot snapshot, String address) throws IOException {
+
+        ageRolloverScheduler.advance();
+
+        String key = IndexKeys.address(address);
+        Household household = householdsByAddress.get(key);
+
+        if (household != null && household.version() <= snapshot.getVersion()) {
+            if (household.validUntilEpochDay() > LocalDate.now(clock).toEpochDay()) {
+                return household;
+            }
+
+            //un résident a changé d'âge depuis le calcul du foyer
+            synchronized (dataStore) {
+                refresh(dataStore.snapshot(), address);
+                household = householdsByAddress.get(key);
+                if (household != null && household.version() <= snapshot.getVersion()) {
+                    return household;
+                }
+            }
+        }
+
+        //foyer modifié depuis l'état de la requête, adresse inconnue ou foyer qui n'a pas pu être calculé :
+        //calcul direct dans l'état de la requête, qui remonte l'erreur éventuelle
+        return compute(snapshot, address);
+    }
+
+    /**
+     * Recalcule une seule fois chaque foyer touché par la modification : ceux des personnes modifiées,
+     * avant et après la modification, et ceux des personnes dont le dossier médical a changé.
+     */
+    @Override
+    public void dataChanged(DataSnapshot snapshot, DataChanges changes) {
+        Set<String> addresses = new LinkedHashSet<>();
+        for (String address : changes.getPersonAddresses()) {
+            if (addresses.add(IndexKeys.address(address))) {
+                refresh(snapshot, address);
+            }
+        }
+        for (MedicalrecordModel medicalrecord : changes.getMedicalrecords()) {
+            addHouseholdsOf(snapshot, medicalrecord, addresses);
+        }
+    }
+
+    @Override
+    public void ageChanged(MedicalrecordModel medicalrecord, int age) {
+        refreshHouseholdsOf(dataStore.snapshot(), medicalrecord);
+    }
+
+    /**
+     * Recalcule les foyers des personnes portant le nom du dossier médical.
+     */
+    private void refreshHouseholdsOf(DataSnapshot snapshot, MedicalrecordModel medicalrecord) {
+        addHouseholdsOf(snapshot, medicalrecord, new LinkedHashSet<>());
+    }
+
+    /**
+     * Recalcule les foyers des personnes portant le nom du dossier médical qui ne figurent pas encore parmi
+     * les adresses déjà recalculées, et les y ajoute.
+     */
+    private void addHouseholdsOf(DataSnapshot snapshot, MedicalrecordModel medicalrecord, Set<String> refreshed) {
+        for (PersonModel person : snapshot.findPersonsByName(medicalrecord.getFirstName(), medicalrecord.getLastName())) {
+            if (refreshed.add(IndexKeys.address(person.getAddress()))) {
+                refresh(snapshot, person.getAddress());
+            }
+        }
+    }
+
+    /**
+     * Recalcule un foyer dans l'état donné et le signale aux observateurs. Appelée sous le verrou du {@link DataStore}.
+     * Une date de naissance invalide retire le foyer de la vue : l'erreur est alors remontée à la lecture.
+     */
+    private void refresh(DataSnapshot snapshot, String address) {
+        String key = IndexKeys.address(address);
+        Household household;
+        try {
+            household = compute(snapshot, address);
+        } catch (DateTimeParseException e) {
+            logger.debug("Household not available for address {}: {}", address, e.getMessage());
+            household = new Household(address, List.of(), snapshot.getVersion(), Long.MAX_VALUE);
+        }
+
+        if (household.residents().isEmpty()) {
+            if (householdsByAddress.remove(key) == null) {
+                return;
+            }
+        } else {
+            householdsByAddress.put(key, household);
+        }
+
+        for (HouseholdListener listener : listeners) {
+            listener.householdChanged(household);
+        }
+    }
+
+    private Household compute(DataSnapshot snapshot, String address) {
+
+        List<PersonModel> persons = snapshot.findPersonsByAddress(address);
+        Map<PersonModel, Integer> ages = ageService.calculateAges(snapshot, persons);
+
+        List<Household.Resident> residents = new ArrayList<>();
+        long validUntilEpochDay = Long.MAX_VALUE;
+
+        for (PersonModel person : persons) {
+            int age = ages.get(person);
+            MedicalrecordModel medicalrecord = snapshot.findMedicalrecord(person.getFirstName(), person.getLastName());
+
+            List<String> medications = List.of();
+            List<String> allergies = List.of();
+
+            if (medicalrecord != null) {
+                if (medicalrecord.getMedications() != null) medications = Collections.unmodifiableList(new ArrayList<>(medicalrecord.getMedications()));
+                if (medicalrecord.getAllergies() != null) allergies = Collections.unmodifiableList(new ArrayList<>(medicalrecord.getAllergies()));
+
+                //prochain jour où l'âge de ce résident change
+                if (medicalrecord.getBirthEpochDay() != MedicalrecordModel.UNKNOWN_BIRTHDATE) {
+                    validUntilEpochDay = Math.min(validUntilEpochDay,
+                            AgeService.birthdayEpochDay(medicalrecord.getBirthEpochDay(), Math.max(age, 0) + 1));
+                }
+            }
+
+            residents.add(new Household.Resident(person, medicalrecord, age, medications, allergies));
+        }
+
+        String householdAddress = persons.isEmpty() ? address : persons.get(0).getAddress();
+        return new Household(householdAddress, Collections.unmodifiableList(residents), snapshot.getVersion(), validUntilEpochDay);
+    }
+}
@@ -0,0 +1,315 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.dto.ImportReportDTO;
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.DatasetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service responsable de la logique métier de l'endpoint /import.
+ *
+ * <p>
+ * Ce service importe en flux un grand nombre de personnes, casernes et dossiers médicaux : le contenu est lu
+ * enregistrement par enregistrement, chaque enregistrement est validé, et les enregistrements valides sont
+ * enregistrés par paquets de {@code safetynet.import.chunk-size}, chaque paquet en une seule modification,
+ * sur une seule ligne du journal.
+ * Seul le paquet en cours est gardé en mémoire, quelle que soit la taille du contenu.
+ * </p>
+ *
+ * <p>
+ * Deux formats sont acceptés : le NDJSON, un enregistrement par ligne dans un objet
+ * {@code {"person": {...}}}, {@code {"firestation": {...}}} ou {@code {"medicalrecord": {...}}},
+ * et la disposition du fichier {@code data.json}. Une ligne ou un élément invalide est rejeté sans
+ * interrompre l'import ; un contenu illisible l'interrompt, les paquets déjà enregistrés étant conservés.
+ * L'avancement est journalisé à chaque paquet et peut être consulté pendant l'import.
+ * Un seul import s'exécute à la fois.
+ * </p>
+ */
+@Service
+public class ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+
+    /**
+     * Nombre maximal de motifs de rejet conservés dans le bilan.
+     */
+    static final int MAX_REJECTIONS = 20;
+
+    /**
+     * Ligne NDJSON : un seul des trois champs est renseigné.
+     */
+    private record ImportLine(PersonModel person, FirestationModel firestation, MedicalrecordModel medicalrecord) {
+    }
+
+    private final DatasetRepository datasetRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader lineReader;
+    private final int chunkSize;
+
+    private volatile ImportReportDTO progress;
+
+    /**
+     * Construit le service d'import
+     *
+     * @param datasetRepository repository dans lequel les personnes, associations et dossiers médicaux sont enregistrés
+     * @param objectMapper      mapper Jackson utilisé pour lire le contenu
+     * @param chunkSize         nombre d'enregistrements valides enregistrés ensemble
+     */
+    public ImportService(DatasetRepository datasetRepository, ObjectMapper objectMapper,
+                         @Value("${safetynet.import.chunk-size}") int chunkSize) {
+        this.datasetRepository = datasetRepository;
+        this.objectMapper = objectMapper;
+        this.lineReader = objectMapper.readerFor(ImportLine.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return avancement de l'import en cours, ou bilan du dernier import ; {@code null} si aucun import n'a eu lieu
+     */
+    public ImportReportDTO getProgress() {
+        return progress;
+    }
+
+    /**
+     * Importe un contenu NDJSON, ligne par ligne.
+     *
+     * @param inputStream contenu à importer, qui n'est pas fermé par cette méthode
+     * @return bilan de l'import, avec le motif de l'interruption si le contenu n'a pas pu être lu jusqu'au bout
+     * @throws IOException si un paquet ne peut pas être écrit dans le journal
+     */
+    public synchronized ImportReportDTO importNdjson(InputStream inputStream) throws IOException {
+
+        logger.debug("Starting NDJSON import");
+
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        try {
+            for (String line; (line = reader.readLine()) != null; ) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportLine importLine;
+                try {
+                    importLine = lineReader.readValue(line);
+                } catch (JacksonException e) {
+                    run.reject("line " + lineNumber + ": invalid JSON record");
+                    continue;
+                }
+                run.add(importLine, "line " + lineNumber);
+            }
+        } catch (IOException e) {
+            logger.warn("NDJSON import interrupted at line {}", lineNumber, e);
+            return run.finish("Failed to read line " + (lineNumber + 1) + ": " + e.getMessage());
+        }
+        return run.finish(null);
+    }
+
+    /**
+     * Importe un contenu disposé comme le fichier {@code data.json}, élément par élément.
+     * Les sections inconnues, dont {@code sequence}, sont ignorées.
+     *
+     * @param inputStream contenu à importer, qui n'est pas fermé par cette méthode
+     * @return bilan de l'import, avec le motif de l'interruption si le contenu n'a pas pu être lu jusqu'au bout
+     * @throws IOException si un paquet ne peut pas être écrit dans le journal
+     */
+    public synchronized ImportReportDTO importDataset(InputStream inputStream) throws IOException {
+
+        logger.debug("Starting data.json import");
+
+        Run run = new Run();
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return run.finish("Content must start with a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+
+                switch (section) {
+                    case "persons" -> readSection(parser, section, PersonModel.class, run);
+                    case "firestations" -> readSection(parser, section, FirestationModel.class, run);
+                    case "medicalrecords" -> readSection(parser, section, MedicalrecordModel.class, run);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JacksonException | IllegalStateException e) {
+            logger.warn("data.json import interrupted", e);
+            return run.finish(e.getMessage());
+        }
+        return run.finish(null);
+    }
+
+    /**
+     * Chaque élément est d'abord lu comme un arbre, pour qu'un élément mal formé puisse être rejeté
+     * sans perdre la position du parser dans le tableau.
+     */
+    private void readSection(JsonParser parser, String section, Class<?> type, Run run) throws IOException {
+
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalStateException("Section \"" + section + "\" must be a JSON array");
+        }
+
+        for (int index = 0; parser.nextToken() != JsonToken.END_ARRAY; index++) {
+            JsonNode node = parser.readValueAsTree();
+            String where = section + "[" + index + "]";
+            Object record;
+            try {
+                record = objectMapper.treeToValue(node, type);
+            } catch (JacksonException e) {
+                run.reject(where + ": invalid record");
+                continue;
+            }
+            if (record instanceof PersonModel person) {
+                run.add(new ImportLine(person, null, null), where);
+            } else if (record instanceof FirestationModel firestation) {
+                run.add(new ImportLine(null, firestation, null), where);
+            } else {
+                run.add(new ImportLine(null, null, (MedicalrecordModel) record), where);
+            }
+        }
+    }
+
+    /**
+     * @return motif du rejet de l'enregistrement, ou {@code null} s'il est valide
+     */
+    private static String validate(ImportLine line) {
+        int records = (line.person() == null ? 0 : 1) + (line.firestation() == null ? 0 : 1) + (line.medicalrecord() == null ? 0 : 1);
+        if (records != 1) {
+            return "expected exactly one of person, firestation or medicalrecord";
+        }
+        if (line.person() != null) {
+            return isBlank(line.person().getFirstName()) || isBlank(line.person().getLastName())
+                    ? "person without firstName or lastName" : null;
+        }
+        if (line.firestation() != null) {
+            return isBlank(line.firestation().getAddress()) || isBlank(line.firestation().getStation())
+                    ? "firestation without address or station" : null;
+        }
+        MedicalrecordModel medicalrecord = line.medicalrecord();
+        if (isBlank(medicalrecord.getFirstName()) || isBlank(medicalrecord.getLastName())) {
+            return "medicalrecord without firstName or lastName";
+        }
+        if (medicalrecord.getBirthdate() != null && medicalrecord.getBirthEpochDay() == MedicalrecordModel.UNKNOWN_BIRTHDATE) {
+            return "medicalrecord with invalid birthdate " + medicalrecord.getBirthdate();
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Import en cours : compteurs et paquet des enregistrements valides pas encore enregistrés.
+     */
+    private final class Run {
+
+        private final long start = System.nanoTime();
+        private long read;
+        private long created;
+        private long updated;
+        private long rejected;
+        private final List<String> rejections = new ArrayList<>();
+
+        private List<PersonModel> persons = new ArrayList<>();
+        private List<FirestationModel> firestations = new ArrayList<>();
+        private List<MedicalrecordModel> medicalrecords = new ArrayList<>();
+
+        Run() {
+            progress = report(false, null);
+        }
+
+        void add(ImportLine line, String where) throws IOException {
+            String reason = validate(line);
+            if (reason != null) {
+                reject(where + ": " + reason);
+                return;
+            }
+            read++;
+            if (line.person() != null) {
+                persons.add(line.person());
+            } else if (line.firestation() != null) {
+                firestations.add(line.firestation());
+            } else {
+                medicalrecords.add(line.medicalrecord());
+            }
+            if (persons.size() + firestations.size() + medicalrecords.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(String reason) {
+            read++;
+            rejected++;
+            if (rejections.size() < MAX_REJECTIONS) {
+                rejections.add(reason);
+            }
+        }
+
+        /**
+         * Enregistre le paquet en cours en une seule modification.
+         */
+        private void flush() throws IOException {
+            if (persons.isEmpty() && firestations.isEmpty() && medicalrecords.isEmpty()) {
+                return;
+            }
+            count(datasetRepository.upsertAll(persons, firestations, medicalrecords));
+            persons = new ArrayList<>();
+            firestations = new ArrayList<>();
+            medicalrecords = new ArrayList<>();
+            progress = report(false, null);
+            logger.info("Import progress: {} records read, {} created, {} updated, {} rejected, {} records/s",
+                    read, created, updated, rejected, progress.getRecordsPerSecond());
+        }
+
+        private void count(BatchResult result) {
+            created += result.created();
+            updated += result.updated();
+        }
+
+        ImportReportDTO finish(String error) throws IOException {
+            try {
+                flush();
+            } finally {
+                progress = report(true, error);
+            }
+            logger.info("Import finished in {} ms: {} records read, {} created, {} updated, {} rejected",
+                    progress.getElapsedMillis(), read, created, updated, rejected);
+            return progress;
+        }
+
+        private ImportReportDTO report(boolean finished, String error) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            long recordsPerSecond = elapsedMillis == 0 ? read : read * 1000 / elapsedMillis;
+            return new ImportReportDTO(read, created, updated, rejected, elapsedMillis, recordsPerSecond,
+                    List.copyOf(rejections), finished, error);
+        }
+    }
+}
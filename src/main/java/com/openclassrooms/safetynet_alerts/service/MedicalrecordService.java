@@ -1,6 +1,8 @@
 package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
 import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.slf4j.Logger;
@@ -8,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -55,6 +58,24 @@ public class MedicalrecordService {
         return medicalrecords;
     }
 
+    /**
+     * Récupère une page de dossiers médicaux.
+     *
+     * @param cursor curseur renvoyé avec la page précédente, ou {@code null} pour la première page
+     * @param limit  taille de page demandée, ramenée entre 1 et {@link Pagination#MAX_LIMIT} ;
+     *               {@link Pagination#DEFAULT_LIMIT} si {@code null}
+     * @return page demandée, avec le curseur de la page suivante
+     */
+    public Page<MedicalrecordModel> getMedicalrecordsPage(Long cursor, Integer limit) {
+        logger.debug("Fetching medicalrecords page after {}", cursor);
+
+        Page<MedicalrecordModel> page = medicalrecordRepository.findPage(Pagination.after(cursor), Pagination.limit(limit));
+
+        logger.debug("Found {} medicalrecords, next cursor {}", page.records().size(), page.after());
+
+        return page;
+    }
+
     /**
      * Ajout d'un nouveau dossier médical
      *
@@ -68,15 +89,10 @@ public class MedicalrecordService {
 
         logger.debug("Adding medicalrecord for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
 
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
-
-        boolean exists = medicalrecords.stream().anyMatch(m -> m.getFirstName().equals(medicalrecord.getFirstName()) && m.getLastName().equals(medicalrecord.getLastName()));
-        if (exists) {
+        if (!medicalrecordRepository.add(medicalrecord)) {
             logger.debug("Medicalrecord already exists for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
             throw new IllegalArgumentException("Medicalrecord already exists");
         }
-        medicalrecords.add(medicalrecord);
-        medicalrecordRepository.saveAll(medicalrecords);
 
         logger.debug("Medicalrecord added successfully for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
 
@@ -96,19 +112,11 @@ public class MedicalrecordService {
 
         logger.debug("Updating medicalrecord for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
 
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
+        if (medicalrecordRepository.update(medicalrecord)) {
 
-        for (MedicalrecordModel m : medicalrecords) {
-            if (m.getFirstName().equals(medicalrecord.getFirstName()) && m.getLastName().equals(medicalrecord.getLastName())) {
-                m.setBirthdate(medicalrecord.getBirthdate());
-                m.setMedications(medicalrecord.getMedications());
-                m.setAllergies(medicalrecord.getAllergies());
-                medicalrecordRepository.saveAll(medicalrecords);
-
-                logger.debug("Medicalrecord updated successfully for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
+            logger.debug("Medicalrecord updated successfully for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
 
-                return m;
-            }
+            return medicalrecord;
         }
         logger.debug("No medicalrecord found to update for {} {}", medicalrecord.getFirstName(), medicalrecord.getLastName());
         return null;
@@ -129,12 +137,9 @@ public class MedicalrecordService {
         logger.debug("Deleting medicalrecord for {} {}", firstName, lastName);
 
 
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
-
-        boolean removed = medicalrecords.removeIf(m -> m.getFirstName().equals(firstName) && m.getLastName().equals(lastName));
+        boolean removed = medicalrecordRepository.delete(firstName, lastName);
 
         if (removed) {
-            medicalrecordRepository.saveAll(medicalrecords);
             logger.debug("Medicalrecord deleted successfully for {} {}", firstName, lastName);
         } else {
             logger.debug("No medicalrecord found to delete for {} {}", firstName, lastName);
@@ -142,4 +147,59 @@ public class MedicalrecordService {
         return removed;
     }
 
+    /**
+     * Met à jour ou ajoute une liste de dossiers médicaux en une seule modification.
+     *
+     * <p>
+     * Chaque élément est retrouvé par son prénom et nom dans une table construite une seule fois pour tout le lot :
+     * s'il existe, il est mis à jour, sinon il est ajouté. Les éléments sans prénom ou sans nom sont ignorés
+     * et comptés comme rejetés.
+     * </p>
+     *
+     * @param medicalrecords dossiers médicaux à enregistrer
+     * @return bilan du lot
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public BatchResult upsertMedicalrecords(List<MedicalrecordModel> medicalrecords) throws IOException {
+
+        logger.debug("Upserting {} medicalrecords", medicalrecords.size());
+
+        List<MedicalrecordModel> accepted = new ArrayList<>();
+        for (MedicalrecordModel m : medicalrecords) {
+            if (m.getFirstName() != null && m.getLastName() != null) {
+                accepted.add(m);
+            }
+        }
+        BatchResult result = medicalrecordRepository.upsertAll(accepted).withRejected(medicalrecords.size() - accepted.size());
+
+        logger.debug("Medicalrecords upserted, created={} updated={} rejected={}",
+                result.created(), result.updated(), result.rejected());
+
+        return result;
+    }
+
+    /**
+     * Supprime une liste de dossiers médicaux en une seule modification.
+     * Les éléments sans prénom ou sans nom sont ignorés et comptés comme rejetés.
+     *
+     * @param criteria dossiers médicaux à supprimer
+     * @return bilan du lot
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public BatchResult deleteMedicalrecords(List<MedicalrecordModel> criteria) throws IOException {
+
+        logger.debug("Deleting {} medicalrecords", criteria.size());
+
+        List<MedicalrecordModel> accepted = new ArrayList<>();
+        for (MedicalrecordModel m : criteria) {
+            if (m.getFirstName() != null && m.getLastName() != null) {
+                accepted.add(m);
+            }
+        }
+        BatchResult result = medicalrecordRepository.deleteAll(accepted).withRejected(criteria.size() - accepted.size());
+
+        logger.debug("Medicalrecords deleted={} rejected={}", result.deleted(), result.rejected());
+
+        return result;
+    }
 }
@@ -0,0 +1,42 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+/**
+ * Règles communes de pagination des endpoints CRUD /person, /medicalRecord et /firestation.
+ *
+ * <p>
+ * Le curseur est l'identifiant du dernier enregistrement de la page précédente, renvoyé par le serveur :
+ * une page reprend juste après lui, même si des enregistrements ont été ajoutés ou supprimés entre-temps.
+ * Il n'est valable que jusqu'au prochain redémarrage de l'application.
+ * </p>
+ */
+public final class Pagination {
+
+    /**
+     * Taille d'une page lorsque le client ne précise que le curseur.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    /**
+     * Taille maximale d'une page, pour borner le coût d'une requête.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private Pagination() {
+    }
+
+    /**
+     * @param cursor curseur reçu du client, ou {@code null} pour la première page
+     * @return identifiant après lequel reprendre la lecture
+     */
+    static long after(Long cursor) {
+        return cursor == null ? 0 : cursor;
+    }
+
+    /**
+     * @param limit taille demandée par le client, ou {@code null}
+     * @return taille de page comprise entre 1 et {@link #MAX_LIMIT}
+     */
+    static int limit(Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
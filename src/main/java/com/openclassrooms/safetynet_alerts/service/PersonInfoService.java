@@ -4,8 +4,9 @@ package com.openclassrooms.safetynet_alerts.service;
 import com.openclassrooms.safetynet_alerts.dto.PersonInfoDTO;
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.FamilyMember;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service responsable de la logique métier de l'endpoint /personInfoLastName avec comme paramètre lastName
@@ -25,26 +27,28 @@ public class PersonInfoService {
 
     private static final Logger logger = LoggerFactory.getLogger(PersonInfoService.class);
 
-    private final PersonRepository personRepository;
-    private final MedicalrecordRepository medicalrecordRepository;
+    private final DataStore dataStore;
     private final AgeService ageService;
 
     /**
      * Construit le service PersonInfo
      *
-     * @param personRepository        repository permettant l'accès aux données des personnes
-     * @param medicalrecordRepository repository permettant l'accès aux données médicales des personnes
-     * @param ageService              service permettant de calculer l'âge ainsi que de déterminer si la personne est mineure ou non
+     * @param dataStore  jeu de données dont l'état courant est lu une seule fois par requête
+     * @param ageService service permettant de calculer l'âge ainsi que de déterminer si la personne est mineure ou non
      */
-    public PersonInfoService(PersonRepository personRepository, MedicalrecordRepository medicalrecordRepository, AgeService ageService) {
-        this.personRepository = personRepository;
-        this.medicalrecordRepository = medicalrecordRepository;
+    public PersonInfoService(DataStore dataStore, AgeService ageService) {
+        this.dataStore = dataStore;
         this.ageService = ageService;
     }
 
     /**
      * Récupère les informations personnelles et médicales des personnes portant le nom donné
      *
+     * <p>
+     * Les personnes et leur dossier médical sont retrouvés ensemble par l'index des noms,
+     * en O(taille de la famille). Le nom est comparé sans tenir compte de la casse.
+     * </p>
+     *
      * @param lastName nom à analyser
      * @return liste de {@link PersonInfoDTO} correspondant aux personnes trouvées
      * @throws IOException en cas d'erreur lors de l'accès aux données
@@ -53,33 +57,28 @@ public class PersonInfoService {
 
         logger.debug("Starting to search personInfo for lastName: {}", lastName);
 
-        List<PersonModel> persons = personRepository.findAll();
-        List<MedicalrecordModel> medicalrecords = medicalrecordRepository.findAll();
+        //famille, dossiers médicaux et âges lus dans le même état des données
+        DataSnapshot snapshot = dataStore.snapshot();
+        List<FamilyMember> family = snapshot.findFamily(lastName);
 
-        logger.debug("Loaded {} persons and {} medicalrecords", persons.size(), medicalrecords.size());
+        logger.debug("Found {} persons named {}", family.size(), lastName);
 
-        List<PersonInfoDTO> result = new ArrayList<>();
+        List<PersonModel> persons = new ArrayList<>();
+        for (FamilyMember member : family) {
+            persons.add(member.person());
+        }
 
-        for (PersonModel person : persons) {
+        Map<PersonModel, Integer> ages = ageService.calculateAges(snapshot, persons);
 
-            if (person.getLastName() == null || !person.getLastName().equalsIgnoreCase(lastName)) {
-                continue;
-            }
+        List<PersonInfoDTO> result = new ArrayList<>();
 
-            int age = ageService.calculateAge(person);
+        for (FamilyMember member : family) {
 
-            // chercher medical record
-            MedicalrecordModel foundMedical = null;
-            for (MedicalrecordModel mr : medicalrecords) {
-                boolean samePerson =
-                        mr.getFirstName().equalsIgnoreCase(person.getFirstName())
-                                && mr.getLastName().equalsIgnoreCase(person.getLastName());
+            PersonModel person = member.person();
+            int age = ages.get(person);
 
-                if (samePerson) {
-                    foundMedical = mr;
-                    break;
-                }
-            }
+            //dossier médical déjà retrouvé par l'index des noms
+            MedicalrecordModel foundMedical = member.medicalrecord();
 
             List<String> medications = new ArrayList<>();
             List<String> allergies = new ArrayList<>();
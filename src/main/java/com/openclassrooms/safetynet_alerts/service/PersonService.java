@@ -1,12 +1,15 @@
 package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -50,6 +53,24 @@ public class PersonService {
         return persons;
     }
 
+    /**
+     * Récupère une page de personnes.
+     *
+     * @param cursor curseur renvoyé avec la page précédente, ou {@code null} pour la première page
+     * @param limit  taille de page demandée, ramenée entre 1 et {@link Pagination#MAX_LIMIT} ;
+     *               {@link Pagination#DEFAULT_LIMIT} si {@code null}
+     * @return page demandée, avec le curseur de la page suivante
+     */
+    public Page<PersonModel> getPersonsPage(Long cursor, Integer limit) {
+        logger.debug("Fetching persons page after {}", cursor);
+
+        Page<PersonModel> page = personRepository.findPage(Pagination.after(cursor), Pagination.limit(limit));
+
+        logger.debug("Found {} persons, next cursor {}", page.records().size(), page.after());
+
+        return page;
+    }
+
     /**
      * Ajoute une nouvelle personne.
      *
@@ -69,17 +90,11 @@ public class PersonService {
 
         logger.debug("Adding person {} {}", person.getFirstName(), person.getLastName());
 
-        List<PersonModel> persons = personRepository.findAll();
-
-//on obeserve si y'a match entre p (existe) et person(ajouté)
-        boolean exists = persons.stream().anyMatch(p -> p.getFirstName().equals(person.getFirstName()) && p.getLastName().equals(person.getLastName()));
-
-        if (exists) {
+//l'existence est vérifiée par le repository, sous le verrou des données, au moment de l'ajout
+        if (!personRepository.add(person)) {
             logger.debug("Person already exists {} {}", person.getFirstName(), person.getLastName());
             throw new IllegalArgumentException("Person already exists");
         }
-        persons.add(person);
-        personRepository.saveAll(persons);
 
         logger.debug("Person added successfully {} {}", person.getFirstName(), person.getLastName());
 
@@ -102,23 +117,12 @@ public class PersonService {
 
         logger.debug("Updating person {} {}", person.getFirstName(), person.getLastName());
 
-        List<PersonModel> persons = personRepository.findAll();
+//la personne existante est remplacée par une copie portant les nouveaux champs
+        if (personRepository.update(person)) {
 
-        for (PersonModel p : persons) {
-            if (p.getFirstName().equals(person.getFirstName()) && p.getLastName().equals(person.getLastName())) {
-                p.setAddress(person.getAddress());
-                p.setCity(person.getCity());
-                p.setZip(person.getZip());
-                p.setPhone(person.getPhone());
-                p.setEmail(person.getEmail());
-
-//p = personne existante, donc on modifie les champs existants
-                personRepository.saveAll(persons);
-
-                logger.debug("Person updated successfully {} {}", person.getFirstName(), person.getLastName());
+            logger.debug("Person updated successfully {} {}", person.getFirstName(), person.getLastName());
 
-                return p;
-            }
+            return person;
         }
 
         logger.debug("No person found to update {} {}", person.getFirstName(), person.getLastName());
@@ -140,17 +144,70 @@ public class PersonService {
 
         logger.debug("Deleting person {} {}", firstName, lastName);
 
-        List<PersonModel> persons = personRepository.findAll();
-//on récupère toutes les personnes du repository et on conserve dans une List
-        boolean removed = persons.removeIf(p -> p.getFirstName().equals(firstName) && p.getLastName().equals(lastName));
+        boolean removed = personRepository.delete(firstName, lastName);
 
         if (removed) {
             logger.debug("Person deleted successfully {} {}", firstName, lastName);
-            personRepository.saveAll(persons);
         } else {
             logger.debug("No person found to delete {} {}", firstName, lastName);
         }
 
         return removed;
     }
-}
\ No newline at end of file
+
+    /**
+     * Met à jour ou ajoute une liste de personnes en une seule modification.
+     *
+     * <p>
+     * Chaque élément est retrouvé par son prénom et nom dans une table construite une seule fois pour tout le lot :
+     * s'il existe, il est mis à jour, sinon il est ajouté. Les éléments sans prénom ou sans nom sont ignorés
+     * et comptés comme rejetés.
+     * </p>
+     *
+     * @param persons personnes à enregistrer
+     * @return bilan du lot
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public BatchResult upsertPersons(List<PersonModel> persons) throws IOException {
+
+        logger.debug("Upserting {} persons", persons.size());
+
+        List<PersonModel> accepted = new ArrayList<>();
+        for (PersonModel p : persons) {
+            if (p.getFirstName() != null && p.getLastName() != null) {
+                accepted.add(p);
+            }
+        }
+        BatchResult result = personRepository.upsertAll(accepted).withRejected(persons.size() - accepted.size());
+
+        logger.debug("Persons upserted, created={} updated={} rejected={}",
+                result.created(), result.updated(), result.rejected());
+
+        return result;
+    }
+
+    /**
+     * Supprime une liste de personnes en une seule modification.
+     * Les éléments sans prénom ou sans nom sont ignorés et comptés comme rejetés.
+     *
+     * @param criteria personnes à supprimer
+     * @return bilan du lot
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public BatchResult deletePersons(List<PersonModel> criteria) throws IOException {
+
+        logger.debug("Deleting {} persons", criteria.size());
+
+        List<PersonModel> accepted = new ArrayList<>();
+        for (PersonModel p : criteria) {
+            if (p.getFirstName() != null && p.getLastName() != null) {
+                accepted.add(p);
+            }
+        }
+        BatchResult result = personRepository.deleteAll(accepted).withRejected(criteria.size() - accepted.size());
+
+        logger.debug("Persons deleted={} rejected={}", result.deleted(), result.rejected());
+
+        return result;
+    }
+}
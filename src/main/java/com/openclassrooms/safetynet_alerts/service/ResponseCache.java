@@ -0,0 +1,332 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataChanges;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DataStoreListener;
+import com.openclassrooms.safetynet_alerts.repository.IndexKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache des réponses JSON déjà sérialisées des endpoints /fire, /flood/stations et /firestation
+ * (paramètre stationNumber), indexé par endpoint et paramètres normalisés.
+ *
+ * <p>
+ * Chaque entrée déclare les adresses et casernes dont elle dépend. Une modification de personne,
+ * d'association adresse/caserne ou de dossier médical n'invalide que les entrées de ces adresses
+ * et des casernes qui les couvrent. Une entrée n'est servie que si aucune de ses dépendances n'a été
+ * modifiée après la version du jeu de données lue avant son calcul, et seulement le jour de son calcul,
+ * puisque les âges changent à minuit.
+ * </p>
+ *
+ * <p>
+ * Les entrées les moins récemment lues sont évincées dès que la taille totale des corps dépasse
+ * le budget mémoire configuré. Une variante compressée en gzip est conservée pour les corps assez grands.
+ * </p>
+ *
+ * <p>
+ * La version de la dernière modification de chaque dépendance ne sert qu'à refuser les réponses calculées
+ * avant elle et conservées après. Au-delà de {@value #MAX_INVALIDATIONS} dépendances suivies, ces versions
+ * sont oubliées et remplacées par la plus récente : seules les réponses calculées avant celle-ci sont alors
+ * refusées, ce qui borne la mémoire sans jamais servir une réponse périmée.
+ * </p>
+ */
+@Service
+public class ResponseCache implements DataStoreListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    /**
+     * Taille en dessous de laquelle la compression ne fait pas gagner assez pour être conservée.
+     */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    /**
+     * Nombre de dépendances dont la version de dernière modification est suivie individuellement.
+     */
+    static final int MAX_INVALIDATIONS = 4096;
+
+    /**
+     * Réponse mise en cache.
+     *
+     * @param contentType type du contenu de la réponse
+     * @param body        corps sérialisé
+     * @param gzipBody    corps compressé en gzip, ou {@code null} s'il n'est pas conservé
+     */
+    public record CachedResponse(String contentType, byte[] body, byte[] gzipBody) {
+    }
+
+    /**
+     * Version du jeu de données et date du jour lues avant le calcul d'une réponse.
+     *
+     * @param version  numéro de la dernière modification appliquée
+     * @param epochDay date du jour, en jours depuis le 01/01/1970
+     */
+    public record Stamp(long version, long epochDay) {
+    }
+
+    private record Entry(String key, List<String> tags, Stamp stamp, CachedResponse response, long size) {
+    }
+
+    private final DataStore dataStore;
+    private final Clock clock;
+    private final long maxBytes;
+    private final boolean gzip;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+    private long forgottenVersion = Long.MIN_VALUE;
+    private long totalBytes;
+
+    /**
+     * @param dataStore jeu de données dont les modifications invalident les entrées
+     * @param clock     horloge donnant la date du jour
+     * @param maxBytes  budget mémoire des corps conservés, en octets
+     * @param gzip      indique si une variante compressée est conservée
+     */
+    public ResponseCache(DataStore dataStore, Clock clock,
+                         @Value("${safetynet.response-cache.max-bytes}") long maxBytes,
+                         @Value("${safetynet.response-cache.gzip}") boolean gzip) {
+        this.dataStore = dataStore;
+        this.clock = clock;
+        this.maxBytes = maxBytes;
+        this.gzip = gzip;
+
+        dataStore.addListener(this);
+    }
+
+    /**
+     * @param address adresse d'un foyer
+     * @return dépendance d'une réponse envers cette adresse
+     */
+    public static String addressTag(String address) {
+        return "address:" + IndexKeys.address(address);
+    }
+
+    /**
+     * @param station numéro de caserne
+     * @return dépendance d'une réponse envers cette caserne
+     */
+    public static String stationTag(String station) {
+        return "station:" + station;
+    }
+
+    /**
+     * Lit la version du jeu de données et la date du jour, avant le calcul d'une réponse à conserver.
+     *
+     * @return repère à transmettre à {@link #put(String, List, Stamp, String, byte[])}
+     */
+    public Stamp stamp() {
+        return new Stamp(dataStore.getSequence(), LocalDate.now(clock).toEpochDay());
+    }
+
+    /**
+     * Retourne la réponse conservée si aucune de ses dépendances n'a changé depuis son calcul.
+     *
+     * @param key endpoint et paramètres normalisés
+     * @return la réponse, ou {@code null} si elle est absente ou périmée
+     */
+    public CachedResponse get(String key) {
+        long today = LocalDate.now(clock).toEpochDay();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            //une entrée dont une dépendance est modifiée est retirée aussitôt : seule la date reste à vérifier
+            if (entry.stamp().epochDay() != today) {
+                remove(entry);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    /**
+     * Conserve une réponse calculée après {@link #stamp()}, à partir d'une version du jeu de données au moins égale
+     * à celle du repère. La réponse est ignorée si l'une de ses dépendances a été modifiée depuis cette version.
+     *
+     * @param key         endpoint et paramètres normalisés
+     * @param tags        adresses et casernes dont dépend la réponse
+     * @param stamp       repère lu avant le calcul de la réponse
+     * @param contentType type du contenu de la réponse
+     * @param body        corps sérialisé
+     */
+    public void put(String key, List<String> tags, Stamp stamp, String contentType, byte[] body) {
+        if (body.length > maxBytes) {
+            return;
+        }
+        byte[] gzipBody = gzip && body.length >= GZIP_MIN_BYTES ? compress(body) : null;
+        long size = 2L * key.length() + body.length + (gzipBody == null ? 0 : gzipBody.length);
+        Entry entry = new Entry(key, List.copyOf(tags), stamp, new CachedResponse(contentType, body, gzipBody), size);
+
+        synchronized (this) {
+            //vérifiée sous le verrou : une invalidation concurrente a lieu soit avant, soit après l'ajout qu'elle retire
+            if (!isCurrent(entry.tags(), stamp.version())) {
+                return;
+            }
+            Entry previous = entries.get(key);
+            if (previous != null) {
+                remove(previous);
+            }
+            entries.put(key, entry);
+            for (String tag : entry.tags()) {
+                keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+            totalBytes += size;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                unlink(evicted);
+            }
+        }
+    }
+
+    /**
+     * @return nombre d'entrées conservées
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return taille totale des entrées conservées, en octets
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return nombre de dépendances dont la version de dernière modification est suivie
+     */
+    synchronized int getInvalidationCount() {
+        return invalidatedAt.size();
+    }
+
+    private boolean isCurrent(List<String> tags, long version) {
+        if (version < forgottenVersion) {
+            return false;
+        }
+        for (String tag : tags) {
+            if (invalidatedAt.getOrDefault(tag, Long.MIN_VALUE) > version) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.key());
+        unlink(entry);
+    }
+
+    private void unlink(Entry entry) {
+        totalBytes -= entry.size();
+        for (String tag : entry.tags()) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                keys.remove(entry.key());
+                if (keys.isEmpty()) {
+                    keysByTag.remove(tag);
+                }
+            }
+        }
+    }
+
+    private static byte[] compress(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Invalide en une seule fois les foyers et casernes touchés par l'ensemble de la modification.
+     */
+    @Override
+    public void dataChanged(DataSnapshot snapshot, DataChanges changes) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (String address : changes.getPersonAddresses()) {
+            addHousehold(snapshot, address, tags);
+        }
+        for (String address : changes.getFirestationAddresses()) {
+            tags.add(addressTag(address));
+        }
+        for (String station : changes.getStations()) {
+            tags.add(stationTag(station));
+        }
+        for (MedicalrecordModel medicalrecord : changes.getMedicalrecords()) {
+            for (PersonModel person : snapshot.findPersonsByName(medicalrecord.getFirstName(), medicalrecord.getLastName())) {
+                addHousehold(snapshot, person.getAddress(), tags);
+            }
+        }
+        invalidate(snapshot, tags);
+    }
+
+    /**
+     * Ajoute l'adresse d'un foyer et les casernes qui la couvrent.
+     */
+    private static void addHousehold(DataSnapshot snapshot, String address, Set<String> tags) {
+        tags.add(addressTag(address));
+        for (String station : snapshot.findStationsByAddress(address)) {
+            tags.add(stationTag(station));
+        }
+    }
+
+    /**
+     * Marque les dépendances comme modifiées à la version du nouvel état, puis retire les entrées concernées.
+     * Appelée sous le verrou du {@link DataStore}, avant la publication du nouvel état.
+     */
+    private void invalidate(DataSnapshot snapshot, Set<String> tags) {
+        int removed = 0;
+        synchronized (this) {
+            for (String tag : tags) {
+                invalidatedAt.put(tag, snapshot.getVersion());
+            }
+            if (invalidatedAt.size() > MAX_INVALIDATIONS) {
+                //les versions sont croissantes : celle-ci est la plus récente des versions oubliées
+                forgottenVersion = snapshot.getVersion();
+                invalidatedAt.clear();
+            }
+            for (String tag : tags) {
+                Set<String> keys = keysByTag.get(tag);
+                if (keys == null) {
+                    continue;
+                }
+                for (String key : List.copyOf(keys)) {
+                    remove(entries.get(key));
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.debug("{} cached responses invalidated at version {}", removed, snapshot.getVersion());
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.dto.FirestationResponseDTO;
+import com.openclassrooms.safetynet_alerts.dto.PersonFirestationDTO;
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataChanges;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DataStoreListener;
+import com.openclassrooms.safetynet_alerts.repository.IndexKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vue précalculée de l'endpoint /firestation (paramètre stationNumber) : pour chaque caserne,
+ * les personnes couvertes et le nombre d'adultes et d'enfants.
+ *
+ * <p>
+ * La vue garde, pour chaque adresse couverte, la part de son foyer (personnes, adultes et enfants)
+ * et, pour chaque caserne, ses adresses et la somme de leurs décomptes. Elle est construite au démarrage puis tenue
+ * à jour par le {@link DataStore} : une modification de personne ou de dossier médical ne recalcule que les foyers
+ * touchés, une seule fois par modification même pour un lot, puis retire l'ancienne part de chaque foyer des casernes
+ * qui le couvrent et y ajoute la nouvelle. Une modification d'association adresse/caserne ne fait que réassembler
+ * les parts déjà calculées des adresses de la caserne. La lecture retourne le {@link FirestationResponseDTO} déjà construit, sans parcours.
+ * Au changement de jour, l'{@link AgeRolloverScheduler} signale les personnes qui atteignent 19 ans :
+ * seuls leurs foyers sont recalculés.
+ * </p>
+ *
+ * <p>
+ * Les {@link FirestationResponseDTO} retournés sont partagés entre les lectures et ne doivent pas être modifiés.
+ * </p>
+ */
+@Service
+public class StationCoverageView implements DataStoreListener, AgeRolloverListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StationCoverageView.class);
+
+    private final DataStore dataStore;
+    private final AgeService ageService;
+    private final AgeRolloverScheduler ageRolloverScheduler;
+
+    private final Map<String, FirestationResponseDTO> coverageByStation = new ConcurrentHashMap<>();
+
+    //parts des foyers et décomptes des casernes, lus et modifiés sous le verrou du DataStore
+    private final Map<String, HouseholdCoverage> householdsByAddress = new HashMap<>();
+    private final Map<String, StationTotals> totalsByStation = new HashMap<>();
+
+    /**
+     * Construit la vue à partir des données actuelles et l'enregistre auprès du {@link DataStore}
+     * et du planificateur des changements d'âge.
+     *
+     * @param dataStore            jeu de données observé
+     * @param ageService           service permettant de calculer l'âge des personnes couvertes
+     * @param ageRolloverScheduler planificateur signalant les passages à l'âge adulte
+     */
+    public StationCoverageView(DataStore dataStore, AgeService ageService, AgeRolloverScheduler ageRolloverScheduler) {
+        this.dataStore = dataStore;
+        this.ageService = ageService;
+        this.ageRolloverScheduler = ageRolloverScheduler;
+
+        synchronized (dataStore) {
+            rebuild(dataStore.snapshot());
+            dataStore.addListener(this);
+            ageRolloverScheduler.addListener(this);
+        }
+    }
+
+    /**
+     * Retourne les personnes couvertes par une caserne et le décompte des adultes et des enfants.
+     *
+     * @param stationNumber numéro de la caserne
+     * @return le {@link FirestationResponseDTO} précalculé ; liste vide et décomptes à 0 si la caserne ne couvre personne
+     * @throws IOException en cas d'erreur lors de l'accès aux données
+     */
+    public FirestationResponseDTO getCoverage(String stationNumber) throws IOException {
+
+        ageRolloverScheduler.advance();
+
+        FirestationResponseDTO coverage = coverageByStation.get(stationNumber);
+        if (coverage != null) {
+            return coverage;
+        }
+
+        //caserne inconnue, ou dont la vue n'a pas pu être calculée : calcul direct sur l'état courant, qui remonte l'erreur éventuelle
+        return compute(dataStore.snapshot(), stationNumber);
+    }
+
+    /**
+     * Recalcule une seule fois chaque foyer touché par la modification (adresses des personnes modifiées
+     * et des personnes dont le dossier médical a changé) et reporte l'écart sur les casernes qui le couvrent,
+     * puis réassemble les casernes des associations modifiées.
+     */
+    @Override
+    public void dataChanged(DataSnapshot snapshot, DataChanges changes) {
+        Map<String, String> addresses = new LinkedHashMap<>();
+        for (String address : changes.getPersonAddresses()) {
+            addresses.putIfAbsent(IndexKeys.address(address), address);
+        }
+        for (MedicalrecordModel medicalrecord : changes.getMedicalrecords()) {
+            addAddressesOf(snapshot, medicalrecord, addresses);
+        }
+
+        Set<String> touched = new LinkedHashSet<>();
+        refreshHouseholds(snapshot, addresses.values(), changes.getStations(), touched);
+
+        for (String station : changes.getStations()) {
+            regroup(snapshot, station);
+            touched.add(station);
+        }
+        touched.forEach(this::publish);
+    }
+
+    @Override
+    public void ageChanged(MedicalrecordModel medicalrecord, int age) {
+        if (AgeService.isAdultAge(age) && AgeService.isChildAge(age - 1)) {
+            DataSnapshot snapshot = dataStore.snapshot();
+            Map<String, String> addresses = new LinkedHashMap<>();
+            addAddressesOf(snapshot, medicalrecord, addresses);
+
+            Set<String> touched = new LinkedHashSet<>();
+            refreshHouseholds(snapshot, addresses.values(), Set.of(), touched);
+            touched.forEach(this::publish);
+        }
+    }
+
+    private static void addAddressesOf(DataSnapshot snapshot, MedicalrecordModel medicalrecord, Map<String, String> addresses) {
+        for (PersonModel person : snapshot.findPersonsByName(medicalrecord.getFirstName(), medicalrecord.getLastName())) {
+            addresses.putIfAbsent(IndexKeys.address(person.getAddress()), person.getAddress());
+        }
+    }
+
+    /**
+     * Recalcule la part de chaque foyer et remplace l'ancienne par la nouvelle dans les décomptes des casernes
+     * qui couvrent l'adresse, sauf dans les casernes à réassembler. Appelée sous le verrou du {@link DataStore}.
+     *
+     * @param regrouped casernes dont les associations ont changé, réassemblées ensuite à partir des nouvelles parts
+     * @param touched   casernes dont les décomptes ont changé, complétées par cette méthode
+     */
+    private void refreshHouseholds(DataSnapshot snapshot, Iterable<String> addresses, Set<String> regrouped, Set<String> touched) {
+        for (String address : addresses) {
+            String key = IndexKeys.address(address);
+            List<String> stations = snapshot.findStationsByAddress(address);
+            if (stations.isEmpty()) {
+                //adresse couverte par aucune caserne : sa part serait recalculée si une caserne venait à la couvrir
+                householdsByAddress.remove(key);
+                continue;
+            }
+
+            HouseholdCoverage before = householdsByAddress.getOrDefault(key, HouseholdCoverage.EMPTY);
+            HouseholdCoverage after = computeHousehold(snapshot, address);
+            householdsByAddress.put(key, after);
+
+            for (String station : stations) {
+                StationTotals totals = totalsByStation.get(station);
+                if (totals != null && !regrouped.contains(station)) {
+                    totals.add(before, -1);
+                    totals.add(after, 1);
+                    touched.add(station);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstruit la vue de toutes les casernes. Appelée sous le verrou du {@link DataStore}.
+     */
+    private void rebuild(DataSnapshot snapshot) {
+        long start = System.nanoTime();
+        coverageByStation.clear();
+        householdsByAddress.clear();
+        totalsByStation.clear();
+
+        Set<String> stations = new LinkedHashSet<>();
+        for (FirestationModel firestation : snapshot.getFirestations()) {
+            stations.add(firestation.getStation());
+        }
+        for (String station : stations) {
+            regroup(snapshot, station);
+            publish(station);
+        }
+
+        logger.debug("Station coverage rebuilt for {} stations in {} ms", stations.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Réassemble les adresses d'une caserne et leurs décomptes à partir des parts déjà calculées,
+     * en ne calculant que celles des adresses qui ne l'étaient pas encore. Appelée sous le verrou du {@link DataStore}.
+     */
+    private void regroup(DataSnapshot snapshot, String station) {
+        if (station == null) {
+            return;
+        }
+        List<String> addresses = snapshot.findAddressesByStation(station);
+        if (addresses.isEmpty()) {
+            totalsByStation.remove(station);
+            return;
+        }
+
+        StationTotals totals = new StationTotals(new ArrayList<>(addresses.size()));
+        for (String address : addresses) {
+            String key = IndexKeys.address(address);
+            totals.add(householdsByAddress.computeIfAbsent(key, k -> computeHousehold(snapshot, address)), 1);
+            totals.addresses().add(key);
+        }
+        totalsByStation.put(station, totals);
+    }
+
+    /**
+     * Publie la vue d'une caserne à partir de ses décomptes. Un foyer dont une date de naissance est invalide
+     * retire la caserne de la vue : l'erreur est alors remontée à la lecture.
+     */
+    private void publish(String station) {
+        if (station == null) {
+            return;
+        }
+        StationTotals totals = totalsByStation.get(station);
+        if (totals == null) {
+            coverageByStation.remove(station);
+            return;
+        }
+        if (totals.unavailableCount > 0) {
+            logger.debug("Station coverage not available for station {}: invalid birthdate", station);
+            coverageByStation.remove(station);
+            return;
+        }
+
+        List<PersonFirestationDTO> persons = new ArrayList<>(totals.adultCount + totals.childCount);
+        for (String key : totals.addresses()) {
+            persons.addAll(householdsByAddress.get(key).persons());
+        }
+        coverageByStation.put(station, new FirestationResponseDTO(List.copyOf(persons), totals.adultCount, totals.childCount));
+    }
+
+    /**
+     * Calcule la part d'un foyer. Une date de naissance invalide donne une part indisponible.
+     */
+    private HouseholdCoverage computeHousehold(DataSnapshot snapshot, String address) {
+        List<PersonModel> persons = snapshot.findPersonsByAddress(address);
+        if (persons.isEmpty()) {
+            return HouseholdCoverage.EMPTY;
+        }
+        try {
+            Map<PersonModel, Integer> ages = ageService.calculateAges(snapshot, persons);
+
+            List<PersonFirestationDTO> personFirestationDTOS = new ArrayList<>(persons.size());
+            int adultCount = 0;
+            for (PersonModel person : persons) {
+                personFirestationDTOS.add(new PersonFirestationDTO(person.getFirstName(), person.getLastName(), person.getAddress(), person.getPhone()));
+                if (AgeService.isAdultAge(ages.get(person))) {
+                    adultCount++;
+                }
+            }
+            return new HouseholdCoverage(List.copyOf(personFirestationDTOS), adultCount, persons.size() - adultCount, true);
+        } catch (DateTimeParseException e) {
+            logger.debug("Household coverage not available for address {}: {}", address, e.getMessage());
+            return new HouseholdCoverage(List.of(), 0, 0, false);
+        }
+    }
+
+    private FirestationResponseDTO compute(DataSnapshot snapshot, String station) {
+
+        List<PersonModel> coveredPersons = new ArrayList<>();
+        for (String address : snapshot.findAddressesByStation(station)) {
+            coveredPersons.addAll(snapshot.findPersonsByAddress(address));
+        }
+
+        Map<PersonModel, Integer> ages = ageService.calculateAges(snapshot, coveredPersons);
+
+        List<PersonFirestationDTO> personFirestationDTOS = new ArrayList<>();
+        int adultCount = 0;
+        int childCount = 0;
+
+        for (PersonModel person : coveredPersons) {
+            personFirestationDTOS.add(new PersonFirestationDTO(person.getFirstName(), person.getLastName(), person.getAddress(), person.getPhone()));
+
+            if (AgeService.isAdultAge(ages.get(person))) {
+                adultCount++;
+            } else {
+                childCount++;
+            }
+        }
+        return new FirestationResponseDTO(List.copyOf(personFirestationDTOS), adultCount, childCount);
+    }
+
+    /**
+     * Part d'un foyer dans la vue des casernes qui couvrent son adresse.
+     *
+     * @param persons    personnes du foyer, dans l'ordre des données
+     * @param adultCount nombre d'adultes du foyer
+     * @param childCount nombre d'enfants du foyer
+     * @param available  {@code false} si une date de naissance du foyer est invalide
+     */
+    private record HouseholdCoverage(List<PersonFirestationDTO> persons, int adultCount, int childCount, boolean available) {
+
+        static final HouseholdCoverage EMPTY = new HouseholdCoverage(List.of(), 0, 0, true);
+    }
+
+    /**
+     * Adresses d'une caserne, dans l'ordre des associations, et somme des parts de leurs foyers.
+     */
+    private static final class StationTotals {
+
+        private final List<String> addresses;
+        private int adultCount;
+        private int childCount;
+        private int unavailableCount;
+
+        StationTotals(List<String> addresses) {
+            this.addresses = addresses;
+        }
+
+        List<String> addresses() {
+            return addresses;
+        }
+
+        void add(HouseholdCoverage household, int sign) {
+            adultCount += sign * household.adultCount();
+            childCount += sign * household.childCount();
+            if (!household.available()) {
+                unavailableCount += sign;
+            }
+        }
+    }
+}
@@ -3,7 +3,13 @@ package com.openclassrooms.safetynet_alerts;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+/**
+ * Le fichier de données et le journal sont placés sous {@code target/} : les tests n'écrivent rien dans le dépôt.
+ */
+@SpringBootTest(properties = {
+		"safetynet.data.file=target/test-data/data.json",
+		"safetynet.data.journal.file=target/test-data/journal.ndjson"
+})
 class SafetynetAlertsApplicationTests {
 
 	@Test
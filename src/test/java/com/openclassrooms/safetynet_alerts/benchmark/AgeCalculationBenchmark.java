@@ -0,0 +1,82 @@
+package com.openclassrooms.safetynet_alerts.benchmark;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.service.AgeService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai comparant l'ancien calcul de l'âge, qui analyse la date de naissance à chaque appel
+ * ({@code LocalDate.parse} + {@code Period.between}), au calcul par arithmétique entière sur la date
+ * de naissance déjà convertie en entier {@code aaaammjj}.
+ *
+ * <p>
+ * Le banc n'est exécuté qu'à la demande :
+ * {@code mvn test -Dtest=AgeCalculationBenchmark -Dbenchmark=true}.
+ * Le nombre de dossiers peut être modifié avec {@code -Dbenchmark.medicalrecords=100000}.
+ * Pour chaque calcul sont affichés le temps médian par âge calculé et les octets alloués par le thread.
+ * </p>
+ */
+@Benchmark.OnDemand
+public class AgeCalculationBenchmark {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    /**
+     * Génère les dossiers médicaux puis mesure les deux calculs.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du banc
+     */
+    @Test
+    void compareParsePerCallWithPrecomputedDates() throws Exception {
+        int medicalrecordCount = Integer.getInteger("benchmark.medicalrecords", 1_000_000);
+        List<MedicalrecordModel> medicalrecords = new ArrayList<>(medicalrecordCount);
+        for (int i = 0; i < medicalrecordCount; i++) {
+            String birthdate = String.format("%02d/%02d/%d", 1 + i % 12, 1 + i % 28, 1920 + i % 100);
+            medicalrecords.add(new MedicalrecordModel("First" + i, "Last" + i, birthdate, List.of(), List.of()));
+        }
+        LocalDate today = LocalDate.of(2026, 10, 17);
+        int todayDate = AgeService.toYearMonthDay(today);
+
+        Result parsePerCall = measure("parse per call", medicalrecords, medicalrecord ->
+                Period.between(LocalDate.parse(medicalrecord.getBirthdate(), DATE_TIME_FORMATTER), today).getYears());
+        Result precomputed = measure("precomputed yyyymmdd", medicalrecords, medicalrecord ->
+                AgeService.ageAt(medicalrecord.getBirthYearMonthDay(), todayDate));
+
+        System.out.println(parsePerCall);
+        System.out.println(precomputed);
+
+        assertThat(precomputed.ageSum).isEqualTo(parsePerCall.ageSum);
+    }
+
+    private static Result measure(String name, List<MedicalrecordModel> medicalrecords,
+                                  ToLongFunction<MedicalrecordModel> age) throws Exception {
+        Benchmark.Measurement measurement = Benchmark.measure(() -> sum(medicalrecords, age));
+        return new Result(name, measurement.result(), measurement.medianNanos() / medicalrecords.size(),
+                measurement.allocatedBytes() / medicalrecords.size());
+    }
+
+    private static long sum(List<MedicalrecordModel> medicalrecords, ToLongFunction<MedicalrecordModel> age) {
+        long ageSum = 0;
+        for (MedicalrecordModel medicalrecord : medicalrecords) {
+            ageSum += age.applyAsLong(medicalrecord);
+        }
+        return ageSum;
+    }
+
+    private record Result(String name, long ageSum, long medianNanosPerAge, long allocatedBytesPerAge) {
+        @Override
+        public String toString() {
+            return String.format("%-24s median=%5d ns/age  allocated=%5d B/age",
+                    name, medianNanosPerAge, allocatedBytesPerAge);
+        }
+    }
+}
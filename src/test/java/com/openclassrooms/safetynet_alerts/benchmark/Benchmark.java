@@ -0,0 +1,80 @@
+package com.openclassrooms.safetynet_alerts.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Outils communs aux bancs d'essai : activation à la demande et mesure d'un calcul répété.
+ *
+ * <p>
+ * Un banc annoté {@link OnDemand} n'est exécuté qu'avec {@code -Dbenchmark=true}.
+ * {@link #measure(Callable)} exécute le calcul une fois pour la chauffe, puis {@value #ITERATIONS} fois
+ * après un ramasse-miettes, et retient le temps médian, les octets alloués par le thread
+ * et le pic d'occupation du tas.
+ * </p>
+ */
+final class Benchmark {
+
+    static final int ITERATIONS = 5;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Banc d'essai exécuté uniquement avec {@code -Dbenchmark=true}.
+     */
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @interface OnDemand {
+    }
+
+    /**
+     * @param result         résultat du dernier calcul, à comparer entre les variantes mesurées
+     * @param medianNanos    durée médiane d'un calcul
+     * @param allocatedBytes octets alloués par le thread pendant le calcul le plus coûteux
+     * @param peakHeapBytes  pic d'occupation du tas pendant les calculs
+     */
+    record Measurement(long result, long medianNanos, long allocatedBytes, long peakHeapBytes) {
+    }
+
+    static Measurement measure(Callable<Long> task) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+
+        // tour de chauffe
+        long result = task.call();
+
+        long[] durations = new long[ITERATIONS];
+        long allocated = 0;
+        long peakHeap = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            result = task.call();
+
+            durations[i] = System.nanoTime() - start;
+            allocated = Math.max(allocated, threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+            peakHeap = Math.max(peakHeap, heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+        }
+
+        Arrays.sort(durations);
+        return new Measurement(result, durations[ITERATIONS / 2], allocated, peakHeap);
+    }
+}
@@ -0,0 +1,131 @@
+package com.openclassrooms.safetynet_alerts.benchmark;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.Dataset;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai comparant la lecture en flux du {@link DatasetParser} à l'ancienne lecture
+ * {@code readTree} + {@code convertValue} sur un fichier généré d'un million de personnes.
+ *
+ * <p>
+ * Le banc n'est exécuté qu'à la demande, avec un tas suffisant pour l'ancienne lecture :
+ * {@code mvn test -Dtest=DatasetParserBenchmark -Dbenchmark=true -DargLine=-Xmx6g}.
+ * La taille peut être réduite avec {@code -Dbenchmark.persons=100000}.
+ * Pour chaque lecture sont affichés le temps médian, les octets alloués par le thread
+ * et le pic d'occupation du tas.
+ * </p>
+ */
+@Benchmark.OnDemand
+public class DatasetParserBenchmark {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Génère le fichier puis mesure les deux lectures.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du banc
+     */
+    @Test
+    void compareStreamingParserWithReadTree() throws Exception {
+        int personCount = Integer.getInteger("benchmark.persons", 1_000_000);
+        Path file = generate(personCount);
+        System.out.printf("data.json generated: %d persons, %d MB%n", personCount, Files.size(file) / (1024 * 1024));
+
+        DatasetParser parser = new DatasetParser(objectMapper);
+
+        Result streaming = Result.of("streaming JsonParser", Benchmark.measure(() -> {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                return (long) parser.parse(inputStream).getPersons().size();
+            }
+        }));
+        Result tree = Result.of("readTree + convertValue", Benchmark.measure(() -> (long) readTree(file).getPersons().size()));
+
+        System.out.println(streaming);
+        System.out.println(tree);
+
+        assertThat(streaming.records).isEqualTo(personCount);
+        assertThat(tree.records).isEqualTo(personCount);
+    }
+
+    /**
+     * Ancienne lecture des repositories : arbre complet puis conversion de chaque section.
+     */
+    private Dataset readTree(Path file) throws Exception {
+        Dataset dataset = new Dataset();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            JsonNode rootNode = objectMapper.readTree(inputStream);
+            dataset.getPersons().addAll(objectMapper.convertValue(rootNode.get("persons"),
+                    new TypeReference<List<PersonModel>>() {
+                    }));
+            dataset.getFirestations().addAll(objectMapper.convertValue(rootNode.get("firestations"),
+                    new TypeReference<List<FirestationModel>>() {
+                    }));
+            dataset.getMedicalrecords().addAll(objectMapper.convertValue(rootNode.get("medicalrecords"),
+                    new TypeReference<List<MedicalrecordModel>>() {
+                    }));
+        }
+        return dataset;
+    }
+
+    private Path generate(int personCount) throws Exception {
+        Path file = tempDir.resolve("data.json");
+        int addressCount = Math.max(1, personCount / 4);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("{\"persons\":[");
+            for (int i = 0; i < personCount; i++) {
+                if (i > 0) writer.write(',');
+                writer.write("{\"firstName\":\"First" + i + "\",\"lastName\":\"Last" + (i % 50_000)
+                        + "\",\"address\":\"" + (i % addressCount) + " Culver St\",\"city\":\"Culver\",\"zip\":\"97451\""
+                        + ",\"phone\":\"841-874-" + (i % 10_000) + "\",\"email\":\"person" + i + "@email.com\"}");
+            }
+            writer.write("],\"firestations\":[");
+            for (int i = 0; i < addressCount; i++) {
+                if (i > 0) writer.write(',');
+                writer.write("{\"address\":\"" + i + " Culver St\",\"station\":\"" + (i % 100) + "\"}");
+            }
+            writer.write("],\"medicalrecords\":[");
+            for (int i = 0; i < personCount; i++) {
+                if (i > 0) writer.write(',');
+                writer.write("{\"firstName\":\"First" + i + "\",\"lastName\":\"Last" + (i % 50_000)
+                        + "\",\"birthdate\":\"03/06/19" + (10 + i % 90) + "\",\"medications\":[\"aznol:350mg\"],\"allergies\":[\"nillacilan\"]}");
+            }
+            writer.write("]}");
+        }
+        return file;
+    }
+
+    private record Result(String name, long records, long medianMillis, long allocatedBytes, long peakHeapBytes) {
+
+        static Result of(String name, Benchmark.Measurement measurement) {
+            return new Result(name, measurement.result(), measurement.medianNanos() / 1_000_000,
+                    measurement.allocatedBytes(), measurement.peakHeapBytes());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-24s median=%6d ms  allocated=%6d MB  peakHeap=%6d MB",
+                    name, medianMillis, allocatedBytes / (1024 * 1024), peakHeapBytes / (1024 * 1024));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.service.PhoneAlertService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.openclassrooms.safetynet_alerts.configuration.WebConfiguration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Classe de test du {@link DatasetEtagInterceptor}
+ * <p>
+ * Cette classe vérifie, sur l'endpoint /phoneAlert, que les réponses portent un ETag dérivé du chargement
+ * et de la version du jeu de données et de la date du jour, et qu'un ETag encore valide donne un 304 sans appel du service.
+ */
+@ExtendWith(MockitoExtension.class)
+public class DatasetEtagInterceptorTest {
+
+    @Mock
+    private PhoneAlertService service;
+
+    @Mock
+    private DataStore dataStore;
+
+    private MockMvc mockMvc;
+
+    private final String etag = "\"k3x9-3-" + LocalDate.of(2026, 10, 17).toEpochDay() + "\"";
+
+    /**
+     * Initialise MockMvc avec l'intercepteur et une horloge réglée au 17/10/2026
+     */
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(LocalDate.of(2026, 10, 17).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PhoneAlertController(service))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(new DatasetEtagInterceptor(dataStore, clock))
+                .build();
+    }
+
+    /**
+     * Vérifie qu'une première requête reçoit la réponse complète avec son ETag.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_shouldTagResponseWithDatasetVersion() throws Exception {
+        when(dataStore.getLoadId()).thenReturn("k3x9");
+        when(dataStore.getSequence()).thenReturn(3L);
+        when(service.getPhoneByStation("1")).thenReturn(List.of("123-456-789"));
+
+        mockMvc.perform(get("/phoneAlert").param("firestation", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$[0]").value("123-456-789"));
+    }
+
+    /**
+     * Vérifie qu'un ETag encore valide donne un 304 sans corps et sans appel du service.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_withCurrentEtag_shouldReturn304WithoutCallingService() throws Exception {
+        when(dataStore.getLoadId()).thenReturn("k3x9");
+        when(dataStore.getSequence()).thenReturn(3L);
+
+        mockMvc.perform(get("/phoneAlert").param("firestation", "1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(service);
+    }
+
+    /**
+     * Vérifie qu'après une modification du jeu de données, l'ancien ETag donne de nouveau la réponse complète.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_afterDatasetChange_shouldReturnFullResponse() throws Exception {
+        when(dataStore.getLoadId()).thenReturn("k3x9");
+        when(dataStore.getSequence()).thenReturn(4L);
+        when(service.getPhoneByStation("1")).thenReturn(List.of("123-456-789"));
+
+        mockMvc.perform(get("/phoneAlert").param("firestation", "1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"k3x9-4-" + LocalDate.of(2026, 10, 17).toEpochDay() + "\""));
+
+        verify(service).getPhoneByStation("1");
+    }
+
+    /**
+     * Vérifie qu'après un redémarrage, l'ETag d'un chargement précédent au même numéro de modification
+     * donne de nouveau la réponse complète.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_afterReload_shouldReturnFullResponse() throws Exception {
+        when(dataStore.getLoadId()).thenReturn("p7q2");
+        when(dataStore.getSequence()).thenReturn(3L);
+        when(service.getPhoneByStation("1")).thenReturn(List.of("123-456-789"));
+
+        mockMvc.perform(get("/phoneAlert").param("firestation", "1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"p7q2-3-" + LocalDate.of(2026, 10, 17).toEpochDay() + "\""));
+
+        verify(service).getPhoneByStation("1");
+    }
+
+    /**
+     * Vérifie que la configuration applique l'intercepteur à tous les endpoints en lecture, sauf à l'avancement de l'import.
+     */
+    @Test
+    void webConfiguration_shouldRegisterInterceptorOnAllReadEndpoints() {
+        class Registry extends InterceptorRegistry {
+            boolean matches(String path) {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+                ServletRequestPathUtils.parseAndCache(request);
+                return ((MappedInterceptor) getInterceptors().get(0)).matches(request);
+            }
+        }
+        Registry registry = new Registry();
+        new WebConfiguration(new DatasetEtagInterceptor(dataStore, Clock.systemUTC())).addInterceptors(registry);
+
+        for (String path : List.of("/firestation", "/phoneAlert", "/fire", "/fire/batch", "/flood/stations", "/childAlert",
+                "/personInfolastName=Boyd", "/communityEmail", "/person", "/medicalRecord", "/export")) {
+            assertThat(registry.matches(path)).as(path).isTrue();
+        }
+        assertThat(registry.matches("/import")).isFalse();
+    }
+}
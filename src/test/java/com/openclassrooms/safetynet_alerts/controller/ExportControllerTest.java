@@ -0,0 +1,104 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Classe de test du {@link ExportController}
+ * <p>
+ * Cette classe vérifie le bon fonctionnement de l'endpoint /export
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExportControllerTest {
+    /**
+     * Service mocké pour isoler le controller
+     */
+    @Mock
+    private ExportService service;
+    /**
+     * Controller injecté avec le service mocké
+     */
+    @InjectMocks
+    private ExportController controller;
+    /**
+     * Outil permettant de simuler les requêtes HTTP
+     */
+    private MockMvc mockMvc;
+
+    /**
+     * Initialise MockMvc avant chaque test avec le GlobalExceptionHandler configuré
+     */
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+    }
+
+    /**
+     * Vérifie que l'export est écrit au format data.json par défaut, en pièce jointe
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void export_shouldWriteDatasetByDefault() throws Exception {
+        mockMvc.perform(get("/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"data.json\""));
+
+        verify(service).exportDataset(any(OutputStream.class));
+        verify(service, never()).exportNdjson(any(OutputStream.class));
+    }
+
+    /**
+     * Vérifie que l'export est écrit en NDJSON lorsque le client l'accepte
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void export_acceptNdjson_shouldWriteLines() throws Exception {
+        mockMvc.perform(get("/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"data.ndjson\""));
+
+        verify(service).exportNdjson(any(OutputStream.class));
+    }
+
+    /**
+     * Vérifie que le NDJSON refusé par une qualité nulle ou moins bien classé que le JSON n'est pas retenu,
+     * et qu'il l'emporte sur un joker de même qualité
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void export_acceptWithQualities_shouldRespectPreference() throws Exception {
+        mockMvc.perform(get("/export").header(HttpHeaders.ACCEPT, "application/json, application/x-ndjson;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/export").header(HttpHeaders.ACCEPT, "application/x-ndjson;q=0.5, application/json;q=0.9"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/export").header(HttpHeaders.ACCEPT, "*/*, application/x-ndjson"))
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        verify(service, times(2)).exportDataset(any(OutputStream.class));
+        verify(service).exportNdjson(any(OutputStream.class));
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.safetynet_alerts.controller;
 
+import com.openclassrooms.safetynet_alerts.dto.FireAddressDTO;
 import com.openclassrooms.safetynet_alerts.dto.FireDTO;
 import com.openclassrooms.safetynet_alerts.dto.ResidentInfoDTO;
 import com.openclassrooms.safetynet_alerts.service.FireService;
@@ -118,4 +119,42 @@ public class FireControllerTest {
                 .andExpect(content().string("Internal server error"));
     }
 
+    /**
+     * Vérifie qu'une adresse contenant une virgule est transmise entière au service, et que les adresses
+     * répétées sont transmises dans l'ordre de la demande
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getFireByAddresses_withCommaInAddress_shouldNotSplitIt() throws Exception {
+        String address = "1509 Culver St, Apt 2";
+        FireAddressDTO fire = new FireAddressDTO(address, new FireDTO(List.of(), "3"), null);
+        FireAddressDTO other = new FireAddressDTO("29 15th St", new FireDTO(List.of(), "2"), null);
+
+        when(service.getFireByAddresses(List.of(address))).thenReturn(List.of(fire));
+        when(service.getFireByAddresses(List.of(address, "29 15th St"))).thenReturn(List.of(fire, other));
+
+        mockMvc.perform(get("/fire/batch")
+                        .param("address", address))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].address").value(address));
+
+        mockMvc.perform(get("/fire/batch")
+                        .param("address", address, "29 15th St"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].address").value("29 15th St"));
+    }
+
+    /**
+     * Vérifie que l'endpoint retourne une erreur 400 lorsqu'aucune adresse n'est transmise
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getFireByAddresses_withoutAddress_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/fire/batch"))
+                .andExpect(status().isBadRequest());
+    }
+
 }
@@ -0,0 +1,97 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.dto.ImportReportDTO;
+import com.openclassrooms.safetynet_alerts.service.ImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Classe de test du {@link ImportController}
+ * <p>
+ * Cette classe vérifie le bon fonctionnement de l'endpoint /import
+ */
+@ExtendWith(MockitoExtension.class)
+public class ImportControllerTest {
+    /**
+     * Service mocké pour isoler le controller
+     */
+    @Mock
+    private ImportService service;
+    /**
+     * Controller injecté avec le service mocké
+     */
+    @InjectMocks
+    private ImportController controller;
+    /**
+     * Outil permettant de simuler les requêtes HTTP
+     */
+    private MockMvc mockMvc;
+
+    /**
+     * Initialise MockMvc avant chaque test avec le GlobalExceptionHandler configuré
+     */
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+    }
+
+    /**
+     * Vérifie qu'un contenu NDJSON est transmis au service et que le bilan de l'import est retourné
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void importNdjson_shouldReturnReport() throws Exception {
+        ImportReportDTO report = new ImportReportDTO(3, 1, 1, 1, 10, 300, List.of("line 2: invalid JSON record"), true, null);
+        when(service.importNdjson(any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/import").contentType(MediaType.APPLICATION_NDJSON).content("{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(3))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0]").value("line 2: invalid JSON record"));
+    }
+
+    /**
+     * Vérifie qu'un contenu data.json illisible retourne le bilan avec un statut 400
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void importDataset_interrupted_shouldReturn400() throws Exception {
+        ImportReportDTO report = new ImportReportDTO(0, 0, 0, 0, 1, 0, List.of(), true, "Content must start with a JSON object");
+        when(service.importDataset(any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/import").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Content must start with a JSON object"));
+    }
+
+    /**
+     * Vérifie que l'avancement retourne 204 tant qu'aucun import n'a eu lieu
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getProgress_withoutImport_shouldReturn204() throws Exception {
+        when(service.getProgress()).thenReturn(null);
+
+        mockMvc.perform(get("/import")).andExpect(status().isNoContent());
+    }
+}
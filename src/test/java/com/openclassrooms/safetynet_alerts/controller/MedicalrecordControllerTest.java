@@ -7,11 +7,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
 import java.util.List;
@@ -33,6 +35,11 @@ public class MedicalrecordControllerTest {
      */
     @Mock
     private MedicalrecordService service;
+    /**
+     * Écrivain en flux réel, pour vérifier le JSON produit
+     */
+    @Spy
+    private RecordStreamWriter recordStreamWriter = new RecordStreamWriter(JsonMapper.builder().build());
     /**
      * Controller injecté avec le service mocké
      */
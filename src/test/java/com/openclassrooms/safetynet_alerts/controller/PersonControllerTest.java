@@ -1,21 +1,25 @@
 package com.openclassrooms.safetynet_alerts.controller;
 
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.Page;
 import com.openclassrooms.safetynet_alerts.service.PersonService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,6 +37,11 @@ public class PersonControllerTest {
      */
     @Mock
     private PersonService service;
+    /**
+     * Écrivain en flux réel, pour vérifier le JSON produit
+     */
+    @Spy
+    private RecordStreamWriter recordStreamWriter = new RecordStreamWriter(JsonMapper.builder().build());
     /**
      * Controller injecté avec le service mocké
      */
@@ -91,6 +100,65 @@ public class PersonControllerTest {
                 .andExpect(jsonPath("$[0].phone").value("123-456-789"));
     }
 
+    /**
+     * Vérifie que l'endpoint GET /person écrit une personne par ligne lorsque le client accepte le NDJSON.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getAllPersons_acceptNdjson_shouldWriteOnePersonPerLine() throws Exception {
+        PersonModel p1 = new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com");
+        PersonModel p2 = new PersonModel("Cons", "Snoc", "77 Paris", "Paris", "77000", "111-222-333", "Cons@mail.com");
+        when(service.getAllPersons()).thenReturn(List.of(p1, p2));
+
+        String body = mockMvc.perform(get("/person")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readValue(lines[0], PersonModel.class).getFirstName()).isEqualTo("Samy");
+        assertThat(mapper.readValue(lines[1], PersonModel.class).getFirstName()).isEqualTo("Cons");
+    }
+
+    /**
+     * Vérifie que l'endpoint GET /person n'écrit qu'une page, réduite aux champs demandés,
+     * avec le curseur de la page suivante en en-tête.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getAllPersons_withCursorAndFields_shouldWriteProjectedPage() throws Exception {
+        PersonModel p1 = new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com");
+        when(service.getPersonsPage(12L, 1)).thenReturn(new Page<>(List.of(p1), 13L));
+
+        mockMvc.perform(get("/person")
+                        .param("cursor", "12")
+                        .param("limit", "1")
+                        .param("fields", "firstName,lastName,phone"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RecordStreamWriter.NEXT_CURSOR_HEADER, "13"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].length()").value(3))
+                .andExpect(jsonPath("$[0].firstName").value("Samy"))
+                .andExpect(jsonPath("$[0].phone").value("123-456-789"))
+                .andExpect(jsonPath("$[0].address").doesNotExist());
+    }
+
+    /**
+     * Vérifie que l'endpoint GET /person retourne 400 lorsque le curseur n'est pas valide.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getAllPersons_invalidCursor_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/person").param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Vérifie que l'endpoint GET /person retourne un statut HTTP 500 lorsque le service lève une IOException.
      *
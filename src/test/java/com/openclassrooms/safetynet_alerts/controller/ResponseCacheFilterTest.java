@@ -0,0 +1,137 @@
+package com.openclassrooms.safetynet_alerts.controller;
+
+import com.openclassrooms.safetynet_alerts.dto.FireDTO;
+import com.openclassrooms.safetynet_alerts.dto.ResidentInfoDTO;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.service.FireService;
+import com.openclassrooms.safetynet_alerts.service.ResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Classe de test du {@link ResponseCacheFilter}
+ * <p>
+ * Cette classe vérifie, sur l'endpoint /fire, que la réponse sérialisée est servie depuis le cache
+ * pour une adresse normalisée identique, sans rappeler le service.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ResponseCacheFilterTest {
+
+    @Mock
+    private FireService service;
+
+    @Mock
+    private DataStore dataStore;
+
+    private MockMvc mockMvc;
+
+    /**
+     * Initialise MockMvc avec le filtre, l'intercepteur d'ETag et une horloge réglée au 17/10/2026
+     */
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(LocalDate.of(2026, 10, 17).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        DatasetEtagInterceptor interceptor = new DatasetEtagInterceptor(dataStore, clock);
+        ResponseCache responseCache = new ResponseCache(dataStore, clock, 1024 * 1024, true);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FireController(service))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(interceptor)
+                .addFilters(new ResponseCacheFilter(responseCache, interceptor))
+                .build();
+    }
+
+    /**
+     * Vérifie qu'une seconde requête sur la même adresse, écrite autrement, est servie depuis le cache.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_sameNormalizedAddress_shouldBeServedFromCache() throws Exception {
+        ResidentInfoDTO resident = new ResidentInfoDTO("Boyd", "841-874-6512", 42, List.of("aznol:350mg"), List.of("nillacilan"));
+        when(service.getFireByAddress("1509 Culver St")).thenReturn(new FireDTO(List.of(resident), "3"));
+
+        mockMvc.perform(get("/fire").param("address", "1509 Culver St"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stationNumber").value("3"));
+
+        mockMvc.perform(get("/fire").param("address", " 1509  culver st"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.stationNumber").value("3"))
+                .andExpect(jsonPath("$.residents[0].lastName").value("Boyd"));
+
+        verify(service, times(1)).getFireByAddress("1509 Culver St");
+    }
+
+    /**
+     * Vérifie qu'une réponse servie depuis le cache reste soumise à l'ETag courant.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_cachedWithCurrentEtag_shouldReturn304() throws Exception {
+        when(service.getFireByAddress("1509 Culver St")).thenReturn(new FireDTO(List.of(), "3"));
+
+        String etag = mockMvc.perform(get("/fire").param("address", "1509 Culver St"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/fire").param("address", "1509 Culver St").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(service, times(1)).getFireByAddress("1509 Culver St");
+    }
+
+    /**
+     * Vérifie que la variante gzip n'est servie que si l'en-tête Accept-Encoding l'accepte avec une qualité non nulle,
+     * et que chaque variante porte Vary: Accept-Encoding.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void get_cachedGzipVariant_shouldFollowAcceptEncodingQuality() throws Exception {
+        List<ResidentInfoDTO> residents = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            residents.add(new ResidentInfoDTO("Boyd" + i, "841-874-6512", 42, List.of("aznol:350mg"), List.of("nillacilan")));
+        }
+        when(service.getFireByAddress("1509 Culver St")).thenReturn(new FireDTO(residents, "3"));
+
+        mockMvc.perform(get("/fire").param("address", "1509 Culver St"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept-Encoding"));
+
+        for (String acceptEncoding : List.of("gzip", "*", "br, gzip;q=0.5", "identity;q=0.5, gzip")) {
+            mockMvc.perform(get("/fire").param("address", "1509 Culver St").header("Accept-Encoding", acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andExpect(header().string("Vary", "Accept-Encoding"));
+        }
+        for (String acceptEncoding : List.of("gzip;q=0", "identity", "*;q=0, identity", "gzip;q=0.5, identity", "xgzip")) {
+            mockMvc.perform(get("/fire").param("address", "1509 Culver St").header("Accept-Encoding", acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Content-Encoding"))
+                    .andExpect(header().string("Vary", "Accept-Encoding"))
+                    .andExpect(jsonPath("$.residents[39].lastName").value("Boyd39"));
+        }
+
+        verify(service, times(1)).getFireByAddress("1509 Culver St");
+    }
+}
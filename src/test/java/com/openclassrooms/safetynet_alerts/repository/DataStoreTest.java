@@ -0,0 +1,398 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires du {@link DataStore}
+ * <p>
+ * Cette classe vérifie que le fichier {@code data/data.json} est chargé une seule fois
+ * et que les repositories lisent les données partagées en mémoire.
+ */
+public class DataStoreTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+    private MutationJournal mutationJournal;
+
+    /**
+     * Charge le jeu de données du classpath avant chaque méthode, le fichier externe n'existant pas encore
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        mutationJournal = new MutationJournal(dataStore, new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+    }
+
+    /**
+     * Vérifie que les trois sections du fichier sont chargées et comptées.
+     */
+    @Test
+    void load_shouldExposeRecordCounts() {
+        assertThat(dataStore.getPersonCount()).isEqualTo(23);
+        assertThat(dataStore.getFirestationCount()).isEqualTo(13);
+        assertThat(dataStore.getMedicalrecordCount()).isEqualTo(23);
+        assertThat(dataStore.getLoadTimeMillis()).isGreaterThanOrEqualTo(0);
+    }
+
+    /**
+     * Vérifie que plusieurs lectures via les repositories ne relisent pas le fichier.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void findAll_calledSeveralTimes_shouldParseFileOnlyOnce() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        FirestationRepository firestationRepository = new FirestationRepository(dataStore, mutationJournal);
+        MedicalrecordRepository medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+
+        for (int i = 0; i < 3; i++) {
+            personRepository.findAll();
+            firestationRepository.findAll();
+            medicalrecordRepository.findAll();
+        }
+
+        assertThat(dataStore.getLoadCount()).isEqualTo(1);
+    }
+
+    /**
+     * Vérifie que la liste retournée ne peut pas être modifiée et que seules les méthodes d'écriture
+     * du repository modifient les données partagées.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void add_shouldModifySharedPersons() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        PersonModel person = new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com");
+
+        List<PersonModel> persons = personRepository.findAll();
+        assertThatThrownBy(() -> persons.add(person)).isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(personRepository.findAll()).hasSize(23);
+
+        personRepository.add(person);
+
+        assertThat(personRepository.findAll()).hasSize(24);
+        assertThat(dataStore.getPersonCount()).isEqualTo(24);
+        assertThat(dataStore.getSequence()).isEqualTo(1);
+    }
+
+    /**
+     * Vérifie qu'une mise à jour remplace l'élément sans modifier l'instance déjà retournée.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void update_shouldReplaceElementWithoutMutatingPreviousInstance() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        PersonModel before = personRepository.findAll().get(0);
+        String address = before.getAddress();
+
+        boolean updated = personRepository.update(new PersonModel(before.getFirstName(), before.getLastName(),
+                "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"));
+
+        assertThat(updated).isTrue();
+        assertThat(before.getAddress()).isEqualTo(address);
+        assertThat(personRepository.findAll().get(0).getAddress()).isEqualTo("77 Paris");
+    }
+
+    /**
+     * Vérifie que l'index des foyers normalise les adresses et reste à jour après un ajout,
+     * un déménagement et une suppression.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void findByAddress_shouldFollowAddUpdateAndDelete() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+
+        assertThat(personRepository.findByAddress("  1509   CULVER st ")).hasSize(5);
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "1509 Culver St", "Culver", "97451", "123-456-789", "Samy@mail.com"));
+        assertThat(personRepository.findByAddress("1509 Culver St")).hasSize(6);
+
+        personRepository.update(new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"));
+        assertThat(personRepository.findByAddress("1509 Culver St")).hasSize(5);
+        assertThat(personRepository.findByAddress("77 paris")).extracting(PersonModel::getFirstName).containsExactly("Samy");
+
+        personRepository.delete("Samy", "Ymas");
+        assertThat(personRepository.findByAddress("77 Paris")).isEmpty();
+    }
+
+    /**
+     * Vérifie que les index adresse/caserne retiennent la dernière association d'une adresse,
+     * dédoublonnent les adresses d'une caserne et suivent les ajouts, mises à jour et suppressions.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void firestationIndexes_shouldFollowAddUpdateAndDelete() throws Exception {
+        FirestationRepository firestationRepository = new FirestationRepository(dataStore, mutationJournal);
+
+        assertThat(firestationRepository.findStationByAddress("112 steppes pl")).isEqualTo("4");
+        assertThat(firestationRepository.findAddressesByStation("3")).containsOnlyOnce("748 Townings Dr");
+
+        firestationRepository.add(new FirestationModel("77 Paris", "5"));
+        assertThat(firestationRepository.findAddressesByStation("5")).containsExactly("77 Paris");
+
+        firestationRepository.update(new FirestationModel("77 Paris", "6"));
+        assertThat(firestationRepository.findAddressesByStation("5")).isEmpty();
+        assertThat(firestationRepository.findStationByAddress("77 Paris")).isEqualTo("6");
+
+        firestationRepository.delete(null, "4");
+        assertThat(firestationRepository.findStationByAddress("112 Steppes Pl")).isEqualTo("3");
+        assertThat(firestationRepository.findAddressesByStation("4")).isEmpty();
+
+        firestationRepository.delete("77 Paris", null);
+        assertThat(firestationRepository.findStationByAddress("77 Paris")).isNull();
+    }
+
+    /**
+     * Vérifie que l'index des noms retrouve une famille sans tenir compte de la casse, avec les dossiers médicaux,
+     * et suit les ajouts, changements de nom et suppressions.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void findFamily_shouldJoinMedicalrecordsAndFollowChanges() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+
+        List<FamilyMember> family = personRepository.findFamily(" BOYD");
+        assertThat(family).extracting(member -> member.person().getFirstName())
+                .containsExactly("John", "Jacob", "Tenley", "Roger", "Felicia", "Allison");
+        assertThat(family.get(0).medicalrecord().getBirthdate()).isEqualTo("03/06/1984");
+
+        personRepository.add(new PersonModel("Samy", "Boyd", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"));
+        assertThat(personRepository.findFamily("boyd")).hasSize(7).last()
+                .satisfies(member -> assertThat(member.medicalrecord()).isNull());
+        assertThat(dataStore.findPersonsByName("samy", "BOYD")).extracting(PersonModel::getAddress).containsExactly("77 Paris");
+
+        personRepository.delete("John", "Boyd");
+        assertThat(personRepository.findFamily("Boyd")).extracting(member -> member.person().getFirstName())
+                .doesNotContain("John").hasSize(6);
+        assertThat(personRepository.findFamily("Unknown")).isEmpty();
+    }
+
+    /**
+     * Vérifie que l'index des villes retourne des adresses e-mail distinctes, ignore les adresses nulles
+     * et ne retire une adresse partagée qu'avec son dernier résident.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void findEmailsByCity_shouldKeepDistinctEmailsAcrossChanges() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+
+        assertThat(personRepository.findEmailsByCity(" CULVER")).hasSize(15).doesNotHaveDuplicates()
+                .startsWith("jaboyd@email.com", "drk@email.com", "tenz@email.com");
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "1", "jaboyd@email.com"));
+        personRepository.add(new PersonModel("Cons", "Snoc", "77 Paris", "PARIS", "77000", "2", "jaboyd@email.com"));
+        personRepository.add(new PersonModel("Null", "Llun", "77 Paris", "Paris", "77000", "3", null));
+        assertThat(personRepository.findEmailsByCity("paris")).containsExactly("jaboyd@email.com");
+
+        personRepository.delete("Samy", "Ymas");
+        assertThat(personRepository.findEmailsByCity("Paris")).containsExactly("jaboyd@email.com");
+
+        personRepository.update(new PersonModel("Cons", "Snoc", "1 Lyon", "Lyon", "69000", "2", "cons@mail.com"));
+        assertThat(personRepository.findEmailsByCity("Paris")).isEmpty();
+        assertThat(personRepository.findEmailsByCity("Lyon")).containsExactly("cons@mail.com");
+        assertThat(personRepository.findEmailsByCity("Culver")).hasSize(15);
+    }
+
+    /**
+     * Vérifie que l'index des téléphones par caserne retourne des numéros distincts et suit les modifications
+     * des personnes et des associations, y compris pour une adresse associée deux fois à la même caserne.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void findPhonesByStation_shouldKeepDistinctPhonesAcrossChanges() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        FirestationRepository firestationRepository = new FirestationRepository(dataStore, mutationJournal);
+
+        //les cinq résidents de 1509 Culver St partagent 841-874-6512
+        assertThat(personRepository.findPhonesByStation("3")).doesNotHaveDuplicates().hasSize(7)
+                .startsWith("841-874-6512", "841-874-6513", "841-874-6544");
+        assertThat(personRepository.findPhonesByStation("1")).hasSize(4);
+        assertThat(personRepository.findPhonesByStation("99")).isEmpty();
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "748 Townings Dr", "Culver", "97451", "000-000-0000", "Samy@mail.com"));
+        firestationRepository.add(new FirestationModel("748 Townings Dr", "3"));
+        assertThat(personRepository.findPhonesByStation("3")).containsOnlyOnce("000-000-0000").hasSize(8);
+
+        firestationRepository.update(new FirestationModel("748 Townings Dr", "5"));
+        assertThat(personRepository.findPhonesByStation("3")).contains("000-000-0000");
+        assertThat(personRepository.findPhonesByStation("5")).contains("000-000-0000");
+
+        firestationRepository.delete("748 Townings Dr", null);
+        assertThat(personRepository.findPhonesByStation("3")).doesNotContain("000-000-0000", "841-874-6741").hasSize(6);
+        assertThat(personRepository.findPhonesByStation("5")).isEmpty();
+
+        personRepository.update(new PersonModel("Samy", "Ymas", "1509 Culver St", "Culver", "97451", "841-874-6512", "Samy@mail.com"));
+        personRepository.delete("John", "Boyd");
+        assertThat(personRepository.findPhonesByStation("3")).contains("841-874-6512").hasSize(6);
+    }
+
+    /**
+     * Vérifie qu'un état lu avant une modification reste inchangé, et que les observateurs reçoivent
+     * le nouvel état avant qu'il ne soit publié aux lecteurs.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void snapshot_shouldStayUnchangedAndBePublishedAfterListeners() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        DataSnapshot pinned = dataStore.snapshot();
+
+        List<DataSnapshot> published = new ArrayList<>();
+        dataStore.addListener(new DataStoreListener() {
+            @Override
+            public void personChanged(DataSnapshot snapshot, PersonModel before, PersonModel after) {
+                published.add(dataStore.snapshot());
+                assertThat(snapshot.findPersonsByAddress("77 Paris")).containsExactly(after);
+            }
+        });
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"));
+
+        assertThat(published).containsExactly(pinned);
+        assertThat(pinned.getVersion()).isZero();
+        assertThat(pinned.getPersons()).hasSize(23);
+        assertThat(pinned.findPersonsByAddress("77 Paris")).isEmpty();
+
+        DataSnapshot current = dataStore.snapshot();
+        assertThat(current.getVersion()).isEqualTo(1);
+        assertThat(current.findPersonsByAddress("77 paris")).extracting(PersonModel::getFirstName).containsExactly("Samy");
+    }
+
+    /**
+     * Vérifie qu'une écriture ne recopie que ce qu'elle touche : les listes et les groupes d'index
+     * qu'elle ne modifie pas sont partagés avec l'état précédent, qui reste inchangé.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void apply_shouldShareUntouchedDataWithPreviousSnapshot() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        DataSnapshot pinned = dataStore.snapshot();
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "1509 Culver St", "Culver", "97451", "123-456-789", "Samy@mail.com"));
+
+        DataSnapshot current = dataStore.snapshot();
+        assertThat(current.getFirestations()).isSameAs(pinned.getFirestations());
+        assertThat(current.getMedicalrecords()).isSameAs(pinned.getMedicalrecords());
+        assertThat(current.findPersonsByAddress("29 15th St")).isSameAs(pinned.findPersonsByAddress("29 15th St"));
+        assertThat(current.findPhonesByStation("1")).isSameAs(pinned.findPhonesByStation("1"));
+
+        assertThat(current.findPersonsByAddress("1509 Culver St")).hasSize(6);
+        assertThat(current.findPhonesByStation("3")).contains("123-456-789");
+        assertThat(pinned.findPersonsByAddress("1509 Culver St")).hasSize(5);
+        assertThat(pinned.findPhonesByStation("3")).doesNotContain("123-456-789");
+        assertThat(pinned.findEmailsByCity("Culver")).doesNotContain("Samy@mail.com");
+    }
+
+    /**
+     * Vérifie que, de plusieurs ajouts simultanés de la même personne, un seul est appliqué et journalisé :
+     * l'existence est vérifiée au moment d'appliquer l'ajout, sous le verrou des données.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void add_concurrentDuplicates_shouldApplyOnlyOne() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> personRepository.add(
+                        new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"))));
+            }
+            int added = 0;
+            for (Future<Boolean> result : results) {
+                added += result.get() ? 1 : 0;
+            }
+
+            assertThat(added).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(dataStore.findPersonsByName("Samy", "Ymas")).hasSize(1);
+        assertThat(mutationJournal.getEntryCount()).isEqualTo(1);
+        assertThat(personRepository.add(new PersonModel("Samy", "Ymas", null, null, null, null, null))).isFalse();
+    }
+
+    /**
+     * Vérifie qu'après la suppression d'un dossier médical, un homonyme restant devient
+     * le dossier retenu pour ce nom, sans que l'index des noms soit reconstruit.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void deleteMedicalrecord_shouldFallBackToRemainingHomonym() throws Exception {
+        MedicalrecordRepository medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+        medicalrecordRepository.add(new MedicalrecordModel("JOHN", "BOYD", "01/01/2000", List.of(), List.of()));
+        DataSnapshot pinned = dataStore.snapshot();
+
+        medicalrecordRepository.delete("John", "Boyd");
+
+        assertThat(medicalrecordRepository.findByName("john", "boyd").getFirstName()).isEqualTo("JOHN");
+        assertThat(pinned.findMedicalrecord("john", "boyd").getFirstName()).isEqualTo("John");
+        assertThat(dataStore.snapshot().getMedicalrecords()).hasSize(23);
+    }
+
+    /**
+     * Vérifie qu'une page reprend après le dernier enregistrement de la précédente,
+     * sans décalage lorsque des personnes sont supprimées, modifiées ou ajoutées entre deux pages.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void pagePersons_shouldResumeAfterCursorAcrossChanges() throws Exception {
+        PersonRepository personRepository = new PersonRepository(dataStore, mutationJournal);
+        List<PersonModel> persons = dataStore.getPersons();
+
+        Page<PersonModel> first = dataStore.snapshot().pagePersons(0, 5);
+        assertThat(first.records()).isEqualTo(persons.subList(0, 5));
+
+        PersonModel deleted = persons.get(1);
+        PersonModel updated = persons.get(6);
+        personRepository.delete(deleted.getFirstName(), deleted.getLastName());
+        personRepository.update(new PersonModel(updated.getFirstName(), updated.getLastName(), "77 Paris", "Paris",
+                "77000", "123-456-789", "Samy@mail.com"));
+        personRepository.add(new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"));
+
+        Page<PersonModel> second = dataStore.snapshot().pagePersons(first.after(), 5);
+        assertThat(second.records()).extracting(PersonModel::getFirstName)
+                .containsExactlyElementsOf(persons.subList(5, 10).stream().map(PersonModel::getFirstName).toList());
+        assertThat(second.records().get(1).getAddress()).isEqualTo("77 Paris");
+
+        Page<PersonModel> last = dataStore.snapshot().pagePersons(first.after(), 100);
+        assertThat(last.after()).isNull();
+        assertThat(last.records()).hasSize(persons.size() - 5 + 1);
+        assertThat(last.records().get(last.records().size() - 1).getFirstName()).isEqualTo("Samy");
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires du {@link DatasetParser}
+ * <p>
+ * Cette classe vérifie la lecture en flux des trois sections du fichier {@code data.json}.
+ */
+public class DatasetParserTest {
+
+    private DatasetParser parser;
+
+    /**
+     * Initialise le lecteur avant chaque méthode
+     */
+    @BeforeEach
+    void setUp() {
+        parser = new DatasetParser(JsonMapper.builder().build());
+    }
+
+    /**
+     * Vérifie que chaque section est convertie en objets du modèle et que les sections inconnues sont ignorées.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void parse_shouldBindEachSectionAndSkipUnknownOnes() throws Exception {
+        String json = """
+                {
+                  "unknown": { "nested": [1, 2, {"a": "b"}] },
+                  "persons": [
+                    { "firstName":"Samy", "lastName":"Ymas", "address":"77 Paris", "city":"Paris", "zip":"77000", "phone":"123-456-789", "email":"Samy@mail.com" }
+                  ],
+                  "firestations": [ { "address":"77 Paris", "station":"1" } ],
+                  "medicalrecords": [
+                    { "firstName":"Samy", "lastName":"Ymas", "birthdate":"03/06/1975", "medications":["medication:50mg"], "allergies":["codeine"] }
+                  ]
+                }
+                """;
+
+        Dataset dataset = parser.parse(stream(json));
+
+        assertThat(dataset.getPersons()).hasSize(1);
+        assertThat(dataset.getPersons().get(0).getEmail()).isEqualTo("Samy@mail.com");
+        assertThat(dataset.getFirestations()).hasSize(1);
+        assertThat(dataset.getFirestations().get(0).getStation()).isEqualTo("1");
+        assertThat(dataset.getMedicalrecords()).hasSize(1);
+        assertThat(dataset.getMedicalrecords().get(0).getAllergies()).containsExactly("codeine");
+    }
+
+    /**
+     * Vérifie qu'une section absente ou nulle donne une liste vide.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void parse_whenSectionMissingOrNull_shouldReturnEmptyList() throws Exception {
+        Dataset dataset = parser.parse(stream("{ \"persons\": null }"));
+
+        assertThat(dataset.getPersons()).isEmpty();
+        assertThat(dataset.getFirestations()).isEmpty();
+        assertThat(dataset.getMedicalrecords()).isEmpty();
+    }
+
+    /**
+     * Vérifie qu'une section qui n'est pas un tableau est rejetée.
+     */
+    @Test
+    void parse_whenSectionIsNotAnArray_shouldThrowIOException() {
+        assertThatThrownBy(() -> parser.parse(stream("{ \"persons\": {} }")))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
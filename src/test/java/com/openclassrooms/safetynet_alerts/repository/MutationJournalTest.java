@@ -0,0 +1,283 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires du {@link MutationJournal}
+ * <p>
+ * Cette classe vérifie que les modifications sont journalisées, rejouées au redémarrage
+ * et repliées dans le fichier de données par le compacteur.
+ */
+public class MutationJournalTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataFile;
+    private Path journalFile;
+
+    /**
+     * Initialise les chemins du fichier de données et du journal avant chaque méthode
+     */
+    @BeforeEach
+    void setUp() {
+        dataFile = tempDir.resolve("data.json");
+        journalFile = tempDir.resolve("journal.ndjson");
+    }
+
+    private DataStore newDataStore() throws Exception {
+        return new DataStore(new DatasetParser(objectMapper), dataFile.toString());
+    }
+
+    private MutationJournal newJournal(DataStore dataStore, int compactionThreshold) throws Exception {
+        return new MutationJournal(dataStore, new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, journalFile.toString(), compactionThreshold);
+    }
+
+    private static PersonModel person(String firstName) {
+        return new PersonModel(firstName, "Last", "77 Paris", "Paris", "77000", "123-456-789", "mail@mail.com");
+    }
+
+    /**
+     * Vérifie que les modifications des trois sections sont retrouvées après un redémarrage
+     * sans que le fichier de données n'ait été écrit.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void record_thenRestart_shouldReplayJournal() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 1000);
+
+        journal.record(Mutation.addPerson(person("Samy")));
+        journal.record(Mutation.updatePerson(new PersonModel("Samy", "Last", "99 Lyon", "Lyon", "69000", "1", "new@mail.com")));
+        journal.record(Mutation.deletePerson("John", "Boyd"));
+        journal.record(Mutation.updateFirestation(new FirestationModel("1509 Culver St", "9")));
+        journal.record(Mutation.addMedicalrecord(new MedicalrecordModel("Samy", "Last", "01/01/2000", List.of(), List.of())));
+
+        assertThat(journal.record(Mutation.deletePerson("No", "One"))).isFalse();
+        assertThat(journal.getEntryCount()).isEqualTo(5);
+        assertThat(Files.exists(dataFile)).isFalse();
+
+        DataStore restarted = newDataStore();
+        newJournal(restarted, 1000);
+
+        assertThat(restarted.getSequence()).isEqualTo(5);
+        assertThat(restarted.getPersons()).extracting(PersonModel::getFirstName).contains("Samy").doesNotContain("John");
+        assertThat(restarted.getPersons()).filteredOn(p -> p.getFirstName().equals("Samy"))
+                .extracting(PersonModel::getAddress).containsExactly("99 Lyon");
+        assertThat(restarted.getFirestations()).filteredOn(f -> f.getAddress().equals("1509 Culver St"))
+                .extracting(FirestationModel::getStation).containsExactly("9");
+        assertThat(restarted.findMedicalrecord("samy", "last")).isNotNull();
+    }
+
+    /**
+     * Vérifie qu'au-delà du seuil le journal est replié dans le fichier de données,
+     * puis que seules les modifications postérieures sont rejouées.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void compact_shouldFoldJournalIntoDataFile() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 10);
+
+        for (int i = 0; i < 25; i++) {
+            journal.record(Mutation.addPerson(person("First" + i)));
+        }
+        journal.compact();
+
+        assertThat(journal.getCompactionCount()).isEqualTo(3);
+        assertThat(journal.getEntryCount()).isZero();
+        assertThat(Files.list(tempDir)).containsExactlyInAnyOrder(dataFile, journalFile);
+        try (InputStream inputStream = Files.newInputStream(dataFile)) {
+            Dataset dataset = new DatasetParser(objectMapper).parse(inputStream);
+            assertThat(dataset.getSequence()).isEqualTo(25);
+            assertThat(dataset.getPersons()).hasSize(48);
+        }
+
+        journal.record(Mutation.deletePerson("First0", "Last"));
+
+        DataStore restarted = newDataStore();
+        MutationJournal restartedJournal = newJournal(restarted, 10);
+
+        assertThat(restarted.getSequence()).isEqualTo(26);
+        assertThat(restarted.getPersonCount()).isEqualTo(47);
+        assertThat(restartedJournal.getEntryCount()).isEqualTo(1);
+    }
+
+    /**
+     * Vérifie qu'une dernière ligne incomplète, laissée par un arrêt brutal, est ignorée et retirée du journal.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void replay_withIncompleteLastLine_shouldIgnoreAndTruncateIt() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 1000);
+        journal.record(Mutation.addPerson(person("Samy")));
+        long size = Files.size(journalFile);
+
+        Files.writeString(journalFile, "{\"sequence\":2,\"type\":\"ADD_PE", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        DataStore restarted = newDataStore();
+        MutationJournal restartedJournal = newJournal(restarted, 1000);
+
+        assertThat(restarted.getSequence()).isEqualTo(1);
+        assertThat(restarted.getPersonCount()).isEqualTo(24);
+        assertThat(Files.size(journalFile)).isEqualTo(size);
+
+        restartedJournal.record(Mutation.addPerson(person("Cons")));
+
+        DataStore again = newDataStore();
+        newJournal(again, 1000);
+        assertThat(again.getPersonCount()).isEqualTo(25);
+    }
+
+    /**
+     * Vérifie que des écritures concurrentes sont toutes journalisées, dans l'ordre des séquences,
+     * avec au plus une synchronisation sur disque par écriture.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void record_concurrently_shouldGroupCommitsAndKeepSequenceOrder() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 100_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String firstName = "First" + i;
+            results.add(executor.submit(() -> journal.record(Mutation.addPerson(person(firstName)))));
+        }
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+        executor.shutdown();
+
+        assertThat(journal.getEntryCount()).isEqualTo(400);
+        assertThat(journal.getCommitCount()).isBetween(1L, 400L);
+
+        List<String> lines = Files.readAllLines(journalFile);
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(objectMapper.readValue(lines.get(i), Mutation.class).getSequence()).isEqualTo(i + 1);
+        }
+
+        DataStore restarted = newDataStore();
+        newJournal(restarted, 100_000);
+        assertThat(restarted.getPersonCount()).isEqualTo(423);
+    }
+
+    /**
+     * Vérifie qu'un lot est appliqué sous un seul numéro de séquence et écrit sur une seule ligne du journal,
+     * avec son bilan, puis rejoué entièrement au redémarrage.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void recordBatch_thenRestart_shouldWriteOneLineAndReplayWholeBatch() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 1000);
+        long sequence = dataStore.getSequence();
+
+        Mutation upsert = Mutation.upsertPersons(List.of(person("Samy"), person("Cons"), person("Samy"),
+                new PersonModel("John", "Boyd", "99 Lyon", "Lyon", "69000", "1", "new@mail.com")));
+        journal.record(upsert);
+        Mutation delete = Mutation.deleteMedicalrecords(List.of(
+                new MedicalrecordModel("John", "Boyd", null, null, null),
+                new MedicalrecordModel("No", "One", null, null, null)));
+        journal.record(delete);
+
+        assertThat(upsert.getResult()).isEqualTo(new BatchResult(2, 2, 0, 0));
+        assertThat(delete.getResult()).isEqualTo(new BatchResult(0, 0, 1, 0));
+        assertThat(dataStore.getSequence()).isEqualTo(sequence + 2);
+        assertThat(journal.getEntryCount()).isEqualTo(2);
+        assertThat(Files.readAllLines(journalFile)).hasSize(2).first().asString().doesNotContain("result");
+
+        DataStore restarted = newDataStore();
+        newJournal(restarted, 1000);
+
+        assertThat(restarted.getPersonCount()).isEqualTo(25);
+        assertThat(restarted.findPersonsByName("John", "Boyd")).extracting(PersonModel::getAddress).containsExactly("99 Lyon");
+        assertThat(restarted.findMedicalrecord("John", "Boyd")).isNull();
+        assertThat(restarted.getMedicalrecordCount()).isEqualTo(dataStore.getMedicalrecordCount());
+    }
+
+    /**
+     * Vérifie qu'un paquet portant les trois types d'enregistrement n'occupe qu'une ligne du journal
+     * et qu'il est rejoué entièrement au redémarrage.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void recordUpsertRecords_thenRestart_shouldWriteOneLineAndReplayAllTypes() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 1000);
+        long sequence = dataStore.getSequence();
+
+        Mutation upsert = Mutation.upsertRecords(List.of(person("Samy")),
+                List.of(new FirestationModel("77 Paris", "9"), new FirestationModel("1509 Culver St", "5")),
+                List.of(new MedicalrecordModel("Samy", "Last", "01/01/2000", List.of(), List.of())));
+        journal.record(upsert);
+
+        assertThat(upsert.getResult()).isEqualTo(new BatchResult(3, 1, 0, 0));
+        assertThat(dataStore.getSequence()).isEqualTo(sequence + 1);
+        assertThat(Files.readAllLines(journalFile)).hasSize(1);
+
+        DataStore restarted = newDataStore();
+        newJournal(restarted, 1000);
+
+        assertThat(restarted.findStationByAddress("77 Paris")).isEqualTo("9");
+        assertThat(restarted.findStationByAddress("1509 Culver St")).isEqualTo("5");
+        assertThat(restarted.findMedicalrecord("Samy", "Last")).isNotNull();
+        assertThat(restarted.getPersonCount()).isEqualTo(dataStore.getPersonCount());
+    }
+
+    /**
+     * Vérifie qu'une modification dont la ligne ne peut pas être écrite n'est jamais publiée :
+     * l'état, la séquence et les lectures restent ceux d'avant l'appel.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void record_whenJournalWriteFails_shouldNotPublishMutation() throws Exception {
+        DataStore dataStore = newDataStore();
+        MutationJournal journal = newJournal(dataStore, 1000);
+        journal.record(Mutation.addPerson(person("Samy")));
+        DataSnapshot before = dataStore.snapshot();
+
+        journal.destroy();
+
+        assertThatThrownBy(() -> journal.record(Mutation.addPerson(person("Cons")))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> journal.record(Mutation.deletePerson("Samy", "Last"))).isInstanceOf(IOException.class);
+
+        assertThat(dataStore.snapshot()).isSameAs(before);
+        assertThat(dataStore.getSequence()).isEqualTo(1);
+        assertThat(dataStore.findPersonsByName("Cons", "Last")).isEmpty();
+        assertThat(dataStore.findPersonsByName("Samy", "Last")).hasSize(1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.openclassrooms.safetynet_alerts.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires de la {@link PersistentTreeMap}
+ * <p>
+ * Cette classe compare la table à une {@link TreeMap} après une suite aléatoire d'ajouts et de suppressions,
+ * et vérifie que les versions précédentes restent inchangées.
+ */
+public class PersistentTreeMapTest {
+
+    /**
+     * Vérifie le contenu, l'accès par position et le rang après chaque modification,
+     * ainsi que l'intégrité des versions précédentes.
+     */
+    @Test
+    void randomChanges_shouldMatchTreeMapAndKeepPreviousVersions() {
+        Random random = new Random(42);
+        PersistentTreeMap<Long, String> map = PersistentTreeMap.empty();
+        TreeMap<Long, String> expected = new TreeMap<>();
+        List<PersistentTreeMap<Long, String>> versions = new ArrayList<>();
+        List<Map<Long, String>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            long key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                map = map.without(key);
+                expected.remove(key);
+            } else {
+                map = map.with(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+            if (i % 100 == 0) {
+                versions.add(map);
+                expectedVersions.add(new TreeMap<>(expected));
+            }
+        }
+
+        assertContent(map, expected);
+        assertThat(map.rank(250L)).isEqualTo(expected.headMap(250L, true).size());
+        for (int i = 0; i < versions.size(); i++) {
+            assertContent(versions.get(i), expectedVersions.get(i));
+        }
+    }
+
+    /**
+     * Vérifie qu'une {@link RecordList} construite d'un bloc numérote ses enregistrements dans l'ordre,
+     * puis se modifie et se pagine par identifiant.
+     */
+    @Test
+    void recordList_shouldBuildInOrderAndPageById() {
+        RecordList<String> records = RecordList.of(List.of("a", "b", "c", "d"), 10);
+
+        assertThat(records).containsExactly("a", "b", "c", "d");
+        assertThat(records.idAt(2)).isEqualTo(12);
+        assertThat(records.with(14, "e").without(11)).containsExactly("a", "c", "d", "e");
+        assertThat(records.page(11, 2).records()).containsExactly("c", "d");
+        assertThat(records.page(11, 2).after()).isNull();
+    }
+
+    private static void assertContent(PersistentTreeMap<Long, String> map, Map<Long, String> expected) {
+        assertThat(map.size()).isEqualTo(expected.size());
+        List<Long> keys = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(map.keyAt(i)).isEqualTo(keys.get(i));
+            assertThat(map.get(keys.get(i))).isEqualTo(expected.get(keys.get(i)));
+        }
+        List<String> values = new ArrayList<>();
+        map.values(0).forEachRemaining(values::add);
+        assertThat(values).containsExactlyElementsOf(expected.values());
+    }
+}
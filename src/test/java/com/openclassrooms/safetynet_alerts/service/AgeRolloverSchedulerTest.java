@@ -0,0 +1,168 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires de l'{@link AgeRolloverScheduler}
+ * <p>
+ * Cette classe vérifie, avec une horloge avancée jour par jour, que seuls les anniversaires échus
+ * des personnes mineures sont signalés, une seule fois et avec le bon âge.
+ */
+public class AgeRolloverSchedulerTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private MedicalrecordRepository medicalrecordRepository;
+    private MutableClock clock;
+    private AgeRolloverScheduler scheduler;
+    private final List<String> events = new ArrayList<>();
+
+    /**
+     * Charge le jeu de données du classpath et construit le planificateur au 17/10/2026 avant chaque méthode
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DataStore dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        MutationJournal mutationJournal = new MutationJournal(dataStore,
+                new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+
+        clock = new MutableClock(LocalDate.of(2026, 10, 17));
+        scheduler = new AgeRolloverScheduler(dataStore, clock);
+        scheduler.addListener((medicalrecord, age) -> events.add(medicalrecord.getFirstName() + "=" + age));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    private void addMedicalrecord(String firstName, String birthdate) throws Exception {
+        medicalrecordRepository.add(new MedicalrecordModel(firstName, "Ymas", birthdate, List.of(), List.of()));
+    }
+
+    /**
+     * Vérifie qu'un anniversaire n'est signalé qu'à sa date, puis que l'anniversaire suivant est planifié
+     * tant que la personne est mineure.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void advance_shouldSignalBirthdaysOnTheirDay() throws Exception {
+        addMedicalrecord("Samy", "10/18/2010");
+        addMedicalrecord("Cons", "10/18/2007");
+        addMedicalrecord("Adult", "10/18/1980");
+
+        scheduler.advance();
+        assertThat(events).isEmpty();
+
+        clock.setDate(LocalDate.of(2026, 10, 18));
+        scheduler.advance();
+        scheduler.advance();
+        assertThat(events).containsExactly("Samy=16", "Cons=19");
+
+        events.clear();
+        clock.setDate(LocalDate.of(2027, 10, 18));
+        scheduler.advance();
+        //Cons est devenu adulte et Adult était déjà majeur : seul l'anniversaire de Samy a été replanifié
+        assertThat(events).contains("Samy=17").noneMatch(event -> event.startsWith("Cons") || event.startsWith("Adult"));
+    }
+
+    /**
+     * Vérifie qu'une personne née un 29 février change d'âge le 1er mars des années non bissextiles.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void advance_withLeapDayBirthdate_shouldSignalOnFirstOfMarch() throws Exception {
+        addMedicalrecord("Samy", "02/29/2008");
+
+        clock.setDate(LocalDate.of(2027, 2, 28));
+        scheduler.advance();
+        assertThat(events).doesNotContain("Samy=19");
+
+        clock.setDate(LocalDate.of(2027, 3, 1));
+        scheduler.advance();
+        assertThat(events).contains("Samy=19");
+    }
+
+    /**
+     * Vérifie que l'anniversaire d'un dossier remplacé n'est plus signalé, seul celui du nouveau dossier l'est.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void advance_withReplacedMedicalrecord_shouldIgnoreStaleBirthday() throws Exception {
+        addMedicalrecord("Samy", "10/18/2010");
+        medicalrecordRepository.update(new MedicalrecordModel("Samy", "Ymas", "10/19/2010", List.of(), List.of()));
+
+        clock.setDate(LocalDate.of(2026, 10, 18));
+        scheduler.advance();
+        assertThat(events).isEmpty();
+
+        clock.setDate(LocalDate.of(2026, 10, 19));
+        scheduler.advance();
+        assertThat(events).containsExactly("Samy=16");
+    }
+
+    /**
+     * Vérifie que des remplacements répétés du même dossier ne font pas grossir la file des anniversaires.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void medicalrecordChanged_repeatedly_shouldKeepQueueBounded() throws Exception {
+        addMedicalrecord("Samy", "10/18/2010");
+        int scheduledCount = scheduler.getScheduledCount();
+
+        for (int i = 0; i < 500; i++) {
+            medicalrecordRepository.update(new MedicalrecordModel("Samy", "Ymas", "10/18/2010", List.of(), List.of()));
+        }
+
+        assertThat(scheduler.getScheduledCount()).isEqualTo(scheduledCount);
+        assertThat(scheduler.getQueueSize()).isLessThanOrEqualTo(2 * scheduledCount + 16);
+
+        clock.setDate(LocalDate.of(2026, 10, 18));
+        scheduler.advance();
+        assertThat(events).containsExactly("Samy=16");
+    }
+
+    /**
+     * Vérifie qu'après plusieurs jours sans passage, une personne n'est signalée qu'une fois, avec son dernier âge.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void advance_afterSeveralYears_shouldSignalLastAgeOnce() throws Exception {
+        addMedicalrecord("Samy", "10/18/2010");
+
+        clock.setDate(LocalDate.of(2029, 1, 1));
+        scheduler.advance();
+
+        assertThat(events).filteredOn(event -> event.startsWith("Samy")).containsExactly("Samy=18");
+    }
+}
@@ -0,0 +1,133 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitaires du {@link AgeService}
+ * <p>
+ * Cette classe vérifie le calcul de l'âge à partir du dossier médical retrouvé par prénom + nom,
+ * à l'unité et par lot, avec une horloge fixe.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AgeServiceTest {
+    /**
+     * Mock du repository des dossiers médicaux.
+     * Permet de simuler les données sans accéder à la source réelle.
+     */
+    @Mock
+    private MedicalrecordRepository medicalrecordRepository;
+    /**
+     * Instance du service testé, construite avec une horloge fixée au 17/10/2026.
+     */
+    private AgeService ageService;
+
+    private PersonModel samy;
+    private PersonModel cons;
+
+    /**
+     * Initialise les données de tests avant chaque méthode
+     */
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-17T10:00:00Z"), ZoneOffset.UTC);
+        ageService = new AgeService(medicalrecordRepository, clock);
+
+        samy = new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com");
+        cons = new PersonModel("Cons", "Snoc", "77 Paris", "Paris", "77000", "111-222-333", "Cons@mail.com");
+    }
+
+    /**
+     * Vérifie que l'âge est calculé à partir de la date de naissance du dossier médical.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void calculateAge_shouldReturnAgeFromBirthdate() throws Exception {
+        when(medicalrecordRepository.findByName("Samy", "Ymas"))
+                .thenReturn(new MedicalrecordModel("Samy", "Ymas", "10/18/2008", List.of(), List.of()));
+
+        assertThat(ageService.calculateAge(samy)).isEqualTo(17);
+        assertThat(ageService.isChild(samy)).isTrue();
+    }
+
+    /**
+     * Vérifie que l'âge vaut -1 lorsqu'aucun dossier médical n'est trouvé.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void calculateAge_whenNoMedicalrecord_shouldReturnMinusOne() throws Exception {
+        when(medicalrecordRepository.findByName("Samy", "Ymas")).thenReturn(null);
+
+        assertThat(ageService.calculateAge(samy)).isEqualTo(-1);
+    }
+
+    /**
+     * Vérifie que le calcul par lot retourne l'âge de chaque personne, dans l'ordre donné.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void calculateAges_shouldReturnAgeOfEachPerson() throws Exception {
+        when(medicalrecordRepository.findByName("Samy", "Ymas"))
+                .thenReturn(new MedicalrecordModel("Samy", "Ymas", "10/17/2008", List.of(), List.of()));
+        when(medicalrecordRepository.findByName("Cons", "Snoc"))
+                .thenReturn(new MedicalrecordModel("Cons", "Snoc", "03/06/1975", List.of(), List.of()));
+
+        Map<PersonModel, Integer> ages = ageService.calculateAges(List.of(samy, cons));
+
+        assertThat(ages).containsExactly(Map.entry(samy, 18), Map.entry(cons, 51));
+        assertThat(AgeService.isChildAge(ages.get(samy))).isTrue();
+        assertThat(AgeService.isAdultAge(ages.get(cons))).isTrue();
+        verify(medicalrecordRepository).findByName("Samy", "Ymas");
+        verify(medicalrecordRepository).findByName("Cons", "Snoc");
+    }
+
+    /**
+     * Vérifie qu'une personne née un 29 février n'a pas encore son anniversaire le 28 février d'une année non bissextile.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void calculateAge_withLeapDayBirthdate_shouldMatchCalendarYears() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2027-02-28T10:00:00Z"), ZoneOffset.UTC);
+        AgeService leapAgeService = new AgeService(medicalrecordRepository, clock);
+        when(medicalrecordRepository.findByName("Samy", "Ymas"))
+                .thenReturn(new MedicalrecordModel("Samy", "Ymas", "02/29/2008", List.of(), List.of()));
+
+        assertThat(leapAgeService.calculateAge(samy)).isEqualTo(18);
+        assertThat(AgeService.ageAt(20080229, 20260228)).isEqualTo(17);
+        assertThat(AgeService.ageAt(20080301, 20260301)).isEqualTo(18);
+    }
+
+    /**
+     * Vérifie qu'une date de naissance invalide lève toujours une erreur d'analyse.
+     */
+    @Test
+    void calculateAge_withInvalidBirthdate_shouldThrow() {
+        when(medicalrecordRepository.findByName("Samy", "Ymas"))
+                .thenReturn(new MedicalrecordModel("Samy", "Ymas", "2008-10-18", List.of(), List.of()));
+
+        assertThatThrownBy(() -> ageService.calculateAge(samy)).isInstanceOf(DateTimeParseException.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.dto.ChildAlertDTO;
+import com.openclassrooms.safetynet_alerts.dto.HouseholdMemberDTO;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires de la {@link ChildAlertView}
+ * <p>
+ * Cette classe vérifie, sur le jeu de données du classpath et avec une horloge réglée au 17/10/2026,
+ * que les enfants de chaque foyer, leur âge et les autres membres du foyer suivent les modifications
+ * et les anniversaires.
+ */
+public class ChildAlertViewTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private PersonRepository personRepository;
+    private MedicalrecordRepository medicalrecordRepository;
+    private MutableClock clock;
+    private ChildAlertView childAlertView;
+
+    /**
+     * Charge le jeu de données du classpath et construit la vue avant chaque méthode
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        DataStore dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        MutationJournal mutationJournal = new MutationJournal(dataStore,
+                new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        personRepository = new PersonRepository(dataStore, mutationJournal);
+        medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+
+        clock = new MutableClock(LocalDate.of(2026, 10, 17));
+        AgeRolloverScheduler ageRolloverScheduler = new AgeRolloverScheduler(dataStore, clock);
+        HouseholdView householdView = new HouseholdView(dataStore, new AgeService(medicalrecordRepository, clock),
+                ageRolloverScheduler, clock);
+        childAlertView = new ChildAlertView(householdView, ageRolloverScheduler);
+    }
+
+    /**
+     * Vérifie que chaque enfant est retourné avec son âge et les autres membres du foyer,
+     * et qu'un foyer sans enfant ou une adresse inconnue donnent une liste vide.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getChildren_shouldReturnChildrenWithOtherMembers() throws Exception {
+        List<ChildAlertDTO> children = childAlertView.getChildren(" 1509 culver st");
+
+        assertThat(children).extracting(ChildAlertDTO::getFirstName).containsExactly("Tenley", "Roger");
+        assertThat(children).extracting(ChildAlertDTO::getAge).containsExactly(14, 9);
+        assertThat(children.get(0).getHouseholdMembers()).extracting(HouseholdMemberDTO::getFirstName)
+                .containsExactly("John", "Jacob", "Roger", "Felicia");
+        assertThat(childAlertView.getChildren("1509 Culver St")).isSameAs(children);
+
+        assertThat(childAlertView.getChildren("644 Gershwin Cir")).isEmpty();
+        assertThat(childAlertView.getChildren("77 Paris")).isEmpty();
+    }
+
+    /**
+     * Vérifie qu'un déménagement met à jour le foyer quitté et le foyer rejoint.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void personChanges_shouldRefreshBothHouseholds() throws Exception {
+        //sans dossier médical, l'âge vaut -1 et la personne est comptée comme enfant
+        personRepository.add(new PersonModel("Samy", "Ymas", "892 Downing Ct", "Culver", "97451", "123-456-789", "Samy@mail.com"));
+        assertThat(childAlertView.getChildren("892 Downing Ct")).extracting(ChildAlertDTO::getFirstName)
+                .containsExactly("Zach", "Samy");
+
+        personRepository.update(new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com"));
+        assertThat(childAlertView.getChildren("892 Downing Ct")).extracting(ChildAlertDTO::getFirstName)
+                .containsExactly("Zach");
+        assertThat(childAlertView.getChildren("77 Paris")).extracting(ChildAlertDTO::getFirstName)
+                .containsExactly("Samy");
+
+        medicalrecordRepository.add(new MedicalrecordModel("Samy", "Ymas", "01/01/1990", List.of(), List.of()));
+        assertThat(childAlertView.getChildren("77 Paris")).isEmpty();
+    }
+
+    /**
+     * Vérifie qu'au changement de jour, l'âge d'un enfant dont c'est l'anniversaire est mis à jour.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void dayRollover_shouldUpdateChildAge() throws Exception {
+        clock.setDate(LocalDate.of(2027, 9, 5));
+        assertThat(childAlertView.getChildren("1509 Culver St")).extracting(ChildAlertDTO::getAge).containsExactly(15, 9);
+
+        clock.setDate(LocalDate.of(2027, 9, 6));
+        assertThat(childAlertView.getChildren("1509 Culver St")).extracting(ChildAlertDTO::getAge).containsExactly(15, 10);
+    }
+}
@@ -0,0 +1,117 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.Dataset;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.Mutation;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires du {@link ExportService}
+ * <p>
+ * Cette classe vérifie, sur le jeu de données du classpath, que l'export écrit l'état courant,
+ * en transmettant le fichier de données lorsqu'il porte la même séquence.
+ */
+public class ExportServiceTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataFile;
+    private DataStore dataStore;
+    private MutationJournal mutationJournal;
+    private ExportService exportService;
+
+    /**
+     * Charge le jeu de données du classpath et construit le service avant chaque méthode
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        dataFile = tempDir.resolve("data.json");
+        DatasetParser datasetParser = new DatasetParser(objectMapper);
+        DatasetWriter datasetWriter = new DatasetWriter(objectMapper);
+        dataStore = new DataStore(datasetParser, dataFile.toString());
+        mutationJournal = new MutationJournal(dataStore, new DataFilePersister(dataStore, datasetWriter),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        exportService = new ExportService(dataStore, datasetWriter, datasetParser);
+    }
+
+    private static PersonModel person(String firstName) {
+        return new PersonModel(firstName, "Last", "77 Paris", "Paris", "77000", "123-456-789", "mail@mail.com");
+    }
+
+    private Dataset exportDataset() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportDataset(outputStream);
+        return new DatasetParser(objectMapper).parse(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    /**
+     * Vérifie que le fichier de données est transmis tel quel tant qu'il porte la séquence courante,
+     * puis que l'état courant est sérialisé dès qu'une modification n'y est pas encore repliée.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void exportDataset_shouldServeDataFileOnlyAtCurrentSequence() throws Exception {
+        Dataset initial = exportDataset();
+        assertThat(initial.getSequence()).isZero();
+        assertThat(initial.getPersons()).hasSize(23);
+        assertThat(initial.getFirestations()).hasSize(dataStore.getFirestationCount());
+
+        mutationJournal.record(Mutation.addPerson(person("Samy")));
+        mutationJournal.compact();
+        String marker = "{\"sequence\":1,\"persons\":[]}";
+        Files.writeString(dataFile, marker, StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportDataset(outputStream);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(marker);
+
+        mutationJournal.record(Mutation.deletePerson("John", "Boyd"));
+
+        Dataset current = exportDataset();
+        assertThat(current.getSequence()).isEqualTo(2);
+        assertThat(current.getPersons()).hasSize(23)
+                .extracting(PersonModel::getFirstName).contains("Samy").doesNotContain("John");
+    }
+
+    /**
+     * Vérifie que l'export NDJSON écrit un élément par ligne, dans l'enveloppe lue par l'import.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void exportNdjson_shouldWriteOneEnvelopePerLine() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportNdjson(outputStream);
+
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertThat(lines).hasSize(dataStore.getPersonCount() + dataStore.getFirestationCount() + dataStore.getMedicalrecordCount());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("person").get("firstName").asString()).isEqualTo(dataStore.getPersons().get(0).getFirstName());
+        assertThat(objectMapper.readTree(lines.get(lines.size() - 1)).has("medicalrecord")).isTrue();
+    }
+}
@@ -1,13 +1,13 @@
 package com.openclassrooms.safetynet_alerts.service;
 
+import com.openclassrooms.safetynet_alerts.dto.FireAddressDTO;
 import com.openclassrooms.safetynet_alerts.dto.FireDTO;
 import com.openclassrooms.safetynet_alerts.dto.ResidentInfoDTO;
 import com.openclassrooms.safetynet_alerts.model.FirestationModel;
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
-import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -31,42 +33,28 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 public class FireServiceTest {
     /**
-     * Mock du repository des personnes.
-     * Permet de simuler les données sans accéder à la source réelle
+     * Mock du jeu de données.
+     * Retourne l'état simulé lu une seule fois par requête.
      */
     @Mock
-    private PersonRepository personRepository;
+    private DataStore dataStore;
     /**
-     * Mock du repository des casernes.
-     * Permet de simuler les données sans accéder à la source réelle
-     */
-    @Mock
-    private FirestationRepository firestationRepository;
-    /**
-     * Mock du repository des dossiers médicaux.
+     * Mock de l'état des données lu par la requête.
      * Permet de simuler les données sans accéder à la source réelle.
      */
     @Mock
-    private MedicalrecordRepository medicalrecordRepository;
+    private DataSnapshot snapshot;
     /**
-     * Mock du service de calcul d'âge.
-     * Permet de contrôler les retours de {@code calculateAge()}.
+     * Mock de la vue des foyers.
+     * Permet de contrôler les résidents retournés, avec leur âge et leur dossier médical.
      */
     @Mock
-    private AgeService ageService;
+    private HouseholdView householdView;
     /**
      * Instance du service testé avec injection automatique des mocks.
      */
     @InjectMocks
     private FireService fireService;
-    /**
-     * Liste simulée de personnes utilisée pour les tests.
-     */
-    private List<PersonModel> persons;
-    /**
-     * Liste simulée de dossiers médicaux utilisée pour les tests.
-     */
-    private List<MedicalrecordModel> medicalrecords;
     /**
      * Liste simulée de casernes utilisée pour les tests.
      */
@@ -81,7 +69,7 @@ public class FireServiceTest {
      */
     @BeforeEach
     void setUp() {
-        persons = new ArrayList<>();
+        when(dataStore.snapshot()).thenReturn(snapshot);
 
         p1 = new PersonModel();
         p1.setFirstName("Samy");
@@ -89,9 +77,6 @@ public class FireServiceTest {
         p1.setAddress("77 Paris");
         p1.setPhone("123-456-789");
 
-        persons.add(p1);
-
-        medicalrecords = new ArrayList<>();
 
         m1 = new MedicalrecordModel();
         m1.setFirstName("Samy");
@@ -99,8 +84,6 @@ public class FireServiceTest {
         m1.setMedications(List.of("medication:50mg"));
         m1.setAllergies(List.of("codeine"));
 
-        medicalrecords.add(m1);
-
         firestations = new ArrayList<>();
 
         f1 = new FirestationModel();
@@ -119,11 +102,10 @@ public class FireServiceTest {
      */
     @Test
     void getFireByAddress_shouldReturnDTO() throws Exception {
-        //on appelle les lists qu'on a configuré dans setUp
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
-        when(ageService.calculateAge(p1)).thenReturn(51);
+        //on appelle les données qu'on a configurées dans setUp
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(new Household("77 Paris",
+                List.of(new Household.Resident(p1, m1, 51, m1.getMedications(), m1.getAllergies())), 0, Long.MAX_VALUE));
+        when(snapshot.findStationByAddress("77 Paris")).thenReturn("1");
 
         //WHEN
         FireDTO result = fireService.getFireByAddress("77 Paris");
@@ -148,10 +130,7 @@ public class FireServiceTest {
      */
     @Test
     void getFireByAddress_whenNoResultForAddress_shouldReturnEmpty() throws Exception {
-        //on appelle les lists qu'on a configuré dans setUp
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
+        when(householdView.getHousehold(snapshot, "XYZ")).thenReturn(new Household("XYZ", List.of(), 0, Long.MAX_VALUE));
 
         //WHEN
         FireDTO result = fireService.getFireByAddress("XYZ");
@@ -169,9 +148,8 @@ public class FireServiceTest {
      */
     @Test
     void getFireByAddress_whenNobodyAtAddress_shouldReturnEmpty() throws Exception {
-        when(personRepository.findAll()).thenReturn(List.of());
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(new Household("77 Paris", List.of(), 0, Long.MAX_VALUE));
+        when(snapshot.findStationByAddress("77 Paris")).thenReturn("1");
 
         //WHEN
         FireDTO result = fireService.getFireByAddress("77 Paris");
@@ -189,10 +167,9 @@ public class FireServiceTest {
      */
     @Test
     void getFireByAddress_whenNoMedicalRecordIsFound_shouldReturnEmptyMedicalLists() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(medicalrecordRepository.findAll()).thenReturn(List.of());
-        when(ageService.calculateAge(p1)).thenReturn(51);
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(new Household("77 Paris",
+                List.of(new Household.Resident(p1, null, -1, List.of(), List.of())), 0, Long.MAX_VALUE));
+        when(snapshot.findStationByAddress("77 Paris")).thenReturn("1");
 
         //WHEN
         FireDTO result = fireService.getFireByAddress("77 Paris");
@@ -202,4 +179,35 @@ public class FireServiceTest {
         assertThat(resident.getMedications()).isEmpty();
         assertThat(resident.getAllergies()).isEmpty();
     }
+
+    /**
+     * Vérifie que le service retourne un résultat par adresse dans l'ordre de la demande,
+     * ne calcule qu'une fois une adresse répétée, et signale les adresses vides ou inconnues.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getFireByAddresses_shouldReturnOrderedResultsWithErrors() throws Exception {
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(new Household("77 Paris",
+                List.of(new Household.Resident(p1, m1, 51, m1.getMedications(), m1.getAllergies())), 0, Long.MAX_VALUE));
+        when(snapshot.findStationByAddress("77 Paris")).thenReturn("1");
+        when(householdView.getHousehold(snapshot, "XYZ")).thenReturn(new Household("XYZ", List.of(), 0, Long.MAX_VALUE));
+        when(snapshot.findStationByAddress("XYZ")).thenReturn(null);
+
+        //WHEN
+        List<FireAddressDTO> result = fireService.getFireByAddresses(List.of("XYZ", "77 Paris", " ", "77  paris"));
+
+        //THEN
+        assertThat(result).extracting(FireAddressDTO::getAddress).containsExactly("XYZ", "77 Paris", " ", "77  paris");
+        assertThat(result.get(0).getFire()).isNull();
+        assertThat(result.get(0).getError()).isEqualTo("Address not found");
+        assertThat(result.get(1).getError()).isNull();
+        assertThat(result.get(1).getFire().getStationNumber()).isEqualTo("1");
+        assertThat(result.get(1).getFire().getResidents()).hasSize(1);
+        assertThat(result.get(2).getError()).isEqualTo("Address is blank");
+        assertThat(result.get(3).getFire()).isSameAs(result.get(1).getFire());
+
+        verify(dataStore, times(1)).snapshot();
+        verify(householdView, times(1)).getHousehold(snapshot, "77 Paris");
+    }
 }
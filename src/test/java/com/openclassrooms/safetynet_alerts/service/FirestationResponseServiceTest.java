@@ -2,18 +2,12 @@ package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.dto.FirestationResponseDTO;
 import com.openclassrooms.safetynet_alerts.dto.PersonFirestationDTO;
-import com.openclassrooms.safetynet_alerts.model.FirestationModel;
-import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,134 +19,42 @@ import static org.mockito.Mockito.when;
  * Cette classe valide la logique métier de l'endpoint {@code /firestation?stationNumber={stationNumber}} :
  * à partir du numéro de caserne donné, on doit identifier les personnes couvertes par la caserne,
  * construire le {@link FirestationResponseDTO} contenant : la liste des personnes,
- * le nombre d'adultes et d'enfants
+ * le nombre d'adultes et d'enfants, lu dans la vue précalculée {@link StationCoverageView}
  */
 @ExtendWith(MockitoExtension.class)
 public class FirestationResponseServiceTest {
     /**
-     * Mock du repository des casernes.
+     * Mock de la vue précalculée des casernes.
      * Permet de simuler les données sans accéder à la source réelle.
      */
     @Mock
-    private FirestationRepository firestationRepository;
-    /**
-     * Mock du repository des personnes.
-     * Permet de simuler les données sans accéder à la source réelle.
-     */
-    @Mock
-    private PersonRepository personRepository;
-    /**
-     * Mock du service de calcul d'âge.
-     * Permet de contrôler les retours de {@code calculateAge()} et {@code isChild()}.
-     */
-    @Mock
-    private AgeService ageService;
+    private StationCoverageView stationCoverageView;
     /**
      * Instance du service à tester, avec injections des mocks.
      */
     @InjectMocks
     private FirestationResponseService firestationResponseService;
-    /**
-     * Données de test : liste complète de personnes simulées
-     */
-    private List<PersonModel> persons;
-    /**
-     * Données de test : liste complète de casernes simulées
-     */
-    private List<FirestationModel> firestations;
-    /**
-     * Personne mineure couverte par la caserne donnée
-     */
-    private PersonModel child;
-    /**
-     * Personne adulte couverte par la caserne donnée
-     */
-    private PersonModel adult;
-    /**
-     * Personne couverte par une autre caserne
-     */
-    private PersonModel other;
-    /**
-     * Caserne simulée (station "1") couvrant l'adresse "77 Paris".
-     */
-    private FirestationModel f1;
 
     /**
-     * Initialise les données de test avant chaque méthode.
-     *
-     */
-    @BeforeEach
-    void setUp() {
-        persons = new ArrayList<>();
-
-        child = new PersonModel();
-        child.setFirstName("Samy");
-        child.setLastName("Ymas");
-        child.setAddress("77 Paris");
-        child.setPhone("123-456-789");
-
-        persons.add(child);
-
-        adult = new PersonModel();
-        adult.setFirstName("Cons");
-        adult.setLastName("Snoc");
-        adult.setAddress("77 Paris");
-        adult.setPhone("111-222-333");
-
-
-        persons.add(adult);
-
-        other = new PersonModel();
-        other.setFirstName("Jimmy");
-        other.setLastName("Jonny");
-        other.setAddress("XYZ");
-        other.setEmail("Jonny@mail.com");
-
-        persons.add(other);
-        firestations = new ArrayList<>();
-
-        f1 = new FirestationModel();
-        f1.setAddress("77 Paris");
-        f1.setStation("1");
-
-        firestations.add(f1);
-    }
-
-    /**
-     * Vérifie que le service retourne correctement un {@link FirestationResponseDTO} lorsque :
-     * pour un numéro de caserne donné, on retrouve les personnes dont l'adresse du foyer est couverte
-     * et le comptage des enfants et des adultes du foyer a lieu.
+     * Vérifie que le service retourne le {@link FirestationResponseDTO} précalculé pour la caserne donnée.
      *
      * @throws Exception en cas d'erreur lors de l'exécution du test.
      */
     @Test
     void getPersonsCoveredByStation_shouldReturnDTO() throws Exception {
-        //on appelle les lists configurées dans setUp
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(ageService.isAdult(adult)).thenReturn(true);
-        when(ageService.isAdult(child)).thenReturn(false);
+        FirestationResponseDTO coverage = new FirestationResponseDTO(List.of(
+                new PersonFirestationDTO("Samy", "Ymas", "77 Paris", "123-456-789"),
+                new PersonFirestationDTO("Cons", "Snoc", "77 Paris", "111-222-333")), 1, 1);
+        when(stationCoverageView.getCoverage("1")).thenReturn(coverage);
 
         //WHEN
         FirestationResponseDTO result = firestationResponseService.getPersonsCoveredByStation("1");
 
         //THEN
-        assertThat(result).isNotNull();
+        assertThat(result).isSameAs(coverage);
         assertThat(result.getAdultCount()).isEqualTo(1);
         assertThat(result.getChildCount()).isEqualTo(1);
-
-        assertThat(result.getPersons()).hasSize(2);
-        assertThat(result.getPersons()).extracting(PersonFirestationDTO::getFirstName).containsExactlyInAnyOrder("Samy", "Cons");
-
-        //vérification DTO PersonFirestationDTO
-        PersonFirestationDTO samy = result.getPersons().stream()
-                .filter(p -> p.getFirstName().equals("Samy"))
-                .findFirst()
-                .orElseThrow();
-
-        assertThat(samy.getLastName()).isEqualTo("Ymas");
-        assertThat(samy.getAddress()).isEqualTo("77 Paris");
-        assertThat(samy.getPhone()).isEqualTo("123-456-789");
+        assertThat(result.getPersons()).extracting(PersonFirestationDTO::getFirstName).containsExactly("Samy", "Cons");
     }
 
     /**
@@ -162,9 +64,7 @@ public class FirestationResponseServiceTest {
      */
     @Test
     void getPersonsCoveredByStation_whenNoAddressMatchesStation_shouldReturnEmpty() throws Exception {
-        //on appelle les lists configurées dans setUp
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
+        when(stationCoverageView.getCoverage("99")).thenReturn(new FirestationResponseDTO(List.of(), 0, 0));
         //WHEN
         FirestationResponseDTO result = firestationResponseService.getPersonsCoveredByStation("99");
         //THEN
@@ -172,23 +72,4 @@ public class FirestationResponseServiceTest {
         assertThat(result.getAdultCount()).isEqualTo(0);
         assertThat(result.getChildCount()).isEqualTo(0);
     }
-
-    /**
-     * Vérifie que lorsque l'adresse couverte par la caserne ne contient aucun résident,
-     * le service renvoie une liste vide.
-     *
-     * @throws Exception en cas d'erreur lors de l'exécution du test.
-     */
-    @Test
-    void getPersonsCoveredByStation_whenNoPersonsAtAddress_shouldReturnEmpty() throws Exception {
-        //on appelle les données
-        when(personRepository.findAll()).thenReturn(List.of());
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        //WHEN
-        FirestationResponseDTO result = firestationResponseService.getPersonsCoveredByStation("1");
-        //THEN
-        assertThat(result.getPersons()).isEmpty();
-        assertThat(result.getChildCount()).isEqualTo(0);
-        assertThat(result.getAdultCount()).isEqualTo(0);
-    }
 }
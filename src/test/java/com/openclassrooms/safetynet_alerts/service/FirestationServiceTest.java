@@ -96,19 +96,20 @@ public class FirestationServiceTest {
      */
     @Test
     void addFirestation_whenAddressNotCovered_shouldAddAndSave() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
-
         FirestationModel toAdd = new FirestationModel();
         toAdd.setAddress("88 Lyon");
         toAdd.setStation("2");
 
+        when(firestationRepository.add(toAdd)).thenReturn(true);
+        when(firestationRepository.findAll()).thenReturn(List.of(f1, toAdd));
+
         List<FirestationModel> result = firestationService.addFirestation(toAdd);
 
         assertThat(result).hasSize(2);
         assertThat(result).extracting(FirestationModel::getAddress).containsExactlyInAnyOrder("77 Paris", "88 Lyon");
 
         verify(firestationRepository).findAll();
-        verify(firestationRepository).saveAll(anyList());
+        verify(firestationRepository).add(toAdd);
         verifyNoMoreInteractions(firestationRepository);
     }
 
@@ -119,18 +120,17 @@ public class FirestationServiceTest {
      */
     @Test
     void addFirestation_whenAddressAlreadyCovered_shouldThrow() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
-
         FirestationModel duplicate = new FirestationModel();
         duplicate.setStation("45");
         duplicate.setAddress("77 Paris");
+        //le repository rejette l'ajout : l'adresse est déjà associée à une caserne
+        when(firestationRepository.add(duplicate)).thenReturn(false);
 
         assertThatThrownBy(() -> firestationService.addFirestation(duplicate))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("address already covered by a station");
 
-        verify(firestationRepository).findAll();
-        verify(firestationRepository, never()).saveAll(anyList());
+        verify(firestationRepository).add(duplicate);
         verifyNoMoreInteractions(firestationRepository);
     }
 
@@ -141,38 +141,38 @@ public class FirestationServiceTest {
      */
     @Test
     void updateFirestation_whenAddressMatches_shouldReturnUpdatedStationAndSave() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
-
         FirestationModel updated = new FirestationModel();
         updated.setAddress("77 Paris");
         updated.setStation("3");
 
+        when(firestationRepository.update(updated)).thenReturn(true);
+        when(firestationRepository.findAll()).thenReturn(List.of(updated));
+
         List<FirestationModel> result = firestationService.updateFirestation(updated);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getAddress()).isEqualTo("77 Paris");
         assertThat(result.get(0).getStation()).isEqualTo("3");
 
+        verify(firestationRepository).update(updated);
         verify(firestationRepository).findAll();
-        verify(firestationRepository).saveAll(anyList());
         verifyNoMoreInteractions(firestationRepository);
     }
 
 
     @Test
     void updateFirestation_whenNoAddressMatch_shouldReturnNull() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
-
         FirestationModel updated = new FirestationModel();
         updated.setAddress("X");
         updated.setStation("Y");
 
+        when(firestationRepository.update(updated)).thenReturn(false);
+
         List<FirestationModel> result = firestationService.updateFirestation(updated);
 
         assertThat(result).isNull();
 
-        verify(firestationRepository).findAll();
-        verify(firestationRepository, never()).saveAll(anyList());
+        verify(firestationRepository).update(updated);
         verifyNoMoreInteractions(firestationRepository);
     }
 
@@ -183,14 +183,13 @@ public class FirestationServiceTest {
      */
     @Test
     void deleteFirestation_whenAddressMatch_shouldDeleteAndSave() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
+        when(firestationRepository.delete("77 Paris", null)).thenReturn(true);
 
         boolean removed = firestationService.deleteFirestation("77 Paris", null);
 
         assertThat(removed).isTrue();
 
-        verify(firestationRepository).findAll();
-        verify(firestationRepository).saveAll(anyList());
+        verify(firestationRepository).delete("77 Paris", null);
         verifyNoMoreInteractions(firestationRepository);
     }
 
@@ -201,14 +200,13 @@ public class FirestationServiceTest {
      */
     @Test
     void deleteFirestation_whenStationMatch_shouldDeleteAndSave() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
+        when(firestationRepository.delete(null, "1")).thenReturn(true);
 
         boolean removed = firestationService.deleteFirestation(null, "1");
 
         assertThat(removed).isTrue();
 
-        verify(firestationRepository).findAll();
-        verify(firestationRepository).saveAll(anyList());
+        verify(firestationRepository).delete(null, "1");
         verifyNoMoreInteractions(firestationRepository);
     }
 
@@ -219,14 +217,13 @@ public class FirestationServiceTest {
      */
     @Test
     void deleteFirestation_whenNoMatch_shouldReturnFalseAndNotSave() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(new ArrayList<>(firestations));
+        when(firestationRepository.delete("x", "Y")).thenReturn(false);
 
         boolean removed = firestationService.deleteFirestation("x", "Y");
 
         assertThat(removed).isFalse();
 
-        verify(firestationRepository).findAll();
-        verify(firestationRepository, never()).saveAll(anyList());
+        verify(firestationRepository).delete("x", "Y");
         verifyNoMoreInteractions(firestationRepository);
     }
 }
@@ -5,13 +5,11 @@ import com.openclassrooms.safetynet_alerts.dto.ResidentInfoDTO;
 import com.openclassrooms.safetynet_alerts.model.FirestationModel;
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
-import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -31,33 +29,26 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 public class FloodServiceTest {
     /**
-     * Mock du repository des personnes.
-     * Permet de simuler les données sans accéder à la source réelle.
-     */
-    @Mock
-    private PersonRepository personRepository;
-    /**
-     * Mock du repository des casernes.
-     * Permet de simuler les données sans accéder à la source réelle.
+     * Mock du jeu de données.
+     * Retourne l'état simulé lu une seule fois par requête.
      */
     @Mock
-    private FirestationRepository firestationRepository;
+    private DataStore dataStore;
     /**
-     * Mock du repository des fichiers médicaux.
+     * Mock de l'état des données lu par la requête.
      * Permet de simuler les données sans accéder à la source réelle.
      */
     @Mock
-    private MedicalrecordRepository medicalrecordRepository;
+    private DataSnapshot snapshot;
     /**
-     * Mock du service de calcul d'âge.
-     * Permet de controller les retours de {@code calculateAge()}.
+     * Mock de la vue des foyers.
+     * Permet de contrôler les résidents retournés, avec leur âge et leur dossier médical.
      */
     @Mock
-    private AgeService ageService;
+    private HouseholdView householdView;
     /**
-     * Instance du service à tester, avec injections automatiques des mocks.
+     * Instance du service à tester, construite avec les mocks et un seuil de parallélisation élevé.
      */
-    @InjectMocks
     private FloodService floodService;
     /**
      * Données de test : liste complète de casernes simulées
@@ -85,6 +76,9 @@ public class FloodServiceTest {
      */
     @BeforeEach
     void setUp() {
+        floodService = new FloodService(dataStore, householdView, 64);
+        when(dataStore.snapshot()).thenReturn(snapshot);
+
         firestations = new ArrayList<>();
 
         FirestationModel fs1 = new FirestationModel();
@@ -124,6 +118,15 @@ public class FloodServiceTest {
         medicalrecords.add(mr1);
     }
 
+    /**
+     * Construit un foyer d'un seul résident âgé de 51 ans, avec les listes telles que la {@link HouseholdView} les fournit.
+     */
+    private static Household household(String address, PersonModel person, MedicalrecordModel medicalrecord) {
+        List<String> medications = medicalrecord != null && medicalrecord.getMedications() != null ? medicalrecord.getMedications() : List.of();
+        List<String> allergies = medicalrecord != null && medicalrecord.getAllergies() != null ? medicalrecord.getAllergies() : List.of();
+        return new Household(address, List.of(new Household.Resident(person, medicalrecord, 51, medications, allergies)), 0, Long.MAX_VALUE);
+    }
+
     /**
      * Vérifie que le service retourne correctement un {@link FloodDTO} lorsque :
      * pour les casernes données, on retrouve l'adresse du foyer
@@ -133,10 +136,8 @@ public class FloodServiceTest {
      */
     @Test
     void getFloodByStations_shouldReturnHouseholdsByAddress() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
-        when(ageService.calculateAge(p1)).thenReturn(51);
+        when(snapshot.findAddressesByStation("1")).thenReturn(List.of("77 Paris"));
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(household("77 Paris", p1, medicalrecords.get(0)));
 
         List<FloodDTO> result = floodService.getFloodByStation("1");
 
@@ -161,10 +162,10 @@ public class FloodServiceTest {
      */
     @Test
     void getFloodByStations_shouldHandleComaAndTrimSpaces() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
-        when(ageService.calculateAge(p1)).thenReturn(51);
+        when(snapshot.findAddressesByStation("1")).thenReturn(List.of("77 Paris"));
+        when(snapshot.findAddressesByStation("2")).thenReturn(List.of("88 Lyon"));
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(household("77 Paris", p1, medicalrecords.get(0)));
+        when(householdView.getHousehold(snapshot, "88 Lyon")).thenReturn(new Household("88 Lyon", List.of(), 0, Long.MAX_VALUE));
 
         List<FloodDTO> result = floodService.getFloodByStation("1, 2");
 
@@ -178,10 +179,6 @@ public class FloodServiceTest {
      */
     @Test
     void getFloodByStations_whenNoStationMatches_shouldReturnEmpty() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
-
         List<FloodDTO> result = floodService.getFloodByStation("99");
 
         assertThat(result).isEmpty();
@@ -194,10 +191,8 @@ public class FloodServiceTest {
      */
     @Test
     void getFloodByStations_whenNoMedicalRecordFound_shouldReturnEmptyMedicalLists() throws Exception {
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(List.of());
-        when(ageService.calculateAge(p1)).thenReturn(51);
+        when(snapshot.findAddressesByStation("1")).thenReturn(List.of("77 Paris"));
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(household("77 Paris", p1, null));
 
         List<FloodDTO> result = floodService.getFloodByStation("1");
 
@@ -214,9 +209,9 @@ public class FloodServiceTest {
     @Test
     void getFloodByStations_whenAddressIsNull_shouldSkipPersonAndGoForTheNextOne() throws Exception {
         p1.setAddress(null);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
+        when(snapshot.findAddressesByStation("1")).thenReturn(List.of("77 Paris"));
+        //l'index des foyers ne renvoie que les résidents de l'adresse
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(new Household("77 Paris", List.of(), 0, Long.MAX_VALUE));
 
         List<FloodDTO> result = floodService.getFloodByStation("1");
 
@@ -237,10 +232,8 @@ public class FloodServiceTest {
         mrNull.setMedications(null);
         mrNull.setAllergies(null);
 
-        when(firestationRepository.findAll()).thenReturn(firestations);
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(List.of(mrNull));
-        when(ageService.calculateAge(p1)).thenReturn(51);
+        when(snapshot.findAddressesByStation("1")).thenReturn(List.of("77 Paris"));
+        when(householdView.getHousehold(snapshot, "77 Paris")).thenReturn(household("77 Paris", p1, mrNull));
 
         List<FloodDTO> result = floodService.getFloodByStation("1");
 
@@ -248,4 +241,38 @@ public class FloodServiceTest {
         assertThat(resident.getMedications()).isEmpty();
         assertThat(resident.getAllergies()).isEmpty();
     }
+
+    /**
+     * Vérifie qu'au-delà du seuil de parallélisation, les foyers de plusieurs casernes sont construits
+     * sur le pool fork-join et retournés dans l'ordre des adresses, sans doublon.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test.
+     */
+    @Test
+    void getFloodByStations_aboveParallelThreshold_shouldKeepAddressOrder() throws Exception {
+        floodService = new FloodService(dataStore, householdView, 1);
+
+        List<String> station1 = new ArrayList<>();
+        List<String> station2 = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String address = i + " Rue";
+            (i < 12 ? station1 : station2).add(address);
+            PersonModel resident = new PersonModel("Resident" + i, "Rue" + i, address, "Paris", "75000", "000-000-" + i, null);
+            when(householdView.getHousehold(snapshot, address)).thenReturn(new Household(address,
+                    List.of(new Household.Resident(resident, null, 30, List.of(), List.of())), 0, Long.MAX_VALUE));
+        }
+        //la dernière adresse de la caserne 1 est aussi desservie par la caserne 2
+        station2.add(0, "11 Rue");
+        when(snapshot.findAddressesByStation("1")).thenReturn(station1);
+        when(snapshot.findAddressesByStation("2")).thenReturn(station2);
+
+        List<FloodDTO> result = floodService.getFloodByStation("1,2");
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i + " Rue");
+        }
+        assertThat(result).extracting(FloodDTO::getAddress).containsExactlyElementsOf(expected);
+        assertThat(result.get(19).getResidents()).extracting(ResidentInfoDTO::getPhone).containsExactly("000-000-19");
+    }
 }
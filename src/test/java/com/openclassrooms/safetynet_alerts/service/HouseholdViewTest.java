@@ -0,0 +1,156 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires de la {@link HouseholdView}
+ * <p>
+ * Cette classe vérifie, sur le jeu de données du classpath et avec une horloge réglée au 17/10/2026,
+ * que chaque foyer associe ses résidents à leur âge et à leur dossier médical, et qu'il suit
+ * les modifications et les anniversaires.
+ */
+public class HouseholdViewTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private PersonRepository personRepository;
+    private MedicalrecordRepository medicalrecordRepository;
+    private DataStore dataStore;
+    private MutableClock clock;
+    private HouseholdView householdView;
+
+    /**
+     * Charge le jeu de données du classpath et construit la vue avant chaque méthode
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        MutationJournal mutationJournal = new MutationJournal(dataStore,
+                new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        personRepository = new PersonRepository(dataStore, mutationJournal);
+        medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+
+        clock = new MutableClock(LocalDate.of(2026, 10, 17));
+        householdView = new HouseholdView(dataStore, new AgeService(medicalrecordRepository, clock),
+                new AgeRolloverScheduler(dataStore, clock), clock);
+    }
+
+    private static List<String> firstNames(Household household) {
+        return household.residents().stream().map(resident -> resident.person().getFirstName()).toList();
+    }
+
+    /**
+     * Vérifie que les résidents d'un foyer sont retournés avec leur âge, leurs traitements et leurs allergies,
+     * et qu'une adresse inconnue donne un foyer vide.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getHousehold_shouldJoinResidentsWithAgesAndMedicalrecords() throws Exception {
+        Household household = householdView.getHousehold(" 1509 culver st");
+
+        assertThat(household.address()).isEqualTo("1509 Culver St");
+        assertThat(household.residents()).extracting(Household.Resident::age).containsExactly(42, 37, 14, 9, 40);
+        Household.Resident john = household.residents().get(0);
+        assertThat(john.medications()).containsExactly("aznol:350mg", "hydrapermazol:100mg");
+        assertThat(john.allergies()).containsExactly("nillacilan");
+        //prochain anniversaire du foyer : Felicia, le 08/01
+        assertThat(household.validUntilEpochDay()).isEqualTo(LocalDate.of(2027, 1, 8).toEpochDay());
+        assertThat(householdView.getHousehold("1509 Culver St")).isSameAs(household);
+
+        assertThat(householdView.getHousehold("77 Paris").residents()).isEmpty();
+    }
+
+    /**
+     * Vérifie qu'un résident sans dossier médical a un âge de -1 et des listes vides,
+     * puis que l'ajout de son dossier médical recalcule le foyer et le signale aux observateurs.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void changes_shouldRefreshHouseholdAndNotifyListeners() throws Exception {
+        List<Household> notified = new ArrayList<>();
+        householdView.addListener(notified::add);
+        notified.clear();
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "892 Downing Ct", "Culver", "97451", "123-456-789", "Samy@mail.com"));
+        Household.Resident samy = householdView.getHousehold("892 Downing Ct").residents().get(3);
+        assertThat(samy.medicalrecord()).isNull();
+        assertThat(samy.age()).isEqualTo(-1);
+        assertThat(samy.medications()).isEmpty();
+
+        medicalrecordRepository.add(new MedicalrecordModel("Samy", "Ymas", "01/01/1990", List.of("doliprane:500mg"), List.of()));
+        samy = householdView.getHousehold("892 Downing Ct").residents().get(3);
+        assertThat(samy.age()).isEqualTo(36);
+        assertThat(samy.medications()).containsExactly("doliprane:500mg");
+
+        personRepository.delete("Samy", "Ymas");
+        assertThat(firstNames(householdView.getHousehold("892 Downing Ct"))).doesNotContain("Samy");
+
+        assertThat(notified).extracting(Household::address).containsOnly("892 Downing Ct").hasSize(3);
+    }
+
+    /**
+     * Vérifie que l'anniversaire d'un adulte est pris en compte à la première lecture du foyer après la date.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void adultBirthday_shouldRefreshHouseholdOnRead() throws Exception {
+        Household before = householdView.getHousehold("1509 Culver St");
+
+        clock.setDate(LocalDate.of(2027, 1, 8));
+        Household after = householdView.getHousehold("1509 Culver St");
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.residents()).extracting(Household.Resident::age).containsExactly(42, 37, 14, 9, 41);
+        assertThat(after.validUntilEpochDay()).isEqualTo(LocalDate.of(2027, 2, 18).toEpochDay());
+    }
+
+    /**
+     * Vérifie qu'une requête ayant lu l'état avant un déménagement obtient le foyer de cet état,
+     * sans voir la modification, tandis que l'état courant la reflète.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getHousehold_withPinnedSnapshot_shouldIgnoreLaterChanges() throws Exception {
+        DataSnapshot pinned = dataStore.snapshot();
+
+        personRepository.update(new PersonModel("John", "Boyd", "77 Paris", "Paris", "77000", "841-874-6512", "jaboyd@email.com"));
+
+        assertThat(firstNames(householdView.getHousehold(pinned, "1509 Culver St")))
+                .containsExactly("John", "Jacob", "Tenley", "Roger", "Felicia");
+        assertThat(householdView.getHousehold(pinned, "77 Paris").residents()).isEmpty();
+
+        assertThat(firstNames(householdView.getHousehold("1509 Culver St")))
+                .containsExactly("Jacob", "Tenley", "Roger", "Felicia");
+        assertThat(firstNames(householdView.getHousehold("77 Paris"))).containsExactly("John");
+    }
+}
@@ -0,0 +1,153 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.dto.ImportReportDTO;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.DatasetRepository;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires du {@link ImportService}
+ * <p>
+ * Cette classe vérifie, sur le jeu de données du classpath, que les enregistrements valides sont enregistrés
+ * par paquets et que les enregistrements invalides sont rejetés sans interrompre l'import.
+ */
+public class ImportServiceTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+    private MutationJournal mutationJournal;
+    private ImportService importService;
+
+    /**
+     * Charge le jeu de données du classpath et construit le service avec des paquets de deux enregistrements
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        mutationJournal = new MutationJournal(dataStore,
+                new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        importService = new ImportService(new DatasetRepository(mutationJournal), objectMapper, 2);
+    }
+
+    private static InputStream content(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Vérifie qu'un import NDJSON enregistre les lignes valides par paquets et rejette les autres en indiquant leur ligne.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void importNdjson_shouldApplyChunksAndRejectInvalidLines() throws Exception {
+        String content = """
+                {"person":{"firstName":"Samy","lastName":"Last","address":"77 Paris","city":"Paris","zip":"77000","phone":"1","email":"s@mail.com"}}
+                {"person":{"firstName":"John","lastName":"Boyd","address":"99 Lyon","city":"Lyon","zip":"69000","phone":"2","email":"j@mail.com"}}
+                {"person":{"firstName":"","lastName":"Last"}}
+
+                {"firestation":{"address":"77 Paris","station":"9"}}
+                {"medicalrecord":{"firstName":"Samy","lastName":"Last","birthdate":"13/45/2000"}}
+                {"medicalrecord":{"firstName":"Samy","lastName":"Last","birthdate":"01/01/2000","medications":[],"allergies":[]}}
+                {"person":
+                """;
+
+        ImportReportDTO report = importService.importNdjson(content(content));
+
+        assertThat(report.isFinished()).isTrue();
+        assertThat(report.getError()).isNull();
+        assertThat(report.getRead()).isEqualTo(7);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getRejections()).hasSize(3)
+                .anyMatch(reason -> reason.startsWith("line 3:"))
+                .anyMatch(reason -> reason.startsWith("line 6:"))
+                .anyMatch(reason -> reason.startsWith("line 8:"));
+        assertThat(importService.getProgress()).isSameAs(report);
+
+        assertThat(dataStore.getPersonCount()).isEqualTo(24);
+        assertThat(dataStore.findPersonsByName("John", "Boyd")).extracting(PersonModel::getAddress).containsExactly("99 Lyon");
+        assertThat(dataStore.findMedicalrecord("Samy", "Last")).isNotNull();
+        //deux paquets de 2 enregistrements valides, chacun écrit sur une seule ligne du journal quels que soient ses types
+        assertThat(mutationJournal.getEntryCount()).isEqualTo(2);
+    }
+
+    /**
+     * Vérifie qu'un contenu disposé comme data.json est importé élément par élément, puis qu'un contenu tronqué
+     * interrompt l'import en conservant les paquets déjà enregistrés.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void importDataset_shouldRejectInvalidElementsAndStopOnTruncatedContent() throws Exception {
+        String content = """
+                {"sequence": 3,
+                 "persons": [
+                   {"firstName":"Samy","lastName":"Last","address":"77 Paris"},
+                   {"firstName":["not","a","name"],"lastName":"Last"},
+                   {"firstName":"Cons","lastName":"Last","address":"77 Paris"}
+                 ],
+                 "firestations": [{"address":"77 Paris","station":"9"}]}
+                """;
+
+        ImportReportDTO report = importService.importDataset(content(content));
+
+        assertThat(report.getError()).isNull();
+        assertThat(report.getRead()).isEqualTo(4);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getRejections()).containsExactly("persons[1]: invalid record");
+        assertThat(dataStore.getPersonCount()).isEqualTo(25);
+
+        ImportReportDTO truncated = importService.importDataset(content("""
+                {"persons": [
+                   {"firstName":"A","lastName":"Last"},
+                   {"firstName":"B","lastName":"Last"},
+                   {"firstName":"C","lastName":"La"""));
+
+        assertThat(truncated.isFinished()).isTrue();
+        assertThat(truncated.getError()).isNotNull();
+        assertThat(truncated.getCreated()).isEqualTo(2);
+        assertThat(dataStore.getPersonCount()).isEqualTo(27);
+    }
+
+    /**
+     * Vérifie que les paquets gardent la taille configurée, quelle que soit la taille du jeu de données déjà chargé.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void importNdjson_shouldKeepConfiguredChunkSize() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 201; i++) {
+            content.append("{\"person\":{\"firstName\":\"P").append(i).append("\",\"lastName\":\"Last\"}}\n");
+        }
+
+        ImportReportDTO report = importService.importNdjson(content(content.toString()));
+
+        assertThat(report.getCreated()).isEqualTo(201);
+        //100 paquets complets, puis le dernier enregistrement seul
+        assertThat(mutationJournal.getEntryCount()).isEqualTo(101);
+    }
+}
@@ -5,7 +5,6 @@ import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -89,14 +88,13 @@ public class MedicalrecordServiceTest {
      */
     @Test
     void addMedicalrecord_whenNoExisting_shouldReturnCreatedMedicalrecord() throws Exception {
-        when(medicalrecordRepository.findAll()).thenReturn(new ArrayList<>(medicalrecords));
-
         MedicalrecordModel toAdd = new MedicalrecordModel();
         toAdd.setFirstName("Cons");
         toAdd.setLastName("Snoc");
         toAdd.setBirthdate("05/05/1995");
         toAdd.setMedications(List.of("medication:100mg"));
         toAdd.setAllergies(List.of("fish"));
+        when(medicalrecordRepository.add(toAdd)).thenReturn(true);
 
 
         MedicalrecordModel result = medicalrecordService.addMedicalrecord(toAdd);
@@ -105,22 +103,7 @@ public class MedicalrecordServiceTest {
         assertThat(result.getLastName()).isEqualTo("Snoc");
 
 
-        ArgumentCaptor captor =
-                ArgumentCaptor.forClass(List.class);
-
-        verify(medicalrecordRepository).saveAll((List<MedicalrecordModel>) captor.capture());
-
-        List<MedicalrecordModel> savedList = (List<MedicalrecordModel>) captor.getValue();
-
-        assertThat(savedList).hasSize(2);
-
-        assertThat(savedList)
-                .extracting(MedicalrecordModel::getFirstName)
-                .containsExactlyInAnyOrder("Samy", "Cons");
-
-        assertThat(savedList)
-                .extracting(MedicalrecordModel::getLastName)
-                .containsExactlyInAnyOrder("Ymas", "Snoc");
+        verify(medicalrecordRepository).add(toAdd);
     }
 
     /**
@@ -131,20 +114,21 @@ public class MedicalrecordServiceTest {
      */
     @Test
     void addMedicalrecord_whenExistingMedicalrecord_shouldThrow() throws Exception {
-        when(medicalrecordRepository.findAll()).thenReturn(new ArrayList<>(medicalrecords));
-
         MedicalrecordModel duplicate = new MedicalrecordModel();
         duplicate.setFirstName("Samy");
         duplicate.setLastName("Ymas");
         duplicate.setBirthdate("10/06/1980");
         duplicate.setMedications(List.of("medication:150mg"));
         duplicate.setAllergies(List.of("sugar"));
+        //le repository rejette l'ajout : un dossier porte déjà ce prénom et ce nom
+        when(medicalrecordRepository.add(duplicate)).thenReturn(false);
 
         assertThatThrownBy(() -> medicalrecordService.addMedicalrecord(duplicate))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Medicalrecord already exists");
 
-        verify(medicalrecordRepository, never()).saveAll(any());
+        verify(medicalrecordRepository).add(duplicate);
+        verify(medicalrecordRepository, never()).findAll();
     }
 
     /**
@@ -155,8 +139,6 @@ public class MedicalrecordServiceTest {
      */
     @Test
     void updateMedicalrecord_whenFirstNameAndLastNameMatches_shouldReturnUpdatedMedicalrecord() throws Exception {
-        when(medicalrecordRepository.findAll()).thenReturn(new ArrayList<>(medicalrecords));
-
         MedicalrecordModel updated = new MedicalrecordModel();
         updated.setFirstName("Samy");
         updated.setLastName("Ymas");
@@ -164,15 +146,15 @@ public class MedicalrecordServiceTest {
         updated.setMedications(List.of("medication:150mg"));
         updated.setAllergies(List.of("sugar"));
 
+        when(medicalrecordRepository.update(updated)).thenReturn(true);
+
         MedicalrecordModel result = medicalrecordService.updateMedicalrecord(updated);
 
         assertThat(result.getBirthdate()).isEqualTo("10/06/1980");
         assertThat(result.getMedications()).containsExactly("medication:150mg");
         assertThat(result.getAllergies()).containsExactly("sugar");
 
-        verify(medicalrecordRepository).saveAll(anyList());
-
-
+        verify(medicalrecordRepository).update(updated);
     }
 
     /**
@@ -183,8 +165,6 @@ public class MedicalrecordServiceTest {
      */
     @Test
     void updateMedicalrecord_whenNoFirstNameAndLastNameMatch_shouldReturnNull() throws Exception {
-        when(medicalrecordRepository.findAll()).thenReturn(new ArrayList<>(medicalrecords));
-
         MedicalrecordModel updated = new MedicalrecordModel();
         updated.setFirstName("X");
         updated.setLastName("Y");
@@ -192,6 +172,8 @@ public class MedicalrecordServiceTest {
         updated.setMedications(List.of("medication:150mg"));
         updated.setAllergies(List.of("sugar"));
 
+        when(medicalrecordRepository.update(updated)).thenReturn(false);
+
         MedicalrecordModel result = medicalrecordService.updateMedicalrecord(updated);
 
         assertThat(result).isNull();
@@ -205,13 +187,13 @@ public class MedicalrecordServiceTest {
      */
     @Test
     void deleteMedicalrecord_whenFirstNameAndLastNameMatch_shouldDelete() throws Exception {
-        when(medicalrecordRepository.findAll()).thenReturn(new ArrayList<>(medicalrecords));
+        when(medicalrecordRepository.delete("Samy", "Ymas")).thenReturn(true);
 
         boolean removed = medicalrecordService.deleteMedicalrecord("Samy", "Ymas");
 
         assertThat(removed).isTrue();
 
-        verify(medicalrecordRepository).saveAll(anyList());
+        verify(medicalrecordRepository).delete("Samy", "Ymas");
 
     }
 
@@ -223,13 +205,14 @@ public class MedicalrecordServiceTest {
      */
     @Test
     void deleteMedicalrecord_whenNoMatch_shouldReturnFalse() throws Exception {
-        when(medicalrecordRepository.findAll()).thenReturn(new ArrayList<>(medicalrecords));
+        when(medicalrecordRepository.delete("X", "Y")).thenReturn(false);
 
         boolean removed = medicalrecordService.deleteMedicalrecord("X", "Y");
 
         assertThat(removed).isFalse();
 
-        verify(medicalrecordRepository, never()).saveAll(anyList());
+        verify(medicalrecordRepository).delete("X", "Y");
+        verifyNoMoreInteractions(medicalrecordRepository);
 
     }
 
@@ -0,0 +1,38 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Horloge de test dont la date peut être avancée, pour simuler un changement de jour.
+ */
+class MutableClock extends Clock {
+
+    private volatile Instant instant;
+
+    MutableClock(LocalDate date) {
+        setDate(date);
+    }
+
+    void setDate(LocalDate date) {
+        instant = date.atTime(10, 0).toInstant(ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -4,8 +4,9 @@ package com.openclassrooms.safetynet_alerts.service;
 import com.openclassrooms.safetynet_alerts.dto.PersonInfoDTO;
 import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
-import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.FamilyMember;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -29,20 +31,20 @@ import static org.mockito.Mockito.when;
 public class PersonInfoServiceTest {
 
     /**
-     * Mock du repository des personnes.
-     * Permet de simuler les données retournées sans accéder à la source réelle.
+     * Mock du jeu de données.
+     * Retourne l'état simulé lu une seule fois par requête.
      */
     @Mock
-    private PersonRepository personRepository;
+    private DataStore dataStore;
     /**
-     * Mock du repository des fichiers médicaux.
-     * Permet de simuler les données retournées sans accéder à la source réelle.
+     * Mock de l'état des données lu par la requête.
+     * Permet de simuler les données sans accéder à la source réelle.
      */
     @Mock
-    private MedicalrecordRepository medicalrecordRepository;
+    private DataSnapshot snapshot;
     /**
      * Mock du service de calcul d'âge.
-     * Permet de contrôler les retours de {@code calculateAge()}.
+     * Permet de contrôler les retours de {@code calculateAges()}.
      */
     @Mock
     private AgeService ageService;
@@ -65,6 +67,7 @@ public class PersonInfoServiceTest {
      */
     @BeforeEach
     void setUp() {
+        when(dataStore.snapshot()).thenReturn(snapshot);
 
         persons = new ArrayList<>();
 
@@ -96,12 +99,11 @@ public class PersonInfoServiceTest {
     @Test
     void getPersonInfoByLastName_shouldReturnDTO() throws Exception {
         //On appelle les listes configurées dans le setUp
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
+        PersonModel samy = persons.get(0);
+        when(snapshot.findFamily("Ymas")).thenReturn(List.of(new FamilyMember(samy, medicalrecords.get(0))));
 
         //age donnée car controlé via le mock
-        PersonModel samy = persons.get(0);
-        when(ageService.calculateAge(samy)).thenReturn(51);
+        when(ageService.calculateAges(snapshot, List.of(samy))).thenReturn(Map.of(samy, 51));
 
         //WHEN lorsqu'on fait appel au service pour Ymas
         List<PersonInfoDTO> result = personInfoService.getPersonInfoByLastName("Ymas");
@@ -125,8 +127,7 @@ public class PersonInfoServiceTest {
      */
     @Test
     void getPersonInfoByLastName_shouldReturnEmptyList_whenNoLastNameFound() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(medicalrecords);
+        when(snapshot.findFamily("XYZ")).thenReturn(List.of());
 
         List<PersonInfoDTO> result = personInfoService.getPersonInfoByLastName("XYZ");
 
@@ -141,12 +142,11 @@ public class PersonInfoServiceTest {
      */
     @Test
     void getPersonInfoByLastName_shouldReturnEmptyMedicalLists_whenNoMedicalRecordFound() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(List.of());
+        PersonModel samy = persons.get(0);
+        when(snapshot.findFamily("Ymas")).thenReturn(List.of(new FamilyMember(samy, null)));
 
         //age donnée car controlé via le mock
-        PersonModel samy = persons.get(0);
-        when(ageService.calculateAge(samy)).thenReturn(51);
+        when(ageService.calculateAges(snapshot, List.of(samy))).thenReturn(Map.of(samy, 51));
 
         //WHEN lorsqu'on fait appel au service pour Ymas
         List<PersonInfoDTO> result = personInfoService.getPersonInfoByLastName("Ymas");
@@ -172,11 +172,10 @@ public class PersonInfoServiceTest {
         mNull.setMedications(List.of());
         mNull.setAllergies(List.of());
 
-        when(personRepository.findAll()).thenReturn(persons);
-        when(medicalrecordRepository.findAll()).thenReturn(List.of(mNull));
-
         PersonModel samy = persons.get(0);
-        when(ageService.calculateAge(samy)).thenReturn(51);
+        when(snapshot.findFamily("Ymas")).thenReturn(List.of(new FamilyMember(samy, mNull)));
+
+        when(ageService.calculateAges(snapshot, List.of(samy))).thenReturn(Map.of(samy, 51));
 
         List<PersonInfoDTO> result = personInfoService.getPersonInfoByLastName("Ymas");
 
@@ -1,11 +1,11 @@
 package com.openclassrooms.safetynet_alerts.service;
 
 import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.BatchResult;
 import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -86,25 +86,17 @@ public class PersonServiceTest {
      */
     @Test
     void addPerson_whenNoExisting_shouldAdd() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-
         PersonModel toAdd = new PersonModel();
         toAdd.setFirstName("Cons");
         toAdd.setLastName("Snoc");
+        when(personRepository.add(toAdd)).thenReturn(true);
 
         PersonModel result = personService.addPerson(toAdd);
 
         assertThat(result).isSameAs(toAdd);
 
-        //vérfier que saveAll a été appelé avec une Liste contenant les 2
-        ArgumentCaptor<List<PersonModel>> captor = ArgumentCaptor.forClass(List.class);
-        verify(personRepository).saveAll(captor.capture());
-
-        List<PersonModel> saved = captor.getValue();
-        assertThat(saved).hasSize(2);
-        assertThat(saved).extracting(PersonModel::getFirstName)
-                .containsExactlyInAnyOrder("Samy", "Cons");
-
+        //vérifier que seule la nouvelle personne est transmise au repository
+        verify(personRepository).add(toAdd);
     }
 
     /**
@@ -114,18 +106,18 @@ public class PersonServiceTest {
      */
     @Test
     void addPerson_WhenAlreadyExists_shouldThrowIllegalArgumentException() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-
         PersonModel duplicate = new PersonModel();
         duplicate.setFirstName("Samy");
         duplicate.setLastName("Ymas");
+        //le repository rejette l'ajout : une personne porte déjà ce prénom et ce nom
+        when(personRepository.add(duplicate)).thenReturn(false);
 
         assertThatThrownBy(() -> personService.addPerson(duplicate))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Person already exists");
 
-        verify(personRepository).findAll();
-        verify(personRepository, never()).saveAll(any());
+        verify(personRepository).add(duplicate);
+        verify(personRepository, never()).findAll();
     }
 
     /**
@@ -135,8 +127,6 @@ public class PersonServiceTest {
      */
     @Test
     void updatePerson_whenPersonExists_shouldReturnUpdatedPerson() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-
         PersonModel updated = new PersonModel();
         updated.setFirstName("Samy");
         updated.setLastName("Ymas");
@@ -146,6 +136,8 @@ public class PersonServiceTest {
         updated.setPhone("111-222-333");
         updated.setEmail("SamyNew@mail.com");
 
+        when(personRepository.update(updated)).thenReturn(true);
+
         PersonModel result = personService.updatePerson(updated);
 
         assertThat(result).isNotNull();
@@ -157,7 +149,7 @@ public class PersonServiceTest {
         assertThat(result.getPhone()).isEqualTo("111-222-333");
         assertThat(result.getEmail()).isEqualTo("SamyNew@mail.com");
 
-        verify(personRepository).saveAll(persons);
+        verify(personRepository).update(updated);
     }
 
     /**
@@ -168,17 +160,17 @@ public class PersonServiceTest {
      */
     @Test
     void updatePerson_whenNoMatching_shouldReturnNull() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-
         PersonModel updated = new PersonModel();
         updated.setFirstName("X");
         updated.setLastName("Y");
         updated.setAddress("Z");
 
+        when(personRepository.update(updated)).thenReturn(false);
+
         PersonModel result = personService.updatePerson(updated);
 
         assertThat(result).isNull();
-        verify(personRepository, never()).saveAll(any());
+        verify(personRepository).update(updated);
     }
 
     /**
@@ -188,14 +180,12 @@ public class PersonServiceTest {
      */
     @Test
     void deletePerson_whenMatch_shouldDeleteAndSave() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
+        when(personRepository.delete("Samy", "Ymas")).thenReturn(true);
 
         boolean removed = personService.deletePerson("Samy", "Ymas");
 
         assertThat(removed).isTrue();
-        assertThat(persons).isEmpty();
-
-        verify(personRepository).saveAll(persons);
+        verify(personRepository).delete("Samy", "Ymas");
     }
 
     /**
@@ -206,12 +196,29 @@ public class PersonServiceTest {
      */
     @Test
     void deletePerson_whenNoMatching_shouldReturnFalse() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
+        when(personRepository.delete("No", "One")).thenReturn(false);
 
         boolean removed = personService.deletePerson("No", "One");
 
         assertThat(removed).isFalse();
-        assertThat(persons).hasSize(1);
-        verify(personRepository, never()).saveAll(any());
+        verify(personRepository).delete("No", "One");
+        verifyNoMoreInteractions(personRepository);
+    }
+
+    /**
+     * Vérifie que les personnes sans prénom ou sans nom sont écartées du lot et comptées comme rejetées.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test.
+     */
+    @Test
+    void upsertPersons_shouldRejectIncompleteEntries() throws Exception {
+        PersonModel complete = new PersonModel("Samy", "Ymas", "77 Paris", "Paris", "77000", "123-456-789", "Samy@mail.com");
+        PersonModel incomplete = new PersonModel();
+        incomplete.setFirstName("Cons");
+        when(personRepository.upsertAll(List.of(complete))).thenReturn(new BatchResult(0, 1, 0, 0));
+
+        BatchResult result = personService.upsertPersons(List.of(complete, incomplete));
+
+        assertThat(result).isEqualTo(new BatchResult(0, 1, 0, 1));
     }
 }
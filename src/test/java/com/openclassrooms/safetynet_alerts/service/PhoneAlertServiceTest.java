@@ -1,17 +1,12 @@
 package com.openclassrooms.safetynet_alerts.service;
 
-import com.openclassrooms.safetynet_alerts.model.FirestationModel;
-import com.openclassrooms.safetynet_alerts.model.PersonModel;
-import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
 import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,7 +16,8 @@ import static org.mockito.Mockito.when;
  * Tests unitaires de {@link PhoneAlertService}
  * <p>
  * Cette classe vérifie la logique métier de l'endpoint {@code /phoneAlert} lorsque :
- * une station est donnée, le service doit renvoyer les numéros de téléphone de tous les résidents couverts par cette caserne
+ * une station est donnée, le service doit renvoyer les numéros de téléphone de tous les résidents couverts par cette caserne,
+ * lus dans l'index des casernes du repository
  */
 @ExtendWith(MockitoExtension.class)
 public class PhoneAlertServiceTest {
@@ -31,52 +27,11 @@ public class PhoneAlertServiceTest {
      */
     @Mock
     private PersonRepository personRepository;
-    /**
-     * Mock du repository des casernes.
-     * Permet de simuler les données retournées sans accéder à la source réelle.
-     */
-    @Mock
-    private FirestationRepository firestationRepository;
     /**
      * Instance du service à tester, avec injections automatiques des mocks.
      */
     @InjectMocks
     private PhoneAlertService phoneAlertService;
-    /**
-     * Données de test : liste complète de personnes simulées
-     */
-    private List<PersonModel> persons;
-    /**
-     * Données de test : liste complète de casernes simulées
-     */
-    private List<FirestationModel> firestations;
-
-    private PersonModel p1;
-    private FirestationModel f1;
-
-    /**
-     * Initialise les données de test avant chaque méthode
-     */
-    @BeforeEach
-    void setUp() {
-        persons = new ArrayList<>();
-
-        p1 = new PersonModel();
-        p1.setFirstName("Samy");
-        p1.setLastName("Ymas");
-        p1.setAddress("77 Paris");
-        p1.setPhone("123-456-789");
-
-        persons.add(p1);
-
-        firestations = new ArrayList<>();
-
-        f1 = new FirestationModel();
-        f1.setAddress("77 Paris");
-        f1.setStation("1");
-
-        firestations.add(f1);
-    }
 
     /**
      * Vérifie que le service retourne correctement une liste des numéros des personnes couvertes par la caserne donnée
@@ -86,16 +41,13 @@ public class PhoneAlertServiceTest {
     @Test
     void getPhoneByStation_shouldReturnPhone() throws Exception {
         //données
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
+        when(personRepository.findPhonesByStation("1")).thenReturn(List.of("123-456-789"));
 
         //WHEN
         List<String> phones = phoneAlertService.getPhoneByStation("1");
 
         //THEN
-        assertThat(phones).hasSize(1);
         assertThat(phones).containsExactly("123-456-789");
-
     }
 
     /**
@@ -106,8 +58,7 @@ public class PhoneAlertServiceTest {
      */
     @Test
     void getPhoneByStation_whenNoAddressFoundByStation_shouldReturnEmptyList() throws Exception {
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
+        when(personRepository.findPhonesByStation("99")).thenReturn(List.of());
 
         //WHEN
         List<String> phones = phoneAlertService.getPhoneByStation("99");
@@ -115,39 +66,4 @@ public class PhoneAlertServiceTest {
         //THEN
         assertThat(phones).isEmpty();
     }
-
-    /**
-     * Vérifie que lorsque la caserne n'est associée à aucune adresse alors celle-ci est ignorée par le service.
-     *
-     * @throws Exception en cas d'erreur lors de l'exécution du test.
-     */
-    @Test
-    void getPhoneByStation_whenAddressIsNull_shouldIgnoreFirestation() throws Exception {
-        f1.setAddress(null);
-
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-
-        List<String> phones = phoneAlertService.getPhoneByStation("1");
-
-        assertThat(phones).isEmpty();
-    }
-
-    /**
-     * Vérifie que si une personne n'a pas de numéro de téléphone,
-     * alors elle est ignorée et rien n'est retourné pas le service.
-     *
-     * @throws Exception en cas d'erreur lors de l'exécution du test.
-     */
-    @Test
-    void getPhoneByStation_shouldIgnorePerson_whenPhoneIsNull() throws Exception {
-        p1.setPhone(null);
-
-        when(personRepository.findAll()).thenReturn(persons);
-        when(firestationRepository.findAll()).thenReturn(firestations);
-
-        List<String> phones = phoneAlertService.getPhoneByStation("1");
-
-        assertThat(phones).isEmpty();
-    }
 }
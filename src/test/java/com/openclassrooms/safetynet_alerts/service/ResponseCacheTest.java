@@ -0,0 +1,192 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
+import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires du {@link ResponseCache}
+ * <p>
+ * Cette classe vérifie, sur le jeu de données du classpath, que seules les entrées touchées par une modification
+ * sont invalidées, et que le cache respecte son budget mémoire et le changement de jour.
+ */
+public class ResponseCacheTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+    private PersonRepository personRepository;
+    private FirestationRepository firestationRepository;
+    private MedicalrecordRepository medicalrecordRepository;
+    private MutableClock clock;
+    private ResponseCache responseCache;
+
+    /**
+     * Charge le jeu de données du classpath et construit le cache avant chaque méthode
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        MutationJournal mutationJournal = new MutationJournal(dataStore,
+                new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        personRepository = new PersonRepository(dataStore, mutationJournal);
+        firestationRepository = new FirestationRepository(dataStore, mutationJournal);
+        medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+
+        clock = new MutableClock(LocalDate.of(2026, 10, 17));
+        responseCache = new ResponseCache(dataStore, clock, 1024 * 1024, true);
+    }
+
+    private void put(String key, String tag) {
+        responseCache.put(key, List.of(tag), responseCache.stamp(), "application/json", key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Vérifie qu'un nouveau résident n'invalide que les réponses de son adresse et des casernes qui la couvrent.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void personChange_shouldInvalidateOnlyItsAddressAndStations() throws Exception {
+        put("fire-gershwin", ResponseCache.addressTag("644 Gershwin Cir"));
+        put("fire-culver", ResponseCache.addressTag("1509 Culver St"));
+        put("station-1", ResponseCache.stationTag("1"));
+        put("station-2", ResponseCache.stationTag("2"));
+
+        personRepository.add(new PersonModel("Samy", "Ymas", "644  gershwin cir", "Culver", "97451", "123-456-789", "Samy@mail.com"));
+
+        assertThat(responseCache.get("fire-gershwin")).isNull();
+        assertThat(responseCache.get("station-1")).isNull();
+        assertThat(responseCache.get("fire-culver").body()).isEqualTo("fire-culver".getBytes(StandardCharsets.UTF_8));
+        assertThat(responseCache.get("station-2")).isNotNull();
+        assertThat(responseCache.size()).isEqualTo(2);
+    }
+
+    /**
+     * Vérifie qu'une association réaffectée invalide son adresse et ses deux casernes, et qu'un dossier médical
+     * invalide le foyer de la personne.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void firestationAndMedicalrecordChanges_shouldInvalidateAffectedEntries() throws Exception {
+        put("fire-gershwin", ResponseCache.addressTag("644 Gershwin Cir"));
+        put("station-1", ResponseCache.stationTag("1"));
+        put("station-2", ResponseCache.stationTag("2"));
+        put("station-3", ResponseCache.stationTag("3"));
+
+        firestationRepository.update(new FirestationModel("644 Gershwin Cir", "2"));
+
+        assertThat(responseCache.get("fire-gershwin")).isNull();
+        assertThat(responseCache.get("station-1")).isNull();
+        assertThat(responseCache.get("station-2")).isNull();
+        assertThat(responseCache.get("station-3")).isNotNull();
+
+        //John Boyd habite 1509 Culver St, couverte par la caserne 3
+        medicalrecordRepository.update(new MedicalrecordModel("John", "Boyd", "03/06/1984", List.of(), List.of()));
+
+        assertThat(responseCache.get("station-3")).isNull();
+    }
+
+    /**
+     * Vérifie qu'une réponse calculée avant une modification de l'une de ses dépendances n'est pas conservée.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void put_withStampOlderThanInvalidation_shouldBeIgnored() throws Exception {
+        ResponseCache.Stamp stamp = responseCache.stamp();
+
+        personRepository.delete("John", "Boyd");
+
+        responseCache.put("fire-culver", List.of(ResponseCache.addressTag("1509 Culver St")), stamp, "application/json", new byte[10]);
+        responseCache.put("station-1", List.of(ResponseCache.stationTag("1")), stamp, "application/json", new byte[10]);
+
+        assertThat(responseCache.get("fire-culver")).isNull();
+        assertThat(responseCache.get("station-1")).isNotNull();
+    }
+
+    /**
+     * Vérifie que les versions de modification suivies restent bornées quand de nombreuses adresses sont modifiées,
+     * et qu'une réponse calculée avant les versions oubliées reste refusée.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void manyInvalidations_shouldKeepTrackedVersionsBounded() throws Exception {
+        ResponseCache.Stamp stamp = responseCache.stamp();
+        List<PersonModel> persons = new ArrayList<>();
+        for (int i = 0; i < ResponseCache.MAX_INVALIDATIONS + 100; i++) {
+            persons.add(new PersonModel("First" + i, "Last", i + " Main St", "Culver", "97451", "123-456-789", "x@mail.com"));
+        }
+
+        personRepository.upsertAll(persons);
+
+        assertThat(responseCache.getInvalidationCount()).isLessThanOrEqualTo(ResponseCache.MAX_INVALIDATIONS);
+        responseCache.put("fire-main", List.of(ResponseCache.addressTag("1 Main St")), stamp, "application/json", new byte[10]);
+        assertThat(responseCache.get("fire-main")).isNull();
+
+        put("fire-main", ResponseCache.addressTag("1 Main St"));
+        assertThat(responseCache.get("fire-main")).isNotNull();
+    }
+
+    /**
+     * Vérifie que les entrées les moins récemment lues sont évincées au-delà du budget mémoire,
+     * et qu'une variante gzip n'est conservée que pour les corps assez grands.
+     */
+    @Test
+    void put_overBudget_shouldEvictLeastRecentlyRead() {
+        responseCache = new ResponseCache(dataStore, clock, 2500, true);
+
+        responseCache.put("a", List.of(), responseCache.stamp(), "application/json", new byte[1100]);
+        responseCache.put("b", List.of(), responseCache.stamp(), "application/json", new byte[900]);
+        assertThat(responseCache.get("b").gzipBody()).isNull();
+        assertThat(responseCache.get("a").gzipBody()).isNotEmpty();
+
+        responseCache.put("c", List.of(), responseCache.stamp(), "application/json", new byte[900]);
+
+        assertThat(responseCache.get("b")).isNull();
+        assertThat(responseCache.get("a")).isNotNull();
+        assertThat(responseCache.get("c")).isNotNull();
+        assertThat(responseCache.getTotalBytes()).isLessThanOrEqualTo(2500);
+    }
+
+    /**
+     * Vérifie qu'une entrée n'est plus servie après le changement de jour, les âges ayant pu changer.
+     */
+    @Test
+    void get_afterDayRollover_shouldMiss() {
+        put("station-1", ResponseCache.stationTag("1"));
+
+        clock.setDate(LocalDate.of(2026, 10, 18));
+
+        assertThat(responseCache.get("station-1")).isNull();
+        assertThat(responseCache.size()).isZero();
+    }
+}
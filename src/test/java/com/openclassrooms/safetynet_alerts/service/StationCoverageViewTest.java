@@ -0,0 +1,243 @@
+package com.openclassrooms.safetynet_alerts.service;
+
+import com.openclassrooms.safetynet_alerts.dto.FirestationResponseDTO;
+import com.openclassrooms.safetynet_alerts.dto.PersonFirestationDTO;
+import com.openclassrooms.safetynet_alerts.model.FirestationModel;
+import com.openclassrooms.safetynet_alerts.model.MedicalrecordModel;
+import com.openclassrooms.safetynet_alerts.model.PersonModel;
+import com.openclassrooms.safetynet_alerts.repository.DataFilePersister;
+import com.openclassrooms.safetynet_alerts.repository.DataSnapshot;
+import com.openclassrooms.safetynet_alerts.repository.DataStore;
+import com.openclassrooms.safetynet_alerts.repository.DatasetParser;
+import com.openclassrooms.safetynet_alerts.repository.DatasetWriter;
+import com.openclassrooms.safetynet_alerts.repository.FirestationRepository;
+import com.openclassrooms.safetynet_alerts.repository.MedicalrecordRepository;
+import com.openclassrooms.safetynet_alerts.repository.MutationJournal;
+import com.openclassrooms.safetynet_alerts.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires de la {@link StationCoverageView}
+ * <p>
+ * Cette classe vérifie, sur le jeu de données du classpath et avec une horloge réglée au 17/10/2026,
+ * que la vue de chaque caserne suit les modifications des personnes, des casernes et des dossiers médicaux.
+ */
+public class StationCoverageViewTest {
+
+    private final JsonMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+    private PersonRepository personRepository;
+    private FirestationRepository firestationRepository;
+    private MedicalrecordRepository medicalrecordRepository;
+    private MutableClock clock;
+    private StationCoverageView stationCoverageView;
+
+    /**
+     * Charge le jeu de données du classpath et construit la vue avant chaque méthode
+     *
+     * @throws Exception en cas d'erreur lors du chargement du fichier
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore = new DataStore(new DatasetParser(objectMapper), tempDir.resolve("data.json").toString());
+        MutationJournal mutationJournal = new MutationJournal(dataStore,
+                new DataFilePersister(dataStore, new DatasetWriter(objectMapper)),
+                objectMapper, tempDir.resolve("journal.ndjson").toString(), 1000);
+        personRepository = new PersonRepository(dataStore, mutationJournal);
+        firestationRepository = new FirestationRepository(dataStore, mutationJournal);
+        medicalrecordRepository = new MedicalrecordRepository(dataStore, mutationJournal);
+
+        clock = new MutableClock(LocalDate.of(2026, 10, 17));
+        stationCoverageView = new StationCoverageView(dataStore, new AgeService(medicalrecordRepository, clock),
+                new AgeRolloverScheduler(dataStore, clock));
+    }
+
+    private static PersonModel samy(String address) {
+        return new PersonModel("Samy", "Ymas", address, "Culver", "97451", "123-456-789", "Samy@mail.com");
+    }
+
+    /**
+     * Vérifie que la vue initiale reprend les personnes couvertes dans l'ordre des adresses et des foyers.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void getCoverage_shouldReturnPrecomputedCoverage() throws Exception {
+        FirestationResponseDTO coverage = stationCoverageView.getCoverage("1");
+
+        assertThat(coverage.getPersons()).extracting(PersonFirestationDTO::getFirstName)
+                .containsExactly("Peter", "Reginold", "Jamie", "Brian", "Shawna", "Kendrik");
+        assertThat(coverage.getAdultCount()).isEqualTo(5);
+        assertThat(coverage.getChildCount()).isEqualTo(1);
+        assertThat(stationCoverageView.getCoverage("1")).isSameAs(coverage);
+
+        assertThat(stationCoverageView.getCoverage("3").getPersons()).hasSize(11);
+        assertThat(stationCoverageView.getCoverage("99").getPersons()).isEmpty();
+    }
+
+    /**
+     * Vérifie que l'ajout, le déménagement et la suppression d'une personne mettent à jour
+     * les casernes de l'ancienne et de la nouvelle adresse.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void personChanges_shouldRefreshStationsOfBothAddresses() throws Exception {
+        personRepository.add(samy("644 Gershwin Cir"));
+        assertThat(stationCoverageView.getCoverage("1").getPersons()).hasSize(7);
+        assertThat(stationCoverageView.getCoverage("1").getChildCount()).isEqualTo(2);
+
+        //112 Steppes Pl est associée aux casernes 3 et 4
+        personRepository.update(samy("112 Steppes Pl"));
+        assertThat(stationCoverageView.getCoverage("1").getPersons()).hasSize(6);
+        assertThat(stationCoverageView.getCoverage("3").getPersons()).hasSize(12);
+        assertThat(stationCoverageView.getCoverage("4").getChildCount()).isEqualTo(1);
+
+        personRepository.delete("Samy", "Ymas");
+        assertThat(stationCoverageView.getCoverage("3").getPersons()).hasSize(11);
+        assertThat(stationCoverageView.getCoverage("4").getChildCount()).isZero();
+    }
+
+    /**
+     * Vérifie qu'une adresse réaffectée à une autre caserne passe d'une vue à l'autre.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void firestationChanges_shouldMoveResidentsBetweenStations() throws Exception {
+        firestationRepository.update(new FirestationModel("644 Gershwin Cir", "2"));
+
+        assertThat(stationCoverageView.getCoverage("1").getPersons()).hasSize(5);
+        assertThat(stationCoverageView.getCoverage("2").getPersons()).extracting(PersonFirestationDTO::getFirstName)
+                .contains("Peter").hasSize(6);
+
+        firestationRepository.delete(null, "1");
+        assertThat(stationCoverageView.getCoverage("1").getPersons()).isEmpty();
+    }
+
+    /**
+     * Vérifie que la modification d'un dossier médical reclasse la personne entre enfants et adultes.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void medicalrecordChanges_shouldReclassifyResidents() throws Exception {
+        medicalrecordRepository.update(new MedicalrecordModel("Kendrik", "Stelzer", "01/01/1990", List.of(), List.of()));
+        assertThat(stationCoverageView.getCoverage("1").getAdultCount()).isEqualTo(6);
+        assertThat(stationCoverageView.getCoverage("1").getChildCount()).isZero();
+
+        medicalrecordRepository.delete("Kendrik", "Stelzer");
+        assertThat(stationCoverageView.getCoverage("1").getChildCount()).isEqualTo(1);
+    }
+
+    /**
+     * Vérifie qu'au changement de jour, une personne qui atteint 19 ans passe dans le décompte des adultes.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void dayRollover_shouldCountNewAdults() throws Exception {
+        medicalrecordRepository.update(new MedicalrecordModel("Kendrik", "Stelzer", "10/18/2007", List.of(), List.of()));
+        assertThat(stationCoverageView.getCoverage("1").getChildCount()).isEqualTo(1);
+
+        clock.setDate(LocalDate.of(2026, 10, 18));
+
+        assertThat(stationCoverageView.getCoverage("1").getAdultCount()).isEqualTo(6);
+        assertThat(stationCoverageView.getCoverage("1").getChildCount()).isZero();
+    }
+
+    /**
+     * Construit une vue dont le service d'âge note la taille de chaque groupe de personnes calculé.
+     */
+    private List<Integer> countComputedHouseholds() {
+        List<Integer> computedSizes = new ArrayList<>();
+        AgeService countingAgeService = new AgeService(medicalrecordRepository, clock) {
+            @Override
+            public Map<PersonModel, Integer> calculateAges(DataSnapshot snapshot, Collection<PersonModel> persons) {
+                computedSizes.add(persons.size());
+                return super.calculateAges(snapshot, persons);
+            }
+        };
+        stationCoverageView = new StationCoverageView(dataStore, countingAgeService, new AgeRolloverScheduler(dataStore, clock));
+        computedSizes.clear();
+        return computedSizes;
+    }
+
+    /**
+     * Vérifie qu'un lot de personnes ajoutées à un même foyer ne recalcule que ce foyer, une seule fois,
+     * et que les autres foyers de la caserne sont repris tels quels.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void batchUpsert_shouldRefreshEachHouseholdOnce() throws Exception {
+        List<Integer> computedSizes = countComputedHouseholds();
+
+        List<PersonModel> persons = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            persons.add(new PersonModel("Samy" + i, "Ymas", "644 Gershwin Cir", "Culver", "97451", "123-456-789", "Samy@mail.com"));
+        }
+        personRepository.upsertAll(persons);
+
+        assertThat(computedSizes).containsExactly(21);
+        FirestationResponseDTO coverage = stationCoverageView.getCoverage("1");
+        assertThat(coverage.getPersons()).hasSize(26);
+        assertThat(coverage.getPersons()).extracting(PersonFirestationDTO::getFirstName)
+                .startsWith("Peter", "Samy0").endsWith("Brian", "Shawna", "Kendrik");
+        //les personnes ajoutées n'ont pas de dossier médical et sont comptées comme enfants
+        assertThat(coverage.getAdultCount()).isEqualTo(5);
+        assertThat(coverage.getChildCount()).isEqualTo(21);
+    }
+
+    /**
+     * Vérifie qu'une adresse réaffectée à une autre caserne est reportée sans recalculer aucun foyer.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void firestationChanges_shouldReuseComputedHouseholds() throws Exception {
+        List<Integer> computedSizes = countComputedHouseholds();
+
+        firestationRepository.update(new FirestationModel("947 E. Rose Dr", "2"));
+
+        assertThat(computedSizes).isEmpty();
+        assertThat(stationCoverageView.getCoverage("1").getPersons()).hasSize(3);
+        assertThat(stationCoverageView.getCoverage("1").getChildCount()).isZero();
+        assertThat(stationCoverageView.getCoverage("2").getChildCount()).isEqualTo(2);
+    }
+
+    /**
+     * Vérifie qu'un foyer dont une date de naissance est invalide rend la caserne indisponible,
+     * puis qu'elle est de nouveau servie une fois la date corrigée.
+     *
+     * @throws Exception en cas d'erreur lors de l'exécution du test
+     */
+    @Test
+    void invalidBirthdate_shouldSuspendStationUntilFixed() throws Exception {
+        medicalrecordRepository.update(new MedicalrecordModel("Peter", "Duncan", "not a date", List.of(), List.of()));
+        assertThatThrownBy(() -> stationCoverageView.getCoverage("1")).isInstanceOf(DateTimeParseException.class);
+
+        medicalrecordRepository.update(new MedicalrecordModel("Peter", "Duncan", "09/06/2000", List.of(), List.of()));
+        FirestationResponseDTO coverage = stationCoverageView.getCoverage("1");
+        assertThat(coverage.getAdultCount()).isEqualTo(5);
+        assertThat(stationCoverageView.getCoverage("1")).isSameAs(coverage);
+    }
+}